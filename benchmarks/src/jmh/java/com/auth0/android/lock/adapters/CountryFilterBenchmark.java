@@ -0,0 +1,75 @@
+/*
+ * CountryFilterBenchmark.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.adapters;
+
+import com.auth0.android.lock.internal.configuration.Fixtures;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Filters the country list with the text typed in the country code search.
+ */
+@State(Scope.Thread)
+public class CountryFilterBenchmark {
+
+    private static final int QUERIES = 256;
+
+    private List<Country> countries;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(Fixtures.SEED);
+        countries = new ArrayList<>();
+        for (String isoCode : Locale.getISOCountries()) {
+            countries.add(new Country(isoCode, "+" + (1 + random.nextInt(998))));
+        }
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            final StringBuilder query = new StringBuilder();
+            final int length = 1 + random.nextInt(4);
+            for (int j = 0; j < length; j++) {
+                query.append((char) ('a' + random.nextInt(26)));
+            }
+            queries[i] = query.toString();
+        }
+    }
+
+    @Benchmark
+    public List<Country> filter() {
+        final String query = queries[next];
+        next = (next + 1) % QUERIES;
+        return CountryAdapter.filter(countries, query);
+    }
+}
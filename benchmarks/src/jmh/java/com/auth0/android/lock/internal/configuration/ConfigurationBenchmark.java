@@ -0,0 +1,69 @@
+/*
+ * ConfigurationBenchmark.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.configuration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the Configuration from the parsed connections, with and without a list of allowed connections.
+ */
+@State(Scope.Benchmark)
+public class ConfigurationBenchmark {
+
+    @Param({"5", "50", "500", "5000"})
+    public int connections;
+
+    @Param({"false", "true"})
+    public boolean filtered;
+
+    private List<Connection> parsedConnections;
+    private Options options;
+
+    @Setup
+    public void setUp() {
+        parsedConnections = Fixtures.parse(Fixtures.applicationJsonp(Fixtures.SEED, connections, 2));
+        options = new Options();
+        if (filtered) {
+            //allow every other connection
+            final List<String> allowed = new ArrayList<>();
+            for (int i = 0; i < parsedConnections.size(); i += 2) {
+                allowed.add(parsedConnections.get(i).getName());
+            }
+            options.setConnections(allowed);
+        }
+    }
+
+    @Benchmark
+    public Configuration buildConfiguration() {
+        return new Configuration(parsedConnections, options);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Fixtures.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.configuration;
+
+import com.auth0.android.Auth0Exception;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic tenants for the benchmarks. The same seed always generates the same data,
+ * so results can be compared between runs and releases.
+ */
+public final class Fixtures {
+
+    public static final long SEED = 0x10c4;
+
+    private static final String JSONP_PREFIX = "Auth0.setClient(";
+    private static final String[] SOCIAL_STRATEGIES = {"google-oauth2", "facebook", "twitter", "github", "linkedin", "windowslive"};
+    private static final String[] ENTERPRISE_STRATEGIES = {"ad", "adfs", "samlp", "waad", "google-apps"};
+
+    private Fixtures() {
+    }
+
+    /**
+     * Builds the JSONP response of the Application endpoint.
+     *
+     * @param seed        the seed to generate the values from.
+     * @param connections the total number of connections, split between database, social and enterprise strategies.
+     * @param aliases     the number of domain aliases of each enterprise connection.
+     * @return the JSONP body, as received from the CDN.
+     */
+    public static String applicationJsonp(long seed, int connections, int aliases) {
+        final Random random = new Random(seed);
+        final JsonObject application = new JsonObject();
+        application.addProperty("id", randomString(random, 32));
+        application.addProperty("tenant", "benchmarks");
+        application.addProperty("subscription", "free");
+        application.addProperty("authorize", "https://benchmarks.auth0.com/authorize");
+        application.addProperty("callback", "http://localhost:3000/");
+
+        final JsonArray strategies = new JsonArray();
+        final int databases = Math.max(1, connections / 10);
+        final int social = Math.max(1, (connections - databases) / 2);
+        final int enterprise = Math.max(0, connections - databases - social);
+        strategies.add(strategy("auth0", databaseConnections(random, databases)));
+        final JsonArray socialConnections = new JsonArray();
+        for (int i = 0; i < social; i++) {
+            final JsonObject connection = new JsonObject();
+            connection.addProperty("name", SOCIAL_STRATEGIES[i % SOCIAL_STRATEGIES.length] + "-" + i);
+            socialConnections.add(connection);
+        }
+        strategies.add(strategy(SOCIAL_STRATEGIES[random.nextInt(SOCIAL_STRATEGIES.length)], socialConnections));
+        final JsonArray enterpriseConnections = new JsonArray();
+        for (int i = 0; i < enterprise; i++) {
+            enterpriseConnections.add(enterpriseConnection(random, i, aliases));
+        }
+        strategies.add(strategy(ENTERPRISE_STRATEGIES[random.nextInt(ENTERPRISE_STRATEGIES.length)], enterpriseConnections));
+        application.add("strategies", strategies);
+        return JSONP_PREFIX + application.toString() + ");";
+    }
+
+    /**
+     * Parses the given JSONP body the same way Lock does.
+     *
+     * @param jsonp the body returned by {@link #applicationJsonp(long, int, int)}.
+     * @return the parsed connections.
+     */
+    public static List<Connection> parse(String jsonp) {
+        try {
+            return ApplicationFetcher.parseJSONP(jsonp);
+        } catch (Auth0Exception e) {
+            throw new IllegalStateException("Invalid fixture", e);
+        }
+    }
+
+    /**
+     * Generates enterprise connections only, each one with its own domain.
+     *
+     * @param seed    the seed to generate the values from.
+     * @param domains the total number of domains, counting the main domain and the aliases.
+     * @param aliases the number of aliases of each connection.
+     * @return the parsed connections.
+     */
+    public static List<Connection> enterpriseConnections(long seed, int domains, int aliases) {
+        final Random random = new Random(seed);
+        final JsonArray connections = new JsonArray();
+        final int count = Math.max(1, domains / (aliases + 1));
+        for (int i = 0; i < count; i++) {
+            connections.add(enterpriseConnection(random, i, aliases));
+        }
+        final JsonObject application = new JsonObject();
+        application.addProperty("id", randomString(random, 32));
+        application.addProperty("tenant", "benchmarks");
+        application.addProperty("authorize", "https://benchmarks.auth0.com/authorize");
+        application.addProperty("callback", "http://localhost:3000/");
+        final JsonArray strategies = new JsonArray();
+        strategies.add(strategy("ad", connections));
+        application.add("strategies", strategies);
+        return parse(JSONP_PREFIX + application.toString() + ");");
+    }
+
+    /**
+     * Generates passwords of random length and character classes.
+     *
+     * @param seed  the seed to generate the values from.
+     * @param count the number of passwords.
+     * @return the passwords.
+     */
+    public static String[] passwords(long seed, int count) {
+        final Random random = new Random(seed);
+        final String alphabet = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 !\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~";
+        final String[] passwords = new String[count];
+        for (int i = 0; i < count; i++) {
+            final int length = 4 + random.nextInt(20);
+            final StringBuilder sb = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                //repeat the previous character sometimes, to exercise the identical characters rule
+                if (j > 0 && random.nextInt(8) == 0) {
+                    sb.append(sb.charAt(j - 1));
+                } else {
+                    sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            }
+            passwords[i] = sb.toString();
+        }
+        return passwords;
+    }
+
+    static String randomString(Random random, int length) {
+        final StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The main domain of the enterprise connection generated at the given position.
+     *
+     * @param index the position of the connection.
+     * @return the domain.
+     */
+    public static String domainFor(int index) {
+        return "domain" + index + ".com";
+    }
+
+    private static JsonObject strategy(String name, JsonArray connections) {
+        final JsonObject strategy = new JsonObject();
+        strategy.addProperty("name", name);
+        strategy.add("connections", connections);
+        return strategy;
+    }
+
+    private static JsonArray databaseConnections(Random random, int count) {
+        final String[] policies = {"none", "low", "fair", "good", "excellent"};
+        final JsonArray connections = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            final JsonObject connection = new JsonObject();
+            final String name = i == 0 ? "Username-Password-Authentication" : "db-" + randomString(random, 8);
+            connection.addProperty("name", name);
+            connection.addProperty("forgot_password_url", "https://login.auth0.com/lo/forgot?wtrealm=urn:auth0:benchmarks:" + name);
+            connection.addProperty("signup_url", "https://login.auth0.com/lo/signup?wtrealm=urn:auth0:benchmarks:" + name);
+            connection.addProperty("passwordPolicy", policies[random.nextInt(policies.length)]);
+            connection.addProperty("showSignup", random.nextBoolean());
+            connection.addProperty("showForgot", random.nextBoolean());
+            connection.addProperty("requires_username", random.nextBoolean());
+            connections.add(connection);
+        }
+        return connections;
+    }
+
+    private static JsonObject enterpriseConnection(Random random, int index, int aliases) {
+        final JsonObject connection = new JsonObject();
+        connection.addProperty("name", "enterprise-" + index);
+        connection.addProperty("domain", domainFor(index));
+        final JsonArray domainAliases = new JsonArray();
+        for (int i = 0; i < aliases; i++) {
+            domainAliases.add(randomString(random, 10) + ".org");
+        }
+        connection.add("domain_aliases", domainAliases);
+        return connection;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * EnterpriseConnectionMatcherBenchmark.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.utils;
+
+import com.auth0.android.lock.internal.configuration.Connection;
+import com.auth0.android.lock.internal.configuration.Fixtures;
+import com.auth0.android.lock.internal.configuration.OAuthConnection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Looks up the enterprise connection of an email, as the log in form does on every keystroke.
+ */
+@State(Scope.Benchmark)
+public class EnterpriseConnectionMatcherBenchmark {
+
+    private static final int ALIASES_PER_CONNECTION = 1;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int domains;
+
+    /**
+     * Where the matching connection is: the first one, the last one, or none.
+     */
+    @Param({"first", "last", "none"})
+    public String match;
+
+    private EnterpriseConnectionMatcher matcher;
+    private String email;
+
+    @Setup
+    public void setUp() {
+        final List<Connection> connections = Fixtures.enterpriseConnections(Fixtures.SEED, domains, ALIASES_PER_CONNECTION);
+        matcher = new EnterpriseConnectionMatcher(new ArrayList<OAuthConnection>(connections));
+        switch (match) {
+            case "first":
+                email = "john@" + Fixtures.domainFor(0);
+                break;
+            case "last":
+                email = "john@" + Fixtures.domainFor(connections.size() - 1);
+                break;
+            default:
+                email = "john@unknown-domain.net";
+        }
+    }
+
+    @Benchmark
+    public OAuthConnection parse() {
+        return matcher.parse(email);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * PasswordPolicyBenchmark.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.views;
+
+import com.auth0.android.lock.internal.configuration.Fixtures;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Validates passwords against the rules of each strength level, as PasswordStrengthView does on every keystroke.
+ */
+@State(Scope.Thread)
+public class PasswordPolicyBenchmark {
+
+    private static final int PASSWORDS = 1024;
+
+    /**
+     * The PasswordStrength level, from NONE (0) to EXCELLENT (4).
+     */
+    @Param({"0", "1", "2", "3", "4"})
+    public int strength;
+
+    private PasswordPolicy policy;
+    private String[] passwords;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        //noinspection WrongConstant
+        policy = new PasswordPolicy(strength);
+        passwords = Fixtures.passwords(Fixtures.SEED, PASSWORDS);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        final String password = passwords[next];
+        next = (next + 1) % PASSWORDS;
+        return policy.isValid(password);
+    }
+}
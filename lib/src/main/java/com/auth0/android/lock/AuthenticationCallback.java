@@ -25,8 +25,8 @@
 package com.auth0.android.lock;
 
 import android.content.Intent;
-import android.util.Log;
 
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.result.Credentials;
 
 
@@ -78,7 +78,7 @@ public abstract class AuthenticationCallback implements LockCallback {
         long expiresIn = data.getLongExtra(Constants.EXPIRES_IN_EXTRA, 0);
         Credentials credentials = new Credentials(idToken, accessToken, tokenType, refreshToken, expiresIn);
 
-        Log.d(TAG, "User authenticated!");
+        LockLog.d(TAG, "User authenticated!");
         onAuthentication(credentials);
     }
 }
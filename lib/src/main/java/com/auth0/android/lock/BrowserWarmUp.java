@@ -0,0 +1,53 @@
+/*
+ * BrowserWarmUp.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.support.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * Prepares the browser used by the web authentication before the user picks a social or enterprise connection.
+ */
+interface BrowserWarmUp {
+
+    /**
+     * Starts the browser process in the background, if it supports it.
+     */
+    void warmUp();
+
+    /**
+     * Hints the browser about the urls that are likely to be opened next, so it can resolve and connect to them in advance.
+     *
+     * @param urls the candidate urls, ordered from the most to the least likely.
+     */
+    void mayLaunchUrls(@NonNull List<String> urls);
+
+    /**
+     * Releases the browser service. No more hints are sent after this call.
+     */
+    void release();
+}
@@ -0,0 +1,258 @@
+/*
+ * ConfigurationLoader.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+
+import com.auth0.android.authentication.AuthenticationException;
+import com.auth0.android.callback.AuthenticationCallback;
+import com.auth0.android.lock.internal.configuration.ApplicationCache;
+import com.auth0.android.lock.internal.configuration.ApplicationFetcher;
+import com.auth0.android.lock.internal.configuration.BreachedPasswordFilter;
+import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.ConfigurationHolder;
+import com.auth0.android.lock.internal.configuration.Connection;
+import com.auth0.android.lock.internal.configuration.Options;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.lock.internal.metrics.MetricsRecorder;
+import com.squareup.okhttp.OkHttpClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Fetches the Application configuration and publishes it into a {@link ConfigurationHolder}.
+ * It doesn't keep a reference to any Activity, so a single instance can be retained across
+ * configuration changes while the fetch is still running.
+ */
+class ConfigurationLoader {
+
+    private static final String TAG = ConfigurationLoader.class.getSimpleName();
+
+    /**
+     * Receives the fetch failures. Successful fetches are delivered through the ConfigurationHolder.
+     */
+    interface FailureListener {
+        @MainThread
+        void onConfigurationFetchFailed(@NonNull AuthenticationException error);
+    }
+
+    private final Options options;
+    private final ConfigurationHolder holder;
+    private final RequestManager requestManager;
+    private final Handler handler;
+    private final AssetManager assets;
+    private final ApplicationCache cache;
+    private final Executor executor;
+    private ApplicationFetcher applicationFetcher;
+    private AuthenticationException pendingError;
+    private FailureListener failureListener;
+    private volatile BreachedPasswordFilter breachedPasswordFilter;
+    private boolean breachedPasswordFilterOpened;
+
+    ConfigurationLoader(@NonNull Options options) {
+        this(options, new ConfigurationHolder(), null, null);
+    }
+
+    /**
+     * @param options the Lock options.
+     * @param context the application context, to render the cached Application or the snapshot bundled
+     *                at build time before the live one arrives.
+     */
+    ConfigurationLoader(@NonNull Options options, @NonNull Context context) {
+        this(options, new ConfigurationHolder(), context.getAssets(), ApplicationCache.forAccount(context, options.getAccount()));
+    }
+
+    ConfigurationLoader(@NonNull Options options, @NonNull ConfigurationHolder holder) {
+        this(options, holder, null, null);
+    }
+
+    ConfigurationLoader(@NonNull Options options, @NonNull ConfigurationHolder holder, @Nullable AssetManager assets, @Nullable ApplicationCache cache) {
+        this.options = options;
+        this.holder = holder;
+        this.assets = assets;
+        this.cache = cache;
+        this.executor = AsyncTask.THREAD_POOL_EXECUTOR;
+        this.requestManager = new RequestManager();
+        this.handler = new Handler(Looper.getMainLooper());
+    }
+
+    @NonNull
+    ConfigurationHolder getHolder() {
+        return holder;
+    }
+
+    /**
+     * Starts fetching the Application configuration, unless a fetch is already running. The first time,
+     * the Application cached by a previous fetch, or else the snapshot bundled in the assets, is published
+     * before the request is made so the form can be shown without waiting for the network. The live
+     * Application replaces it once received. When the cached one is still valid the server only answers
+     * with a 304. The disk reads and the request run in background, so the caller can keep setting up
+     * its views meanwhile.
+     */
+    @MainThread
+    void fetch() {
+        if (applicationFetcher != null || requestManager.isCancelled()) {
+            return;
+        }
+        pendingError = null;
+        final ApplicationFetcher fetcher = new ApplicationFetcher(options.getAccount(), new OkHttpClient(), cache);
+        applicationFetcher = fetcher;
+        final boolean publishInitial = holder.get() == null;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                openBreachedPasswordFilter();
+                if (publishInitial) {
+                    publishInitialConfiguration(fetcher);
+                }
+                if (requestManager.isCancelled()) {
+                    return;
+                }
+                fetcher.fetch(requestManager.track(callback, new RequestManager.Cancellable() {
+                    @Override
+                    public void cancel() {
+                        fetcher.cancel();
+                    }
+                }));
+            }
+        });
+    }
+
+    /**
+     * Maps the breached passwords filter set in the options, if any, so the configurations published
+     * afterwards can hand it to the sign up form. A filter that can't be opened is skipped.
+     */
+    @WorkerThread
+    private synchronized void openBreachedPasswordFilter() {
+        final String location = options.getBreachedPasswordsFilter();
+        if (breachedPasswordFilterOpened || location == null) {
+            return;
+        }
+        breachedPasswordFilterOpened = true;
+        try {
+            breachedPasswordFilter = BreachedPasswordFilter.open(assets, location);
+        } catch (IOException e) {
+            LockLog.w(TAG, "Couldn't open the breached passwords filter at %s", location, e);
+        }
+    }
+
+    @WorkerThread
+    private void publishInitialConfiguration(ApplicationFetcher fetcher) {
+        final long readTime = MetricsRecorder.stageStarted("Lock.readInitialConfiguration");
+        List<Connection> connections = fetcher.readCached();
+        int source = LockFunnelRecord.ConfigurationSource.CACHE;
+        if (connections != null) {
+            LockLog.d(TAG, "Rendering the Application cached by a previous fetch");
+        } else if (assets != null) {
+            connections = fetcher.readSnapshot(assets);
+            source = LockFunnelRecord.ConfigurationSource.SNAPSHOT;
+            if (connections != null) {
+                LockLog.d(TAG, "Rendering the Application snapshot bundled at build time");
+            }
+        }
+        if (connections != null && holder.get() == null) {
+            holder.publish(new Configuration(connections, options, breachedPasswordFilter));
+            MetricsRecorder.configurationRead(source);
+        }
+        MetricsRecorder.stageCompleted(LockMetrics.Phase.INITIAL_CONFIGURATION_READ, readTime);
+    }
+
+    @MainThread
+    boolean isFetching() {
+        return applicationFetcher != null;
+    }
+
+    /**
+     * Sets the listener to notify when the fetch fails. A failure that happened while no listener
+     * was set is delivered right away.
+     *
+     * @param listener the listener to notify, or null to stop receiving failures.
+     */
+    @MainThread
+    void setFailureListener(@Nullable FailureListener listener) {
+        this.failureListener = listener;
+        if (listener != null && pendingError != null) {
+            final AuthenticationException error = pendingError;
+            pendingError = null;
+            listener.onConfigurationFetchFailed(error);
+        }
+    }
+
+    /**
+     * Cancels the running fetch. This instance can't be used to fetch again after this call.
+     * Can be called from any thread.
+     */
+    void release() {
+        requestManager.cancelAll();
+    }
+
+    private final AuthenticationCallback<List<Connection>> callback = new AuthenticationCallback<List<Connection>>() {
+        @Override
+        public void onSuccess(List<Connection> connections) {
+            final long buildTime = MetricsRecorder.now();
+            final Configuration configuration = new Configuration(connections, options, breachedPasswordFilter);
+            MetricsRecorder.phaseCompleted(LockMetrics.Phase.CONFIGURATION_BUILD, buildTime);
+            holder.publish(configuration);
+            MetricsRecorder.configurationRead(LockFunnelRecord.ConfigurationSource.NETWORK);
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    applicationFetcher = null;
+                }
+            });
+        }
+
+        @Override
+        public void onFailure(final AuthenticationException error) {
+            LockLog.e(TAG, "Failed to fetch the application: %s", error.getMessage(), error);
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    applicationFetcher = null;
+                    if (holder.get() != null) {
+                        //keep showing the last known configuration
+                        return;
+                    }
+                    if (failureListener == null) {
+                        pendingError = error;
+                        return;
+                    }
+                    failureListener.onConfigurationFetchFailed(error);
+                }
+            });
+        }
+    };
+}
@@ -0,0 +1,108 @@
+/*
+ * ConfigurationRefreshJobService.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.annotation.TargetApi;
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.os.PersistableBundle;
+import android.util.SparseArray;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.lock.internal.configuration.ApplicationCache;
+import com.auth0.android.lock.internal.configuration.ApplicationFetcher;
+import com.auth0.android.lock.internal.logging.LockLog;
+
+/**
+ * Runs the background refresh scheduled by the {@link JobSchedulerRefreshScheduler}. When the system
+ * stops a job, its request is cancelled and the job is run again later.
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+public class ConfigurationRefreshJobService extends JobService {
+
+    private static final String TAG = ConfigurationRefreshJobService.class.getSimpleName();
+
+    private final SparseArray<ApplicationFetcher> runningJobs = new SparseArray<>();
+
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        final PersistableBundle extras = params.getExtras();
+        final String clientId = extras.getString(JobSchedulerRefreshScheduler.EXTRA_CLIENT_ID);
+        final String domain = extras.getString(JobSchedulerRefreshScheduler.EXTRA_DOMAIN);
+        if (clientId == null || domain == null) {
+            LockLog.w(TAG, "The refresh job is missing the account details");
+            return false;
+        }
+        final Auth0 account = new Auth0(clientId, domain, extras.getString(JobSchedulerRefreshScheduler.EXTRA_CONFIGURATION_URL));
+        final long interval = extras.getLong(JobSchedulerRefreshScheduler.EXTRA_INTERVAL);
+        final ApplicationFetcher fetcher = ConfigurationRefresher.newFetcher(getApplicationContext(), account);
+        synchronized (runningJobs) {
+            runningJobs.put(params.getJobId(), fetcher);
+        }
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final ApplicationCache cache = ApplicationCache.forAccount(getApplicationContext(), account);
+                if (System.currentTimeMillis() - cache.getUpdatedAt() < interval / 2) {
+                    LockLog.v(TAG, "The cached Application was refreshed recently");
+                    finish(params, fetcher, false);
+                    return;
+                }
+                final boolean success = ConfigurationRefresher.refresh(fetcher);
+                finish(params, fetcher, !success);
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        final ApplicationFetcher fetcher;
+        synchronized (runningJobs) {
+            fetcher = runningJobs.get(params.getJobId());
+            runningJobs.remove(params.getJobId());
+        }
+        if (fetcher == null) {
+            return false;
+        }
+        LockLog.d(TAG, "The refresh job was stopped. Cancelling its request");
+        fetcher.cancel();
+        return true;
+    }
+
+    private void finish(JobParameters params, ApplicationFetcher fetcher, boolean reschedule) {
+        synchronized (runningJobs) {
+            if (runningJobs.get(params.getJobId()) != fetcher) {
+                //stopped by the system, which already dropped the job
+                return;
+            }
+            runningJobs.remove(params.getJobId());
+        }
+        jobFinished(params, reschedule);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * ConfigurationRefreshScheduler.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import com.auth0.android.Auth0;
+
+/**
+ * Schedules the periodic background refresh of the cached Application configuration, so the next
+ * time Lock is shown it already renders the latest one. Each run should call
+ * {@link ConfigurationRefresher#refresh(Context, Auth0)} from a background thread, ideally only
+ * while the device is on an unmetered network or charging.
+ * By default Lock uses the JobScheduler on API 21 and above, and doesn't refresh on older versions.
+ */
+public interface ConfigurationRefreshScheduler {
+
+    /**
+     * Schedules the refresh of the given account configuration, replacing any previous schedule of it.
+     *
+     * @param context        a valid Context
+     * @param account        the account whose configuration should be refreshed.
+     * @param intervalMillis how often to refresh it.
+     */
+    void schedule(@NonNull Context context, @NonNull Auth0 account, long intervalMillis);
+
+    /**
+     * Cancels the refresh of the given account configuration.
+     *
+     * @param context a valid Context
+     * @param account the account whose configuration should no longer be refreshed.
+     */
+    void cancel(@NonNull Context context, @NonNull Auth0 account);
+}
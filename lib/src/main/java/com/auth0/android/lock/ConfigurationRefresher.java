@@ -0,0 +1,78 @@
+/*
+ * ConfigurationRefresher.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.Auth0Exception;
+import com.auth0.android.lock.internal.configuration.ApplicationCache;
+import com.auth0.android.lock.internal.configuration.ApplicationFetcher;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.squareup.okhttp.OkHttpClient;
+
+/**
+ * Refreshes the cached Application configuration of an account. Custom {@link ConfigurationRefreshScheduler}
+ * implementations should call it on each run.
+ */
+public final class ConfigurationRefresher {
+
+    private static final String TAG = ConfigurationRefresher.class.getSimpleName();
+
+    private ConfigurationRefresher() {
+    }
+
+    /**
+     * Revalidates the cached Application configuration with a conditional request, so an unchanged
+     * configuration is not downloaded again. Must not be called from the main thread.
+     *
+     * @param context a valid Context
+     * @param account the account whose configuration should be refreshed.
+     * @return true if the refresh succeeded, false if it should be retried later.
+     */
+    @WorkerThread
+    public static boolean refresh(@NonNull Context context, @NonNull Auth0 account) {
+        return refresh(newFetcher(context, account));
+    }
+
+    static ApplicationFetcher newFetcher(@NonNull Context context, @NonNull Auth0 account) {
+        final ApplicationCache cache = ApplicationCache.forAccount(context.getApplicationContext(), account);
+        return new ApplicationFetcher(account, new OkHttpClient(), cache);
+    }
+
+    static boolean refresh(@NonNull ApplicationFetcher fetcher) {
+        try {
+            final boolean updated = fetcher.refresh();
+            LockLog.d(TAG, updated ? "The cached Application was updated" : "The cached Application didn't change");
+            return true;
+        } catch (Auth0Exception e) {
+            LockLog.w(TAG, "Could not refresh the cached Application: %s", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * ConnectionHistory.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Remembers the last connection used for a web authentication, to guess which one the user will pick next time.
+ */
+class ConnectionHistory {
+
+    private static final String PREFERENCES_NAME = "com.auth0.android.lock.connection_history";
+    private static final String LAST_USED_KEY = "last_used_connection";
+
+    private final SharedPreferences preferences;
+
+    ConnectionHistory(@NonNull Context context) {
+        this(context.getApplicationContext().getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE));
+    }
+
+    ConnectionHistory(@NonNull SharedPreferences preferences) {
+        this.preferences = preferences;
+    }
+
+    void recordUsed(@NonNull String connection) {
+        preferences.edit()
+                .putString(LAST_USED_KEY, connection)
+                .apply();
+    }
+
+    @Nullable
+    String getLastUsed() {
+        return preferences.getString(LAST_USED_KEY, null);
+    }
+}
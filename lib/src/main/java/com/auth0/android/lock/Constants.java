@@ -28,14 +28,16 @@ abstract class Constants {
     static final String LIBRARY_NAME = "Lock.Android";
 
     static final String OPTIONS_EXTRA = "com.auth0.android.lock.key.Options";
+    static final String PREPARED_CONFIGURATION_EXTRA = "com.auth0.android.lock.key.PreparedConfiguration";
 
-    static final String CONNECTION_SCOPE_KEY = "connection_scope";
 
     static final String AUTHENTICATION_ACTION = "com.auth0.android.lock.action.Authentication";
     static final String SIGN_UP_ACTION = "com.auth0.android.lock.action.SignUp";
     static final String CANCELED_ACTION = "com.auth0.android.lock.action.Canceled";
     static final String INVALID_CONFIGURATION_ACTION = "com.auth0.android.lock.action.InvalidConfiguration";
+    static final String CREDENTIALS_ACTION = "com.auth0.android.lock.action.Credentials";
 
+    static final String ACCOUNT_EXTRA = "com.auth0.android.lock.extra.Account";
     static final String ERROR_EXTRA = "com.auth0.android.lock.extra.Error";
     static final String ID_TOKEN_EXTRA = "com.auth0.android.lock.extra.IdToken";
     static final String ACCESS_TOKEN_EXTRA = "com.auth0.android.lock.extra.AccessToken";
@@ -55,7 +55,6 @@ import android.support.v7.app.ActionBar;
 import android.support.v7.app.AppCompatActivity;
 import android.text.Editable;
 import android.text.TextWatcher;
-import android.util.Log;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.EditText;
@@ -63,6 +62,7 @@ import android.widget.ListView;
 
 import com.auth0.android.lock.adapters.Country;
 import com.auth0.android.lock.adapters.CountryAdapter;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.utils.LoadCountriesTask;
 
 import java.util.ArrayList;
@@ -94,7 +94,7 @@ public class CountryCodeActivity extends AppCompatActivity {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                Log.v(TAG, String.format("Filtering with string (%s)", s));
+                LockLog.v(TAG, "Filtering with string (%s)", s);
                 CountryAdapter adapter = (CountryAdapter) listView.getAdapter();
                 adapter.getFilter().filter(s);
             }
@@ -146,7 +146,7 @@ public class CountryCodeActivity extends AppCompatActivity {
     public void onStop() {
         super.onStop();
         if (task != null) {
-            Log.v(TAG, "Task was cancelled");
+            LockLog.v(TAG, "Task was cancelled");
             task.cancel(true);
         }
     }
@@ -0,0 +1,140 @@
+/*
+ * CredentialsCache.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.content.Intent;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.result.Credentials;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Moves the reads and writes of a {@link CredentialsStore} off the main thread and discards
+ * the credentials that are about to expire.
+ */
+class CredentialsCache {
+
+    private static final String TAG = CredentialsCache.class.getSimpleName();
+    static final long MIN_REMAINING_SECONDS = 60;
+
+    interface Callback {
+        /**
+         * Called on the main thread once the store was read.
+         *
+         * @param credentials the cached credentials, or null if there are none or they are about to expire.
+         */
+        void onCredentialsLoaded(@Nullable Credentials credentials);
+    }
+
+    private final CredentialsStore store;
+    private final Executor executor;
+    private final Handler handler;
+
+    CredentialsCache(@NonNull CredentialsStore store) {
+        this(store, AsyncTask.THREAD_POOL_EXECUTOR, new Handler(Looper.getMainLooper()));
+    }
+
+    CredentialsCache(@NonNull CredentialsStore store, @NonNull Executor executor, @NonNull Handler handler) {
+        this.store = store;
+        this.executor = executor;
+        this.handler = handler;
+    }
+
+    void load(@NonNull final Callback callback) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Credentials credentials = null;
+                try {
+                    credentials = store.load();
+                } catch (RuntimeException e) {
+                    LockLog.e(TAG, "Couldn't load the cached credentials", e);
+                }
+                if (credentials != null && !isValid(credentials)) {
+                    LockLog.d(TAG, "The cached credentials are expired or about to expire");
+                    credentials = null;
+                }
+                final Credentials result = credentials;
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onCredentialsLoaded(result);
+                    }
+                });
+            }
+        });
+    }
+
+    void save(@NonNull Intent data) {
+        save(fromIntent(data));
+    }
+
+    void save(@NonNull final Credentials credentials) {
+        if (credentials.getExpiresIn() == null || credentials.getExpiresIn() <= 0) {
+            LockLog.d(TAG, "The credentials don't have an expiration time and won't be cached");
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    store.save(credentials);
+                } catch (RuntimeException e) {
+                    LockLog.e(TAG, "Couldn't save the credentials", e);
+                }
+            }
+        });
+    }
+
+    static boolean isValid(@NonNull Credentials credentials) {
+        return credentials.getExpiresIn() != null && credentials.getExpiresIn() > MIN_REMAINING_SECONDS;
+    }
+
+    static Credentials fromIntent(@NonNull Intent data) {
+        String idToken = data.getStringExtra(Constants.ID_TOKEN_EXTRA);
+        String accessToken = data.getStringExtra(Constants.ACCESS_TOKEN_EXTRA);
+        String tokenType = data.getStringExtra(Constants.TOKEN_TYPE_EXTRA);
+        String refreshToken = data.getStringExtra(Constants.REFRESH_TOKEN_EXTRA);
+        long expiresIn = data.getLongExtra(Constants.EXPIRES_IN_EXTRA, 0);
+        return new Credentials(idToken, accessToken, tokenType, refreshToken, expiresIn);
+    }
+
+    static Intent toIntent(@NonNull Credentials credentials) {
+        Intent intent = new Intent(Constants.AUTHENTICATION_ACTION);
+        intent.putExtra(Constants.ID_TOKEN_EXTRA, credentials.getIdToken());
+        intent.putExtra(Constants.ACCESS_TOKEN_EXTRA, credentials.getAccessToken());
+        intent.putExtra(Constants.TOKEN_TYPE_EXTRA, credentials.getType());
+        intent.putExtra(Constants.REFRESH_TOKEN_EXTRA, credentials.getRefreshToken());
+        intent.putExtra(Constants.EXPIRES_IN_EXTRA, credentials.getExpiresIn());
+        return intent;
+    }
+}
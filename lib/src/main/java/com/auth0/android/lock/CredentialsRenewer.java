@@ -0,0 +1,252 @@
+/*
+ * CredentialsRenewer.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import com.auth0.android.authentication.AuthenticationAPIClient;
+import com.auth0.android.authentication.AuthenticationException;
+import com.auth0.android.callback.BaseCallback;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.lock.utils.LockException;
+import com.auth0.android.result.Credentials;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Keeps the Credentials delivered by Lock fresh. A renewal using the refresh token is scheduled ahead
+ * of the expiration time, with a random jitter so that many clients don't hit the API at the same time.
+ * Concurrent calls to {@link #getValidCredentials(Callback)} made while the credentials are expired
+ * share a single renewal request and all of them receive its result.
+ * <p>
+ * Every method must be called from the main thread, and the callbacks are also invoked on it.
+ */
+public class CredentialsRenewer {
+
+    private static final String TAG = CredentialsRenewer.class.getSimpleName();
+    static final long RENEW_BEFORE_EXPIRY_MS = 5 * 60 * 1000;
+    static final long MAX_JITTER_MS = 60 * 1000;
+
+    public interface Callback {
+        /**
+         * Called with credentials that won't expire for at least a minute.
+         *
+         * @param credentials the valid credentials.
+         */
+        void onSuccess(@NonNull Credentials credentials);
+
+        /**
+         * Called when there are no credentials or they couldn't be renewed.
+         *
+         * @param error the cause of the failure.
+         */
+        void onFailure(@NonNull LockException error);
+    }
+
+    private final AuthenticationAPIClient client;
+    private final Handler handler;
+    private final Random random;
+    private final List<Callback> waiting;
+    private final Runnable scheduledRenewal = new Runnable() {
+        @Override
+        public void run() {
+            LockLog.d(TAG, "Renewing the credentials ahead of their expiration");
+            renew();
+        }
+    };
+
+    private Credentials credentials;
+    private long expiresAt;
+    private boolean renewing;
+    private Callback renewalListener;
+
+    /**
+     * Creates a new renewer that will use the given client to request new credentials.
+     *
+     * @param client the client to use against the Auth0 Authentication API.
+     */
+    public CredentialsRenewer(@NonNull AuthenticationAPIClient client) {
+        this(client, new Handler(Looper.getMainLooper()), new Random());
+    }
+
+    @VisibleForTesting
+    CredentialsRenewer(@NonNull AuthenticationAPIClient client, @NonNull Handler handler, @NonNull Random random) {
+        this.client = client;
+        this.handler = handler;
+        this.random = random;
+        this.waiting = new ArrayList<>();
+    }
+
+    /**
+     * Replaces the current credentials and schedules their renewal if they include a refresh token.
+     *
+     * @param credentials the credentials obtained after a successful authentication.
+     */
+    @MainThread
+    public void setCredentials(@NonNull Credentials credentials) {
+        handler.removeCallbacks(scheduledRenewal);
+        Credentials previous = this.credentials;
+        if (credentials.getRefreshToken() == null && previous != null && previous.getRefreshToken() != null) {
+            //refresh tokens are not always rotated on renewal
+            credentials = new Credentials(credentials.getIdToken(), credentials.getAccessToken(), credentials.getType(), previous.getRefreshToken(), credentials.getExpiresIn());
+        }
+        this.credentials = credentials;
+        long lifetime = credentials.getExpiresIn() == null ? 0 : credentials.getExpiresIn() * 1000;
+        this.expiresAt = now() + lifetime;
+        if (credentials.getRefreshToken() != null && lifetime > 0) {
+            long delay = getRenewalDelay(lifetime);
+            LockLog.v(TAG, "Credentials renewal scheduled in %d ms", delay);
+            handler.postDelayed(scheduledRenewal, delay);
+        }
+    }
+
+    /**
+     * Delivers the current credentials if they are still valid, or renews them first.
+     * If a renewal is already in progress the callback will receive its result.
+     *
+     * @param callback to notify with the valid credentials or the failure.
+     */
+    @MainThread
+    public void getValidCredentials(@NonNull Callback callback) {
+        if (credentials == null) {
+            callback.onFailure(new LockException("There are no credentials to renew."));
+            return;
+        }
+        if (!renewing && isValid()) {
+            callback.onSuccess(credentials);
+            return;
+        }
+        waiting.add(callback);
+        renew();
+    }
+
+    /**
+     * Cancels the scheduled renewal and forgets the current credentials.
+     */
+    @MainThread
+    public void clear() {
+        handler.removeCallbacks(scheduledRenewal);
+        credentials = null;
+        expiresAt = 0;
+    }
+
+    /**
+     * Whether a renewal request is currently in progress.
+     *
+     * @return true if the credentials are being renewed.
+     */
+    public boolean isRenewing() {
+        return renewing;
+    }
+
+    void setRenewalListener(@Nullable Callback listener) {
+        this.renewalListener = listener;
+    }
+
+    @VisibleForTesting
+    long now() {
+        return SystemClock.elapsedRealtime();
+    }
+
+    @VisibleForTesting
+    long getRenewalDelay(long lifetime) {
+        long renewBefore = Math.min(RENEW_BEFORE_EXPIRY_MS, lifetime / 2);
+        long maxJitter = Math.min(MAX_JITTER_MS, lifetime / 4);
+        long jitter = maxJitter > 0 ? (long) (random.nextDouble() * maxJitter) : 0;
+        return Math.max(0, lifetime - renewBefore - jitter);
+    }
+
+    private boolean isValid() {
+        return expiresAt - now() > CredentialsCache.MIN_REMAINING_SECONDS * 1000;
+    }
+
+    private void renew() {
+        if (renewing) {
+            return;
+        }
+        final Credentials current = credentials;
+        if (current == null || current.getRefreshToken() == null) {
+            finishRenewal(null, new LockException("The credentials can't be renewed without a refresh token."));
+            return;
+        }
+        renewing = true;
+        handler.removeCallbacks(scheduledRenewal);
+        client.renewAuth(current.getRefreshToken())
+                .start(new BaseCallback<Credentials, AuthenticationException>() {
+                    @Override
+                    public void onSuccess(final Credentials payload) {
+                        handler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (credentials != current) {
+                                    //cleared or replaced while the request was in flight
+                                    finishRenewal(credentials, credentials == null ? new LockException("The credentials were cleared.") : null);
+                                    return;
+                                }
+                                setCredentials(payload);
+                                if (renewalListener != null) {
+                                    renewalListener.onSuccess(credentials);
+                                }
+                                finishRenewal(credentials, null);
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onFailure(final AuthenticationException error) {
+                        LockLog.e(TAG, "Failed to renew the credentials", error);
+                        handler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                finishRenewal(null, new LockException("Failed to renew the credentials.", error));
+                            }
+                        });
+                    }
+                });
+    }
+
+    private void finishRenewal(@Nullable Credentials renewed, @Nullable LockException error) {
+        renewing = false;
+        List<Callback> callbacks = new ArrayList<>(waiting);
+        waiting.clear();
+        for (Callback callback : callbacks) {
+            if (renewed != null) {
+                callback.onSuccess(renewed);
+            } else {
+                //noinspection ConstantConditions
+                callback.onFailure(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * CredentialsStore.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+
+import com.auth0.android.result.Credentials;
+
+/**
+ * Storage for the Credentials obtained at the end of a successful authentication.
+ * Lock calls every method from a background thread, so implementations can block on disk or crypto operations.
+ * A store holds the credentials of a single Auth0 account, so use a different one for each account.
+ */
+public interface CredentialsStore {
+
+    /**
+     * Persists the given credentials, replacing any previous value.
+     * The expiration of the credentials must be tracked by the store.
+     *
+     * @param credentials the credentials to save.
+     */
+    @WorkerThread
+    void save(@NonNull Credentials credentials);
+
+    /**
+     * Loads the last saved credentials.
+     *
+     * @return the saved credentials with their 'expires_in' value updated to the seconds remaining at the time of the call, or null if there are none.
+     */
+    @WorkerThread
+    @Nullable
+    Credentials load();
+
+    /**
+     * Removes the saved credentials, if any. i.e. when the user logs out.
+     */
+    @WorkerThread
+    void clear();
+}
@@ -0,0 +1,161 @@
+/*
+ * CustomTabsWarmUp.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.content.pm.ResolveInfo;
+import android.net.Uri;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.customtabs.CustomTabsClient;
+import android.support.customtabs.CustomTabsService;
+import android.support.customtabs.CustomTabsServiceConnection;
+import android.support.customtabs.CustomTabsSession;
+
+import com.auth0.android.lock.internal.logging.LockLog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warms up the Custom Tabs service of the browser that will most likely be used by the web authentication.
+ */
+class CustomTabsWarmUp implements BrowserWarmUp {
+
+    private static final String TAG = CustomTabsWarmUp.class.getSimpleName();
+    private static final String SAMPLE_URL = "http://www.example.com";
+
+    private final Context context;
+    private CustomTabsSession session;
+    private List<String> pendingUrls;
+    private boolean bound;
+
+    private final CustomTabsServiceConnection connection = new CustomTabsServiceConnection() {
+        @Override
+        public void onCustomTabsServiceConnected(ComponentName name, CustomTabsClient client) {
+            LockLog.v(TAG, "Connected to the Custom Tabs service of %s", name.getPackageName());
+            client.warmup(0L);
+            session = client.newSession(null);
+            if (pendingUrls != null) {
+                sendHints(pendingUrls);
+                pendingUrls = null;
+            }
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            session = null;
+        }
+    };
+
+    CustomTabsWarmUp(@NonNull Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @Override
+    public void warmUp() {
+        if (bound) {
+            return;
+        }
+        String packageName = getBrowserPackage();
+        if (packageName == null) {
+            LockLog.v(TAG, "No browser with Custom Tabs support was found");
+            return;
+        }
+        try {
+            bound = CustomTabsClient.bindCustomTabsService(context, packageName, connection);
+        } catch (SecurityException e) {
+            LockLog.w(TAG, "Couldn't bind to the Custom Tabs service of %s", packageName, e);
+        }
+    }
+
+    @Override
+    public void mayLaunchUrls(@NonNull List<String> urls) {
+        if (urls.isEmpty()) {
+            return;
+        }
+        if (session == null) {
+            pendingUrls = urls;
+            return;
+        }
+        sendHints(urls);
+    }
+
+    @Override
+    public void release() {
+        pendingUrls = null;
+        session = null;
+        if (bound) {
+            context.unbindService(connection);
+            bound = false;
+        }
+    }
+
+    private void sendHints(List<String> urls) {
+        if (session == null) {
+            return;
+        }
+        List<Bundle> otherLikelyBundles = new ArrayList<>();
+        for (int i = 1; i < urls.size(); i++) {
+            Bundle bundle = new Bundle();
+            bundle.putParcelable(CustomTabsService.KEY_URL, Uri.parse(urls.get(i)));
+            otherLikelyBundles.add(bundle);
+        }
+        session.mayLaunchUrl(Uri.parse(urls.get(0)), null, otherLikelyBundles);
+    }
+
+    /**
+     * Picks the default browser when it supports Custom Tabs, or else the first browser that does.
+     */
+    @Nullable
+    private String getBrowserPackage() {
+        PackageManager pm = context.getPackageManager();
+        Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(SAMPLE_URL));
+        ResolveInfo defaultBrowser = pm.resolveActivity(browserIntent, 0);
+        String defaultPackage = defaultBrowser != null ? defaultBrowser.activityInfo.packageName : null;
+
+        String firstSupported = null;
+        List<ResolveInfo> browsers = pm.queryIntentActivities(browserIntent, 0);
+        for (ResolveInfo info : browsers) {
+            Intent serviceIntent = new Intent(CustomTabsService.ACTION_CUSTOM_TABS_CONNECTION);
+            serviceIntent.setPackage(info.activityInfo.packageName);
+            if (pm.resolveService(serviceIntent, 0) == null) {
+                continue;
+            }
+            if (info.activityInfo.packageName.equals(defaultPackage)) {
+                return defaultPackage;
+            }
+            if (firstSupported == null) {
+                firstSupported = info.activityInfo.packageName;
+            }
+        }
+        return firstSupported;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * JobSchedulerRefreshScheduler.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.annotation.TargetApi;
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.os.Build;
+import android.os.PersistableBundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.lock.internal.logging.LockLog;
+
+/**
+ * Default {@link ConfigurationRefreshScheduler}, backed by the JobScheduler. Each account gets two
+ * periodic jobs, one that only runs on unmetered networks and one that only runs while charging,
+ * as the JobScheduler can't express either condition in a single job. The {@link ConfigurationRefreshJobService}
+ * skips the run if the other job refreshed the configuration recently. The jobs are not persisted
+ * across reboots, they're scheduled again the next time Lock is built.
+ * The job ids are shared with the rest of the app, so they're taken from a range of {@link #JOB_ID_RANGE}
+ * ids reserved by the app, each account using two ids picked from the hash of its client id.
+ * On devices below API 21 it doesn't schedule anything.
+ */
+class JobSchedulerRefreshScheduler implements ConfigurationRefreshScheduler {
+
+    private static final String TAG = JobSchedulerRefreshScheduler.class.getSimpleName();
+    static final String EXTRA_CLIENT_ID = "com.auth0.android.lock.extra.ClientId";
+    static final String EXTRA_DOMAIN = "com.auth0.android.lock.extra.Domain";
+    static final String EXTRA_CONFIGURATION_URL = "com.auth0.android.lock.extra.ConfigurationUrl";
+    static final String EXTRA_INTERVAL = "com.auth0.android.lock.extra.Interval";
+    static final int JOB_ID_RANGE = 100;
+
+    private final int firstJobId;
+
+    /**
+     * @param firstJobId the first of the {@link #JOB_ID_RANGE} JobScheduler ids reserved for Lock.
+     */
+    JobSchedulerRefreshScheduler(int firstJobId) {
+        this.firstJobId = firstJobId;
+    }
+
+    @Override
+    public void schedule(@NonNull Context context, @NonNull Auth0 account, long intervalMillis) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            LockLog.d(TAG, "The JobScheduler is not available on this device. The configuration won't be refreshed in background.");
+            return;
+        }
+        scheduleJobs(context, account, intervalMillis);
+    }
+
+    @Override
+    public void cancel(@NonNull Context context, @NonNull Auth0 account) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return;
+        }
+        final JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        scheduler.cancel(unmeteredJobId(firstJobId, account.getClientId()));
+        scheduler.cancel(chargingJobId(firstJobId, account.getClientId()));
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void scheduleJobs(Context context, Auth0 account, long intervalMillis) {
+        long period = intervalMillis;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            period = Math.max(period, JobInfo.getMinPeriodMillis());
+        }
+        final PersistableBundle extras = new PersistableBundle();
+        extras.putString(EXTRA_CLIENT_ID, account.getClientId());
+        extras.putString(EXTRA_DOMAIN, account.getDomainUrl());
+        extras.putString(EXTRA_CONFIGURATION_URL, account.getConfigurationUrl());
+        extras.putLong(EXTRA_INTERVAL, period);
+
+        final ComponentName service = new ComponentName(context, ConfigurationRefreshJobService.class);
+        final JobInfo unmetered = new JobInfo.Builder(unmeteredJobId(firstJobId, account.getClientId()), service)
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+                .setPeriodic(period)
+                .setExtras(extras)
+                .build();
+        final JobInfo charging = new JobInfo.Builder(chargingJobId(firstJobId, account.getClientId()), service)
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                .setRequiresCharging(true)
+                .setPeriodic(period)
+                .setExtras(extras)
+                .build();
+
+        final JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler.schedule(unmetered) != JobScheduler.RESULT_SUCCESS || scheduler.schedule(charging) != JobScheduler.RESULT_SUCCESS) {
+            LockLog.w(TAG, "Could not schedule the configuration refresh");
+        }
+    }
+
+    @VisibleForTesting
+    static int unmeteredJobId(int firstJobId, String clientId) {
+        return firstJobId + ((clientId.hashCode() & Integer.MAX_VALUE) % (JOB_ID_RANGE / 2)) * 2;
+    }
+
+    @VisibleForTesting
+    static int chargingJobId(int firstJobId, String clientId) {
+        return unmeteredJobId(firstJobId, clientId) + 1;
+    }
+}
@@ -25,112 +25,106 @@
 package com.auth0.android.lock;
 
 
-import android.app.Dialog;
+import android.app.Activity;
 import android.content.Intent;
 import android.content.res.TypedArray;
 import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 import android.support.v4.app.ActivityCompat;
-import android.support.v4.content.ContextCompat;
 import android.support.v4.content.LocalBroadcastManager;
 import android.support.v7.app.AppCompatActivity;
-import android.text.TextUtils;
-import android.util.Log;
-import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager;
 import android.widget.RelativeLayout;
 import android.widget.ScrollView;
 import android.widget.TextView;
 
-import com.auth0.android.authentication.AuthenticationAPIClient;
-import com.auth0.android.authentication.AuthenticationException;
-import com.auth0.android.authentication.ParameterBuilder;
-import com.auth0.android.authentication.request.SignUpRequest;
-import com.auth0.android.callback.AuthenticationCallback;
-import com.auth0.android.lock.errors.AuthenticationError;
-import com.auth0.android.lock.errors.LoginErrorMessageBuilder;
-import com.auth0.android.lock.errors.SignUpErrorMessageBuilder;
-import com.auth0.android.lock.events.DatabaseChangePasswordEvent;
-import com.auth0.android.lock.events.DatabaseLoginEvent;
-import com.auth0.android.lock.events.DatabaseSignUpEvent;
 import com.auth0.android.lock.events.FetchApplicationEvent;
-import com.auth0.android.lock.events.LockMessageEvent;
-import com.auth0.android.lock.events.OAuthLoginEvent;
-import com.auth0.android.lock.internal.configuration.ApplicationFetcher;
 import com.auth0.android.lock.internal.configuration.Configuration;
-import com.auth0.android.lock.internal.configuration.Connection;
+import com.auth0.android.lock.internal.configuration.ConfigurationHolder;
 import com.auth0.android.lock.internal.configuration.Options;
-import com.auth0.android.lock.provider.AuthResolver;
+import com.auth0.android.lock.internal.configuration.Preconnector;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.lock.internal.metrics.MetricsRecorder;
 import com.auth0.android.lock.views.ClassicLockView;
-import com.auth0.android.provider.AuthCallback;
-import com.auth0.android.provider.AuthProvider;
-import com.auth0.android.provider.WebAuthProvider;
-import com.auth0.android.request.AuthenticationRequest;
+import com.auth0.android.lock.views.FormState;
 import com.auth0.android.result.Credentials;
 import com.auth0.android.result.DatabaseUser;
 import com.squareup.okhttp.OkHttpClient;
 import com.squareup.otto.Bus;
-import com.squareup.otto.Subscribe;
-
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 public class LockActivity extends AppCompatActivity implements ActivityCompat.OnRequestPermissionsResultCallback {
 
     private static final String TAG = LockActivity.class.getSimpleName();
-    private static final String KEY_VERIFICATION_CODE = "mfa_code";
-    private static final String KEY_LOGIN_HINT = "login_hint";
-    private static final long RESULT_MESSAGE_DURATION = 3000;
-    private static final int WEB_AUTH_REQUEST_CODE = 200;
-    private static final int CUSTOM_AUTH_REQUEST_CODE = 201;
-    private static final int PERMISSION_REQUEST_CODE = 202;
-
-    private ApplicationFetcher applicationFetcher;
-    private Configuration configuration;
+    private static final String KEY_FORM_STATE = "com.auth0.android.lock.key.FormState";
+
+    private ConfigurationLoader configurationLoader;
+    private ConfigurationHolder configurationHolder;
+    private LockController controller;
     private Options options;
-    private Handler handler;
 
     private ClassicLockView lockView;
     private TextView resultMessage;
 
-    private AuthProvider currentProvider;
-    private WebProvider webProvider;
-
-    private LoginErrorMessageBuilder loginErrorBuilder;
-    private SignUpErrorMessageBuilder signUpErrorBuilder;
-    private DatabaseLoginEvent lastDatabaseLogin;
-
     @SuppressWarnings("unused")
     public LockActivity() {
     }
 
     @VisibleForTesting
     LockActivity(Configuration configuration, Options options, ClassicLockView lockView, WebProvider webProvider) {
-        this.configuration = configuration;
         this.options = options;
+        this.configurationLoader = new ConfigurationLoader(options, new ConfigurationHolder(configuration));
+        this.configurationHolder = configurationLoader.getHolder();
         this.lockView = lockView;
-        this.webProvider = webProvider;
+        this.controller = new LockController(options, configurationLoader, webProvider);
+        controller.attach(host);
     }
 
+    /**
+     * The start up is ordered by its critical path: the configuration is requested as soon as the Options
+     * are read, so the disk and network work runs in background while the views are set up. Each stage is
+     * traced with {@link MetricsRecorder#stageStarted(String)}.
+     */
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        if (!hasValidLaunchConfig()) {
+        if (savedInstanceState == null) {
+            MetricsRecorder.startSession();
+        }
+        final long optionsTime = MetricsRecorder.stageStarted("Lock.readOptions");
+        final boolean validOptions = hasValidOptions();
+        MetricsRecorder.stageCompleted(LockMetrics.Phase.OPTIONS_READ, optionsTime);
+        if (!validOptions) {
+            deliverInvalidConfiguration("Configuration is not valid and the Activity will finish.");
+            return;
+        }
+
+        final RetainedState retainedState = (RetainedState) getLastCustomNonConfigurationInstance();
+        configurationLoader = retainedState != null ? retainedState.configurationLoader : createConfigurationLoader();
+        configurationHolder = configurationLoader.getHolder();
+        if (configurationHolder.get() == null) {
+            configurationLoader.fetch();
+        }
+        if (savedInstanceState == null && options.preconnect()) {
+            new Preconnector(new OkHttpClient()).preconnect(options.getAccount());
+        }
+
+        final long themeTime = MetricsRecorder.stageStarted("Lock.validateTheme");
+        final boolean validTheme = hasValidTheme();
+        MetricsRecorder.stageCompleted(LockMetrics.Phase.THEME_VALIDATION, themeTime);
+        if (!validTheme) {
+            deliverInvalidConfiguration("You need to use a Lock.Theme theme (or descendant) with this Activity.");
             return;
         }
 
+        final long viewsTime = MetricsRecorder.stageStarted("Lock.setupViews");
         getWindow().setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_ADJUST_RESIZE);
+        controller = retainedState != null ? retainedState.controller : createController();
         Bus lockBus = new Bus();
-        lockBus.register(this);
-        handler = new Handler(getMainLooper());
-        webProvider = new WebProvider(options);
+        lockBus.register(controller);
 
         setContentView(R.layout.com_auth0_lock_activity_lock);
         resultMessage = (TextView) findViewById(R.id.com_auth0_lock_result_message);
@@ -139,29 +133,97 @@ public class LockActivity extends AppCompatActivity implements ActivityCompat.On
         RelativeLayout.LayoutParams lockViewParams = new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
         lockView.setLayoutParams(lockViewParams);
         rootView.addView(lockView);
+        MetricsRecorder.stageCompleted(LockMetrics.Phase.VIEWS_SETUP, viewsTime);
+
+        controller.attach(host);
+        if (configurationHolder.get() == null && !configurationLoader.isFetching()) {
+            lockBus.post(new FetchApplicationEvent());
+        }
+        final FormState formState = retainedState != null ? retainedState.formState : savedInstanceState != null ? savedInstanceState.<FormState>getParcelable(KEY_FORM_STATE) : null;
+        if (formState != null) {
+            LockLog.v(TAG, "Restoring the form state of the previous instance");
+            lockView.restoreFormState(formState);
+        }
+        if (savedInstanceState == null) {
+            MetricsRecorder.activityStarted();
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        //the typed values, except the passwords, survive the process being killed while in background
+        if (lockView != null) {
+            outState.putParcelable(KEY_FORM_STATE, lockView.getFormState());
+        }
+    }
+
+    @Override
+    public Object onRetainCustomNonConfigurationInstance() {
+        if (configurationLoader == null || controller == null || lockView == null) {
+            return null;
+        }
+        return new RetainedState(configurationLoader, controller, lockView.getFormState());
+    }
 
-        loginErrorBuilder = new LoginErrorMessageBuilder(R.string.com_auth0_lock_db_login_error_message, R.string.com_auth0_lock_db_login_error_invalid_credentials_message);
-        signUpErrorBuilder = new SignUpErrorMessageBuilder();
+    @Override
+    public void finish() {
+        super.finish();
+        releaseRequests();
+    }
 
-        lockBus.post(new FetchApplicationEvent());
+    @Override
+    protected void onDestroy() {
+        if (controller != null) {
+            controller.detach();
+        }
+        releaseRequests();
+        if (isFinishing()) {
+            MetricsRecorder.endSession();
+        }
+        super.onDestroy();
     }
 
-    private boolean hasValidLaunchConfig() {
-        String errorDescription = null;
-        if (!hasValidOptions()) {
-            errorDescription = "Configuration is not valid and the Activity will finish.";
+    /**
+     * Cancels every outstanding network call and drops the pending UI callbacks, as the result
+     * can no longer be shown to the user. Nothing is released on a configuration change, as the
+     * running requests are handed over to the new Activity instance with the retained state.
+     */
+    private void releaseRequests() {
+        if (isChangingConfigurations()) {
+            return;
+        }
+        if (controller != null) {
+            controller.release();
         }
-        if (!hasValidTheme()) {
-            errorDescription = "You need to use a Lock.Theme theme (or descendant) with this Activity.";
+        if (configurationLoader != null) {
+            configurationLoader.release();
         }
-        if (errorDescription == null) {
-            return true;
+    }
+
+    private LockController createController() {
+        final WebProvider webProvider = new WebProvider(options, options.useBrowser() ? new CustomTabsWarmUp(this) : null, new ConnectionHistory(this));
+        return new LockController(options, configurationLoader, webProvider);
+    }
+
+    /**
+     * Uses the configuration prepared by the LockManager when it's ready, so no fetch is needed.
+     */
+    @VisibleForTesting
+    ConfigurationLoader createConfigurationLoader() {
+        final Configuration prepared = LockManager.findPrepared(getIntent(), options);
+        if (prepared != null) {
+            LockLog.v(TAG, "Using the configuration prepared by the LockManager");
+            return new ConfigurationLoader(options, new ConfigurationHolder(prepared));
         }
+        return new ConfigurationLoader(options, getApplicationContext());
+    }
+
+    private void deliverInvalidConfiguration(String errorDescription) {
         Intent intent = new Intent(Constants.INVALID_CONFIGURATION_ACTION);
         intent.putExtra(Constants.ERROR_EXTRA, errorDescription);
         LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
         finish();
-        return false;
     }
 
     private boolean hasValidTheme() {
@@ -174,21 +236,21 @@ public class LockActivity extends AppCompatActivity implements ActivityCompat.On
     private boolean hasValidOptions() {
         options = getIntent().getParcelableExtra(Constants.OPTIONS_EXTRA);
         if (options == null) {
-            Log.e(TAG, "Lock Options are missing in the received Intent and LockActivity will not launch. " +
+            LockLog.e(TAG, "Lock Options are missing in the received Intent and LockActivity will not launch. " +
                     "Use the PasswordlessLock.Builder to generate a valid Intent.");
             return false;
         }
 
         boolean launchedForResult = getCallingActivity() != null;
         if (launchedForResult) {
-            Log.e(TAG, "You're not allowed to start Lock with startActivityForResult.");
+            LockLog.e(TAG, "You're not allowed to start Lock with startActivityForResult.");
             return false;
         }
         boolean launchedAsSingleTask = (getIntent().getFlags() & Intent.FLAG_ACTIVITY_NEW_TASK) != 0;
         if (Build.VERSION.SDK_INT > Build.VERSION_CODES.KITKAT) {
             //TODO: Document this case for users on <= KITKAT, as they will not receive this warning.
             if (options.useBrowser() && !launchedAsSingleTask) {
-                Log.e(TAG, "Please, check that you have specified launchMode 'singleTask' in the AndroidManifest.");
+                LockLog.e(TAG, "Please, check that you have specified launchMode 'singleTask' in the AndroidManifest.");
                 return false;
             }
         }
@@ -201,379 +263,93 @@ public class LockActivity extends AppCompatActivity implements ActivityCompat.On
             return;
         }
 
-        Log.v(TAG, "User had just closed the activity.");
+        LockLog.v(TAG, "User had just closed the activity.");
         Intent intent = new Intent(Constants.CANCELED_ACTION);
         LocalBroadcastManager.getInstance(LockActivity.this).sendBroadcast(intent);
         super.onBackPressed();
     }
 
-    private void deliverAuthenticationResult(Credentials credentials) {
-        Intent intent = new Intent(Constants.AUTHENTICATION_ACTION);
-        intent.putExtra(Constants.ID_TOKEN_EXTRA, credentials.getIdToken());
-        intent.putExtra(Constants.ACCESS_TOKEN_EXTRA, credentials.getAccessToken());
-        intent.putExtra(Constants.REFRESH_TOKEN_EXTRA, credentials.getRefreshToken());
-        intent.putExtra(Constants.TOKEN_TYPE_EXTRA, credentials.getType());
-        intent.putExtra(Constants.EXPIRES_IN_EXTRA, credentials.getExpiresIn());
-
-        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
-        finish();
-    }
-
-    private void deliverSignUpResult(DatabaseUser result) {
-        Intent intent = new Intent(Constants.SIGN_UP_ACTION);
-        intent.putExtra(Constants.EMAIL_EXTRA, result.getEmail());
-        intent.putExtra(Constants.USERNAME_EXTRA, result.getEmail());
-
-        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
-        finish();
-    }
-
-    private void showSuccessMessage(String message) {
-        resultMessage.setBackgroundColor(ContextCompat.getColor(this, R.color.com_auth0_lock_result_message_success_background));
-        resultMessage.setVisibility(View.VISIBLE);
-        resultMessage.setText(message);
-        lockView.showProgress(false);
-        handler.removeCallbacks(resultMessageHider);
-        handler.postDelayed(resultMessageHider, RESULT_MESSAGE_DURATION);
-    }
-
-    private void showErrorMessage(String message) {
-        resultMessage.setBackgroundColor(ContextCompat.getColor(this, R.color.com_auth0_lock_result_message_error_background));
-        resultMessage.setVisibility(View.VISIBLE);
-        resultMessage.setText(message);
-        lockView.showProgress(false);
-        handler.removeCallbacks(resultMessageHider);
-        handler.postDelayed(resultMessageHider, RESULT_MESSAGE_DURATION);
-    }
-
-    private Runnable resultMessageHider = new Runnable() {
-        @Override
-        public void run() {
-            resultMessage.setVisibility(View.GONE);
-        }
-    };
-
     @Override
     public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
-        if (currentProvider != null) {
-            currentProvider.onRequestPermissionsResult(this, requestCode, permissions, grantResults);
-        }
+        controller.onRequestPermissionsResult(this, requestCode, permissions, grantResults);
     }
 
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
-        switch (requestCode) {
-            case WEB_AUTH_REQUEST_CODE:
-                lockView.showProgress(false);
-                webProvider.resume(requestCode, resultCode, data);
-                break;
-            case CUSTOM_AUTH_REQUEST_CODE:
-                lockView.showProgress(false);
-                if (currentProvider != null) {
-                    currentProvider.authorize(requestCode, resultCode, data);
-                    currentProvider = null;
-                }
-                break;
-            default:
-                super.onActivityResult(requestCode, resultCode, data);
+        if (!controller.onActivityResult(requestCode, resultCode, data)) {
+            super.onActivityResult(requestCode, resultCode, data);
         }
     }
 
     @Override
     protected void onNewIntent(Intent intent) {
-        lockView.showProgress(false);
-        if (webProvider.resume(intent)) {
-            return;
-        } else if (currentProvider != null) {
-            currentProvider.authorize(intent);
-            currentProvider = null;
-            return;
-        }
-        super.onNewIntent(intent);
-    }
-
-    @SuppressWarnings("unused")
-    @Subscribe
-    public void onFetchApplicationRequest(FetchApplicationEvent event) {
-        if (applicationFetcher == null) {
-            applicationFetcher = new ApplicationFetcher(options.getAccount(), new OkHttpClient());
-            applicationFetcher.fetch(applicationCallback);
+        if (!controller.onNewIntent(intent)) {
+            super.onNewIntent(intent);
         }
     }
 
-    @SuppressWarnings("unused")
-    @Subscribe
-    public void onLockMessage(final LockMessageEvent event) {
-        handler.post(new Runnable() {
-            @Override
-            public void run() {
-                showErrorMessage(getString(event.getMessageRes()));
-            }
-        });
-    }
-
-    @SuppressWarnings("unused")
-    @Subscribe
-    public void onOAuthAuthenticationRequest(OAuthLoginEvent event) {
-        final String connection = event.getConnection();
-
-        if (event.useActiveFlow()) {
-            lockView.showProgress(true);
-            Log.d(TAG, "Using the /ro endpoint for this OAuth Login Request");
-            AuthenticationRequest request = options.getAuthenticationAPIClient()
-                    .login(event.getUsername(), event.getPassword(), connection)
-                    .addAuthenticationParameters(options.getAuthenticationParameters());
-            if (options.getScope() != null) {
-                request.setScope(options.getScope());
-            }
-            if (options.getAudience() != null && options.getAccount().isOIDCConformant()) {
-                request.setAudience(options.getAudience());
-            }
-            request.start(authCallback);
-            return;
-        }
-
-        Log.v(TAG, "Looking for a provider to use /authorize with the connection " + connection);
-        currentProvider = AuthResolver.providerFor(event.getStrategy(), connection);
-        if (currentProvider != null) {
-            HashMap<String, Object> authParameters = new HashMap<>(options.getAuthenticationParameters());
-            final String connectionScope = options.getConnectionsScope().get(connection);
-            if (connectionScope != null) {
-                authParameters.put(Constants.CONNECTION_SCOPE_KEY, connectionScope);
-            }
-            final String scope = options.getScope();
-            if (scope != null) {
-                authParameters.put(ParameterBuilder.SCOPE_KEY, scope);
-            }
-            final String audience = options.getAudience();
-            if (audience != null && options.getAccount().isOIDCConformant()) {
-                authParameters.put(ParameterBuilder.AUDIENCE_KEY, audience);
-            }
-            if (!TextUtils.isEmpty(event.getUsername())) {
-                authParameters.put(KEY_LOGIN_HINT, event.getUsername());
-            }
-            currentProvider.setParameters(authParameters);
-            currentProvider.start(this, authProviderCallback, PERMISSION_REQUEST_CODE, CUSTOM_AUTH_REQUEST_CODE);
-            return;
-        }
-
-        Map<String, Object> extraAuthParameters = null;
-        if (!TextUtils.isEmpty(event.getUsername())) {
-            extraAuthParameters = Collections.singletonMap(KEY_LOGIN_HINT, (Object) event.getUsername());
-        }
-        Log.d(TAG, "Couldn't find an specific provider, using the default: " + WebAuthProvider.class.getSimpleName());
-        webProvider.start(this, connection, extraAuthParameters, authProviderCallback, WEB_AUTH_REQUEST_CODE);
-    }
-
-    @SuppressWarnings("unused")
-    @Subscribe
-    public void onDatabaseAuthenticationRequest(DatabaseLoginEvent event) {
-        if (configuration.getDatabaseConnection() == null) {
-            Log.w(TAG, "There is no default Database connection to authenticate with");
-            return;
-        }
-
-        lockView.showProgress(true);
-        lastDatabaseLogin = event;
-        AuthenticationAPIClient apiClient = options.getAuthenticationAPIClient();
-        final HashMap<String, Object> parameters = new HashMap<>(options.getAuthenticationParameters());
-        if (event.getVerificationCode() != null) {
-            parameters.put(KEY_VERIFICATION_CODE, event.getVerificationCode());
-        }
-        final String connection = configuration.getDatabaseConnection().getName();
-        AuthenticationRequest request = apiClient.login(event.getUsernameOrEmail(), event.getPassword(), connection)
-                .addAuthenticationParameters(parameters);
-        if (options.getScope() != null) {
-            request.setScope(options.getScope());
-        }
-        if (options.getAudience() != null && options.getAccount().isOIDCConformant()) {
-            request.setAudience(options.getAudience());
-        }
-        request.start(authCallback);
-    }
-
-    @SuppressWarnings("unused")
-    @Subscribe
-    public void onDatabaseAuthenticationRequest(DatabaseSignUpEvent event) {
-        if (configuration.getDatabaseConnection() == null) {
-            Log.w(TAG, "There is no default Database connection to authenticate with");
-            return;
-        }
-
-        AuthenticationAPIClient apiClient = options.getAuthenticationAPIClient();
-        final String connection = configuration.getDatabaseConnection().getName();
-        lockView.showProgress(true);
-
-        if (configuration.loginAfterSignUp()) {
-            Map<String, Object> authParameters = new HashMap<>(options.getAuthenticationParameters());
-            SignUpRequest request = event.getSignUpRequest(apiClient, connection)
-                    .addAuthenticationParameters(authParameters);
-            if (options.getScope() != null) {
-                request.setScope(options.getScope());
-            }
-            if (options.getAudience() != null && options.getAccount().isOIDCConformant()) {
-                request.setAudience(options.getAudience());
-            }
-            request.start(authCallback);
-        } else {
-            event.getCreateUserRequest(apiClient, connection)
-                    .start(createCallback);
-        }
-    }
-
-    @SuppressWarnings("unused")
-    @Subscribe
-    public void onDatabaseAuthenticationRequest(DatabaseChangePasswordEvent event) {
-        if (configuration.getDatabaseConnection() == null) {
-            Log.w(TAG, "There is no default Database connection to authenticate with");
-            return;
-        }
-
-        lockView.showProgress(true);
-        AuthenticationAPIClient apiClient = options.getAuthenticationAPIClient();
-        final String connection = configuration.getDatabaseConnection().getName();
-        apiClient.resetPassword(event.getEmail(), connection)
-                .start(changePwdCallback);
+    @VisibleForTesting
+    LockController getController() {
+        return controller;
     }
 
-    //Callbacks
-    private com.auth0.android.callback.AuthenticationCallback<List<Connection>> applicationCallback = new AuthenticationCallback<List<Connection>>() {
+    private final LockController.Host host = new LockController.Host() {
+        @NonNull
         @Override
-        public void onSuccess(final List<Connection> connections) {
-            configuration = new Configuration(connections, options);
-            handler.post(new Runnable() {
-                @Override
-                public void run() {
-                    lockView.configure(configuration);
-                }
-            });
-            applicationFetcher = null;
+        public Activity getActivity() {
+            return LockActivity.this;
         }
 
+        @NonNull
         @Override
-        public void onFailure(final AuthenticationException error) {
-            Log.e(TAG, "Failed to fetch the application: " + error.getMessage(), error);
-            applicationFetcher = null;
-            handler.post(new Runnable() {
-                @Override
-                public void run() {
-                    lockView.configure(null);
-                }
-            });
+        public ClassicLockView getLockView() {
+            return lockView;
         }
-    };
 
-    private AuthCallback authProviderCallback = new AuthCallback() {
+        @NonNull
         @Override
-        public void onFailure(@NonNull final Dialog dialog) {
-            Log.e(TAG, "Failed to authenticate the user. A dialog is going to be shown with more information.");
-            dialog.show();
-            handler.post(new Runnable() {
-                @Override
-                public void run() {
-                    dialog.show();
-                }
-            });
+        public TextView getResultMessage() {
+            return resultMessage;
         }
 
         @Override
-        public void onFailure(final AuthenticationException exception) {
-            final AuthenticationError authError = loginErrorBuilder.buildFrom(exception);
-            final String message = authError.getMessage(LockActivity.this);
-            Log.e(TAG, "Failed to authenticate the user: " + message, exception);
-            handler.post(new Runnable() {
-                @Override
-                public void run() {
-                    showErrorMessage(message);
-                }
-            });
-        }
+        public void onAuthentication(@NonNull Credentials credentials) {
+            Intent intent = new Intent(Constants.AUTHENTICATION_ACTION);
+            intent.putExtra(Constants.ID_TOKEN_EXTRA, credentials.getIdToken());
+            intent.putExtra(Constants.ACCESS_TOKEN_EXTRA, credentials.getAccessToken());
+            intent.putExtra(Constants.REFRESH_TOKEN_EXTRA, credentials.getRefreshToken());
+            intent.putExtra(Constants.TOKEN_TYPE_EXTRA, credentials.getType());
+            intent.putExtra(Constants.EXPIRES_IN_EXTRA, credentials.getExpiresIn());
 
-        @Override
-        public void onSuccess(@NonNull final Credentials credentials) {
-            deliverAuthenticationResult(credentials);
+            LocalBroadcastManager.getInstance(LockActivity.this).sendBroadcast(intent);
+            finish();
         }
-    };
 
-    private AuthenticationCallback<Credentials> authCallback = new AuthenticationCallback<Credentials>() {
         @Override
-        public void onSuccess(Credentials credentials) {
-            deliverAuthenticationResult(credentials);
-            lastDatabaseLogin = null;
-        }
+        public void onSignUp(@NonNull DatabaseUser user) {
+            Intent intent = new Intent(Constants.SIGN_UP_ACTION);
+            intent.putExtra(Constants.EMAIL_EXTRA, user.getEmail());
+            intent.putExtra(Constants.USERNAME_EXTRA, user.getEmail());
 
-        @Override
-        public void onFailure(final AuthenticationException error) {
-            Log.e(TAG, "Failed to authenticate the user: " + error.getMessage(), error);
-            handler.post(new Runnable() {
-                @Override
-                public void run() {
-                    lockView.showProgress(false);
-
-                    final AuthenticationError authError = loginErrorBuilder.buildFrom(error);
-                    if (error.isMultifactorRequired() || error.isMultifactorEnrollRequired()) {
-                        lockView.showMFACodeForm(lastDatabaseLogin);
-                        return;
-                    }
-                    String message = authError.getMessage(LockActivity.this);
-                    showErrorMessage(message);
-                }
-            });
+            LocalBroadcastManager.getInstance(LockActivity.this).sendBroadcast(intent);
+            finish();
         }
     };
 
-    private AuthenticationCallback<DatabaseUser> createCallback = new AuthenticationCallback<DatabaseUser>() {
-        @Override
-        public void onSuccess(final DatabaseUser user) {
-            handler.post(new Runnable() {
-                @Override
-                public void run() {
-                    deliverSignUpResult(user);
-                }
-            });
-        }
-
-        @Override
-        public void onFailure(final AuthenticationException error) {
-            Log.e(TAG, "Failed to create the user: " + error.getMessage(), error);
-            handler.post(new Runnable() {
-                @Override
-                public void run() {
-                    String message = signUpErrorBuilder.buildFrom(error).getMessage(LockActivity.this);
-                    showErrorMessage(message);
-                }
-            });
-        }
-    };
-
-    private AuthenticationCallback<Void> changePwdCallback = new AuthenticationCallback<Void>() {
-        @Override
-        public void onSuccess(Void payload) {
-            handler.post(new Runnable() {
-                @Override
-                public void run() {
-                    showSuccessMessage(getString(R.string.com_auth0_lock_db_change_password_message_success));
-                    if (options.allowLogIn() || options.allowSignUp()) {
-                        lockView.showChangePasswordForm(false);
-                    }
-                }
-            });
+    /**
+     * State kept across configuration changes, so the new Activity instance can re-bind to the configuration and
+     * to the running requests without fetching or sending them again.
+     */
+    private static class RetainedState {
+        private final ConfigurationLoader configurationLoader;
+        private final LockController controller;
+        private final FormState formState;
 
+        RetainedState(ConfigurationLoader configurationLoader, LockController controller, FormState formState) {
+            this.configurationLoader = configurationLoader;
+            this.controller = controller;
+            this.formState = formState;
         }
-
-        @Override
-        public void onFailure(AuthenticationException error) {
-            Log.e(TAG, "Failed to reset the user password: " + error.getMessage(), error);
-            handler.post(new Runnable() {
-                @Override
-                public void run() {
-                    String message = new AuthenticationError(R.string.com_auth0_lock_db_message_change_password_error).getMessage(LockActivity.this);
-                    showErrorMessage(message);
-                }
-            });
-        }
-    };
-
-
+    }
 }
@@ -0,0 +1,583 @@
+/*
+ * LockController.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock;
+
+import android.app.Activity;
+import android.app.Dialog;
+import android.content.Intent;
+import android.os.Handler;
+import android.support.annotation.ColorRes;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.v4.content.ContextCompat;
+import android.text.TextUtils;
+import android.view.View;
+import android.widget.TextView;
+
+import com.auth0.android.authentication.AuthenticationAPIClient;
+import com.auth0.android.authentication.AuthenticationException;
+import com.auth0.android.authentication.request.SignUpRequest;
+import com.auth0.android.callback.AuthenticationCallback;
+import com.auth0.android.lock.errors.AuthenticationError;
+import com.auth0.android.lock.errors.LoginErrorMessageBuilder;
+import com.auth0.android.lock.errors.SignUpErrorMessageBuilder;
+import com.auth0.android.lock.events.DatabaseChangePasswordEvent;
+import com.auth0.android.lock.events.DatabaseLoginEvent;
+import com.auth0.android.lock.events.DatabaseSignUpEvent;
+import com.auth0.android.lock.events.FetchApplicationEvent;
+import com.auth0.android.lock.events.LockMessageEvent;
+import com.auth0.android.lock.events.OAuthLoginEvent;
+import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.ConfigurationHolder;
+import com.auth0.android.lock.internal.configuration.Options;
+import com.auth0.android.lock.internal.configuration.ParameterTemplate;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.lock.internal.metrics.MetricsRecorder;
+import com.auth0.android.lock.provider.AuthResolver;
+import com.auth0.android.lock.views.ClassicLockView;
+import com.auth0.android.provider.AuthCallback;
+import com.auth0.android.provider.AuthProvider;
+import com.auth0.android.provider.WebAuthProvider;
+import com.auth0.android.request.AuthenticationRequest;
+import com.auth0.android.result.Credentials;
+import com.auth0.android.result.DatabaseUser;
+import com.squareup.otto.Subscribe;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the Classic Lock flows for the screen that shows the form, either the {@link LockActivity} or
+ * the {@link LockFragment}. It handles the events posted by the {@link ClassicLockView}, starts the
+ * requests and hands their results to the attached {@link Host}.
+ * <p>
+ * The controller can outlive the host it was created for: a result that arrives while no host is
+ * attached is kept and handed to the next one, once {@link #attach(Host)} is called.
+ */
+class LockController {
+
+    private static final String TAG = LockController.class.getSimpleName();
+    private static final String KEY_VERIFICATION_CODE = "mfa_code";
+    private static final String KEY_LOGIN_HINT = "login_hint";
+    private static final long RESULT_MESSAGE_DURATION = 3000;
+    static final int WEB_AUTH_REQUEST_CODE = 200;
+    static final int CUSTOM_AUTH_REQUEST_CODE = 201;
+    static final int PERMISSION_REQUEST_CODE = 202;
+
+    /**
+     * The screen that shows the Lock form. Every method is called on the main thread, and only while
+     * the host is attached to the controller.
+     */
+    interface Host {
+        /**
+         * @return the Activity used to start the Identity Provider flows and to resolve the messages.
+         */
+        @NonNull
+        Activity getActivity();
+
+        @NonNull
+        ClassicLockView getLockView();
+
+        /**
+         * @return the view that shows the success and error messages.
+         */
+        @NonNull
+        TextView getResultMessage();
+
+        /**
+         * Called when the user has logged in.
+         *
+         * @param credentials the user credentials.
+         */
+        void onAuthentication(@NonNull Credentials credentials);
+
+        /**
+         * Called when the user has signed up and the log in after sign up is disabled.
+         *
+         * @param user the user that was created.
+         */
+        void onSignUp(@NonNull DatabaseUser user);
+    }
+
+    private final Options options;
+    private final ConfigurationLoader configurationLoader;
+    private final ConfigurationHolder configurationHolder;
+    private final WebProvider webProvider;
+    private final RetainedRequests<Host> requests = new RetainedRequests<>();
+    private final Handler handler = requests.getHandler();
+
+    private AuthProvider currentProvider;
+
+    private LoginErrorMessageBuilder loginErrorBuilder;
+    private SignUpErrorMessageBuilder signUpErrorBuilder;
+    private DatabaseLoginEvent lastDatabaseLogin;
+
+    LockController(@NonNull Options options, @NonNull ConfigurationLoader configurationLoader, @NonNull WebProvider webProvider) {
+        this.options = options;
+        this.configurationLoader = configurationLoader;
+        this.configurationHolder = configurationLoader.getHolder();
+        this.webProvider = webProvider;
+    }
+
+    /**
+     * Binds the host views to the controller. The current configuration, if any, is applied to the form
+     * right away, followed by the results that arrived while no host was attached. If a request started by a
+     * previous host is still running, the form shows its progress until the result arrives.
+     *
+     * @param host the screen that shows the form.
+     */
+    @MainThread
+    void attach(@NonNull Host host) {
+        requests.attach(host);
+        configurationLoader.setFailureListener(configurationFailureListener);
+        configurationHolder.setListener(configurationListener);
+        requests.runPendingActions();
+        if (requests.getHost() != null && requests.hasOutstanding()) {
+            requests.getHost().getLockView().showProgress(true);
+        }
+    }
+
+    /**
+     * Unbinds the current host, i.e. because its views are being destroyed. The running requests are kept.
+     */
+    @MainThread
+    void detach() {
+        requests.detach();
+        configurationLoader.setFailureListener(null);
+        configurationHolder.setListener(null);
+        handler.removeCallbacks(resultMessageHider);
+    }
+
+    /**
+     * Cancels every outstanding network call and drops the pending results, as they can no longer
+     * be shown to the user. Must be called from the main thread.
+     */
+    @MainThread
+    void release() {
+        requests.release();
+        webProvider.release();
+    }
+
+    /**
+     * Must be called from the host's onActivityResult.
+     *
+     * @return true if the result belongs to one of the Identity Provider flows, false otherwise.
+     */
+    boolean onActivityResult(int requestCode, int resultCode, Intent data) {
+        switch (requestCode) {
+            case WEB_AUTH_REQUEST_CODE:
+                showProgress(false);
+                webProvider.resume(requestCode, resultCode, data);
+                return true;
+            case CUSTOM_AUTH_REQUEST_CODE:
+                showProgress(false);
+                if (currentProvider != null) {
+                    currentProvider.authorize(requestCode, resultCode, data);
+                    currentProvider = null;
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Must be called from the host's onNewIntent.
+     *
+     * @return true if the intent was an authentication result, false otherwise.
+     */
+    boolean onNewIntent(Intent intent) {
+        showProgress(false);
+        if (webProvider.resume(intent)) {
+            return true;
+        } else if (currentProvider != null) {
+            currentProvider.authorize(intent);
+            currentProvider = null;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Must be called from the host's onRequestPermissionsResult.
+     */
+    void onRequestPermissionsResult(@NonNull Activity activity, int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        if (currentProvider != null) {
+            currentProvider.onRequestPermissionsResult(activity, requestCode, permissions, grantResults);
+        }
+    }
+
+    /**
+     * The error builders are only needed once a request fails, so they're not created during the start up.
+     */
+    private synchronized LoginErrorMessageBuilder loginErrorBuilder() {
+        if (loginErrorBuilder == null) {
+            loginErrorBuilder = new LoginErrorMessageBuilder(R.string.com_auth0_lock_db_login_error_message, R.string.com_auth0_lock_db_login_error_invalid_credentials_message);
+        }
+        return loginErrorBuilder;
+    }
+
+    private synchronized SignUpErrorMessageBuilder signUpErrorBuilder() {
+        if (signUpErrorBuilder == null) {
+            signUpErrorBuilder = new SignUpErrorMessageBuilder();
+        }
+        return signUpErrorBuilder;
+    }
+
+    private void showProgress(boolean show) {
+        final Host host = requests.getHost();
+        if (host != null) {
+            host.getLockView().showProgress(show);
+        }
+    }
+
+    private void showSuccessMessage(Host host, String message) {
+        showResultMessage(host, message, R.color.com_auth0_lock_result_message_success_background);
+    }
+
+    private void showErrorMessage(Host host, String message) {
+        showResultMessage(host, message, R.color.com_auth0_lock_result_message_error_background);
+    }
+
+    private void showResultMessage(Host host, String message, @ColorRes int colorRes) {
+        final TextView resultMessage = host.getResultMessage();
+        resultMessage.setBackgroundColor(ContextCompat.getColor(resultMessage.getContext(), colorRes));
+        resultMessage.setVisibility(View.VISIBLE);
+        resultMessage.setText(message);
+        host.getLockView().showProgress(false);
+        handler.removeCallbacks(resultMessageHider);
+        handler.postDelayed(resultMessageHider, RESULT_MESSAGE_DURATION);
+    }
+
+    private Runnable resultMessageHider = new Runnable() {
+        @Override
+        public void run() {
+            final Host host = requests.getHost();
+            if (host != null) {
+                host.getResultMessage().setVisibility(View.GONE);
+            }
+        }
+    };
+
+    private ParameterTemplate authenticationParameters() {
+        final Configuration configuration = configurationHolder.get();
+        return configuration != null ? configuration.getAuthenticationParameters() : ParameterTemplate.forAuthentication(options);
+    }
+
+    private ParameterTemplate authorizeParameters(String connection) {
+        final Configuration configuration = configurationHolder.get();
+        return configuration != null ? configuration.getAuthorizeParameters(connection) : ParameterTemplate.forAuthorize(options, connection);
+    }
+
+    @SuppressWarnings("unused")
+    @Subscribe
+    public void onFetchApplicationRequest(FetchApplicationEvent event) {
+        configurationLoader.fetch();
+    }
+
+    @SuppressWarnings("unused")
+    @Subscribe
+    public void onLockMessage(final LockMessageEvent event) {
+        requests.runOnHost(new RetainedRequests.HostAction<Host>() {
+            @Override
+            public void run(@NonNull Host host) {
+                showErrorMessage(host, host.getActivity().getString(event.getMessageRes()));
+            }
+        });
+    }
+
+    @SuppressWarnings("unused")
+    @Subscribe
+    public void onOAuthAuthenticationRequest(OAuthLoginEvent event) {
+        final String connection = event.getConnection();
+
+        if (event.useActiveFlow()) {
+            final String flightKey = SingleFlight.key(SingleFlight.ACTION_LOG_IN, connection, event.getUsername());
+            if (!requests.acquire(flightKey)) {
+                return;
+            }
+            showProgress(true);
+            LockLog.d(TAG, "Using the /ro endpoint for this OAuth Login Request");
+            AuthenticationRequest request = options.getAuthenticationAPIClient()
+                    .login(event.getUsername(), event.getPassword(), connection)
+                    .addAuthenticationParameters(authenticationParameters().asMap());
+            if (options.getScope() != null) {
+                request.setScope(options.getScope());
+            }
+            if (options.getAudience() != null && options.getAccount().isOIDCConformant()) {
+                request.setAudience(options.getAudience());
+            }
+            request.start(requests.track(flightKey, MetricsRecorder.timeAuthentication(connection, LockFunnelRecord.ConnectionType.ENTERPRISE, authCallback)));
+            return;
+        }
+
+        final Host host = requests.getHost();
+        if (host == null) {
+            LockLog.w(TAG, "There is no host to start the authentication with the connection %s", connection);
+            return;
+        }
+        LockLog.v(TAG, "Looking for a provider to use /authorize with the connection %s", connection);
+        currentProvider = AuthResolver.providerFor(event.getStrategy(), connection);
+        if (currentProvider != null) {
+            final ParameterTemplate template = authorizeParameters(connection);
+            final Map<String, Object> authParameters = TextUtils.isEmpty(event.getUsername()) ? template.asMap() : template.with(KEY_LOGIN_HINT, event.getUsername());
+            //custom providers are free to change the parameters they receive
+            currentProvider.setParameters(new HashMap<>(authParameters));
+            currentProvider.start(host.getActivity(), MetricsRecorder.timeAuthorization(connection, authProviderCallback), PERMISSION_REQUEST_CODE, CUSTOM_AUTH_REQUEST_CODE);
+            return;
+        }
+
+        Map<String, Object> extraAuthParameters = null;
+        if (!TextUtils.isEmpty(event.getUsername())) {
+            extraAuthParameters = Collections.singletonMap(KEY_LOGIN_HINT, (Object) event.getUsername());
+        }
+        LockLog.d(TAG, "Couldn't find an specific provider, using the default: %s", WebAuthProvider.class.getSimpleName());
+        webProvider.start(host.getActivity(), connection, extraAuthParameters, MetricsRecorder.timeAuthorization(connection, authProviderCallback), WEB_AUTH_REQUEST_CODE);
+    }
+
+    @SuppressWarnings("unused")
+    @Subscribe
+    public void onDatabaseAuthenticationRequest(DatabaseLoginEvent event) {
+        final Configuration configuration = configurationHolder.get();
+        if (configuration == null || configuration.getDatabaseConnection() == null) {
+            LockLog.w(TAG, "There is no default Database connection to authenticate with");
+            return;
+        }
+
+        final String connection = configuration.getDatabaseConnection().getName();
+        final String flightKey = SingleFlight.key(SingleFlight.ACTION_LOG_IN, connection, event.getUsernameOrEmail());
+        if (!requests.acquire(flightKey)) {
+            return;
+        }
+        showProgress(true);
+        lastDatabaseLogin = event;
+        AuthenticationAPIClient apiClient = options.getAuthenticationAPIClient();
+        final Map<String, Object> parameters = configuration.getAuthenticationParameters().with(KEY_VERIFICATION_CODE, event.getVerificationCode());
+        AuthenticationRequest request = apiClient.login(event.getUsernameOrEmail(), event.getPassword(), connection)
+                .addAuthenticationParameters(parameters);
+        if (options.getScope() != null) {
+            request.setScope(options.getScope());
+        }
+        if (options.getAudience() != null && options.getAccount().isOIDCConformant()) {
+            request.setAudience(options.getAudience());
+        }
+        request.start(requests.track(flightKey, MetricsRecorder.timeAuthentication(connection, LockFunnelRecord.ConnectionType.DATABASE, authCallback)));
+    }
+
+    @SuppressWarnings("unused")
+    @Subscribe
+    public void onDatabaseAuthenticationRequest(DatabaseSignUpEvent event) {
+        final Configuration configuration = configurationHolder.get();
+        if (configuration == null || configuration.getDatabaseConnection() == null) {
+            LockLog.w(TAG, "There is no default Database connection to authenticate with");
+            return;
+        }
+
+        AuthenticationAPIClient apiClient = options.getAuthenticationAPIClient();
+        final String connection = configuration.getDatabaseConnection().getName();
+        final String flightKey = SingleFlight.key(SingleFlight.ACTION_SIGN_UP, connection, event.getEmail());
+        if (!requests.acquire(flightKey)) {
+            return;
+        }
+        showProgress(true);
+
+        if (configuration.loginAfterSignUp()) {
+            Map<String, Object> authParameters = configuration.getAuthenticationParameters().asMap();
+            SignUpRequest request = event.getSignUpRequest(apiClient, connection)
+                    .addAuthenticationParameters(authParameters);
+            if (options.getScope() != null) {
+                request.setScope(options.getScope());
+            }
+            if (options.getAudience() != null && options.getAccount().isOIDCConformant()) {
+                request.setAudience(options.getAudience());
+            }
+            request.start(requests.track(flightKey, MetricsRecorder.timeAuthentication(connection, LockFunnelRecord.ConnectionType.DATABASE, authCallback)));
+        } else {
+            event.getCreateUserRequest(apiClient, connection)
+                    .start(requests.track(flightKey, createCallback));
+        }
+    }
+
+    @SuppressWarnings("unused")
+    @Subscribe
+    public void onDatabaseAuthenticationRequest(DatabaseChangePasswordEvent event) {
+        final Configuration configuration = configurationHolder.get();
+        if (configuration == null || configuration.getDatabaseConnection() == null) {
+            LockLog.w(TAG, "There is no default Database connection to authenticate with");
+            return;
+        }
+
+        final String connection = configuration.getDatabaseConnection().getName();
+        final String flightKey = SingleFlight.key(SingleFlight.ACTION_CHANGE_PASSWORD, connection, event.getEmail());
+        if (!requests.acquire(flightKey)) {
+            return;
+        }
+        showProgress(true);
+        AuthenticationAPIClient apiClient = options.getAuthenticationAPIClient();
+        apiClient.resetPassword(event.getEmail(), connection)
+                .start(requests.track(flightKey, changePwdCallback));
+    }
+
+    //Callbacks
+    private ConfigurationLoader.FailureListener configurationFailureListener = new ConfigurationLoader.FailureListener() {
+        @Override
+        public void onConfigurationFetchFailed(@NonNull AuthenticationException error) {
+            final Host host = requests.getHost();
+            if (host != null) {
+                host.getLockView().configure(null);
+            }
+        }
+    };
+
+    private ConfigurationHolder.ConfigurationListener configurationListener = new ConfigurationHolder.ConfigurationListener() {
+        @Override
+        public void onConfigurationChanged(@NonNull Configuration configuration, int version) {
+            final Host host = requests.getHost();
+            if (host == null) {
+                return;
+            }
+            LockLog.v(TAG, "Binding configuration version %s", version);
+            host.getLockView().configure(configuration);
+            MetricsRecorder.formConfigured(host.getLockView());
+            webProvider.warmUp(configuration);
+        }
+    };
+
+    private AuthCallback authProviderCallback = new AuthCallback() {
+        @Override
+        public void onFailure(@NonNull final Dialog dialog) {
+            LockLog.e(TAG, "Failed to authenticate the user. A dialog is going to be shown with more information.");
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    dialog.show();
+                }
+            });
+        }
+
+        @Override
+        public void onFailure(final AuthenticationException exception) {
+            LockLog.e(TAG, "Failed to authenticate the user: %s", exception.getMessage(), exception);
+            requests.runOnHost(new RetainedRequests.HostAction<Host>() {
+                @Override
+                public void run(@NonNull Host host) {
+                    showErrorMessage(host, loginErrorBuilder().buildFrom(exception).getMessage(host.getActivity()));
+                }
+            });
+        }
+
+        @Override
+        public void onSuccess(@NonNull final Credentials credentials) {
+            deliverAuthenticationResult(credentials);
+        }
+    };
+
+    private void deliverAuthenticationResult(final Credentials credentials) {
+        requests.runOnHost(new RetainedRequests.HostAction<Host>() {
+            @Override
+            public void run(@NonNull Host host) {
+                host.getLockView().showProgress(false);
+                host.onAuthentication(credentials);
+            }
+        });
+    }
+
+    private AuthenticationCallback<Credentials> authCallback = new AuthenticationCallback<Credentials>() {
+        @Override
+        public void onSuccess(Credentials credentials) {
+            deliverAuthenticationResult(credentials);
+            lastDatabaseLogin = null;
+        }
+
+        @Override
+        public void onFailure(final AuthenticationException error) {
+            LockLog.e(TAG, "Failed to authenticate the user: %s", error.getMessage(), error);
+            requests.runOnHost(new RetainedRequests.HostAction<Host>() {
+                @Override
+                public void run(@NonNull Host host) {
+                    host.getLockView().showProgress(false);
+
+                    final AuthenticationError authError = loginErrorBuilder().buildFrom(error);
+                    if (error.isMultifactorRequired() || error.isMultifactorEnrollRequired()) {
+                        host.getLockView().showMFACodeForm(lastDatabaseLogin);
+                        return;
+                    }
+                    showErrorMessage(host, authError.getMessage(host.getActivity()));
+                }
+            });
+        }
+    };
+
+    private AuthenticationCallback<DatabaseUser> createCallback = new AuthenticationCallback<DatabaseUser>() {
+        @Override
+        public void onSuccess(final DatabaseUser user) {
+            requests.runOnHost(new RetainedRequests.HostAction<Host>() {
+                @Override
+                public void run(@NonNull Host host) {
+                    host.getLockView().showProgress(false);
+                    host.onSignUp(user);
+                }
+            });
+        }
+
+        @Override
+        public void onFailure(final AuthenticationException error) {
+            LockLog.e(TAG, "Failed to create the user: %s", error.getMessage(), error);
+            requests.runOnHost(new RetainedRequests.HostAction<Host>() {
+                @Override
+                public void run(@NonNull Host host) {
+                    showErrorMessage(host, signUpErrorBuilder().buildFrom(error).getMessage(host.getActivity()));
+                }
+            });
+        }
+    };
+
+    private AuthenticationCallback<Void> changePwdCallback = new AuthenticationCallback<Void>() {
+        @Override
+        public void onSuccess(Void payload) {
+            requests.runOnHost(new RetainedRequests.HostAction<Host>() {
+                @Override
+                public void run(@NonNull Host host) {
+                    showSuccessMessage(host, host.getActivity().getString(R.string.com_auth0_lock_db_change_password_message_success));
+                    if (options.allowLogIn() || options.allowSignUp()) {
+                        host.getLockView().showChangePasswordForm(false);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onFailure(AuthenticationException error) {
+            LockLog.e(TAG, "Failed to reset the user password: %s", error.getMessage(), error);
+            requests.runOnHost(new RetainedRequests.HostAction<Host>() {
+                @Override
+                public void run(@NonNull Host host) {
+                    showErrorMessage(host, new AuthenticationError(R.string.com_auth0_lock_db_message_change_password_error).getMessage(host.getActivity()));
+                }
+            });
+        }
+    };
+}
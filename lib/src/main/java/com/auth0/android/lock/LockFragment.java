@@ -0,0 +1,332 @@
+/*
+ * LockFragment.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.StyleRes;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.app.Fragment;
+import android.support.v4.content.LocalBroadcastManager;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.RelativeLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import com.auth0.android.lock.events.FetchApplicationEvent;
+import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.ConfigurationHolder;
+import com.auth0.android.lock.internal.configuration.Options;
+import com.auth0.android.lock.internal.configuration.Preconnector;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.lock.internal.metrics.MetricsRecorder;
+import com.auth0.android.lock.views.ClassicLockView;
+import com.auth0.android.lock.views.FormState;
+import com.auth0.android.result.Credentials;
+import com.auth0.android.result.DatabaseUser;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.otto.Bus;
+
+/**
+ * Shows the Lock form inside an existing screen, instead of launching the LockActivity. The results are
+ * delivered to the {@link Callback} implemented by the host Activity or parent Fragment, instead of the LockCallback.
+ * The credentials are still handed to the Lock instance of the same account, so they are saved in its
+ * CredentialsStore and renewed like the ones obtained from the LockActivity, as long as that instance
+ * wasn't destroyed.
+ * <p>
+ * The host Activity must forward onActivityResult, onNewIntent, onRequestPermissionsResult and
+ * onBackPressed to this Fragment, as the Identity Provider flows are started from the Activity.
+ * The instance is retained across configuration changes, so the running requests are not lost.
+ * The Passwordless flow is only available through the PasswordlessLockActivity.
+ */
+public class LockFragment extends Fragment {
+
+    private static final String TAG = LockFragment.class.getSimpleName();
+    private static final String KEY_THEME = "com.auth0.android.lock.key.Theme";
+    private static final String KEY_FORM_STATE = "com.auth0.android.lock.key.FormState";
+
+    /**
+     * Receives the results of the embedded Lock. Must be implemented by the host Activity or the parent Fragment.
+     * Every method is called on the main thread.
+     */
+    public interface Callback {
+        /**
+         * Called when the user has logged in.
+         *
+         * @param credentials the user credentials.
+         */
+        void onAuthentication(@NonNull Credentials credentials);
+
+        /**
+         * Called when the user has signed up and the log in after sign up is disabled.
+         *
+         * @param user the user that was created.
+         */
+        void onSignUp(@NonNull DatabaseUser user);
+    }
+
+    private Options options;
+    private Callback callback;
+    private ConfigurationLoader configurationLoader;
+    private ConfigurationHolder configurationHolder;
+    private LockController controller;
+
+    private ClassicLockView lockView;
+    private TextView resultMessage;
+    private FormState savedFormState;
+    private boolean formShown;
+
+    @SuppressWarnings("unused")
+    public LockFragment() {
+    }
+
+    @VisibleForTesting
+    LockFragment(Configuration configuration, Options options, WebProvider webProvider) {
+        this.options = options;
+        this.configurationLoader = new ConfigurationLoader(options, new ConfigurationHolder(configuration));
+        this.configurationHolder = configurationLoader.getHolder();
+        this.controller = new LockController(options, configurationLoader, webProvider);
+        setArguments(new Bundle());
+    }
+
+    /**
+     * Creates a new LockFragment with the options of the given Lock instance and the default Lock theme.
+     *
+     * @param lock the Lock instance to take the options from.
+     * @return a new LockFragment instance.
+     */
+    public static LockFragment newInstance(@NonNull Lock lock) {
+        return newInstance(lock, R.style.Lock_Theme);
+    }
+
+    /**
+     * Creates a new LockFragment with the options of the given Lock instance.
+     *
+     * @param lock  the Lock instance to take the options from.
+     * @param theme the Lock.Theme (or descendant) style to use for the form.
+     * @return a new LockFragment instance.
+     */
+    public static LockFragment newInstance(@NonNull Lock lock, @StyleRes int theme) {
+        Bundle arguments = new Bundle();
+        arguments.putParcelable(Constants.OPTIONS_EXTRA, lock.getOptions());
+        arguments.putInt(KEY_THEME, theme);
+        LockFragment fragment = new LockFragment();
+        fragment.setArguments(arguments);
+        return fragment;
+    }
+
+    @Override
+    public void onAttach(Context context) {
+        super.onAttach(context);
+        if (getParentFragment() instanceof Callback) {
+            callback = (Callback) getParentFragment();
+        } else if (context instanceof Callback) {
+            callback = (Callback) context;
+        } else {
+            throw new IllegalStateException("The host of the LockFragment must implement LockFragment.Callback");
+        }
+    }
+
+    @Override
+    public void onDetach() {
+        super.onDetach();
+        callback = null;
+    }
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setRetainInstance(true);
+        MetricsRecorder.startSession();
+        if (controller != null) {
+            return;
+        }
+        if (savedInstanceState != null) {
+            savedFormState = savedInstanceState.getParcelable(KEY_FORM_STATE);
+        }
+        options = getArguments().getParcelable(Constants.OPTIONS_EXTRA);
+        if (options == null) {
+            throw new IllegalStateException("Lock Options are missing. Use LockFragment.newInstance to create this Fragment.");
+        }
+
+        final Context context = getContext().getApplicationContext();
+        final WebProvider webProvider = new WebProvider(options, options.useBrowser() ? new CustomTabsWarmUp(context) : null, new ConnectionHistory(context));
+        if (options.preconnect()) {
+            new Preconnector(new OkHttpClient()).preconnect(options.getAccount());
+        }
+        configurationLoader = new ConfigurationLoader(options, context);
+        configurationHolder = configurationLoader.getHolder();
+        controller = new LockController(options, configurationLoader, webProvider);
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        final Context themedContext = new ContextThemeWrapper(getActivity(), getArguments().getInt(KEY_THEME, R.style.Lock_Theme));
+        final View root = inflater.cloneInContext(themedContext).inflate(R.layout.com_auth0_lock_activity_lock, container, false);
+        resultMessage = (TextView) root.findViewById(R.id.com_auth0_lock_result_message);
+        ScrollView contentView = (ScrollView) root.findViewById(R.id.com_auth0_lock_content);
+
+        Bus lockBus = new Bus();
+        lockBus.register(controller);
+        lockView = new ClassicLockView(themedContext, lockBus, options.getTheme());
+        RelativeLayout.LayoutParams lockViewParams = new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
+        lockView.setLayoutParams(lockViewParams);
+        contentView.addView(lockView);
+
+        controller.attach(host);
+        if (configurationHolder.get() == null && !configurationLoader.isFetching()) {
+            lockBus.post(new FetchApplicationEvent());
+        }
+        if (savedFormState != null) {
+            LockLog.v(TAG, "Restoring the form state of the previous view");
+            lockView.restoreFormState(savedFormState);
+        }
+        if (!formShown) {
+            formShown = true;
+            MetricsRecorder.activityStarted();
+        }
+        return root;
+    }
+
+    @Override
+    public void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        //the typed values, except the passwords, survive the process being killed while in background
+        outState.putParcelable(KEY_FORM_STATE, lockView != null ? lockView.getFormState() : savedFormState);
+    }
+
+    @Override
+    public void onDestroyView() {
+        savedFormState = lockView.getFormState();
+        controller.detach();
+        lockView = null;
+        resultMessage = null;
+        super.onDestroyView();
+    }
+
+    @Override
+    public void onDestroy() {
+        controller.release();
+        configurationLoader.release();
+        MetricsRecorder.endSession();
+        super.onDestroy();
+    }
+
+    /**
+     * Must be called from the host Activity's onBackPressed.
+     *
+     * @return true if the Fragment handled the event, i.e. by going back to the previous form.
+     */
+    public boolean onBackPressed() {
+        return lockView != null && lockView.onBackPressed();
+    }
+
+    /**
+     * Must be called from the host Activity's onNewIntent, to receive the result of the browser flows.
+     *
+     * @param intent the intent received by the Activity.
+     * @return true if the intent was an authentication result, false otherwise.
+     */
+    public boolean onNewIntent(Intent intent) {
+        return controller.onNewIntent(intent);
+    }
+
+    /**
+     * Must be called from the host Activity's onActivityResult, to receive the result of the Identity Provider flows.
+     */
+    @Override
+    public void onActivityResult(int requestCode, int resultCode, Intent data) {
+        if (!controller.onActivityResult(requestCode, resultCode, data)) {
+            super.onActivityResult(requestCode, resultCode, data);
+        }
+    }
+
+    /**
+     * Must be called from the host Activity's onRequestPermissionsResult, as the Identity Providers request
+     * their permissions from the Activity.
+     */
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (getActivity() != null) {
+            controller.onRequestPermissionsResult(getActivity(), requestCode, permissions, grantResults);
+        }
+    }
+
+    @VisibleForTesting
+    LockController getController() {
+        return controller;
+    }
+
+    private final LockController.Host host = new LockController.Host() {
+        @NonNull
+        @Override
+        public Activity getActivity() {
+            return LockFragment.this.getActivity();
+        }
+
+        @NonNull
+        @Override
+        public ClassicLockView getLockView() {
+            return lockView;
+        }
+
+        @NonNull
+        @Override
+        public TextView getResultMessage() {
+            return resultMessage;
+        }
+
+        @Override
+        public void onAuthentication(@NonNull Credentials credentials) {
+            final Activity activity = LockFragment.this.getActivity();
+            if (activity != null) {
+                final Intent intent = CredentialsCache.toIntent(credentials)
+                        .setAction(Constants.CREDENTIALS_ACTION)
+                        .putExtra(Constants.ACCOUNT_EXTRA, LockManager.keyFor(options.getAccount()));
+                LocalBroadcastManager.getInstance(activity).sendBroadcast(intent);
+            }
+            if (callback != null) {
+                callback.onAuthentication(credentials);
+            }
+        }
+
+        @Override
+        public void onSignUp(@NonNull DatabaseUser user) {
+            if (callback != null) {
+                callback.onSignUp(user);
+            }
+        }
+    };
+}
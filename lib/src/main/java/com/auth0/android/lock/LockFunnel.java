@@ -0,0 +1,102 @@
+/*
+ * LockFunnel.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+
+import com.auth0.android.lock.internal.metrics.FunnelStore;
+
+import java.util.List;
+
+/**
+ * Gives access to the {@link LockFunnelRecord}s stored on the device when the funnel recording is enabled
+ * in the Lock builders. Lock writes one record each time a Lock activity finishes, and keeps the latest 256
+ * in a fixed size file, so the application can export them on its own schedule, e.g. in a periodic job.
+ * All the methods read the disk and must not be called on the main thread.
+ * <pre>{@code
+ * LockFunnel.Batch batch = LockFunnel.read(context, 50);
+ * if (upload(batch.getRecords())) {
+ *     batch.commit();
+ * }
+ * }</pre>
+ */
+public final class LockFunnel {
+
+    private LockFunnel() {
+    }
+
+    /**
+     * Reads the oldest records not exported yet. They are returned again by the next read until the batch is committed.
+     *
+     * @param context    any context.
+     * @param maxRecords the maximum number of records to read.
+     * @return the batch of records, from the oldest to the newest. It can be empty.
+     */
+    @WorkerThread
+    @NonNull
+    public static Batch read(@NonNull Context context, int maxRecords) {
+        final FunnelStore store = FunnelStore.getInstance(context);
+        return new Batch(store, store.read(maxRecords));
+    }
+
+    /**
+     * @param context any context.
+     * @return the number of records not exported yet.
+     */
+    @WorkerThread
+    public static int pendingRecords(@NonNull Context context) {
+        return FunnelStore.getInstance(context).size();
+    }
+
+    /**
+     * Records read with {@link #read(Context, int)}.
+     */
+    public static final class Batch {
+        private final FunnelStore store;
+        private final FunnelStore.Batch batch;
+
+        private Batch(FunnelStore store, FunnelStore.Batch batch) {
+            this.store = store;
+            this.batch = batch;
+        }
+
+        @NonNull
+        public List<LockFunnelRecord> getRecords() {
+            return batch.getRecords();
+        }
+
+        /**
+         * Marks the records of this batch as exported, so they are not read again.
+         */
+        @WorkerThread
+        public void commit() {
+            if (!batch.getRecords().isEmpty()) {
+                store.markRead(batch.getEndSequence());
+            }
+        }
+    }
+}
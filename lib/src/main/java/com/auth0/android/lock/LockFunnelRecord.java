@@ -0,0 +1,179 @@
+/*
+ * LockFunnelRecord.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * The timings of a single launch of a Lock activity, as stored on the device when funnel recording is
+ * enabled in the Lock builders. Read them with {@link LockFunnel#read(android.content.Context, int)}.
+ * Durations are measured in milliseconds with a monotonic clock, and are {@link #NOT_MEASURED} when the
+ * step didn't happen during the launch.
+ */
+public final class LockFunnelRecord {
+
+    /**
+     * Value of the durations whose step didn't happen during the launch.
+     */
+    public static final int NOT_MEASURED = -1;
+
+    /**
+     * Where the first configuration shown in the form came from.
+     */
+    @IntDef({ConfigurationSource.NONE, ConfigurationSource.CACHE, ConfigurationSource.SNAPSHOT, ConfigurationSource.NETWORK})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface ConfigurationSource {
+        /**
+         * No configuration could be shown.
+         */
+        int NONE = 0;
+        /**
+         * The Application cached by a previous fetch.
+         */
+        int CACHE = 1;
+        /**
+         * The Application snapshot bundled at build time.
+         */
+        int SNAPSHOT = 2;
+        /**
+         * The Application fetched during the launch.
+         */
+        int NETWORK = 3;
+    }
+
+    /**
+     * Kind of connection the last authentication of the launch was made with.
+     */
+    @IntDef({ConnectionType.NONE, ConnectionType.DATABASE, ConnectionType.ENTERPRISE, ConnectionType.PASSWORDLESS, ConnectionType.OAUTH})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface ConnectionType {
+        /**
+         * No authentication was made.
+         */
+        int NONE = 0;
+        int DATABASE = 1;
+        /**
+         * An enterprise connection authenticated with username and password, without the browser.
+         */
+        int ENTERPRISE = 2;
+        int PASSWORDLESS = 3;
+        /**
+         * A social or enterprise connection authenticated in the browser or by a custom AuthProvider. The latency
+         * includes the time the user spent on the pages of the identity provider.
+         */
+        int OAUTH = 4;
+    }
+
+    /**
+     * Result of the last authentication of the launch.
+     */
+    @IntDef({Outcome.NONE, Outcome.SUCCESS, Outcome.FAILURE})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Outcome {
+        /**
+         * No authentication ended during the launch.
+         */
+        int NONE = 0;
+        int SUCCESS = 1;
+        int FAILURE = 2;
+    }
+
+    private final long launchTime;
+    @ConfigurationSource
+    private final int configurationSource;
+    private final int fetchDuration;
+    private final int parseDuration;
+    private final int formDuration;
+    @ConnectionType
+    private final int connectionType;
+    private final int authenticationLatency;
+    @Outcome
+    private final int authenticationOutcome;
+
+    public LockFunnelRecord(long launchTime, @ConfigurationSource int configurationSource, int fetchDuration, int parseDuration, int formDuration,
+                            @ConnectionType int connectionType, int authenticationLatency, @Outcome int authenticationOutcome) {
+        this.launchTime = launchTime;
+        this.configurationSource = configurationSource;
+        this.fetchDuration = fetchDuration;
+        this.parseDuration = parseDuration;
+        this.formDuration = formDuration;
+        this.connectionType = connectionType;
+        this.authenticationLatency = authenticationLatency;
+        this.authenticationOutcome = authenticationOutcome;
+    }
+
+    /**
+     * @return the wall clock time when the Lock activity was created, in milliseconds since the epoch.
+     */
+    public long getLaunchTime() {
+        return launchTime;
+    }
+
+    @ConfigurationSource
+    public int getConfigurationSource() {
+        return configurationSource;
+    }
+
+    /**
+     * @return how long the Application request took, from being enqueued until its body was read.
+     */
+    public int getFetchDuration() {
+        return fetchDuration;
+    }
+
+    /**
+     * @return how long parsing the fetched Application took.
+     */
+    public int getParseDuration() {
+        return parseDuration;
+    }
+
+    /**
+     * @return the time the user spent in the form, from its first frame until the first authentication was submitted.
+     */
+    public int getFormDuration() {
+        return formDuration;
+    }
+
+    @ConnectionType
+    public int getConnectionType() {
+        return connectionType;
+    }
+
+    /**
+     * @return how long the last authentication of the launch took.
+     */
+    public int getAuthenticationLatency() {
+        return authenticationLatency;
+    }
+
+    @Outcome
+    public int getAuthenticationOutcome() {
+        return authenticationOutcome;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * LockLogger.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Receives the messages logged by Lock, to forward them to the logger used by the application.
+ * Only the messages at or above the level set with the Lock builders are delivered, already formatted
+ * and with the user identities redacted. It can be called from any thread, so implementations should
+ * be fast and thread safe. By default the messages are sent to {@link android.util.Log}.
+ */
+public interface LockLogger {
+
+    /**
+     * Called with every message that passed the level check.
+     *
+     * @param priority the message priority, one of the {@link android.util.Log} levels like {@link android.util.Log#DEBUG}.
+     * @param tag      the name of the Lock class that logged the message.
+     * @param message  the formatted message.
+     * @param error    the error that caused the message, if any.
+     */
+    void log(int priority, @NonNull String tag, @NonNull String message, @Nullable Throwable error);
+}
@@ -0,0 +1,295 @@
+/*
+ * LockManager.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.Intent;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.util.LruCache;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.ConfigurationHolder;
+import com.auth0.android.lock.internal.configuration.Options;
+import com.auth0.android.lock.internal.logging.LockLog;
+
+/**
+ * Keeps the Application configuration of several Auth0 accounts ready, so apps that switch between
+ * clients can show Lock without fetching and parsing the configuration again. Prepare each Lock
+ * instance ahead of time and launch it with {@link #newIntent(Context, Lock)}:
+ * <pre>{@code
+ * LockManager manager = LockManager.getInstance(context);
+ * manager.prepare(lock);
+ * // later
+ * startActivity(manager.newIntent(context, lock));
+ * }</pre>
+ * At most {@link #DEFAULT_MAX_SIZE} accounts are kept by default, evicting the least recently used one.
+ * The prepared configurations are also released when the system is running low on memory.
+ */
+public final class LockManager implements ComponentCallbacks2 {
+
+    private static final String TAG = LockManager.class.getSimpleName();
+    public static final int DEFAULT_MAX_SIZE = 4;
+
+    private static LockManager instance;
+
+    private final Context context;
+    private final LruCache<String, Entry> entries;
+    private long lastEntryId;
+
+    @VisibleForTesting
+    LockManager(@NonNull Context context, int maxSize) {
+        this.context = context.getApplicationContext();
+        this.entries = new LruCache<String, Entry>(maxSize) {
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Entry oldValue, Entry newValue) {
+                LockLog.v(TAG, "Releasing the prepared configuration of %s", key);
+                oldValue.release();
+            }
+        };
+    }
+
+    /**
+     * Getter for the LockManager of this process. The first call registers it to receive the
+     * memory pressure callbacks of the Application.
+     *
+     * @param context a valid Context
+     * @return the LockManager instance.
+     */
+    @MainThread
+    public static LockManager getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new LockManager(context, DEFAULT_MAX_SIZE);
+            instance.context.registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Changes the amount of accounts to keep prepared, evicting the least recently used ones if needed.
+     *
+     * @param maxSize the maximum amount of prepared accounts. Must be greater than 0.
+     */
+    @MainThread
+    public void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The max size must be greater than 0.");
+        }
+        entries.resize(maxSize);
+    }
+
+    /**
+     * Starts fetching the Application configuration of the given Lock instance in background, unless
+     * it was already prepared. Preparing another instance for the same account replaces the previous one.
+     *
+     * @param lock the Lock instance to prepare.
+     */
+    @MainThread
+    public void prepare(@NonNull Lock lock) {
+        prepare(lock.getOptions());
+    }
+
+    /**
+     * Starts fetching the Application configuration of the given PasswordlessLock instance in background,
+     * unless it was already prepared. Preparing another instance for the same account replaces the previous one.
+     *
+     * @param lock the PasswordlessLock instance to prepare.
+     */
+    @MainThread
+    public void prepare(@NonNull PasswordlessLock lock) {
+        prepare(lock.getOptions());
+    }
+
+    /**
+     * Builds the intent to launch the LockActivity of the given Lock instance. If the instance was
+     * prepared and its configuration is ready, it's shown right away without any network request.
+     * Otherwise, the instance is prepared for the next time.
+     *
+     * @param context a valid Context
+     * @param lock    the Lock instance to launch.
+     * @return the intent to which the user has to call startActivity
+     */
+    @MainThread
+    public Intent newIntent(@NonNull Context context, @NonNull Lock lock) {
+        return withPreparedConfiguration(lock.newIntent(context), lock.getOptions());
+    }
+
+    /**
+     * Builds the intent to launch the PasswordlessLockActivity of the given PasswordlessLock instance.
+     * If the instance was prepared and its configuration is ready, it's shown right away without any
+     * network request. Otherwise, the instance is prepared for the next time.
+     *
+     * @param context a valid Context
+     * @param lock    the PasswordlessLock instance to launch.
+     * @return the intent to which the user has to call startActivity
+     */
+    @MainThread
+    public Intent newIntent(@NonNull Context context, @NonNull PasswordlessLock lock) {
+        return withPreparedConfiguration(lock.newIntent(context), lock.getOptions());
+    }
+
+    /**
+     * Whether the configuration of the given account is ready to be shown.
+     *
+     * @param account the account to check.
+     * @return true if the configuration was prepared, false otherwise.
+     */
+    @MainThread
+    public boolean isPrepared(@NonNull Auth0 account) {
+        final Entry entry = entries.get(keyFor(account));
+        return entry != null && entry.isReady();
+    }
+
+    /**
+     * Releases the prepared configuration of the given account.
+     *
+     * @param account the account to release.
+     */
+    @MainThread
+    public void evict(@NonNull Auth0 account) {
+        entries.remove(keyFor(account));
+    }
+
+    /**
+     * Releases every prepared configuration.
+     */
+    @MainThread
+    public void evictAll() {
+        entries.evictAll();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_COMPLETE || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            evictAll();
+        } else if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_LOW) {
+            //keep only the account most likely to be shown next
+            entries.trimToSize(1);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        evictAll();
+    }
+
+    @Override
+    public void onConfigurationChanged(android.content.res.Configuration newConfig) {
+    }
+
+    /**
+     * Looks up the configuration prepared for the intent that launched a Lock activity.
+     *
+     * @param intent  the intent that launched the activity.
+     * @param options the options received in the intent.
+     * @return the prepared configuration, or null if it's not ready or was evicted.
+     */
+    @Nullable
+    @MainThread
+    static Configuration findPrepared(@NonNull Intent intent, @NonNull Options options) {
+        final long id = intent.getLongExtra(Constants.PREPARED_CONFIGURATION_EXTRA, 0);
+        if (instance == null || id == 0) {
+            return null;
+        }
+        final Entry entry = instance.entries.get(keyFor(options.getAccount()));
+        if (entry == null || entry.id != id || !entry.isReady()) {
+            return null;
+        }
+        return entry.holder.get();
+    }
+
+    @VisibleForTesting
+    static void setInstance(@Nullable LockManager manager) {
+        instance = manager;
+    }
+
+    @VisibleForTesting
+    int size() {
+        return entries.size();
+    }
+
+    @VisibleForTesting
+    void putPrepared(@NonNull Options options, @NonNull Configuration configuration) {
+        entries.put(keyFor(options.getAccount()), new Entry(++lastEntryId, options, null, new ConfigurationHolder(configuration)));
+    }
+
+    private void prepare(Options options) {
+        final String key = keyFor(options.getAccount());
+        final Entry existing = entries.get(key);
+        if (existing != null && existing.options == options) {
+            return;
+        }
+        LockLog.v(TAG, "Preparing the configuration of %s", key);
+        final ConfigurationLoader loader = new ConfigurationLoader(options, context);
+        entries.put(key, new Entry(++lastEntryId, options, loader, loader.getHolder()));
+        loader.fetch();
+    }
+
+    private Intent withPreparedConfiguration(Intent intent, Options options) {
+        final Entry entry = entries.get(keyFor(options.getAccount()));
+        if (entry != null && entry.options == options && entry.isReady()) {
+            intent.putExtra(Constants.PREPARED_CONFIGURATION_EXTRA, entry.id);
+        } else {
+            prepare(options);
+        }
+        return intent;
+    }
+
+    static String keyFor(@NonNull Auth0 account) {
+        return account.getClientId() + "@" + account.getDomainUrl();
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final Options options;
+        private final ConfigurationLoader loader;
+        private final ConfigurationHolder holder;
+
+        private Entry(long id, Options options, @Nullable ConfigurationLoader loader, ConfigurationHolder holder) {
+            this.id = id;
+            this.options = options;
+            this.loader = loader;
+            this.holder = holder;
+        }
+
+        /**
+         * Ready once the live Application was received, or the last known one remains after a failed fetch.
+         */
+        private boolean isReady() {
+            return holder.get() != null && (loader == null || !loader.isFetching());
+        }
+
+        private void release() {
+            if (loader != null) {
+                loader.release();
+            }
+        }
+    }
+}
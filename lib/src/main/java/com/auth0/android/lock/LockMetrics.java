@@ -0,0 +1,145 @@
+/*
+ * AuthenticationCallback.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock;
+
+import android.support.annotation.IntDef;
+import android.support.annotation.NonNull;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static com.auth0.android.lock.LockMetrics.Phase.ACTIVITY_START;
+import static com.auth0.android.lock.LockMetrics.Phase.CONFIGURATION_BODY;
+import static com.auth0.android.lock.LockMetrics.Phase.CONFIGURATION_BUILD;
+import static com.auth0.android.lock.LockMetrics.Phase.CONFIGURATION_CONNECT;
+import static com.auth0.android.lock.LockMetrics.Phase.CONFIGURATION_FIRST_BYTE;
+import static com.auth0.android.lock.LockMetrics.Phase.CONFIGURATION_PARSE;
+import static com.auth0.android.lock.LockMetrics.Phase.FIRST_FORM_FRAME;
+import static com.auth0.android.lock.LockMetrics.Phase.FIRST_KEYSTROKE;
+import static com.auth0.android.lock.LockMetrics.Phase.INITIAL_CONFIGURATION_READ;
+import static com.auth0.android.lock.LockMetrics.Phase.OPTIONS_READ;
+import static com.auth0.android.lock.LockMetrics.Phase.PRECONNECT;
+import static com.auth0.android.lock.LockMetrics.Phase.THEME_VALIDATION;
+import static com.auth0.android.lock.LockMetrics.Phase.VIEWS_SETUP;
+
+/**
+ * Listener used by Lock to report how long each step of the log in flow took.
+ * All the durations are measured in milliseconds with a monotonic clock. The methods are called on
+ * the thread where the step ended, which can be a background thread, so implementations should be fast
+ * and thread safe. When no listener is set Lock doesn't take any measure.
+ */
+public interface LockMetrics {
+    /**
+     * Steps of the Lock start up that are measured.
+     */
+    @SuppressWarnings("UnnecessaryInterfaceModifier")
+    @IntDef({ACTIVITY_START, CONFIGURATION_CONNECT, CONFIGURATION_FIRST_BYTE, CONFIGURATION_BODY, CONFIGURATION_PARSE, CONFIGURATION_BUILD, FIRST_FORM_FRAME, FIRST_KEYSTROKE, PRECONNECT, OPTIONS_READ, INITIAL_CONFIGURATION_READ, THEME_VALIDATION, VIEWS_SETUP})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Phase {
+        /**
+         * From the creation of the Lock activity until its views are set up.
+         */
+        int ACTIVITY_START = 0;
+        /**
+         * From the Application configuration request being enqueued until the connection is ready.
+         * Includes the DNS lookup, the TCP and TLS handshakes and any time spent waiting for a free connection.
+         */
+        int CONFIGURATION_CONNECT = 1;
+        /**
+         * From the connection being ready until the configuration response headers are received.
+         */
+        int CONFIGURATION_FIRST_BYTE = 2;
+        /**
+         * Reading the configuration response body.
+         */
+        int CONFIGURATION_BODY = 3;
+        /**
+         * Parsing the configuration response into connections.
+         */
+        int CONFIGURATION_PARSE = 4;
+        /**
+         * Building the Lock Configuration from the connections and the Options.
+         */
+        int CONFIGURATION_BUILD = 5;
+        /**
+         * From the creation of the Lock activity until the first frame with the form is drawn.
+         */
+        int FIRST_FORM_FRAME = 6;
+        /**
+         * From the creation of the Lock activity until the user types in the form for the first time.
+         */
+        int FIRST_KEYSTROKE = 7;
+        /**
+         * Opening the connection to the Auth0 domain while the Lock activity starts, before any Authentication API request
+         * is made. Includes the DNS lookup and the TCP and TLS handshakes, which is the time saved on the first request.
+         */
+        int PRECONNECT = 8;
+        /**
+         * Reading and validating the Options received by the Lock activity. The configuration fetch starts right after it.
+         */
+        int OPTIONS_READ = 9;
+        /**
+         * Reading the configuration cached by a previous fetch, or bundled at build time, in background.
+         * Runs in parallel with the setup of the views.
+         */
+        int INITIAL_CONFIGURATION_READ = 10;
+        /**
+         * Checking that the Lock activity uses a Lock.Theme.
+         */
+        int THEME_VALIDATION = 11;
+        /**
+         * Inflating the Lock activity layout and creating the form views.
+         */
+        int VIEWS_SETUP = 12;
+    }
+
+    /**
+     * Called when a step of the Lock start up ends.
+     *
+     * @param phase          the step that ended.
+     * @param durationMillis how long the step took.
+     */
+    void onPhaseCompleted(@Phase int phase, long durationMillis);
+
+    /**
+     * Called when an authentication ends, i.e. a log in, or a sign up followed by the log in. Social and
+     * enterprise logins made in the browser or by a custom AuthProvider are included, and their duration
+     * counts the time the user spent on the pages of the identity provider. Sign ups without the log in,
+     * change password and passwordless code requests are not reported.
+     *
+     * @param connection     the name of the connection the user authenticated with.
+     * @param successful     whether the authentication succeeded or not.
+     * @param durationMillis how long the authentication took.
+     */
+    void onAuthenticationCompleted(@NonNull String connection, boolean successful, long durationMillis);
+
+    /**
+     * Called when the user submitted the same request again while it was still running, and the new submit
+     * was attached to it instead of starting a new request.
+     *
+     * @param action the kind of request, i.e. "log_in", "sign_up", "change_password", "passwordless_code_request" or "passwordless_log_in".
+     */
+    void onDuplicateRequestSuppressed(@NonNull String action);
+}
@@ -30,18 +30,23 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.os.Build;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.StyleRes;
 import android.support.v4.content.LocalBroadcastManager;
-import android.util.Log;
 
 import com.auth0.android.Auth0;
 import com.auth0.android.authentication.ParameterBuilder;
 import com.auth0.android.lock.LockCallback.LockEvent;
 import com.auth0.android.lock.internal.configuration.Options;
 import com.auth0.android.lock.internal.configuration.Theme;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.lock.internal.metrics.FunnelRecorder;
+import com.auth0.android.lock.internal.metrics.FunnelStore;
+import com.auth0.android.lock.internal.metrics.MetricsRecorder;
 import com.auth0.android.lock.provider.AuthResolver;
 import com.auth0.android.lock.utils.LockException;
 import com.auth0.android.provider.AuthHandler;
+import com.auth0.android.result.Credentials;
 import com.auth0.android.util.Telemetry;
 
 import java.util.Arrays;
@@ -54,6 +59,11 @@ public class PasswordlessLock {
     private static final String TAG = PasswordlessLock.class.getSimpleName();
     private final LockCallback callback;
     private final Options options;
+    private final LockMetrics metrics;
+    private final LockLogger logger;
+    private final FunnelRecorder funnelRecorder;
+    private final CredentialsCache credentialsCache;
+    private final CredentialsRenewer credentialsRenewer;
 
     /**
      * Listens to PasswordlessLockActivity broadcasts and fires the correct action on the LockCallback.
@@ -66,9 +76,26 @@ public class PasswordlessLock {
         }
     };
 
-    private PasswordlessLock(Options options, LockCallback callback) {
+    private PasswordlessLock(Options options, LockCallback callback, LockMetrics metrics, LockLogger logger, FunnelRecorder funnelRecorder, CredentialsStore credentialsStore, boolean renewCredentials) {
         this.options = options;
         this.callback = callback;
+        this.metrics = metrics;
+        this.logger = logger;
+        this.funnelRecorder = funnelRecorder;
+        this.credentialsCache = credentialsStore == null ? null : new CredentialsCache(credentialsStore);
+        this.credentialsRenewer = renewCredentials ? new CredentialsRenewer(options.getAuthenticationAPIClient()) : null;
+        if (credentialsRenewer != null && credentialsCache != null) {
+            credentialsRenewer.setRenewalListener(new CredentialsRenewer.Callback() {
+                @Override
+                public void onSuccess(@NonNull Credentials credentials) {
+                    credentialsCache.save(credentials);
+                }
+
+                @Override
+                public void onFailure(@NonNull LockException error) {
+                }
+            });
+        }
     }
 
     /**
@@ -124,6 +151,47 @@ public class PasswordlessLock {
         return lockIntent;
     }
 
+    /**
+     * The renewer that keeps the credentials delivered by this Lock instance fresh.
+     *
+     * @return the CredentialsRenewer, or null if the renewal wasn't enabled in the builder.
+     */
+    @Nullable
+    public CredentialsRenewer getCredentialsRenewer() {
+        return credentialsRenewer;
+    }
+
+    /**
+     * Notifies the LockCallback with the credentials saved in the CredentialsStore if they are still valid,
+     * without showing the PasswordlessLockActivity. Otherwise, the PasswordlessLockActivity is launched with the previously configured options.
+     * When no CredentialsStore was set in the builder, the PasswordlessLockActivity is always launched.
+     *
+     * @param context a valid Context
+     */
+    @SuppressWarnings("unused")
+    public void authenticate(@NonNull final Context context) {
+        if (credentialsCache == null) {
+            context.startActivity(newIntent(context));
+            return;
+        }
+        final Context appContext = context.getApplicationContext();
+        credentialsCache.load(new CredentialsCache.Callback() {
+            @Override
+            public void onCredentialsLoaded(@Nullable Credentials credentials) {
+                if (credentials == null) {
+                    LockLog.v(TAG, "No valid credentials were cached. Launching the PasswordlessLockActivity");
+                    appContext.startActivity(newIntent(appContext));
+                    return;
+                }
+                LockLog.v(TAG, "Using the cached credentials");
+                if (credentialsRenewer != null) {
+                    credentialsRenewer.setCredentials(credentials);
+                }
+                callback.onEvent(LockEvent.AUTHENTICATION, CredentialsCache.toIntent(credentials));
+            }
+        });
+    }
+
     /**
      * This method ensures proper Lock's lifecycle handling. Must be called from the class
      * holding the Lock instance whenever you're done using it. i.e. in the Activity's onDestroy method.
@@ -133,6 +201,18 @@ public class PasswordlessLock {
     @SuppressWarnings("unused")
     public void onDestroy(Context context) {
         LocalBroadcastManager.getInstance(context).unregisterReceiver(this.receiver);
+        if (metrics != null) {
+            MetricsRecorder.removeListener(metrics);
+        }
+        if (logger != null) {
+            LockLog.removeLogger(logger);
+        }
+        if (funnelRecorder != null) {
+            MetricsRecorder.removeFunnelRecorder(funnelRecorder);
+        }
+        if (credentialsRenewer != null) {
+            credentialsRenewer.clear();
+        }
     }
 
     private void initialize(Context context) {
@@ -147,19 +227,25 @@ public class PasswordlessLock {
         String action = data.getAction();
         switch (action) {
             case Constants.AUTHENTICATION_ACTION:
-                Log.v(TAG, "AUTHENTICATION action received in our BroadcastReceiver");
+                LockLog.v(TAG, "AUTHENTICATION action received in our BroadcastReceiver");
                 if (data.getExtras().containsKey(Constants.ERROR_EXTRA)) {
                     callback.onError(new LockException(data.getStringExtra(Constants.ERROR_EXTRA)));
                 } else {
+                    if (credentialsCache != null) {
+                        credentialsCache.save(data);
+                    }
+                    if (credentialsRenewer != null) {
+                        credentialsRenewer.setCredentials(CredentialsCache.fromIntent(data));
+                    }
                     callback.onEvent(LockEvent.AUTHENTICATION, data);
                 }
                 break;
             case Constants.CANCELED_ACTION:
-                Log.v(TAG, "CANCELED action received in our BroadcastReceiver");
+                LockLog.v(TAG, "CANCELED action received in our BroadcastReceiver");
                 callback.onEvent(LockEvent.CANCELED, new Intent());
                 break;
             case Constants.INVALID_CONFIGURATION_ACTION:
-                Log.v(TAG, "INVALID_CONFIGURATION_ACTION action received in our BroadcastReceiver");
+                LockLog.v(TAG, "INVALID_CONFIGURATION_ACTION action received in our BroadcastReceiver");
                 callback.onError(new LockException(data.getStringExtra(Constants.ERROR_EXTRA)));
                 break;
         }
@@ -172,6 +258,15 @@ public class PasswordlessLock {
         private static final String TAG = Builder.class.getSimpleName();
         private Options options;
         private LockCallback callback;
+        private LockMetrics metrics;
+        private LockLogger logger;
+        private int logLevel = LockLog.DEFAULT_LEVEL;
+        private boolean recordFunnel;
+        private CredentialsStore credentialsStore;
+        private boolean renewCredentials;
+        private long configurationRefreshInterval;
+        private ConfigurationRefreshScheduler configurationRefreshScheduler;
+        private Integer configurationRefreshFirstJobId;
 
         /**
          * Creates a new Lock.Builder instance with the given account and callback.
@@ -195,8 +290,12 @@ public class PasswordlessLock {
          * @return a new Lock instance configured as in the Builder.
          */
         public PasswordlessLock build(@NonNull Context context) {
+            LockLog.setLevel(logLevel);
+            if (logger != null) {
+                LockLog.setLogger(logger);
+            }
             if (options.getAccount() == null) {
-                Log.w(TAG, "com.auth0.android.Auth0 account details not defined. Trying to create it from the String resources.");
+                LockLog.w(TAG, "com.auth0.android.Auth0 account details not defined. Trying to create it from the String resources.");
                 try {
                     options.setAccount(new Auth0(context));
                 } catch (IllegalArgumentException e) {
@@ -204,17 +303,36 @@ public class PasswordlessLock {
                 }
             }
             if (callback == null) {
-                Log.e(TAG, "You need to specify the callback object to receive the Authentication result.");
+                LockLog.e(TAG, "You need to specify the callback object to receive the Authentication result.");
                 throw new IllegalStateException("Missing callback.");
             }
-            Log.v(TAG, "PasswordlessLock instance created");
+            if (credentialsStore instanceof SecureCredentialsStore && !((SecureCredentialsStore) credentialsStore).belongsTo(options.getAccount())) {
+                throw new IllegalStateException("The SecureCredentialsStore was created for another Auth0 account.");
+            }
+            if (configurationRefreshInterval > 0 && configurationRefreshScheduler == null && configurationRefreshFirstJobId == null) {
+                throw new IllegalStateException("You need to reserve the JobScheduler ids of the configuration refresh with withConfigurationRefreshJobIds, or set your own ConfigurationRefreshScheduler.");
+            }
+            LockLog.v(TAG, "PasswordlessLock instance created");
 
             if (options.getAccount().getTelemetry() != null) {
-                Log.v(TAG, String.format("Using Telemetry %s (%s) and Library %s", Constants.LIBRARY_NAME, com.auth0.android.lock.BuildConfig.VERSION_NAME, com.auth0.android.auth0.BuildConfig.VERSION_NAME));
+                LockLog.v(TAG, "Using Telemetry %s (%s) and Library %s", Constants.LIBRARY_NAME, com.auth0.android.lock.BuildConfig.VERSION_NAME, com.auth0.android.auth0.BuildConfig.VERSION_NAME);
                 options.getAccount().setTelemetry(new Telemetry(Constants.LIBRARY_NAME, com.auth0.android.lock.BuildConfig.VERSION_NAME, com.auth0.android.auth0.BuildConfig.VERSION_NAME));
             }
 
-            final PasswordlessLock lock = new PasswordlessLock(options, callback);
+            if (metrics != null) {
+                MetricsRecorder.setListener(metrics);
+            }
+            final FunnelRecorder funnelRecorder = recordFunnel ? new FunnelRecorder(FunnelStore.getInstance(context)) : null;
+            if (funnelRecorder != null) {
+                MetricsRecorder.setFunnelRecorder(funnelRecorder);
+            }
+
+            if (configurationRefreshInterval > 0) {
+                final ConfigurationRefreshScheduler scheduler = configurationRefreshScheduler != null ? configurationRefreshScheduler : new JobSchedulerRefreshScheduler(configurationRefreshFirstJobId);
+                scheduler.schedule(context.getApplicationContext(), options.getAccount(), configurationRefreshInterval);
+            }
+
+            final PasswordlessLock lock = new PasswordlessLock(options, callback, metrics, logger, funnelRecorder, credentialsStore, renewCredentials);
             lock.initialize(context);
             return lock;
         }
@@ -368,6 +486,142 @@ public class PasswordlessLock {
             return this;
         }
 
+        /**
+         * Whether to open the connection to the Auth0 domain as soon as the activity starts, so that the
+         * first Authentication API request doesn't have to wait for it. By default it will preconnect.
+         *
+         * @param preconnect if the connection should be opened in advance or not.
+         * @return the current builder instance
+         */
+        public Builder preconnect(boolean preconnect) {
+            options.setPreconnect(preconnect);
+            return this;
+        }
+
+        /**
+         * Sets the listener that will receive the timings of each step of the log in flow.
+         * It's removed when onDestroy is called on the Lock instance.
+         *
+         * @param metrics the listener to notify.
+         * @return the current builder instance
+         */
+        public Builder withMetrics(@NonNull LockMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Sends the messages logged by Lock to the given logger instead of {@link android.util.Log}.
+         * It's removed when onDestroy is called on the PasswordlessLock instance.
+         *
+         * @param logger the logger to use.
+         * @return the current builder instance
+         */
+        public Builder withLogger(@NonNull LockLogger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        /**
+         * Sets the minimum priority of the messages logged by Lock. The messages below it are discarded
+         * before being formatted. By default only info, warnings and errors are logged.
+         *
+         * @param priority one of the {@link android.util.Log} levels, like {@link android.util.Log#VERBOSE}
+         *                 while debugging or {@link android.util.Log#ASSERT} to log nothing.
+         * @return the current builder instance
+         */
+        public Builder setLogLevel(int priority) {
+            this.logLevel = priority;
+            return this;
+        }
+
+        /**
+         * Stores on the device the timings of each launch of the PasswordlessLockActivity: where the configuration came from,
+         * how long it took to fetch and parse it, the time spent in the form and the latency and outcome of the authentication
+         * requests. The records are written in background to a fixed size file, and read with {@link LockFunnel}.
+         * The recording stops when onDestroy is called on the PasswordlessLock instance. By default nothing is recorded.
+         *
+         * @param record whether to store the timings of each launch or not.
+         * @return the current builder instance
+         */
+        public Builder recordFunnel(boolean record) {
+            this.recordFunnel = record;
+            return this;
+        }
+
+        /**
+         * Saves the credentials of every successful authentication in the given store, so that
+         * the next call to authenticate can return them without showing the PasswordlessLockActivity.
+         * Call {@link CredentialsStore#clear()} from a background thread when the user logs out.
+         *
+         * The store must only keep the credentials of this Lock's account.
+         *
+         * @param store where to keep the credentials. Use {@link SecureCredentialsStore} to encrypt them at rest.
+         * @return the current builder instance
+         */
+        public Builder withCredentialsStore(@NonNull CredentialsStore store) {
+            this.credentialsStore = store;
+            return this;
+        }
+
+        /**
+         * Whether to renew the delivered credentials ahead of their expiration using their refresh token.
+         * Request the 'offline_access' scope to receive one. The renewed credentials are also saved in
+         * the CredentialsStore, if any. By default the credentials are not renewed.
+         *
+         * @param renew if the credentials should be kept fresh by the CredentialsRenewer.
+         * @return the current builder instance
+         * @see PasswordlessLock#getCredentialsRenewer()
+         */
+        public Builder renewCredentials(boolean renew) {
+            this.renewCredentials = renew;
+            return this;
+        }
+
+        /**
+         * Refreshes the cached Application configuration periodically in background, so the next time
+         * Lock is shown it renders the latest one right away. The refresh only runs while the device
+         * is on an unmetered network or charging, and unchanged configurations are not downloaded again.
+         * By default the configuration is only fetched when Lock is shown.
+         *
+         * The default scheduler requires a range of JobScheduler ids set with {@link #withConfigurationRefreshJobIds(int)}.
+         *
+         * @param intervalMillis how often to refresh the configuration. On API 24 and above it can't be less than 15 minutes.
+         * @return the current builder instance
+         */
+        public Builder refreshConfigurationInBackground(long intervalMillis) {
+            this.configurationRefreshInterval = intervalMillis;
+            return this;
+        }
+
+        /**
+         * Sets the scheduler to use for the background refresh of the Application configuration.
+         * By default the JobScheduler is used on API 21 and above.
+         *
+         * @param scheduler the scheduler to use.
+         * @return the current builder instance
+         * @see #refreshConfigurationInBackground(long)
+         */
+        public Builder withConfigurationRefreshScheduler(@NonNull ConfigurationRefreshScheduler scheduler) {
+            this.configurationRefreshScheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Reserves the JobScheduler ids used by the default background refresh of the Application configuration.
+         * The JobScheduler ids are shared by the whole app, so a job scheduled with one of these ids replaces the
+         * other. Lock uses the 100 ids from firstJobId to firstJobId + 99, and the app must not use them for its
+         * own jobs. Use the same value on every launch, or the previous jobs won't be replaced.
+         *
+         * @param firstJobId the first of the 100 consecutive job ids reserved for Lock.
+         * @return the current builder instance
+         * @see #refreshConfigurationInBackground(long)
+         */
+        public Builder withConfigurationRefreshJobIds(int firstJobId) {
+            this.configurationRefreshFirstJobId = firstJobId;
+            return this;
+        }
+
         /**
          * Sets the Scope to request when performing the Authentication.
          *
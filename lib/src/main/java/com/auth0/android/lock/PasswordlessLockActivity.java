@@ -31,6 +31,7 @@ import android.content.res.TypedArray;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
@@ -38,7 +39,6 @@ import android.support.v4.app.ActivityCompat;
 import android.support.v4.content.ContextCompat;
 import android.support.v4.content.LocalBroadcastManager;
 import android.support.v7.app.AppCompatActivity;
-import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager;
@@ -49,7 +49,6 @@ import android.widget.TextView;
 
 import com.auth0.android.authentication.AuthenticationAPIClient;
 import com.auth0.android.authentication.AuthenticationException;
-import com.auth0.android.authentication.ParameterBuilder;
 import com.auth0.android.lock.adapters.Country;
 import com.auth0.android.lock.errors.AuthenticationError;
 import com.auth0.android.lock.errors.LoginErrorMessageBuilder;
@@ -57,10 +56,13 @@ import com.auth0.android.lock.events.CountryCodeChangeEvent;
 import com.auth0.android.lock.events.FetchApplicationEvent;
 import com.auth0.android.lock.events.OAuthLoginEvent;
 import com.auth0.android.lock.events.PasswordlessLoginEvent;
-import com.auth0.android.lock.internal.configuration.ApplicationFetcher;
 import com.auth0.android.lock.internal.configuration.Configuration;
-import com.auth0.android.lock.internal.configuration.Connection;
+import com.auth0.android.lock.internal.configuration.ConfigurationHolder;
 import com.auth0.android.lock.internal.configuration.Options;
+import com.auth0.android.lock.internal.configuration.ParameterTemplate;
+import com.auth0.android.lock.internal.configuration.Preconnector;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.lock.internal.metrics.MetricsRecorder;
 import com.auth0.android.lock.internal.configuration.PasswordlessMode;
 import com.auth0.android.lock.provider.AuthResolver;
 import com.auth0.android.lock.views.PasswordlessLockView;
@@ -75,11 +77,13 @@ import com.squareup.otto.Subscribe;
 
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 
 public class PasswordlessLockActivity extends AppCompatActivity implements ActivityCompat.OnRequestPermissionsResultCallback {
 
     private static final String TAG = PasswordlessLockActivity.class.getSimpleName();
+    private static final String KEY_LAST_IDENTITY = "com.auth0.android.lock.key.LastPasswordlessIdentity";
+    private static final String KEY_LAST_COUNTRY_ISO_CODE = "com.auth0.android.lock.key.LastPasswordlessCountryIsoCode";
+    private static final String KEY_LAST_COUNTRY_DIAL_CODE = "com.auth0.android.lock.key.LastPasswordlessCountryDialCode";
     private static final int WEB_AUTH_REQUEST_CODE = 200;
     private static final int CUSTOM_AUTH_REQUEST_CODE = 201;
     private static final int PERMISSION_REQUEST_CODE = 202;
@@ -87,8 +91,9 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
     private static final long RESULT_MESSAGE_DURATION = 3000;
     private static final long RESEND_TIMEOUT = 20 * 1000;
 
-    private ApplicationFetcher applicationFetcher;
-    private Configuration configuration;
+    private ConfigurationLoader configurationLoader;
+    private ConfigurationHolder configurationHolder;
+    private RetainedState retainedState;
     private Options options;
     private Handler handler;
 
@@ -98,6 +103,8 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
 
     private String lastPasswordlessIdentity;
     private Country lastPasswordlessCountry;
+    private long linkSentTime;
+    private Intent pendingLinkIntent;
     private Bus lockBus;
     private ScrollView rootView;
     private TextView resendButton;
@@ -106,7 +113,7 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
     private WebProvider webProvider;
 
     private LoginErrorMessageBuilder loginErrorBuilder;
-    private PasswordlessIdentityHelper identityHelper;
+    private volatile PasswordlessIdentityHelper identityHelper;
 
     @SuppressWarnings("unused")
     public PasswordlessLockActivity() {
@@ -114,25 +121,72 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
 
     @VisibleForTesting
     PasswordlessLockActivity(Configuration configuration, Options options, PasswordlessLockView lockView, WebProvider webProvider, String lastEmailOrNumber) {
-        this.configuration = configuration;
         this.options = options;
+        this.configurationLoader = new ConfigurationLoader(options, new ConfigurationHolder(configuration));
+        this.configurationHolder = configurationLoader.getHolder();
+        this.retainedState = new RetainedState(configurationLoader);
+        this.retainedState.requests.attach(this);
+        this.handler = retainedState.requests.getHandler();
         this.lockView = lockView;
         this.webProvider = webProvider;
         this.lastPasswordlessIdentity = lastEmailOrNumber;
     }
 
+    /**
+     * The start up is ordered by its critical path: the configuration is requested as soon as the Options
+     * are read, so the disk and network work runs in background while the views are set up.
+     */
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        if (!hasValidLaunchConfig()) {
+        if (savedInstanceState == null) {
+            MetricsRecorder.startSession();
+        }
+        final long optionsTime = MetricsRecorder.stageStarted("Lock.readOptions");
+        final boolean validOptions = hasValidOptions();
+        MetricsRecorder.stageCompleted(LockMetrics.Phase.OPTIONS_READ, optionsTime);
+        if (!validOptions) {
+            deliverInvalidConfiguration("Configuration is not valid and the Activity will finish.");
             return;
         }
 
+        final RetainedState lastRetainedState = (RetainedState) getLastCustomNonConfigurationInstance();
+        if (lastRetainedState != null) {
+            retainedState = lastRetainedState;
+            configurationLoader = retainedState.configurationLoader;
+            lastPasswordlessIdentity = retainedState.lastPasswordlessIdentity;
+            lastPasswordlessCountry = retainedState.lastPasswordlessCountry;
+            pendingLinkIntent = retainedState.pendingLinkIntent;
+        } else {
+            configurationLoader = createConfigurationLoader();
+            retainedState = new RetainedState(configurationLoader);
+            if (savedInstanceState != null) {
+                restoreLastPasswordlessData(savedInstanceState);
+            }
+        }
+        retainedState.requests.attach(this);
+        configurationHolder = configurationLoader.getHolder();
+        if (configurationHolder.get() == null) {
+            configurationLoader.fetch();
+        }
+        if (savedInstanceState == null && options.preconnect()) {
+            new Preconnector(new OkHttpClient()).preconnect(options.getAccount());
+        }
+
+        final long themeTime = MetricsRecorder.stageStarted("Lock.validateTheme");
+        final boolean validTheme = hasValidTheme();
+        MetricsRecorder.stageCompleted(LockMetrics.Phase.THEME_VALIDATION, themeTime);
+        if (!validTheme) {
+            deliverInvalidConfiguration("You need to use a Lock.Theme theme (or descendant) with this Activity.");
+            return;
+        }
+
+        final long viewsTime = MetricsRecorder.stageStarted("Lock.setupViews");
         getWindow().setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_ADJUST_RESIZE);
         lockBus = new Bus();
         lockBus.register(this);
-        handler = new Handler(getMainLooper());
-        webProvider = new WebProvider(options);
+        handler = retainedState.requests.getHandler();
+        webProvider = new WebProvider(options, options.useBrowser() ? new CustomTabsWarmUp(this) : null, new ConnectionHistory(this));
 
         setContentView(R.layout.com_auth0_lock_activity_lock_passwordless);
         passwordlessSuccessCover = (LinearLayout) findViewById(R.id.com_auth0_lock_link_sent_cover);
@@ -142,31 +196,141 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
         RelativeLayout.LayoutParams lockViewParams = new RelativeLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
         lockView.setLayoutParams(lockViewParams);
         rootView.addView(lockView);
+        MetricsRecorder.stageCompleted(LockMetrics.Phase.VIEWS_SETUP, viewsTime);
 
-        if (options.useCodePasswordless()) {
-            loginErrorBuilder = new LoginErrorMessageBuilder(R.string.com_auth0_lock_passwordless_code_request_error_message, R.string.com_auth0_lock_passwordless_login_error_invalid_credentials_message);
-        } else {
-            loginErrorBuilder = new LoginErrorMessageBuilder(R.string.com_auth0_lock_passwordless_link_request_error_message, R.string.com_auth0_lock_passwordless_login_error_invalid_credentials_message);
+        configurationLoader.setFailureListener(configurationFailureListener);
+        configurationHolder.setListener(configurationListener);
+        if (lastRetainedState != null && configurationHolder.get() != null) {
+            restoreRetainedState(lastRetainedState);
+        } else if (configurationHolder.get() == null && !configurationLoader.isFetching()) {
+            lockBus.post(new FetchApplicationEvent());
+        }
+        retainedState.requests.runPendingActions();
+        if (savedInstanceState == null) {
+            MetricsRecorder.activityStarted();
+        }
+    }
+
+    private void restoreRetainedState(RetainedState retainedState) {
+        LockLog.v(TAG, "Restoring the retained form state");
+        if (retainedState.waitingForCode && lastPasswordlessIdentity != null) {
+            lockView.onPasswordlessCodeSent(lastPasswordlessIdentity);
+        }
+        if (retainedState.linkSentTime != 0) {
+            long elapsed = SystemClock.elapsedRealtime() - retainedState.linkSentTime;
+            showLinkSentLayout(Math.max(0, RESEND_TIMEOUT - elapsed));
+            linkSentTime = retainedState.linkSentTime;
+        }
+        if (retainedState.requests.hasOutstanding()) {
+            lockView.showProgress(true);
         }
-        lockBus.post(new FetchApplicationEvent());
     }
 
-    private boolean hasValidLaunchConfig() {
-        String errorDescription = null;
-        if (!hasValidOptions()) {
-            errorDescription = "Configuration is not valid and the Activity will finish.";
+    private void restoreLastPasswordlessData(@NonNull Bundle savedInstanceState) {
+        lastPasswordlessIdentity = savedInstanceState.getString(KEY_LAST_IDENTITY);
+        final String isoCode = savedInstanceState.getString(KEY_LAST_COUNTRY_ISO_CODE);
+        final String dialCode = savedInstanceState.getString(KEY_LAST_COUNTRY_DIAL_CODE);
+        if (isoCode != null && dialCode != null) {
+            lastPasswordlessCountry = new Country(isoCode, dialCode);
         }
-        if (!hasValidTheme()) {
-            errorDescription = "You need to use a Lock.Theme theme (or descendant) with this Activity.";
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        //keep the identity the code was requested for, so a link opened after the process died can still be used
+        outState.putString(KEY_LAST_IDENTITY, lastPasswordlessIdentity);
+        if (lastPasswordlessCountry != null) {
+            outState.putString(KEY_LAST_COUNTRY_ISO_CODE, lastPasswordlessCountry.getIsoCode());
+            outState.putString(KEY_LAST_COUNTRY_DIAL_CODE, lastPasswordlessCountry.getDialCode());
         }
-        if (errorDescription == null) {
-            return true;
+    }
+
+    @Override
+    public Object onRetainCustomNonConfigurationInstance() {
+        if (retainedState == null || lockView == null) {
+            return null;
         }
+        retainedState.save(lastPasswordlessIdentity, lastPasswordlessCountry, lockView.isWaitingForCode(), linkSentTime, pendingLinkIntent);
+        return retainedState;
+    }
+
+    @Override
+    public void finish() {
+        super.finish();
+        releaseRequests();
+    }
+
+    @Override
+    protected void onDestroy() {
+        releaseRequests();
+        if (retainedState != null && retainedState.requests.getHost() == this) {
+            retainedState.requests.detach();
+        }
+        if (configurationLoader != null) {
+            configurationLoader.setFailureListener(null);
+            configurationHolder.setListener(null);
+        }
+        if (webProvider != null) {
+            webProvider.release();
+        }
+        if (isFinishing()) {
+            MetricsRecorder.endSession();
+        }
+        super.onDestroy();
+    }
+
+    /**
+     * Cancels every outstanding network call and drops the pending UI callbacks, as the result
+     * can no longer be shown to the user. On a configuration change only the timers of this instance's
+     * views are dropped: the running requests are handed over to the new Activity instance with the
+     * retained state, and so are the results that arrive in between.
+     */
+    private void releaseRequests() {
+        if (isChangingConfigurations()) {
+            if (handler != null) {
+                handler.removeCallbacks(resultMessageHider);
+                handler.removeCallbacks(resendTimeoutShower);
+            }
+            return;
+        }
+        if (retainedState != null) {
+            retainedState.requests.release();
+        }
+        if (configurationLoader != null) {
+            configurationLoader.release();
+        }
+    }
+
+    /**
+     * Uses the configuration prepared by the LockManager when it's ready, so no fetch is needed.
+     */
+    @VisibleForTesting
+    ConfigurationLoader createConfigurationLoader() {
+        final Configuration prepared = LockManager.findPrepared(getIntent(), options);
+        if (prepared != null) {
+            LockLog.v(TAG, "Using the configuration prepared by the LockManager");
+            return new ConfigurationLoader(options, new ConfigurationHolder(prepared));
+        }
+        return new ConfigurationLoader(options, getApplicationContext());
+    }
+
+    /**
+     * The error builder is only needed once a request fails, so it's not created during the start up.
+     */
+    private synchronized LoginErrorMessageBuilder loginErrorBuilder() {
+        if (loginErrorBuilder == null) {
+            final int requestErrorRes = options.useCodePasswordless() ? R.string.com_auth0_lock_passwordless_code_request_error_message : R.string.com_auth0_lock_passwordless_link_request_error_message;
+            loginErrorBuilder = new LoginErrorMessageBuilder(requestErrorRes, R.string.com_auth0_lock_passwordless_login_error_invalid_credentials_message);
+        }
+        return loginErrorBuilder;
+    }
+
+    private void deliverInvalidConfiguration(String errorDescription) {
         Intent intent = new Intent(Constants.INVALID_CONFIGURATION_ACTION);
         intent.putExtra(Constants.ERROR_EXTRA, errorDescription);
         LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
         finish();
-        return false;
     }
 
     private boolean hasValidTheme() {
@@ -179,21 +343,21 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
     private boolean hasValidOptions() {
         options = getIntent().getParcelableExtra(Constants.OPTIONS_EXTRA);
         if (options == null) {
-            Log.e(TAG, "Lock Options are missing in the received Intent and PasswordlessLockActivity will not launch. " +
+            LockLog.e(TAG, "Lock Options are missing in the received Intent and PasswordlessLockActivity will not launch. " +
                     "Use the PasswordlessLock.Builder to generate a valid Intent.");
             return false;
         }
 
         boolean launchedForResult = getCallingActivity() != null;
         if (launchedForResult) {
-            Log.e(TAG, "You're not allowed to start Lock with startActivityForResult.");
+            LockLog.e(TAG, "You're not allowed to start Lock with startActivityForResult.");
             return false;
         }
         if (Build.VERSION.SDK_INT > Build.VERSION_CODES.KITKAT) {
             //TODO: Document this case for users on <= KITKAT, as they will not receive this warning.
             boolean launchedAsSingleTask = (getIntent().getFlags() & Intent.FLAG_ACTIVITY_NEW_TASK) != 0;
             if (options.useBrowser() && !launchedAsSingleTask) {
-                Log.e(TAG, "Please, check that you have specified launchMode 'singleTask' in the AndroidManifest.");
+                LockLog.e(TAG, "Please, check that you have specified launchMode 'singleTask' in the AndroidManifest.");
                 return false;
             }
         }
@@ -212,7 +376,7 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
             return;
         }
 
-        Log.v(TAG, "User has just closed the activity.");
+        LockLog.v(TAG, "User has just closed the activity.");
         Intent intent = new Intent(Constants.CANCELED_ACTION);
         LocalBroadcastManager.getInstance(PasswordlessLockActivity.this).sendBroadcast(intent);
         super.onBackPressed();
@@ -247,12 +411,18 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
     };
 
     private void showLinkSentLayout() {
+        linkSentTime = SystemClock.elapsedRealtime();
+        showLinkSentLayout(RESEND_TIMEOUT);
+    }
+
+    private void showLinkSentLayout(long resendDelay) {
         TextView successMessage = (TextView) passwordlessSuccessCover.findViewById(R.id.com_auth0_lock_passwordless_message);
         successMessage.setText(String.format(getString(R.string.com_auth0_lock_title_passwordless_link_sent), lastPasswordlessIdentity));
         TextView gotCodeButton = (TextView) passwordlessSuccessCover.findViewById(R.id.com_auth0_lock_got_code);
         gotCodeButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
+                linkSentTime = 0;
                 lockView.setVisibility(View.VISIBLE);
                 passwordlessSuccessCover.setVisibility(View.GONE);
             }
@@ -261,9 +431,11 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
         resendButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
+                linkSentTime = 0;
                 resendButton.setVisibility(View.GONE);
                 rootView.removeView(lockView);
                 lockView = new PasswordlessLockView(PasswordlessLockActivity.this, lockBus, options.getTheme());
+                final Configuration configuration = configurationHolder.get();
                 if (configuration != null) {
                     lockView.configure(configuration);
                     reloadRecentPasswordlessData(false);
@@ -277,7 +449,7 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
         lockView.setVisibility(View.GONE);
         passwordlessSuccessCover.setVisibility(View.VISIBLE);
         handler.removeCallbacks(resendTimeoutShower);
-        handler.postDelayed(resendTimeoutShower, RESEND_TIMEOUT);
+        handler.postDelayed(resendTimeoutShower, resendDelay);
     }
 
     final Runnable resendTimeoutShower = new Runnable() {
@@ -290,11 +462,12 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
     };
 
     private void reloadRecentPasswordlessData(boolean submitForm) {
-        if (!configuration.usePasswordlessAutoSubmit() || !identityHelper.hasLoggedInBefore()) {
+        final Configuration configuration = configurationHolder.get();
+        if (configuration == null || !configuration.usePasswordlessAutoSubmit() || !identityHelper.hasLoggedInBefore()) {
             return;
         }
 
-        Log.d(TAG, "Reloading passwordless identity from a previous successful log in.");
+        LockLog.d(TAG, "Reloading passwordless identity from a previous successful log in.");
         lockView.loadPasswordlessData(identityHelper.getLastIdentity(), identityHelper.getLastCountry());
         if (submitForm) {
             lockView.onFormSubmit();
@@ -342,26 +515,35 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
         if (intent == null) {
             return;
         }
+        final Configuration configuration = configurationHolder.get();
         if (configuration == null) {
-            Log.w(TAG, String.format("Intent arrived with data %s but is going to be discarded as the Activity lacks of Configuration", intent.getData()));
+            LockLog.d(TAG, "Intent arrived with a passwordless link before the Configuration was ready. It will be used once it's fetched");
+            pendingLinkIntent = intent;
+            lockView.showProgress(true);
+            if (!configurationLoader.isFetching()) {
+                lockBus.post(new FetchApplicationEvent());
+            }
             return;
         }
 
+        submitMagicLink(intent, configuration);
+        super.onNewIntent(intent);
+    }
+
+    private void submitMagicLink(@NonNull Intent intent, @NonNull Configuration configuration) {
         boolean useMagicLink = configuration.getPasswordlessMode() == PasswordlessMode.EMAIL_LINK || configuration.getPasswordlessMode() == PasswordlessMode.SMS_LINK;
         if (lastPasswordlessIdentity != null && useMagicLink) {
-            String code = intent.getData().getQueryParameter("code");
+            String code = intent.getData() == null ? null : intent.getData().getQueryParameter("code");
             if (code == null || code.isEmpty()) {
-                Log.w(TAG, "Passwordless Code is missing or could not be parsed");
+                LockLog.w(TAG, "Passwordless Code is missing or could not be parsed");
                 showErrorMessage(getString(R.string.com_auth0_lock_db_login_error_message));
                 return;
             }
             PasswordlessLoginEvent event = PasswordlessLoginEvent.submitCode(configuration.getPasswordlessMode(), code);
             onPasswordlessAuthenticationRequest(event);
         } else {
-            Log.w(TAG, "Invalid Activity state");
+            LockLog.w(TAG, "Invalid Activity state");
         }
-
-        super.onNewIntent(intent);
     }
 
     @Override
@@ -375,10 +557,7 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
     @SuppressWarnings("unused")
     @Subscribe
     public void onFetchApplicationRequest(FetchApplicationEvent event) {
-        if (applicationFetcher == null) {
-            applicationFetcher = new ApplicationFetcher(options.getAccount(), new OkHttpClient());
-            applicationFetcher.fetch(applicationCallback);
-        }
+        configurationLoader.fetch();
     }
 
     @SuppressWarnings("unused")
@@ -391,29 +570,39 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
     @SuppressWarnings("unused")
     @Subscribe
     public void onPasswordlessAuthenticationRequest(PasswordlessLoginEvent event) {
-        if (configuration.getPasswordlessConnection() == null) {
-            Log.w(TAG, "There is no default Passwordless strategy to authenticate with");
+        final Configuration configuration = configurationHolder.get();
+        if (configuration == null || configuration.getPasswordlessConnection() == null) {
+            LockLog.w(TAG, "There is no default Passwordless strategy to authenticate with");
             return;
         }
 
-        lockView.showProgress(true);
         AuthenticationAPIClient apiClient = options.getAuthenticationAPIClient();
         String connectionName = configuration.getPasswordlessConnection().getName();
         if (event.getCode() != null) {
+            final String flightKey = SingleFlight.key(SingleFlight.ACTION_PASSWORDLESS_LOG_IN, connectionName, lastPasswordlessIdentity);
+            if (!retainedState.requests.acquire(flightKey)) {
+                return;
+            }
+            lockView.showProgress(true);
             AuthenticationRequest request = event.getLoginRequest(apiClient, lastPasswordlessIdentity)
-                    .addAuthenticationParameters(options.getAuthenticationParameters())
+                    .addAuthenticationParameters(configuration.getAuthenticationParameters().asMap())
                     .setConnection(connectionName);
             if (options.getScope() != null) {
                 request.setScope(options.getScope());
             }
-            request.start(authCallback);
+            request.start(retainedState.requests.track(flightKey, MetricsRecorder.timeAuthentication(connectionName, LockFunnelRecord.ConnectionType.PASSWORDLESS, authCallback)));
             return;
         }
 
+        final String flightKey = SingleFlight.key(SingleFlight.ACTION_PASSWORDLESS_CODE_REQUEST, connectionName, event.getEmailOrNumber());
+        if (!retainedState.requests.acquire(flightKey)) {
+            return;
+        }
+        lockView.showProgress(true);
         lastPasswordlessIdentity = event.getEmailOrNumber();
         lastPasswordlessCountry = event.getCountry();
         event.getCodeRequest(apiClient, connectionName)
-                .start(passwordlessCodeCallback);
+                .start(retainedState.requests.track(flightKey, passwordlessCodeCallback));
     }
 
     @SuppressWarnings("unused")
@@ -421,70 +610,67 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
     public void onOAuthAuthenticationRequest(OAuthLoginEvent event) {
         lastPasswordlessIdentity = null;
         lastPasswordlessCountry = null;
-        Log.v(TAG, "Looking for a provider to use with the connection " + event.getConnection());
+        LockLog.v(TAG, "Looking for a provider to use with the connection %s", event.getConnection());
         currentProvider = AuthResolver.providerFor(event.getStrategy(), event.getConnection());
         if (currentProvider != null) {
-            HashMap<String, Object> authParameters = new HashMap<>(options.getAuthenticationParameters());
-            final String connectionScope = options.getConnectionsScope().get(event.getConnection());
-            if (connectionScope != null) {
-                authParameters.put(Constants.CONNECTION_SCOPE_KEY, connectionScope);
-            }
-            final String scope = options.getScope();
-            if (scope != null) {
-                authParameters.put(ParameterBuilder.SCOPE_KEY, scope);
-            }
-            final String audience = options.getAudience();
-            if (audience != null && options.getAccount().isOIDCConformant()) {
-                authParameters.put(ParameterBuilder.AUDIENCE_KEY, audience);
-            }
-            currentProvider.setParameters(authParameters);
-            currentProvider.start(this, authProviderCallback, PERMISSION_REQUEST_CODE, CUSTOM_AUTH_REQUEST_CODE);
+            final Configuration configuration = configurationHolder.get();
+            final ParameterTemplate authParameters = configuration != null ? configuration.getAuthorizeParameters(event.getConnection()) : ParameterTemplate.forAuthorize(options, event.getConnection());
+            //custom providers are free to change the parameters they receive
+            currentProvider.setParameters(new HashMap<>(authParameters.asMap()));
+            currentProvider.start(this, MetricsRecorder.timeAuthorization(event.getConnection(), authProviderCallback), PERMISSION_REQUEST_CODE, CUSTOM_AUTH_REQUEST_CODE);
             return;
         }
 
-        Log.d(TAG, "Couldn't find an specific provider, using the default: " + WebAuthProvider.class.getSimpleName());
-        webProvider.start(this, event.getConnection(), null, authProviderCallback, WEB_AUTH_REQUEST_CODE);
+        LockLog.d(TAG, "Couldn't find an specific provider, using the default: %s", WebAuthProvider.class.getSimpleName());
+        webProvider.start(this, event.getConnection(), null, MetricsRecorder.timeAuthorization(event.getConnection(), authProviderCallback), WEB_AUTH_REQUEST_CODE);
     }
 
     //Callbacks
-    private com.auth0.android.callback.AuthenticationCallback<List<Connection>> applicationCallback = new com.auth0.android.callback.AuthenticationCallback<List<Connection>>() {
+    private ConfigurationLoader.FailureListener configurationFailureListener = new ConfigurationLoader.FailureListener() {
         @Override
-        public void onSuccess(final List<Connection> connections) {
-            configuration = new Configuration(connections, options);
-            identityHelper = new PasswordlessIdentityHelper(PasswordlessLockActivity.this, configuration.getPasswordlessMode());
-            handler.post(new Runnable() {
-                @Override
-                public void run() {
-                    lockView.configure(configuration);
-                    reloadRecentPasswordlessData(true);
-                }
-            });
-            applicationFetcher = null;
+        public void onConfigurationFetchFailed(@NonNull AuthenticationException error) {
+            lockView.configure(null);
         }
+    };
 
+    private ConfigurationHolder.ConfigurationListener configurationListener = new ConfigurationHolder.ConfigurationListener() {
         @Override
-        public void onFailure(final AuthenticationException error) {
-            Log.e(TAG, "Failed to fetch the application: " + error.getMessage(), error);
-            applicationFetcher = null;
-            handler.post(new Runnable() {
-                @Override
-                public void run() {
-                    lockView.configure(null);
+        public void onConfigurationChanged(@NonNull Configuration configuration, int version) {
+            LockLog.v(TAG, "Binding configuration version %s", version);
+            identityHelper = new PasswordlessIdentityHelper(PasswordlessLockActivity.this, configuration.getPasswordlessMode());
+            lockView.configure(configuration);
+            MetricsRecorder.formConfigured(lockView);
+            webProvider.warmUp(configuration);
+            if (retainedState.configurationBound) {
+                //a newer snapshot, or the same one bound again after a configuration change, only updates the form
+                return;
+            }
+            retainedState.configurationBound = true;
+            //a code already requested, i.e. from a link that arrived before the configuration, must not be requested again
+            boolean autoSubmit = lastPasswordlessIdentity == null && pendingLinkIntent == null;
+            reloadRecentPasswordlessData(autoSubmit);
+            if (pendingLinkIntent != null) {
+                LockLog.d(TAG, "Using the link that arrived while the Configuration was being fetched");
+                final Intent linkIntent = pendingLinkIntent;
+                pendingLinkIntent = null;
+                if (lastPasswordlessIdentity != null) {
+                    lockView.onPasswordlessCodeSent(lastPasswordlessIdentity);
                 }
-            });
+                submitMagicLink(linkIntent, configuration);
+            }
         }
     };
 
     private com.auth0.android.callback.AuthenticationCallback<Void> passwordlessCodeCallback = new com.auth0.android.callback.AuthenticationCallback<Void>() {
         @Override
         public void onSuccess(Void payload) {
-            handler.post(new Runnable() {
+            retainedState.requests.runOnHost(new RetainedRequests.HostAction<PasswordlessLockActivity>() {
                 @Override
-                public void run() {
-                    lockView.showProgress(false);
-                    lockView.onPasswordlessCodeSent(lastPasswordlessIdentity);
-                    if (!options.useCodePasswordless()) {
-                        showLinkSentLayout();
+                public void run(@NonNull PasswordlessLockActivity activity) {
+                    activity.lockView.showProgress(false);
+                    activity.lockView.onPasswordlessCodeSent(activity.lastPasswordlessIdentity);
+                    if (!activity.options.useCodePasswordless()) {
+                        activity.showLinkSentLayout();
                     }
                 }
             });
@@ -492,12 +678,12 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
 
         @Override
         public void onFailure(final AuthenticationException error) {
-            Log.e(TAG, "Failed to request a passwordless Code/Link: " + error.getMessage(), error);
-            handler.post(new Runnable() {
+            LockLog.e(TAG, "Failed to request a passwordless Code/Link: %s", error.getMessage(), error);
+            retainedState.requests.runOnHost(new RetainedRequests.HostAction<PasswordlessLockActivity>() {
                 @Override
-                public void run() {
-                    String message = loginErrorBuilder.buildFrom(error).getMessage(PasswordlessLockActivity.this);
-                    showErrorMessage(message);
+                public void run(@NonNull PasswordlessLockActivity activity) {
+                    String message = activity.loginErrorBuilder().buildFrom(error).getMessage(activity);
+                    activity.showErrorMessage(message);
                 }
             });
         }
@@ -505,21 +691,27 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
 
     private com.auth0.android.callback.AuthenticationCallback<Credentials> authCallback = new com.auth0.android.callback.AuthenticationCallback<Credentials>() {
         @Override
-        public void onSuccess(Credentials credentials) {
-            if (configuration.usePasswordlessAutoSubmit()) {
-                Log.d(TAG, "Saving passwordless identity for a future log in request.");
-                identityHelper.saveIdentity(lastPasswordlessIdentity, lastPasswordlessCountry);
-            }
-            deliverAuthenticationResult(credentials);
+        public void onSuccess(final Credentials credentials) {
+            retainedState.requests.runOnHost(new RetainedRequests.HostAction<PasswordlessLockActivity>() {
+                @Override
+                public void run(@NonNull PasswordlessLockActivity activity) {
+                    final Configuration configuration = activity.configurationHolder.get();
+                    if (configuration != null && configuration.usePasswordlessAutoSubmit()) {
+                        LockLog.d(TAG, "Saving passwordless identity for a future log in request.");
+                        activity.identityHelper.saveIdentity(activity.lastPasswordlessIdentity, activity.lastPasswordlessCountry);
+                    }
+                    activity.deliverAuthenticationResult(credentials);
+                }
+            });
         }
 
         @Override
         public void onFailure(final AuthenticationException error) {
-            Log.e(TAG, "Failed to authenticate the user: " + error.getMessage(), error);
-            handler.post(new Runnable() {
+            LockLog.e(TAG, "Failed to authenticate the user: %s", error.getMessage(), error);
+            retainedState.requests.runOnHost(new RetainedRequests.HostAction<PasswordlessLockActivity>() {
                 @Override
-                public void run() {
-                    showErrorMessage(loginErrorBuilder.buildFrom(error).getMessage(PasswordlessLockActivity.this));
+                public void run(@NonNull PasswordlessLockActivity activity) {
+                    activity.showErrorMessage(activity.loginErrorBuilder().buildFrom(error).getMessage(activity));
                 }
             });
         }
@@ -528,7 +720,7 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
     private AuthCallback authProviderCallback = new AuthCallback() {
         @Override
         public void onFailure(@NonNull final Dialog dialog) {
-            Log.e(TAG, "Failed to authenticate the user. A dialog is going to be shown with more information.");
+            LockLog.e(TAG, "Failed to authenticate the user. A dialog is going to be shown with more information.");
             handler.post(new Runnable() {
                 @Override
                 public void run() {
@@ -539,10 +731,10 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
 
         @Override
         public void onFailure(final AuthenticationException exception) {
-            final AuthenticationError authError = loginErrorBuilder.buildFrom(exception);
+            final AuthenticationError authError = loginErrorBuilder().buildFrom(exception);
             final String message = authError.getMessage(PasswordlessLockActivity.this);
             ;
-            Log.e(TAG, "Failed to authenticate the user: " + message, exception);
+            LockLog.e(TAG, "Failed to authenticate the user: %s", message, exception);
             handler.post(new Runnable() {
                 @Override
                 public void run() {
@@ -556,4 +748,32 @@ public class PasswordlessLockActivity extends AppCompatActivity implements Activ
             deliverAuthenticationResult(credentials);
         }
     };
+
+    /**
+     * State kept across configuration changes, so the new Activity instance can re-bind to the configuration and
+     * to the running requests without fetching or sending them again. It's created along with the first instance,
+     * and the form values are saved into it when the instance is about to be destroyed.
+     */
+    private static class RetainedState {
+        private final ConfigurationLoader configurationLoader;
+        private final RetainedRequests<PasswordlessLockActivity> requests = new RetainedRequests<>();
+        private boolean configurationBound;
+        private String lastPasswordlessIdentity;
+        private Country lastPasswordlessCountry;
+        private boolean waitingForCode;
+        private long linkSentTime;
+        private Intent pendingLinkIntent;
+
+        RetainedState(ConfigurationLoader configurationLoader) {
+            this.configurationLoader = configurationLoader;
+        }
+
+        void save(String lastPasswordlessIdentity, Country lastPasswordlessCountry, boolean waitingForCode, long linkSentTime, Intent pendingLinkIntent) {
+            this.lastPasswordlessIdentity = lastPasswordlessIdentity;
+            this.lastPasswordlessCountry = lastPasswordlessCountry;
+            this.waitingForCode = waitingForCode;
+            this.linkSentTime = linkSentTime;
+            this.pendingLinkIntent = pendingLinkIntent;
+        }
+    }
 }
@@ -0,0 +1,156 @@
+/*
+ * RequestManager.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import com.auth0.android.authentication.AuthenticationException;
+import com.auth0.android.callback.AuthenticationCallback;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps track of the network requests started by a Lock activity, so they can be released
+ * as soon as the activity is finishing. Once {@link #cancelAll()} is called, the underlying calls
+ * that support it are cancelled and any result that arrives later is dropped instead of being
+ * delivered to the activity.
+ */
+class RequestManager {
+
+    /**
+     * A running call that can be aborted.
+     */
+    interface Cancellable {
+        void cancel();
+    }
+
+    private final Set<TrackedCallback<?>> outstanding = new HashSet<>();
+    private boolean cancelled;
+
+    /**
+     * Wraps the given callback so its result is only delivered while this manager hasn't been cancelled.
+     *
+     * @param callback the callback to deliver the result to.
+     * @param <T>      the type of the result.
+     * @return the callback to pass to the request.
+     */
+    @NonNull
+    <T> AuthenticationCallback<T> track(@NonNull AuthenticationCallback<T> callback) {
+        return track(callback, null);
+    }
+
+    /**
+     * Wraps the given callback so its result is only delivered while this manager hasn't been cancelled.
+     * The given call will be cancelled too if it's still running when {@link #cancelAll()} is called.
+     *
+     * @param callback the callback to deliver the result to.
+     * @param call     the running call to cancel along with the callback, if any.
+     * @param <T>      the type of the result.
+     * @return the callback to pass to the request.
+     */
+    @NonNull
+    <T> AuthenticationCallback<T> track(@NonNull AuthenticationCallback<T> callback, @Nullable Cancellable call) {
+        final TrackedCallback<T> tracked = new TrackedCallback<>(callback, call);
+        synchronized (this) {
+            if (!cancelled) {
+                outstanding.add(tracked);
+            }
+        }
+        return tracked;
+    }
+
+    /**
+     * Cancels every outstanding call and drops the results of the ones that can't be cancelled.
+     * Can be called from any thread, and more than once.
+     */
+    void cancelAll() {
+        final List<TrackedCallback<?>> pending;
+        synchronized (this) {
+            cancelled = true;
+            pending = new ArrayList<>(outstanding);
+            outstanding.clear();
+        }
+        for (TrackedCallback<?> tracked : pending) {
+            tracked.cancel();
+        }
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Whether any of the tracked calls is still waiting for its result.
+     */
+    synchronized boolean hasOutstanding() {
+        return !outstanding.isEmpty();
+    }
+
+    @VisibleForTesting
+    synchronized int getOutstandingCount() {
+        return outstanding.size();
+    }
+
+    private synchronized boolean release(TrackedCallback<?> tracked) {
+        return outstanding.remove(tracked);
+    }
+
+    private class TrackedCallback<T> implements AuthenticationCallback<T> {
+
+        private final AuthenticationCallback<T> callback;
+        private final Cancellable call;
+
+        TrackedCallback(@NonNull AuthenticationCallback<T> callback, @Nullable Cancellable call) {
+            this.callback = callback;
+            this.call = call;
+        }
+
+        void cancel() {
+            if (call != null) {
+                call.cancel();
+            }
+        }
+
+        @Override
+        public void onSuccess(T payload) {
+            if (release(this)) {
+                callback.onSuccess(payload);
+            }
+        }
+
+        @Override
+        public void onFailure(AuthenticationException error) {
+            if (release(this)) {
+                callback.onFailure(error);
+            }
+        }
+    }
+}
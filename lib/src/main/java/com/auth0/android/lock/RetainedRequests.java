@@ -0,0 +1,171 @@
+/*
+ * RetainedRequests.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+
+package com.auth0.android.lock;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.auth0.android.callback.AuthenticationCallback;
+import com.auth0.android.lock.internal.logging.LockLog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The requests of a Lock screen that outlive the instance that started them, i.e. across a configuration
+ * change. A request is started at most once at a time for the same key, and its result is handed on the main
+ * thread to the host currently attached: the one that shows the form, which is not the one that started it
+ * if the result arrives after a configuration change. A result that arrives while no host is attached is
+ * kept until the next one asks for it with {@link #runPendingActions()}.
+ *
+ * @param <H> the type of the screen that shows the results.
+ */
+class RetainedRequests<H> {
+
+    private static final String TAG = RetainedRequests.class.getSimpleName();
+
+    /**
+     * A piece of UI work that needs the host.
+     *
+     * @param <H> the type of the screen that shows the results.
+     */
+    interface HostAction<H> {
+        void run(@NonNull H host);
+    }
+
+    private final RequestManager requestManager = new RequestManager();
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<HostAction<H>> pendingActions = new ArrayList<>();
+
+    private H host;
+
+    /**
+     * Binds the host that will receive the results. The ones that arrived while no host was attached are
+     * kept until {@link #runPendingActions()} is called, so the host can finish setting up its views first.
+     *
+     * @param host the screen that shows the results.
+     */
+    @MainThread
+    void attach(@NonNull H host) {
+        this.host = host;
+    }
+
+    /**
+     * Unbinds the current host. The running requests are kept, and their results wait for the next host.
+     */
+    @MainThread
+    void detach() {
+        host = null;
+    }
+
+    @Nullable
+    H getHost() {
+        return host;
+    }
+
+    /**
+     * Hands the results that arrived while no host was attached to the current one, in the order they arrived.
+     */
+    @MainThread
+    void runPendingActions() {
+        while (host != null && !pendingActions.isEmpty()) {
+            pendingActions.remove(0).run(host);
+        }
+    }
+
+    /**
+     * The handler of the main thread the results are posted to. Anything posted to it is dropped on {@link #release()}.
+     */
+    @NonNull
+    Handler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Marks the request identified by the given key as running.
+     *
+     * @param flightKey the key built with {@link SingleFlight#key(String, String, String)}.
+     * @return false if the same request is still running, and this one must not be started.
+     */
+    boolean acquire(@NonNull String flightKey) {
+        return singleFlight.acquire(flightKey);
+    }
+
+    /**
+     * Wraps the given callback so the request identified by the given key can be started again once its
+     * result arrives, and so the result is dropped after {@link #release()}.
+     *
+     * @param flightKey the key the request was acquired with.
+     * @param callback  the callback to deliver the result to.
+     * @param <T>       the type of the result.
+     * @return the callback to pass to the request.
+     */
+    @NonNull
+    <T> AuthenticationCallback<T> track(@NonNull String flightKey, @NonNull AuthenticationCallback<T> callback) {
+        return requestManager.track(singleFlight.releasing(flightKey, callback));
+    }
+
+    /**
+     * Whether any of the started requests is still waiting for its result.
+     */
+    boolean hasOutstanding() {
+        return requestManager.hasOutstanding();
+    }
+
+    /**
+     * Runs the given action on the main thread with the attached host, or keeps it for the next host if
+     * there is none at that moment. Can be called from any thread.
+     */
+    void runOnHost(@NonNull final HostAction<H> action) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (host == null) {
+                    LockLog.v(TAG, "No host attached, the result will be delivered to the next one");
+                    pendingActions.add(action);
+                    return;
+                }
+                action.run(host);
+            }
+        });
+    }
+
+    /**
+     * Cancels every outstanding network call and drops the pending results, as they can no longer
+     * be shown to the user.
+     */
+    @MainThread
+    void release() {
+        requestManager.cancelAll();
+        handler.removeCallbacksAndMessages(null);
+        pendingActions.clear();
+    }
+}
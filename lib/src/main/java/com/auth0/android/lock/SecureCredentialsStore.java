@@ -0,0 +1,255 @@
+/*
+ * SecureCredentialsStore.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.util.Base64;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.result.Credentials;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * Default {@link CredentialsStore} implementation. On API 23 and above the credentials are encrypted
+ * with an AES key kept in the Android KeyStore and saved in a private SharedPreferences file.
+ * On older devices the KeyStore can't hold symmetric keys, so the credentials are only kept in memory
+ * and are never written to disk in plain text.
+ * Each store belongs to a single Auth0 account: the saved entries are keyed by its client id and domain,
+ * and credentials saved for another account are never returned.
+ */
+public class SecureCredentialsStore implements CredentialsStore {
+
+    private static final String TAG = SecureCredentialsStore.class.getSimpleName();
+    private static final String PREFERENCES_NAME = "com.auth0.android.lock.credentials";
+    private static final String KEY_ALIAS = "com.auth0.android.lock.credentials";
+    private static final String ANDROID_KEY_STORE = "AndroidKeyStore";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String KEY_DATA = "data";
+    private static final String KEY_IV = "iv";
+
+    private static final String ACCOUNT_KEY = "account";
+    private static final String ID_TOKEN_KEY = "id_token";
+    private static final String ACCESS_TOKEN_KEY = "access_token";
+    private static final String TOKEN_TYPE_KEY = "token_type";
+    private static final String REFRESH_TOKEN_KEY = "refresh_token";
+    private static final String EXPIRES_AT_KEY = "expires_at";
+
+    private final SharedPreferences preferences;
+    private final String account;
+    private final boolean persistent;
+    private String memoryData;
+
+    /**
+     * Creates a new store that saves the credentials of the given account in the application's private storage.
+     * Use one store per account, and pass it to the Lock instance of that same account.
+     *
+     * @param context a valid Context
+     * @param account the Auth0 account the credentials belong to.
+     */
+    public SecureCredentialsStore(@NonNull Context context, @NonNull Auth0 account) {
+        this(context.getApplicationContext().getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE), LockManager.keyFor(account), Build.VERSION.SDK_INT >= Build.VERSION_CODES.M);
+    }
+
+    @VisibleForTesting
+    SecureCredentialsStore(@NonNull SharedPreferences preferences, @NonNull String account, boolean persistent) {
+        this.preferences = preferences;
+        this.account = account;
+        this.persistent = persistent;
+    }
+
+    /**
+     * Whether this store keeps the credentials of the given account.
+     *
+     * @param account the Auth0 account to check.
+     * @return true if the store was created for the same client id and domain.
+     */
+    boolean belongsTo(@NonNull Auth0 account) {
+        return this.account.equals(LockManager.keyFor(account));
+    }
+
+    @Override
+    public synchronized void save(@NonNull Credentials credentials) {
+        String data = serialize(credentials, account, currentTimeMillis());
+        if (data == null) {
+            return;
+        }
+        if (!persistent) {
+            memoryData = data;
+            return;
+        }
+        try {
+            byte[][] encrypted = encrypt(data.getBytes(UTF_8));
+            preferences.edit()
+                    .putString(entry(KEY_IV), Base64.encodeToString(encrypted[0], Base64.NO_WRAP))
+                    .putString(entry(KEY_DATA), Base64.encodeToString(encrypted[1], Base64.NO_WRAP))
+                    .commit();
+        } catch (GeneralSecurityException e) {
+            LockLog.e(TAG, "Couldn't encrypt the credentials. They won't be saved.", e);
+            clear();
+        }
+    }
+
+    @Nullable
+    @Override
+    public synchronized Credentials load() {
+        String data = memoryData;
+        if (persistent) {
+            data = readPersisted();
+        }
+        return data == null ? null : deserialize(data, account, currentTimeMillis());
+    }
+
+    @Override
+    public synchronized void clear() {
+        memoryData = null;
+        preferences.edit()
+                .remove(entry(KEY_IV))
+                .remove(entry(KEY_DATA))
+                .commit();
+    }
+
+    @VisibleForTesting
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @VisibleForTesting
+    byte[][] encrypt(byte[] input) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, getOrCreateKey());
+        return new byte[][]{cipher.getIV(), cipher.doFinal(input)};
+    }
+
+    @VisibleForTesting
+    byte[] decrypt(byte[] iv, byte[] input) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, getOrCreateKey(), new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+        return cipher.doFinal(input);
+    }
+
+    @Nullable
+    private String readPersisted() {
+        String iv = preferences.getString(entry(KEY_IV), null);
+        String data = preferences.getString(entry(KEY_DATA), null);
+        if (iv == null || data == null) {
+            return null;
+        }
+        try {
+            return new String(decrypt(Base64.decode(iv, Base64.NO_WRAP), Base64.decode(data, Base64.NO_WRAP)), UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            LockLog.e(TAG, "Couldn't decrypt the saved credentials. They will be removed.", e);
+            clear();
+            return null;
+        }
+    }
+
+    private String entry(String name) {
+        return account + "/" + name;
+    }
+
+    @TargetApi(Build.VERSION_CODES.M)
+    private SecretKey getOrCreateKey() throws GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance(ANDROID_KEY_STORE);
+        try {
+            keyStore.load(null);
+        } catch (IOException e) {
+            throw new KeyStoreException(e);
+        }
+        if (keyStore.containsAlias(KEY_ALIAS)) {
+            return (SecretKey) keyStore.getKey(KEY_ALIAS, null);
+        }
+        KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, ANDROID_KEY_STORE);
+        generator.init(new KeyGenParameterSpec.Builder(KEY_ALIAS, KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                .setKeySize(256)
+                .build());
+        return generator.generateKey();
+    }
+
+    @VisibleForTesting
+    @Nullable
+    static String serialize(@NonNull Credentials credentials, @NonNull String account, long now) {
+        if (credentials.getExpiresIn() == null) {
+            return null;
+        }
+        try {
+            JSONObject json = new JSONObject();
+            json.put(ACCOUNT_KEY, account);
+            json.put(ID_TOKEN_KEY, credentials.getIdToken());
+            json.put(ACCESS_TOKEN_KEY, credentials.getAccessToken());
+            json.put(TOKEN_TYPE_KEY, credentials.getType());
+            json.put(REFRESH_TOKEN_KEY, credentials.getRefreshToken());
+            json.put(EXPIRES_AT_KEY, now + credentials.getExpiresIn() * 1000);
+            return json.toString();
+        } catch (JSONException e) {
+            LockLog.e(TAG, "Couldn't serialize the credentials", e);
+            return null;
+        }
+    }
+
+    @VisibleForTesting
+    @Nullable
+    static Credentials deserialize(@NonNull String data, @NonNull String account, long now) {
+        try {
+            JSONObject json = new JSONObject(data);
+            if (!account.equals(json.optString(ACCOUNT_KEY, null))) {
+                LockLog.w(TAG, "The saved credentials belong to another account");
+                return null;
+            }
+            long remaining = (json.getLong(EXPIRES_AT_KEY) - now) / 1000;
+            return new Credentials(json.optString(ID_TOKEN_KEY, null), json.optString(ACCESS_TOKEN_KEY, null), json.optString(TOKEN_TYPE_KEY, null), json.optString(REFRESH_TOKEN_KEY, null), Math.max(0, remaining));
+        } catch (JSONException e) {
+            LockLog.e(TAG, "Couldn't parse the saved credentials", e);
+            return null;
+        }
+    }
+}
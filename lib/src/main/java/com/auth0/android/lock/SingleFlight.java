@@ -0,0 +1,145 @@
+/*
+ * RequestManager.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import com.auth0.android.authentication.AuthenticationException;
+import com.auth0.android.callback.AuthenticationCallback;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.lock.internal.metrics.MetricsRecorder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Makes sure a single authentication request runs at a time for the same action and identity.
+ * Repeated submits of the form (i.e. a double tap on the action button or the IME action plus a tap)
+ * are attached to the request that is already running instead of starting a new one, and they will
+ * receive its result through the same activity callback.
+ */
+class SingleFlight {
+
+    private static final String TAG = SingleFlight.class.getSimpleName();
+
+    static final String ACTION_LOG_IN = "log_in";
+    static final String ACTION_SIGN_UP = "sign_up";
+    static final String ACTION_CHANGE_PASSWORD = "change_password";
+    static final String ACTION_PASSWORDLESS_CODE_REQUEST = "passwordless_code_request";
+    static final String ACTION_PASSWORDLESS_LOG_IN = "passwordless_log_in";
+
+    private final Map<String, Integer> inFlight = new HashMap<>();
+    private int suppressedCount;
+
+    /**
+     * Builds the key that identifies a request. Secrets like passwords or codes must not be part of it.
+     * The key starts with the action, which is what gets reported to the metrics listener. The identity
+     * goes last, so that the logs can leave it out.
+     *
+     * @param action     the kind of request, one of the ACTION_ constants.
+     * @param connection the connection the request is made against.
+     * @param identity   the email, username or phone number the request is made for.
+     * @return the key to use with {@link #acquire(String)}.
+     */
+    @NonNull
+    static String key(@NonNull String action, @Nullable String connection, @Nullable String identity) {
+        return action + "/" + connection + "/" + identity;
+    }
+
+    /**
+     * Marks the request with the given key as running.
+     *
+     * @param key the key of the request.
+     * @return true if the request must be started, false if an identical one is already running.
+     */
+    synchronized boolean acquire(@NonNull String key) {
+        final Integer duplicates = inFlight.get(key);
+        if (duplicates == null) {
+            inFlight.put(key, 0);
+            return true;
+        }
+        inFlight.put(key, duplicates + 1);
+        suppressedCount++;
+        final int actionEnd = key.indexOf('/');
+        MetricsRecorder.duplicateRequestSuppressed(key.substring(0, actionEnd));
+        //the identity at the end of the key is never logged
+        LockLog.d(TAG, "Suppressed duplicate request %s (%d while in flight, %d in total)", key.substring(0, key.indexOf('/', actionEnd + 1)), duplicates + 1, suppressedCount);
+        return false;
+    }
+
+    /**
+     * Wraps the given callback so the key is released as soon as the request finishes, before the result is delivered.
+     *
+     * @param key      the key given to {@link #acquire(String)}.
+     * @param callback the callback to deliver the result to.
+     * @param <T>      the type of the result.
+     * @return the callback to pass to the request.
+     */
+    @NonNull
+    <T> AuthenticationCallback<T> releasing(@NonNull final String key, @NonNull final AuthenticationCallback<T> callback) {
+        return new AuthenticationCallback<T>() {
+            @Override
+            public void onSuccess(T payload) {
+                release(key);
+                callback.onSuccess(payload);
+            }
+
+            @Override
+            public void onFailure(AuthenticationException error) {
+                release(key);
+                callback.onFailure(error);
+            }
+        };
+    }
+
+    /**
+     * Releases the given key, allowing a new request with it to be started.
+     *
+     * @param key the key given to {@link #acquire(String)}.
+     */
+    synchronized void release(@NonNull String key) {
+        inFlight.remove(key);
+    }
+
+    synchronized boolean isInFlight(@NonNull String key) {
+        return inFlight.containsKey(key);
+    }
+
+    /**
+     * The number of submits that were attached to a running request instead of starting a new one.
+     *
+     * @return the total count of suppressed duplicates.
+     */
+    synchronized int getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    @VisibleForTesting
+    synchronized int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -5,11 +5,16 @@ import android.content.Intent;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.OAuthConnection;
 import com.auth0.android.lock.internal.configuration.Options;
+import com.auth0.android.lock.internal.configuration.ParameterTemplate;
 import com.auth0.android.provider.AuthCallback;
 import com.auth0.android.provider.WebAuthProvider;
+import com.squareup.okhttp.HttpUrl;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,7 +23,11 @@ import java.util.Map;
  */
 class WebProvider {
 
+    static final int MAX_URL_HINTS = 3;
+
     private final Options options;
+    private final BrowserWarmUp browserWarmUp;
+    private final ConnectionHistory connectionHistory;
 
     /**
      * Creates a new instance with the given account.
@@ -26,7 +35,68 @@ class WebProvider {
      * @param options to use in the WebAuthProvider.Builder instances.
      */
     WebProvider(@NonNull Options options) {
+        this(options, null, null);
+    }
+
+    /**
+     * Creates a new instance with the given account, that can prepare the browser in advance.
+     *
+     * @param options           to use in the WebAuthProvider.Builder instances.
+     * @param browserWarmUp     to prepare the browser with, or null to skip the warm up.
+     * @param connectionHistory where the last used connection is recorded, or null to not record it.
+     */
+    WebProvider(@NonNull Options options, @Nullable BrowserWarmUp browserWarmUp, @Nullable ConnectionHistory connectionHistory) {
         this.options = options;
+        this.browserWarmUp = browserWarmUp;
+        this.connectionHistory = connectionHistory;
+    }
+
+    /**
+     * Warms up the browser if the configuration has connections that authenticate with it, and hints
+     * the authorize urls of the connections the user is most likely to pick. The last used connection
+     * goes first, followed by the rest in the order they are displayed.
+     *
+     * @param configuration the configuration that is being displayed.
+     */
+    public void warmUp(@NonNull Configuration configuration) {
+        if (browserWarmUp == null) {
+            return;
+        }
+        List<String> candidates = new ArrayList<>();
+        for (OAuthConnection connection : configuration.getSocialConnections()) {
+            candidates.add(connection.getName());
+        }
+        for (OAuthConnection connection : configuration.getEnterpriseConnections()) {
+            if (!connection.isActiveFlowEnabled()) {
+                candidates.add(connection.getName());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        final String lastUsed = connectionHistory != null ? connectionHistory.getLastUsed() : null;
+        if (lastUsed != null && candidates.remove(lastUsed)) {
+            candidates.add(0, lastUsed);
+        }
+
+        List<String> urls = new ArrayList<>();
+        for (String connection : candidates.subList(0, Math.min(MAX_URL_HINTS, candidates.size()))) {
+            String url = authorizeUrl(connection);
+            if (url != null) {
+                urls.add(url);
+            }
+        }
+        browserWarmUp.warmUp();
+        browserWarmUp.mayLaunchUrls(urls);
+    }
+
+    /**
+     * Releases the browser service used for the warm up. Call it when the activity is destroyed.
+     */
+    public void release() {
+        if (browserWarmUp != null) {
+            browserWarmUp.release();
+        }
     }
 
     /**
@@ -39,13 +109,10 @@ class WebProvider {
      * @param requestCode         to use in the startActivityForResult request
      */
     public void start(@NonNull Activity activity, @NonNull String connection, @Nullable Map<String, Object> extraAuthParameters, @NonNull AuthCallback callback, int requestCode) {
-        HashMap<String, Object> parameters;
-        if (extraAuthParameters == null) {
-            parameters = options.getAuthenticationParameters();
-        } else {
-            parameters = new HashMap<>(options.getAuthenticationParameters());
-            parameters.putAll(extraAuthParameters);
+        if (connectionHistory != null) {
+            connectionHistory.recordUsed(connection);
         }
+        final Map<String, Object> parameters = ParameterTemplate.overlay(options.getAuthenticationParameters(), extraAuthParameters);
 
         WebAuthProvider.Builder builder = WebAuthProvider.init(options.getAccount())
                 .useBrowser(options.useBrowser())
@@ -93,4 +160,22 @@ class WebProvider {
         return WebAuthProvider.resume(requestCode, resultCode, intent);
     }
 
+    /**
+     * The state and nonce values are random, so only the origin and path of the hinted url will match
+     * the one opened later. That's enough for the browser to resolve the host and open the connection.
+     */
+    @Nullable
+    private String authorizeUrl(String connection) {
+        HttpUrl domainUrl = HttpUrl.parse(options.getAccount().getDomainUrl());
+        if (domainUrl == null) {
+            return null;
+        }
+        return domainUrl.newBuilder()
+                .addPathSegment("authorize")
+                .addQueryParameter("client_id", options.getAccount().getClientId())
+                .addQueryParameter("connection", connection)
+                .build()
+                .toString();
+    }
+
 }
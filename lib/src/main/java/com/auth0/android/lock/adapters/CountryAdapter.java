@@ -83,6 +83,24 @@ public class CountryAdapter extends BaseAdapter {
         return filter;
     }
 
+    /**
+     * Finds the countries whose name or ISO code contain the given text, ignoring the case.
+     *
+     * @param countries  the countries to search.
+     * @param constraint the text to search for.
+     * @return the matching countries, in the same order.
+     */
+    static List<Country> filter(List<Country> countries, CharSequence constraint) {
+        String filter = constraint.toString().toLowerCase();
+        List<Country> filtered = new ArrayList<>(countries.size());
+        for (Country country : countries) {
+            if (country.getDisplayName().toLowerCase().contains(filter) || country.getIsoCode().toLowerCase().contains(filter)) {
+                filtered.add(country);
+            }
+        }
+        return filtered;
+    }
+
     private class CountryFilter extends Filter {
 
         private final List<Country> countries;
@@ -93,14 +111,8 @@ public class CountryAdapter extends BaseAdapter {
 
         @Override
         protected FilterResults performFiltering(CharSequence constraint) {
-            String filter = constraint.toString().toLowerCase();
             FilterResults results = new FilterResults();
-            List<Country> filtered = new ArrayList<>(countries.size());
-            for (Country country : countries) {
-                if (country.getDisplayName().toLowerCase().contains(filter) || country.getIsoCode().toLowerCase().contains(filter)) {
-                    filtered.add(country);
-                }
-            }
+            List<Country> filtered = CountryAdapter.filter(countries, constraint);
             results.values = filtered;
             results.count = filtered.size();
             return results;
@@ -25,10 +25,10 @@
 package com.auth0.android.lock.errors;
 
 import android.support.annotation.StringRes;
-import android.util.Log;
 
 import com.auth0.android.authentication.AuthenticationException;
 import com.auth0.android.lock.R;
+import com.auth0.android.lock.internal.logging.LockLog;
 
 
 public class LoginErrorMessageBuilder implements ErrorMessageBuilder<AuthenticationException> {
@@ -73,7 +73,7 @@ public class LoginErrorMessageBuilder implements ErrorMessageBuilder<Authenticat
                 description = exception.getDescription();
             }
         } else if (WRONG_CLIENT_TYPE_ERROR.equals(exception.getDescription())) {
-            Log.w("Lock", "The Client Type must be set to 'native' in order to authenticate using Code Grant (PKCE). Please change the type in your Auth0 client's dashboard: https://manage.auth0.com/#/clients");
+            LockLog.w("Lock", "The Client Type must be set to 'native' in order to authenticate using Code Grant (PKCE). Please change the type in your Auth0 client's dashboard: https://manage.auth0.com/#/clients");
             messageRes = defaultMessage;
         } else if (TOO_MANY_ATTEMPTS_ERROR.equals(exception.getCode())) {
             messageRes = tooManyAttemptsResource;
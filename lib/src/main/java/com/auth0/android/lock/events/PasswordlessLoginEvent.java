@@ -26,13 +26,13 @@ package com.auth0.android.lock.events;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 
 import com.auth0.android.authentication.AuthenticationAPIClient;
 import com.auth0.android.authentication.AuthenticationException;
 import com.auth0.android.authentication.PasswordlessType;
 import com.auth0.android.lock.adapters.Country;
 import com.auth0.android.lock.internal.configuration.PasswordlessMode;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.request.AuthenticationRequest;
 import com.auth0.android.request.ParameterizableRequest;
 
@@ -94,7 +94,7 @@ public class PasswordlessLoginEvent {
      * @return the Passwordless code request request.
      */
     public ParameterizableRequest<Void, AuthenticationException> getCodeRequest(AuthenticationAPIClient apiClient, String connectionName) {
-        Log.d(TAG, String.format("Generating Passwordless Code/Link request for connection %s", connectionName));
+        LockLog.d(TAG, "Generating Passwordless Code/Link request for connection %s", connectionName);
         ParameterizableRequest<Void, AuthenticationException> request;
         if (getMode() == PasswordlessMode.EMAIL_CODE) {
             request = apiClient.passwordlessWithEmail(getEmailOrNumber(), PasswordlessType.CODE);
@@ -116,7 +116,7 @@ public class PasswordlessLoginEvent {
      * @return the Passwordless login request.
      */
     public AuthenticationRequest getLoginRequest(AuthenticationAPIClient apiClient, String emailOrNumber) {
-        Log.d(TAG, String.format("Generating Passwordless Login request for identity %s", emailOrNumber));
+        LockLog.d(TAG, "Generating Passwordless Login request for identity %s", LockLog.identity(emailOrNumber));
         if (getMode() == PasswordlessMode.EMAIL_CODE || getMode() == PasswordlessMode.EMAIL_LINK) {
             return apiClient.loginWithEmail(emailOrNumber, getCode());
         } else {
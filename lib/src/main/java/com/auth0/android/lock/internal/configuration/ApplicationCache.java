@@ -0,0 +1,283 @@
+/*
+ * ApplicationCache.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.internal.configuration;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.lock.internal.logging.LockLog;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Properties;
+
+/**
+ * Keeps the last Application response received for a client on disk, along with the validators
+ * needed to revalidate it with a conditional request.
+ * Disclaimer: The classes in the internal package may change in the future. Don't use them directly.
+ */
+public class ApplicationCache {
+
+    private static final String TAG = ApplicationCache.class.getSimpleName();
+    private static final String DIRECTORY = "com_auth0_lock";
+    private static final String ETAG_KEY = "etag";
+    private static final String LAST_MODIFIED_KEY = "last_modified";
+    private static final String UPDATED_AT_KEY = "updated_at";
+    private static final String UTF_8 = "UTF-8";
+    private static final Object LOCK = new Object();
+
+    private final File bodyFile;
+    private final File metadataFile;
+
+    /**
+     * Creates the cache of the given client, inside the given directory.
+     *
+     * @param directory where the files are kept.
+     * @param clientId  the client whose Application is cached.
+     */
+    public ApplicationCache(@NonNull File directory, @NonNull String clientId) {
+        this.bodyFile = new File(directory, clientId + ".js");
+        this.metadataFile = new File(directory, clientId + ".properties");
+    }
+
+    /**
+     * Creates the cache of the given account in the app cache directory.
+     *
+     * @param context a valid Context
+     * @param account the account whose Application is cached.
+     * @return a new cache instance.
+     */
+    public static ApplicationCache forAccount(@NonNull Context context, @NonNull Auth0 account) {
+        return new ApplicationCache(new File(context.getCacheDir(), DIRECTORY), account.getClientId());
+    }
+
+    /**
+     * Whether an Application response was cached, without reading it.
+     *
+     * @return true if there is a cached Application.
+     */
+    public boolean hasBody() {
+        return bodyFile.exists();
+    }
+
+    /**
+     * The last Application response body received, as JSONP.
+     *
+     * @return the body, or null if nothing was cached yet.
+     */
+    @Nullable
+    public String readBody() {
+        synchronized (LOCK) {
+            if (!bodyFile.exists()) {
+                return null;
+            }
+            try {
+                return readFile(bodyFile);
+            } catch (IOException e) {
+                LockLog.w(TAG, "Could not read the cached Application: %s", e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    @Nullable
+    public String getETag() {
+        return readMetadata().getProperty(ETAG_KEY);
+    }
+
+    @Nullable
+    public String getLastModified() {
+        return readMetadata().getProperty(LAST_MODIFIED_KEY);
+    }
+
+    /**
+     * When the cached Application was last written or revalidated.
+     *
+     * @return the time in milliseconds since epoch, or 0 if nothing was cached yet.
+     */
+    public long getUpdatedAt() {
+        try {
+            return Long.parseLong(readMetadata().getProperty(UPDATED_AT_KEY, "0"));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Replaces the cached Application.
+     *
+     * @param body         the JSONP response body.
+     * @param eTag         the ETag response header, if any.
+     * @param lastModified the Last-Modified response header, if any.
+     */
+    public void write(@NonNull String body, @Nullable String eTag, @Nullable String lastModified) {
+        synchronized (LOCK) {
+            Properties metadata = new Properties();
+            if (eTag != null) {
+                metadata.setProperty(ETAG_KEY, eTag);
+            }
+            if (lastModified != null) {
+                metadata.setProperty(LAST_MODIFIED_KEY, lastModified);
+            }
+            metadata.setProperty(UPDATED_AT_KEY, String.valueOf(currentTimeMillis()));
+            try {
+                writeFile(bodyFile, body);
+                writeMetadata(metadata);
+            } catch (IOException e) {
+                LockLog.w(TAG, "Could not cache the Application: %s", e.getMessage());
+                clear();
+            }
+        }
+    }
+
+    /**
+     * Marks the cached Application as revalidated, i.e. after a 304 response.
+     */
+    public void touch() {
+        synchronized (LOCK) {
+            Properties metadata = readMetadata();
+            metadata.setProperty(UPDATED_AT_KEY, String.valueOf(currentTimeMillis()));
+            try {
+                writeMetadata(metadata);
+            } catch (IOException e) {
+                LockLog.w(TAG, "Could not update the cached Application: %s", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Removes the cached Application.
+     */
+    public void clear() {
+        synchronized (LOCK) {
+            //noinspection ResultOfMethodCallIgnored
+            bodyFile.delete();
+            //noinspection ResultOfMethodCallIgnored
+            metadataFile.delete();
+        }
+    }
+
+    @VisibleForTesting
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private Properties readMetadata() {
+        synchronized (LOCK) {
+            Properties metadata = new Properties();
+            if (!metadataFile.exists()) {
+                return metadata;
+            }
+            InputStream input = null;
+            try {
+                input = new FileInputStream(metadataFile);
+                metadata.load(input);
+            } catch (IOException e) {
+                LockLog.w(TAG, "Could not read the cached Application metadata: %s", e.getMessage());
+            } finally {
+                closeQuietly(input);
+            }
+            return metadata;
+        }
+    }
+
+    private void writeMetadata(Properties metadata) throws IOException {
+        File temp = new File(metadataFile.getPath() + ".tmp");
+        OutputStream output = null;
+        try {
+            output = new FileOutputStream(temp);
+            metadata.store(output, null);
+        } finally {
+            closeQuietly(output);
+        }
+        rename(temp, metadataFile);
+    }
+
+    private static String readFile(File file) throws IOException {
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(new FileInputStream(file), UTF_8);
+            StringBuilder builder = new StringBuilder((int) file.length());
+            char[] buffer = new char[4096];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                builder.append(buffer, 0, read);
+            }
+            return builder.toString();
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Writes to a temporary file first, so a crash never leaves a half written file behind.
+     */
+    private static void writeFile(File file, String content) throws IOException {
+        File parent = file.getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(temp), UTF_8);
+            writer.write(content);
+        } finally {
+            closeQuietly(writer);
+        }
+        rename(temp, file);
+    }
+
+    private static void rename(File from, File to) throws IOException {
+        if (!from.renameTo(to)) {
+            //noinspection ResultOfMethodCallIgnored
+            from.delete();
+            throw new IOException("Could not write " + to);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
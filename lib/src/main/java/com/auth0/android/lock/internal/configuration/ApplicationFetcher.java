@@ -24,18 +24,26 @@
 
 package com.auth0.android.lock.internal.configuration;
 
+import android.content.res.AssetManager;
 import android.net.Uri;
 import android.support.annotation.NonNull;
-import android.util.Log;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
 
 import com.auth0.android.Auth0;
 import com.auth0.android.Auth0Exception;
 import com.auth0.android.authentication.AuthenticationException;
 import com.auth0.android.callback.AuthenticationCallback;
+import com.auth0.android.lock.LockMetrics;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.lock.internal.metrics.MetricsRecorder;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
+import com.squareup.okhttp.Call;
 import com.squareup.okhttp.Callback;
+import com.squareup.okhttp.Interceptor;
 import com.squareup.okhttp.OkHttpClient;
 import com.squareup.okhttp.Request;
 import com.squareup.okhttp.Response;
@@ -44,7 +52,11 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.util.List;
 
@@ -52,9 +64,21 @@ public class ApplicationFetcher {
 
     private static final String JSONP_PREFIX = "Auth0.setClient(";
     private static final String TAG = ApplicationFetcher.class.getSimpleName();
+    /**
+     * Where the build time snapshot of the Application is packaged in the app assets, by client id.
+     * The file holds the plain JSON object of the Application, without the JSONP wrapper.
+     */
+    static final String SNAPSHOT_ASSET_PATH = "com_auth0_lock/%s.json";
+    private static final int HTTP_NOT_MODIFIED = 304;
 
     private final Auth0 account;
     private final OkHttpClient client;
+    private final ApplicationCache cache;
+    private volatile Call call;
+    private volatile boolean cancelled;
+    private volatile long requestTime;
+    private volatile long connectedTime;
+    private volatile long firstByteTime;
 
     /**
      * Helper class to fetch the Application from Auth0 Dashboard.
@@ -63,8 +87,21 @@ public class ApplicationFetcher {
      * @param client  the OKHttpClient instance to use for the CDN request.
      */
     public ApplicationFetcher(@NonNull Auth0 account, @NonNull OkHttpClient client) {
+        this(account, client, null);
+    }
+
+    /**
+     * Helper class to fetch the Application from Auth0 Dashboard, revalidating the cached one
+     * with a conditional request.
+     *
+     * @param account the client information to build the request uri.
+     * @param client  the OKHttpClient instance to use for the CDN request.
+     * @param cache   where the last received Application is kept, or null to always download it.
+     */
+    public ApplicationFetcher(@NonNull Auth0 account, @NonNull OkHttpClient client, @Nullable ApplicationCache cache) {
         this.account = account;
         this.client = client;
+        this.cache = cache;
     }
 
     /**
@@ -76,18 +113,139 @@ public class ApplicationFetcher {
         makeApplicationRequest(callback);
     }
 
-    private void makeApplicationRequest(final AuthenticationCallback<List<Connection>> callback) {
-        Uri uri = Uri.parse(account.getConfigurationUrl()).buildUpon().appendPath("client")
-                .appendPath(account.getClientId() + ".js").build();
+    /**
+     * Reads the Application snapshot bundled in the app assets at build time, if any. The snapshot
+     * can be rendered right away while the live Application is fetched.
+     *
+     * @param assets the app assets.
+     * @return the snapshot connections, or null if there is no valid snapshot for this client.
+     */
+    @Nullable
+    public List<Connection> readSnapshot(@NonNull AssetManager assets) {
+        final String path = String.format(SNAPSHOT_ASSET_PATH, account.getClientId());
+        InputStream input = null;
+        try {
+            input = assets.open(path);
+            return readSnapshot(input);
+        } catch (FileNotFoundException e) {
+            LockLog.v(TAG, "No Application snapshot was bundled in %s", path);
+        } catch (IOException | Auth0Exception e) {
+            LockLog.w(TAG, "Could not read the Application snapshot: %s", e.getMessage());
+        } finally {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        return null;
+    }
+
+    static List<Connection> readSnapshot(InputStream input) throws Auth0Exception {
+        try {
+            final Reader reader = new InputStreamReader(input, "UTF-8");
+            Type applicationType = new TypeToken<List<Connection>>() {
+            }.getType();
+            final List<Connection> connections = createGson().fromJson(reader, applicationType);
+            if (connections == null) {
+                throw new Auth0Exception("Empty Application snapshot");
+            }
+            return connections;
+        } catch (IOException | JsonParseException e) {
+            throw new Auth0Exception("Failed to parse the Application snapshot", e);
+        }
+    }
+
+    /**
+     * Reads the Application received on a previous fetch, if it was cached.
+     *
+     * @return the cached connections, or null if there is no valid cached Application.
+     */
+    @Nullable
+    public List<Connection> readCached() {
+        final String body = cache != null ? cache.readBody() : null;
+        if (body == null) {
+            return null;
+        }
+        try {
+            return parseJSONP(body);
+        } catch (Auth0Exception | JsonParseException e) {
+            LockLog.w(TAG, "Could not parse the cached Application: %s", e.getMessage());
+            cache.clear();
+            return null;
+        }
+    }
+
+    /**
+     * Revalidates the cached Application, downloading it only if it changed. Must not be called
+     * from the main thread.
+     *
+     * @return true if the cached Application was replaced, false if it didn't change.
+     * @throws Auth0Exception if the request failed or the response couldn't be parsed.
+     */
+    @WorkerThread
+    public boolean refresh() throws Auth0Exception {
+        if (cache == null) {
+            throw new IllegalStateException("An ApplicationCache is required to refresh the Application");
+        }
+        final Call current = client.newCall(createRequest());
+        call = current;
+        if (cancelled) {
+            current.cancel();
+        }
+        final Response response;
+        try {
+            response = current.execute();
+        } catch (IOException e) {
+            throw new Auth0Exception("Failed to fetch the Application: " + e.getMessage(), e);
+        }
+        if (response.code() == HTTP_NOT_MODIFIED) {
+            closeBody(response);
+            cache.touch();
+            return false;
+        }
+        final String body = readBody(response);
+        try {
+            parseJSONP(body);
+        } catch (JsonParseException e) {
+            throw new Auth0Exception("Failed to parse response to request", e);
+        }
+        cache.write(body, response.header("ETag"), response.header("Last-Modified"));
+        return true;
+    }
 
-        Request req = new Request.Builder()
-                .url(uri.toString())
-                .build();
+    /**
+     * Cancels the Application request if it's still running. The callback will receive
+     * a failure, unless the response was already delivered. A running refresh throws instead.
+     */
+    public void cancel() {
+        cancelled = true;
+        final Call current = call;
+        if (current != null) {
+            current.cancel();
+        }
+    }
 
-        client.newCall(req).enqueue(new Callback() {
+    private void makeApplicationRequest(final AuthenticationCallback<List<Connection>> callback) {
+        Request req = createRequest();
+
+        OkHttpClient httpClient = client;
+        if (MetricsRecorder.isEnabled()) {
+            httpClient = client.clone();
+            httpClient.networkInterceptors().add(timingInterceptor);
+        }
+        requestTime = MetricsRecorder.now();
+        final Call current = httpClient.newCall(req);
+        call = current;
+        if (cancelled) {
+            //cancel() ran before the call was assigned
+            current.cancel();
+        }
+        current.enqueue(new Callback() {
             @Override
             public void onFailure(Request request, final IOException e) {
-                Log.e(TAG, "Failed to fetch the Application: " + e.getMessage(), e);
+                LockLog.e(TAG, "Failed to fetch the Application: %s", e.getMessage(), e);
                 Auth0Exception exception = new Auth0Exception("Failed to fetch the Application: " + e.getMessage());
                 callback.onFailure(new AuthenticationException("Failed to fetch the Application", exception));
             }
@@ -96,22 +254,77 @@ public class ApplicationFetcher {
             public void onResponse(Response response) {
                 List<Connection> connections;
                 try {
-                    connections = parseJSONP(response);
+                    connections = response.code() == HTTP_NOT_MODIFIED ? readNotModified(response) : parseJSONP(response);
                 } catch (Auth0Exception e) {
-                    Log.e(TAG, "Could not parse Application JSONP: " + e.getMessage());
+                    LockLog.e(TAG, "Could not parse Application JSONP: %s", e.getMessage());
                     callback.onFailure(new AuthenticationException("Could not parse Application JSONP", e));
                     return;
                 }
 
-                Log.i(TAG, "Application received!");
+                LockLog.i(TAG, "Application received!");
                 callback.onSuccess(connections);
             }
         });
     }
 
+    private Request createRequest() {
+        Uri uri = Uri.parse(account.getConfigurationUrl()).buildUpon().appendPath("client")
+                .appendPath(account.getClientId() + ".js").build();
+
+        Request.Builder builder = new Request.Builder()
+                .url(uri.toString());
+        if (cache != null && cache.hasBody()) {
+            final String eTag = cache.getETag();
+            final String lastModified = cache.getLastModified();
+            if (eTag != null) {
+                builder.header("If-None-Match", eTag);
+            }
+            if (lastModified != null) {
+                builder.header("If-Modified-Since", lastModified);
+            }
+        }
+        return builder.build();
+    }
+
     private List<Connection> parseJSONP(Response response) throws Auth0Exception {
+        final String json = readBody(response);
+        final long bodyTime = MetricsRecorder.phaseCompleted(LockMetrics.Phase.CONFIGURATION_BODY, firstByteTime);
+        final List<Connection> connections = parseJSONP(json);
+        MetricsRecorder.phaseCompleted(LockMetrics.Phase.CONFIGURATION_PARSE, bodyTime);
+        if (cache != null) {
+            cache.write(json, response.header("ETag"), response.header("Last-Modified"));
+        }
+        return connections;
+    }
+
+    private List<Connection> readNotModified(Response response) throws Auth0Exception {
+        closeBody(response);
+        final List<Connection> connections = readCached();
+        if (connections == null) {
+            throw new Auth0Exception("The Application was not modified but it's no longer cached");
+        }
+        LockLog.d(TAG, "The cached Application is still valid");
+        cache.touch();
+        return connections;
+    }
+
+    private static String readBody(Response response) throws Auth0Exception {
+        try {
+            return response.body().string();
+        } catch (IOException e) {
+            throw new Auth0Exception("Failed to parse response to request", e);
+        }
+    }
+
+    private static void closeBody(Response response) {
+        try {
+            response.body().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    static List<Connection> parseJSONP(String json) throws Auth0Exception {
         try {
-            String json = response.body().string();
             final int length = JSONP_PREFIX.length();
             if (json.length() < length) {
                 throw new JSONException("Invalid App Info JSONP");
@@ -130,11 +343,25 @@ public class ApplicationFetcher {
             Type applicationType = new TypeToken<List<Connection>>() {
             }.getType();
             return createGson().fromJson(jsonObject.toString(), applicationType);
-        } catch (IOException | JSONException e) {
+        } catch (JSONException e) {
             throw new Auth0Exception("Failed to parse response to request", e);
         }
     }
 
+    /**
+     * Network interceptors run once the connection is ready, which splits the time spent connecting
+     * from the time spent waiting for the response.
+     */
+    private final Interceptor timingInterceptor = new Interceptor() {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            connectedTime = MetricsRecorder.phaseCompleted(LockMetrics.Phase.CONFIGURATION_CONNECT, requestTime);
+            final Response response = chain.proceed(chain.request());
+            firstByteTime = MetricsRecorder.phaseCompleted(LockMetrics.Phase.CONFIGURATION_FIRST_BYTE, connectedTime);
+            return response;
+        }
+    };
+
     static Gson createGson() {
         Type applicationType = new TypeToken<List<Connection>>() {
         }.getType();
@@ -0,0 +1,256 @@
+/*
+ * BreachedPasswordFilter.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.configuration;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+import android.support.annotation.WorkerThread;
+
+import com.auth0.android.lock.internal.logging.LockLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+
+/**
+ * Read-only Bloom filter of known breached passwords, used to reject them while the user types
+ * without a request to the server. The filter file is memory-mapped, so only the pages touched by
+ * the lookups are loaded and each lookup costs the same no matter how many passwords it holds.
+ * A lookup can return false positives but never false negatives. The false positive rate is chosen
+ * when the file is generated, either by the lib/breached-passwords-filter.gradle script when building
+ * the application or with {@link #write(Collection, double, OutputStream)}.
+ * <p>
+ * File format, big endian: the magic number, the format version, the number of hash functions,
+ * the number of bits, and then the bit array.
+ * Disclaimer: The classes in the internal package may change in the future. Don't use them directly.
+ */
+public class BreachedPasswordFilter {
+
+    private static final String TAG = BreachedPasswordFilter.class.getSimpleName();
+
+    /**
+     * Prefix of the locations that point to a file inside the application assets.
+     */
+    public static final String ASSET_PREFIX = "file:///android_asset/";
+
+    private static final int MAGIC = 0x4C4B4246;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 20;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer bits;
+    private final int hashCount;
+    private final long bitCount;
+
+    @VisibleForTesting
+    BreachedPasswordFilter(@NonNull ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("The given file is not a breached passwords filter");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported breached passwords filter version: " + buffer.getInt(4));
+        }
+        hashCount = buffer.getInt(8);
+        bitCount = buffer.getLong(12);
+        if (hashCount < 1 || bitCount < 1 || HEADER_SIZE + (bitCount + 7) / 8 > buffer.capacity()) {
+            throw new IOException("The breached passwords filter is truncated or corrupted");
+        }
+        this.bits = buffer;
+    }
+
+    /**
+     * Opens the filter found at the given location, which is either a file path or an asset name
+     * prefixed with {@link #ASSET_PREFIX}.
+     *
+     * @param assets   the application assets, or null if the location can't point to an asset.
+     * @param location the filter location.
+     * @return the filter ready to be queried.
+     * @throws IOException if the file can't be read or is not a valid filter.
+     */
+    @WorkerThread
+    @NonNull
+    public static BreachedPasswordFilter open(AssetManager assets, @NonNull String location) throws IOException {
+        if (!location.startsWith(ASSET_PREFIX)) {
+            return open(new File(location));
+        }
+        if (assets == null) {
+            throw new IOException("Can't open the asset " + location + " without an AssetManager");
+        }
+        final String assetName = location.substring(ASSET_PREFIX.length());
+        try {
+            return new BreachedPasswordFilter(mapAsset(assets, assetName));
+        } catch (FileNotFoundException e) {
+            //compressed assets can't be mapped. Add the extension to aaptOptions.noCompress to avoid this copy.
+            LockLog.w(TAG, "The asset %s is compressed and will be loaded in memory", assetName);
+            return new BreachedPasswordFilter(readAsset(assets, assetName));
+        }
+    }
+
+    /**
+     * Memory-maps the filter stored in the given file.
+     *
+     * @param file the filter file.
+     * @return the filter ready to be queried.
+     * @throws IOException if the file can't be read or is not a valid filter.
+     */
+    @WorkerThread
+    @NonNull
+    public static BreachedPasswordFilter open(@NonNull File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = raf.getChannel();
+            //the mapping stays valid once the channel is closed
+            return new BreachedPasswordFilter(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static ByteBuffer mapAsset(AssetManager assets, String assetName) throws IOException {
+        final AssetFileDescriptor descriptor = assets.openFd(assetName);
+        final FileInputStream in = descriptor.createInputStream();
+        try {
+            return in.getChannel().map(FileChannel.MapMode.READ_ONLY, descriptor.getStartOffset(), descriptor.getLength());
+        } finally {
+            in.close();
+        }
+    }
+
+    private static ByteBuffer readAsset(AssetManager assets, String assetName) throws IOException {
+        final InputStream in = assets.open(assetName);
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] chunk = new byte[8192];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+            final byte[] content = out.toByteArray();
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+            buffer.put(content);
+            return buffer;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Checks if the given password may be in the breached passwords list. It's safe to call from any thread.
+     *
+     * @param password the password to look up.
+     * @return false if the password is surely not in the list, true if it most likely is.
+     */
+    public boolean mightContain(@NonNull String password) {
+        final long[] hashes = hash(password);
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = indexOf(hashes, i, bitCount);
+            final int value = bits.get(HEADER_SIZE + (int) (bit >>> 3));
+            if ((value & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int getHashCount() {
+        return hashCount;
+    }
+
+    long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Generates a filter file with the given passwords, i.e. on a server for filters downloaded by the
+     * application. The filter size grows as the false positive rate gets lower: around 1.2 bytes per password
+     * for a 1% rate, and 1.8 bytes per password for a 0.1% rate. The lib/breached-passwords-filter.gradle script
+     * mirrors this method to bundle the filter in the application assets, and must be kept in sync with it.
+     *
+     * @param passwords         the breached passwords to add.
+     * @param falsePositiveRate the probability of a password not in the list to be reported as breached, between 0 and 1.
+     * @param out               where to write the filter. It's not closed by this method.
+     * @throws IOException if the filter can't be written.
+     */
+    public static void write(@NonNull Collection<String> passwords, double falsePositiveRate, @NonNull OutputStream out) throws IOException {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        final int count = Math.max(1, passwords.size());
+        final long bitCount = Math.max(8, (long) Math.ceil(-count * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        final int hashCount = Math.max(1, (int) Math.round((double) bitCount / count * Math.log(2)));
+        if (HEADER_SIZE + (bitCount + 7) / 8 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many passwords for the requested false positive rate");
+        }
+
+        final byte[] bits = new byte[(int) ((bitCount + 7) / 8)];
+        for (String password : passwords) {
+            final long[] hashes = hash(password);
+            for (int i = 0; i < hashCount; i++) {
+                final long bit = indexOf(hashes, i, bitCount);
+                bits[(int) (bit >>> 3)] |= 1 << (bit & 7);
+            }
+        }
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(hashCount);
+        data.writeLong(bitCount);
+        data.write(bits);
+        data.flush();
+    }
+
+    /**
+     * Derives the k bit indexes from two 64 bit hashes, as in "Less Hashing, Same Performance" (Kirsch, Mitzenmacher).
+     */
+    private static long indexOf(long[] hashes, int i, long bitCount) {
+        final long index = (hashes[0] + i * hashes[1]) % bitCount;
+        return index < 0 ? index + bitCount : index;
+    }
+
+    private static long[] hash(String password) {
+        final byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1").digest(password.getBytes(UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(digest);
+        return new long[]{buffer.getLong(0), buffer.getLong(8)};
+    }
+}
@@ -27,15 +27,17 @@ package com.auth0.android.lock.internal.configuration;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.StyleRes;
-import android.util.Log;
 
 import com.auth0.android.lock.AuthButtonSize;
 import com.auth0.android.lock.InitialScreen;
 import com.auth0.android.lock.UsernameStyle;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.utils.CustomField;
 import com.auth0.android.lock.views.AuthConfig;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -43,50 +45,141 @@ import java.util.Set;
 
 /**
  * Configuration class to resolve which connections are available after parsing the local options.
+ * Instances are immutable snapshots: a refreshed configuration is published as a new instance through a
+ * {@link ConfigurationHolder}, never by mutating an existing one.
  * Disclaimer: The classes in the internal package may change in the future. Don't use them directly.
  */
 public class Configuration {
 
     private static final String TAG = Configuration.class.getSimpleName();
 
-    private DatabaseConnection defaultDatabaseConnection;
-    private List<PasswordlessConnection> passwordlessConnections;
-    private List<OAuthConnection> socialConnections;
-    private List<OAuthConnection> enterpriseConnections;
-
-    private boolean allowLogIn;
-    private boolean allowSignUp;
-    private boolean allowForgotPassword;
-    private boolean allowShowPassword;
-    private boolean usernameRequired;
-    private boolean mustAcceptTerms;
-    private boolean useLabeledSubmitButton;
-    private boolean hideMainScreenTitle;
-    private boolean passwordlessAutoSubmit;
+    private final DatabaseConnection defaultDatabaseConnection;
+    private final List<PasswordlessConnection> passwordlessConnections;
+    private final List<OAuthConnection> socialConnections;
+    private final List<OAuthConnection> enterpriseConnections;
+
+    private final boolean allowLogIn;
+    private final boolean allowSignUp;
+    private final boolean allowForgotPassword;
+    private final boolean allowShowPassword;
+    private final boolean usernameRequired;
+    private final boolean mustAcceptTerms;
+    private final boolean useLabeledSubmitButton;
+    private final boolean hideMainScreenTitle;
+    private final boolean passwordlessAutoSubmit;
     @UsernameStyle
-    private int usernameStyle;
+    private final int usernameStyle;
     @AuthButtonSize
-    private int socialButtonStyle;
-    private boolean loginAfterSignUp;
+    private final int socialButtonStyle;
+    private final boolean loginAfterSignUp;
     @PasswordlessMode
-    private int passwordlessMode;
+    private final int passwordlessMode;
     @InitialScreen
-    private int initialScreen;
-    private String termsURL;
-    private String privacyURL;
-    private String supportURL;
-    private List<CustomField> extraSignUpFields;
-    private Map<String, Integer> authStyles;
-
+    private final int initialScreen;
+    private final String termsURL;
+    private final String privacyURL;
+    private final String supportURL;
+    private final List<CustomField> extraSignUpFields;
+    private final Map<String, Integer> authStyles;
+    private final ParameterTemplate authenticationParameters;
+    private final Map<String, ParameterTemplate> authorizeParameters;
+    private final ParameterTemplate defaultAuthorizeParameters;
+    private final Map<String, String> connectionsScope;
+    private final BreachedPasswordFilter breachedPasswordFilter;
+
+    /**
+     * Creates a new snapshot of the available connections and local settings. Every collection exposed by this
+     * instance is an unmodifiable copy, so it can be safely shared between threads once built.
+     *
+     * @param connections the connections received from the Auth0 Dashboard.
+     * @param options     the local Lock options.
+     */
     public Configuration(List<Connection> connections, Options options) {
+        this(connections, options, null);
+    }
+
+    /**
+     * Creates a new snapshot of the available connections and local settings.
+     *
+     * @param connections            the connections received from the Auth0 Dashboard.
+     * @param options                the local Lock options.
+     * @param breachedPasswordFilter the filter to reject breached passwords on sign up, or null to skip that check.
+     */
+    public Configuration(List<Connection> connections, Options options, @Nullable BreachedPasswordFilter breachedPasswordFilter) {
+        this.breachedPasswordFilter = breachedPasswordFilter;
         List<String> allowedConnections = options.getConnections();
         String defaultDatabaseName = options.getDefaultDatabaseConnection();
         Set<String> connectionSet = allowedConnections != null ? new HashSet<>(allowedConnections) : new HashSet<String>();
         this.defaultDatabaseConnection = filterDatabaseConnections(connections, connectionSet, defaultDatabaseName);
-        this.enterpriseConnections = filterConnections(connections, connectionSet, AuthType.ENTERPRISE);
-        this.passwordlessConnections = filterConnections(connections, connectionSet, AuthType.PASSWORDLESS);
-        this.socialConnections = filterConnections(connections, connectionSet, AuthType.SOCIAL);
-        parseLocalOptions(options);
+        this.enterpriseConnections = Collections.unmodifiableList(this.<OAuthConnection>filterConnections(connections, connectionSet, AuthType.ENTERPRISE));
+        this.passwordlessConnections = Collections.unmodifiableList(this.<PasswordlessConnection>filterConnections(connections, connectionSet, AuthType.PASSWORDLESS));
+        this.socialConnections = Collections.unmodifiableList(this.<OAuthConnection>filterConnections(connections, connectionSet, AuthType.SOCIAL));
+
+        usernameStyle = options.usernameStyle();
+        socialButtonStyle = options.authButtonSize();
+        loginAfterSignUp = options.loginAfterSignUp();
+        mustAcceptTerms = options.mustAcceptTerms();
+        useLabeledSubmitButton = options.useLabeledSubmitButton();
+        hideMainScreenTitle = options.hideMainScreenTitle();
+        passwordlessAutoSubmit = options.rememberLastPasswordlessAccount();
+
+        authStyles = Collections.unmodifiableMap(options.getAuthStyles());
+        extraSignUpFields = Collections.unmodifiableList(new ArrayList<>(options.getCustomFields()));
+        authenticationParameters = ParameterTemplate.forAuthentication(options);
+        authorizeParameters = Collections.unmodifiableMap(buildAuthorizeParameters(options));
+        defaultAuthorizeParameters = ParameterTemplate.forAuthorize(options, null);
+        connectionsScope = Collections.unmodifiableMap(new HashMap<>(options.getConnectionsScope()));
+
+        final DatabaseConnection databaseConnection = getDatabaseConnection();
+        if (databaseConnection != null) {
+            allowLogIn = options.allowLogIn();
+            allowSignUp = options.allowSignUp() && databaseConnection.showSignUp();
+            //let user disable password reset only if connection have enabled it.
+            allowForgotPassword = databaseConnection.showForgot() && options.allowForgotPassword();
+            usernameRequired = databaseConnection.requiresUsername();
+
+            initialScreen = options.initialScreen();
+        } else {
+            allowLogIn = false;
+            allowSignUp = false;
+            allowForgotPassword = false;
+            usernameRequired = false;
+            initialScreen = InitialScreen.LOG_IN;
+        }
+
+        allowShowPassword = options.allowShowPassword();
+        passwordlessMode = parsePasswordlessMode(options.useCodePasswordless());
+
+        this.termsURL = options.getTermsURL() == null ? "https://auth0.com/terms" : options.getTermsURL();
+        this.privacyURL = options.getPrivacyURL() == null ? "https://auth0.com/privacy" : options.getPrivacyURL();
+        this.supportURL = options.getSupportURL();
+    }
+
+    /**
+     * The parameters to send in the Authentication API requests, i.e. log in, sign up or passwordless log in.
+     *
+     * @return the precomputed template.
+     */
+    @NonNull
+    public ParameterTemplate getAuthenticationParameters() {
+        return authenticationParameters;
+    }
+
+    /**
+     * The parameters to send in the /authorize request of the given connection, including its connection scope,
+     * the scope and the audience. The templates of the social and enterprise connections are computed when
+     * this instance is built.
+     *
+     * @param connection the name of the connection.
+     * @return the precomputed template, or a new one if the connection isn't part of this configuration.
+     */
+    @NonNull
+    public ParameterTemplate getAuthorizeParameters(@NonNull String connection) {
+        final ParameterTemplate template = authorizeParameters.get(connection);
+        if (template != null) {
+            return template;
+        }
+        return new ParameterTemplate(defaultAuthorizeParameters.with(ParameterTemplate.CONNECTION_SCOPE_KEY, connectionsScope.get(connection)));
     }
 
     @NonNull
@@ -146,7 +239,7 @@ public class Configuration {
                 return connection;
             }
         }
-        Log.w(TAG, String.format("You've chosen '%s' as your default database name, but it wasn't found in your Auth0 connections configuration.", defaultDatabaseName));
+        LockLog.w(TAG, "You've chosen '%s' as your default database name, but it wasn't found in your Auth0 connections configuration.", defaultDatabaseName);
 
         return filteredConnections.isEmpty() ? null : filteredConnections.get(0);
     }
@@ -154,7 +247,7 @@ public class Configuration {
     @NonNull
     private <T extends BaseConnection> List<T> filterConnections(@NonNull List<Connection> connections, Set<String> allowedConnections, @AuthType int type) {
         if (connections.isEmpty()) {
-            return (List<T>) connections;
+            return new ArrayList<>();
         }
         List<T> filtered = new ArrayList<>(connections.size());
         for (Connection connection : connections) {
@@ -167,36 +260,6 @@ public class Configuration {
     }
 
 
-    private void parseLocalOptions(Options options) {
-        usernameStyle = options.usernameStyle();
-        socialButtonStyle = options.authButtonSize();
-        loginAfterSignUp = options.loginAfterSignUp();
-        mustAcceptTerms = options.mustAcceptTerms();
-        useLabeledSubmitButton = options.useLabeledSubmitButton();
-        hideMainScreenTitle = options.hideMainScreenTitle();
-        passwordlessAutoSubmit = options.rememberLastPasswordlessAccount();
-
-        authStyles = options.getAuthStyles();
-        extraSignUpFields = options.getCustomFields();
-
-        if (getDatabaseConnection() != null) {
-            allowLogIn = options.allowLogIn();
-            allowSignUp = options.allowSignUp() && getDatabaseConnection().showSignUp();
-            //let user disable password reset only if connection have enabled it.
-            allowForgotPassword = getDatabaseConnection().showForgot() && options.allowForgotPassword();
-            usernameRequired = getDatabaseConnection().requiresUsername();
-
-            initialScreen = options.initialScreen();
-        }
-
-        allowShowPassword = options.allowShowPassword();
-        passwordlessMode = parsePasswordlessMode(options.useCodePasswordless());
-
-        this.termsURL = options.getTermsURL() == null ? "https://auth0.com/terms" : options.getTermsURL();
-        this.privacyURL = options.getPrivacyURL() == null ? "https://auth0.com/privacy" : options.getPrivacyURL();
-        this.supportURL = options.getSupportURL();
-    }
-
     @StyleRes
     public int authStyleForConnection(String strategy, String connection) {
         if (authStyles.containsKey(connection)) {
@@ -205,6 +268,17 @@ public class Configuration {
         return AuthConfig.styleForStrategy(strategy);
     }
 
+    private Map<String, ParameterTemplate> buildAuthorizeParameters(Options options) {
+        Map<String, ParameterTemplate> templates = new HashMap<>();
+        for (OAuthConnection connection : socialConnections) {
+            templates.put(connection.getName(), ParameterTemplate.forAuthorize(options, connection.getName()));
+        }
+        for (OAuthConnection connection : enterpriseConnections) {
+            templates.put(connection.getName(), ParameterTemplate.forAuthorize(options, connection.getName()));
+        }
+        return templates;
+    }
+
     @PasswordlessMode
     private int parsePasswordlessMode(boolean requestCode) {
         int mode = PasswordlessMode.DISABLED;
@@ -295,6 +369,11 @@ public class Configuration {
         return supportURL;
     }
 
+    @Nullable
+    public BreachedPasswordFilter getBreachedPasswordFilter() {
+        return breachedPasswordFilter;
+    }
+
     public boolean mustAcceptTerms() {
         return mustAcceptTerms;
     }
@@ -0,0 +1,198 @@
+/*
+ * ConfigurationDiff.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.configuration;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The differences between two Configuration snapshots of the same Lock instance, i.e. the one being shown and a
+ * refreshed one. As both are built from the same Options, only the values that depend on the received
+ * connections are compared.
+ * <p>
+ * Disclaimer: The classes in the internal package may change in the future. Don't use them directly.
+ */
+public class ConfigurationDiff {
+
+    private final List<String> addedSocialConnections;
+    private final List<String> removedSocialConnections;
+    private final boolean socialConnectionsChanged;
+    private final boolean databaseConnectionChanged;
+    private final boolean enterpriseConnectionsChanged;
+    private final boolean passwordlessConnectionChanged;
+    private final boolean allowLogInChanged;
+    private final boolean allowSignUpChanged;
+    private final boolean allowForgotPasswordChanged;
+
+    private ConfigurationDiff(@NonNull Configuration shown, @NonNull Configuration updated) {
+        final List<String> shownSocial = namesOf(shown.getSocialConnections());
+        final List<String> updatedSocial = namesOf(updated.getSocialConnections());
+        addedSocialConnections = Collections.unmodifiableList(missingFrom(shownSocial, updatedSocial));
+        removedSocialConnections = Collections.unmodifiableList(missingFrom(updatedSocial, shownSocial));
+        socialConnectionsChanged = !shownSocial.equals(updatedSocial);
+        databaseConnectionChanged = !sameDatabaseConnection(shown.getDatabaseConnection(), updated.getDatabaseConnection());
+        enterpriseConnectionsChanged = !sameEnterpriseConnections(shown.getEnterpriseConnections(), updated.getEnterpriseConnections());
+        passwordlessConnectionChanged = !sameConnection(shown.getPasswordlessConnection(), updated.getPasswordlessConnection());
+        allowLogInChanged = shown.allowLogIn() != updated.allowLogIn();
+        allowSignUpChanged = shown.allowSignUp() != updated.allowSignUp();
+        allowForgotPasswordChanged = shown.allowForgotPassword() != updated.allowForgotPassword();
+    }
+
+    /**
+     * Compares the configuration being shown with an updated one.
+     *
+     * @param shown   the configuration the views were built with.
+     * @param updated the configuration that replaces it.
+     * @return the differences between them.
+     */
+    @NonNull
+    public static ConfigurationDiff between(@NonNull Configuration shown, @NonNull Configuration updated) {
+        return new ConfigurationDiff(shown, updated);
+    }
+
+    /**
+     * Whether the updated configuration would show exactly the same UI.
+     *
+     * @return true if nothing relevant to the views changed.
+     */
+    public boolean isEmpty() {
+        return !socialConnectionsChanged && !databaseConnectionChanged && !enterpriseConnectionsChanged
+                && !passwordlessConnectionChanged && !allowLogInChanged && !allowSignUpChanged && !allowForgotPasswordChanged;
+    }
+
+    /**
+     * Whether the list of social connections changed, including their order.
+     */
+    public boolean socialConnectionsChanged() {
+        return socialConnectionsChanged;
+    }
+
+    /**
+     * The names of the social connections that are only in the updated configuration.
+     */
+    @NonNull
+    public List<String> getAddedSocialConnections() {
+        return addedSocialConnections;
+    }
+
+    /**
+     * The names of the social connections that are no longer in the updated configuration.
+     */
+    @NonNull
+    public List<String> getRemovedSocialConnections() {
+        return removedSocialConnections;
+    }
+
+    /**
+     * Whether the database connection was added, removed or replaced, or any of its form settings changed.
+     */
+    public boolean databaseConnectionChanged() {
+        return databaseConnectionChanged;
+    }
+
+    /**
+     * Whether any enterprise connection was added or removed, or any of their domains or flows changed.
+     */
+    public boolean enterpriseConnectionsChanged() {
+        return enterpriseConnectionsChanged;
+    }
+
+    /**
+     * Whether the passwordless connection to use was added, removed or replaced.
+     */
+    public boolean passwordlessConnectionChanged() {
+        return passwordlessConnectionChanged;
+    }
+
+    public boolean allowLogInChanged() {
+        return allowLogInChanged;
+    }
+
+    public boolean allowSignUpChanged() {
+        return allowSignUpChanged;
+    }
+
+    public boolean allowForgotPasswordChanged() {
+        return allowForgotPasswordChanged;
+    }
+
+    private static List<String> namesOf(List<OAuthConnection> connections) {
+        final List<String> names = new ArrayList<>(connections.size());
+        for (OAuthConnection c : connections) {
+            names.add(c.getName());
+        }
+        return names;
+    }
+
+    private static List<String> missingFrom(List<String> reference, List<String> names) {
+        final Set<String> referenceSet = new HashSet<>(reference);
+        final List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            if (!referenceSet.contains(name)) {
+                missing.add(name);
+            }
+        }
+        return missing;
+    }
+
+    private static boolean sameConnection(@Nullable BaseConnection lhs, @Nullable BaseConnection rhs) {
+        if (lhs == null || rhs == null) {
+            return lhs == rhs;
+        }
+        return lhs.getName().equals(rhs.getName()) && lhs.getStrategy().equals(rhs.getStrategy());
+    }
+
+    private static boolean sameDatabaseConnection(@Nullable DatabaseConnection lhs, @Nullable DatabaseConnection rhs) {
+        if (!sameConnection(lhs, rhs)) {
+            return false;
+        }
+        //noinspection ConstantConditions
+        return lhs == null || lhs.requiresUsername() == rhs.requiresUsername()
+                && lhs.getPasswordPolicy() == rhs.getPasswordPolicy()
+                && lhs.getMinUsernameLength() == rhs.getMinUsernameLength()
+                && lhs.getMaxUsernameLength() == rhs.getMaxUsernameLength()
+                && lhs.isCustomDatabase() == rhs.isCustomDatabase();
+    }
+
+    private static boolean sameEnterpriseConnections(List<OAuthConnection> lhs, List<OAuthConnection> rhs) {
+        if (lhs.size() != rhs.size()) {
+            return false;
+        }
+        for (int i = 0; i < lhs.size(); i++) {
+            final OAuthConnection l = lhs.get(i);
+            final OAuthConnection r = rhs.get(i);
+            if (!sameConnection(l, r) || l.isActiveFlowEnabled() != r.isActiveFlowEnabled() || !l.getDomainSet().equals(r.getDomainSet())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
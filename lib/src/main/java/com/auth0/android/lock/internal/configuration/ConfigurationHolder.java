@@ -0,0 +1,161 @@
+/*
+ * ConfigurationHolder.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.internal.configuration;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Safely publishes {@link Configuration} snapshots between the thread that builds them and the main thread.
+ * Every published snapshot gets a new, increasing version number. The listener is always notified on the
+ * main thread and only with the latest version, so intermediate snapshots published in a burst are skipped.
+ * <p>
+ * Disclaimer: The classes in the internal package may change in the future. Don't use them directly.
+ */
+public class ConfigurationHolder {
+
+    /**
+     * Receives the latest Configuration published on this holder.
+     */
+    public interface ConfigurationListener {
+        /**
+         * Called on the main thread when a newer Configuration snapshot is available.
+         *
+         * @param configuration the new configuration.
+         * @param version       the version number assigned to this snapshot.
+         */
+        @MainThread
+        void onConfigurationChanged(@NonNull Configuration configuration, int version);
+    }
+
+    private final AtomicReference<Snapshot> current;
+    private final Handler handler;
+    private ConfigurationListener listener;
+    private int deliveredVersion;
+
+    public ConfigurationHolder() {
+        this(null);
+    }
+
+    /**
+     * Creates a new holder with an optional initial Configuration.
+     *
+     * @param initial the configuration to start with, or null if it still needs to be fetched.
+     */
+    public ConfigurationHolder(@Nullable Configuration initial) {
+        Snapshot snapshot = new Snapshot(initial, initial == null ? 0 : 1);
+        this.current = new AtomicReference<>(snapshot);
+        this.deliveredVersion = snapshot.version;
+        this.handler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Getter for the latest published Configuration. Can be called from any thread.
+     *
+     * @return the latest configuration or null if none was published yet.
+     */
+    @Nullable
+    public Configuration get() {
+        return current.get().configuration;
+    }
+
+    /**
+     * Getter for the version of the latest published Configuration. Can be called from any thread.
+     *
+     * @return the latest version number, or 0 if no configuration was published yet.
+     */
+    public int getVersion() {
+        return current.get().version;
+    }
+
+    /**
+     * Atomically replaces the current Configuration and schedules the listener notification on the main thread.
+     * Can be called from any thread.
+     *
+     * @param configuration the new configuration snapshot.
+     * @return the version number assigned to the given configuration.
+     */
+    public int publish(@NonNull Configuration configuration) {
+        Snapshot previous;
+        Snapshot next;
+        do {
+            previous = current.get();
+            next = new Snapshot(configuration, previous.version + 1);
+        } while (!current.compareAndSet(previous, next));
+
+        final int version = next.version;
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                deliver(version);
+            }
+        });
+        return version;
+    }
+
+    /**
+     * Sets the listener to notify on new Configuration snapshots. If a snapshot is already available,
+     * it will be delivered right away to the new listener. Must be called from the main thread.
+     *
+     * @param listener the listener to notify, or null to stop receiving updates.
+     */
+    @MainThread
+    public void setListener(@Nullable ConfigurationListener listener) {
+        if (this.listener == listener) {
+            return;
+        }
+        this.listener = listener;
+        if (listener != null) {
+            deliveredVersion = 0;
+            deliver(current.get().version);
+        }
+    }
+
+    @MainThread
+    private void deliver(int version) {
+        final Snapshot snapshot = current.get();
+        if (listener == null || snapshot.configuration == null || snapshot.version != version || version <= deliveredVersion) {
+            return;
+        }
+        deliveredVersion = version;
+        listener.onConfigurationChanged(snapshot.configuration, version);
+    }
+
+    private static final class Snapshot {
+        private final Configuration configuration;
+        private final int version;
+
+        private Snapshot(Configuration configuration, int version) {
+            this.configuration = configuration;
+            this.version = version;
+        }
+    }
+}
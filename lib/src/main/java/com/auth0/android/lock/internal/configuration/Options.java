@@ -76,6 +76,7 @@ public class Options implements Parcelable {
     private boolean useLabeledSubmitButton;
     private boolean hideMainScreenTitle;
     private boolean rememberLastPasswordlessLogin;
+    private boolean preconnect;
     private String defaultDatabaseConnection;
     private List<String> connections;
     private List<String> enterpriseConnectionsUsingWebForm;
@@ -91,6 +92,7 @@ public class Options implements Parcelable {
     private String scope;
     private String audience;
     private String scheme;
+    private String breachedPasswordsFilter;
 
     public Options() {
         usernameStyle = UsernameStyle.DEFAULT;
@@ -104,6 +106,7 @@ public class Options implements Parcelable {
         useCodePasswordless = true;
         usePKCE = true;
         useLabeledSubmitButton = true;
+        preconnect = true;
         authenticationParameters = new HashMap<>();
         authStyles = new HashMap<>();
         connectionsScope = new HashMap<>();
@@ -127,6 +130,7 @@ public class Options implements Parcelable {
         useLabeledSubmitButton = in.readByte() != WITHOUT_DATA;
         hideMainScreenTitle = in.readByte() != WITHOUT_DATA;
         rememberLastPasswordlessLogin = in.readByte() != WITHOUT_DATA;
+        preconnect = in.readByte() != WITHOUT_DATA;
         defaultDatabaseConnection = in.readString();
         usernameStyle = in.readInt();
         initialScreen = in.readInt();
@@ -138,6 +142,7 @@ public class Options implements Parcelable {
         scope = in.readString();
         audience = in.readString();
         scheme = in.readString();
+        breachedPasswordsFilter = in.readString();
         if (in.readByte() == HAS_DATA) {
             connections = new ArrayList<>();
             in.readList(connections, String.class.getClassLoader());
@@ -205,6 +210,7 @@ public class Options implements Parcelable {
         dest.writeByte((byte) (useLabeledSubmitButton ? HAS_DATA : WITHOUT_DATA));
         dest.writeByte((byte) (hideMainScreenTitle ? HAS_DATA : WITHOUT_DATA));
         dest.writeByte((byte) (rememberLastPasswordlessLogin ? HAS_DATA : WITHOUT_DATA));
+        dest.writeByte((byte) (preconnect ? HAS_DATA : WITHOUT_DATA));
         dest.writeString(defaultDatabaseConnection);
         dest.writeInt(usernameStyle);
         dest.writeInt(initialScreen);
@@ -216,6 +222,7 @@ public class Options implements Parcelable {
         dest.writeString(scope);
         dest.writeString(audience);
         dest.writeString(scheme);
+        dest.writeString(breachedPasswordsFilter);
         if (connections == null) {
             dest.writeByte((byte) (WITHOUT_DATA));
         } else {
@@ -519,6 +526,14 @@ public class Options implements Parcelable {
         return rememberLastPasswordlessLogin;
     }
 
+    public void setPreconnect(boolean preconnect) {
+        this.preconnect = preconnect;
+    }
+
+    public boolean preconnect() {
+        return preconnect;
+    }
+
     public void withConnectionScope(@NonNull String connectionName, @NonNull String scope) {
         connectionsScope.put(connectionName, scope);
     }
@@ -554,4 +569,13 @@ public class Options implements Parcelable {
     public String getScheme() {
         return scheme;
     }
-}
\ No newline at end of file
+
+    public void setBreachedPasswordsFilter(@NonNull String location) {
+        this.breachedPasswordsFilter = location;
+    }
+
+    @Nullable
+    public String getBreachedPasswordsFilter() {
+        return breachedPasswordsFilter;
+    }
+}
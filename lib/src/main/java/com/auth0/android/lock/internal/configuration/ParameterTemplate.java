@@ -0,0 +1,252 @@
+/*
+ * ParameterTemplate.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.internal.configuration;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.authentication.ParameterBuilder;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable set of authentication parameters, computed once when the Configuration is built.
+ * The values that change on each request are laid over it with {@link #with(String, Object)} or
+ * {@link #with(Map)}, which return a read-only view instead of copying the template.
+ * Disclaimer: The classes in the internal package may change in the future. Don't use them directly.
+ */
+public final class ParameterTemplate {
+
+    static final String CONNECTION_SCOPE_KEY = "connection_scope";
+
+    private final Map<String, Object> values;
+
+    ParameterTemplate(@NonNull Map<String, Object> values) {
+        this.values = Collections.unmodifiableMap(new HashMap<>(values));
+    }
+
+    /**
+     * Creates the template with the authentication parameters set in the options.
+     *
+     * @param options the local Lock options.
+     * @return a new template.
+     */
+    public static ParameterTemplate forAuthentication(@NonNull Options options) {
+        return new ParameterTemplate(options.getAuthenticationParameters());
+    }
+
+    /**
+     * Creates the template to use in the /authorize requests of the given connection. Besides the
+     * authentication parameters it includes the connection scope, the scope and the audience.
+     *
+     * @param options    the local Lock options.
+     * @param connection the name of the connection, or null to leave the connection scope out.
+     * @return a new template.
+     */
+    public static ParameterTemplate forAuthorize(@NonNull Options options, @Nullable String connection) {
+        final Map<String, Object> values = new HashMap<String, Object>(options.getAuthenticationParameters());
+        final String connectionScope = connection == null ? null : options.getConnectionsScope().get(connection);
+        if (connectionScope != null) {
+            values.put(CONNECTION_SCOPE_KEY, connectionScope);
+        }
+        final String scope = options.getScope();
+        if (scope != null) {
+            values.put(ParameterBuilder.SCOPE_KEY, scope);
+        }
+        final String audience = options.getAudience();
+        final Auth0 account = options.getAccount();
+        if (audience != null && account != null && account.isOIDCConformant()) {
+            values.put(ParameterBuilder.AUDIENCE_KEY, audience);
+        }
+        return new ParameterTemplate(values);
+    }
+
+    /**
+     * The template values.
+     *
+     * @return an unmodifiable map with the parameters.
+     */
+    @NonNull
+    public Map<String, Object> asMap() {
+        return values;
+    }
+
+    /**
+     * Lays a single value over the template. A null value leaves the template as it is.
+     *
+     * @param key   the parameter name.
+     * @param value the parameter value.
+     * @return an unmodifiable map with the parameters.
+     */
+    @NonNull
+    public Map<String, Object> with(@NonNull String key, @Nullable Object value) {
+        if (value == null) {
+            return values;
+        }
+        return new OverlayMap(values, Collections.singletonMap(key, value));
+    }
+
+    /**
+     * Lays the given values over the template. The overlay values win when a key is in both.
+     *
+     * @param overlay the request values, or null.
+     * @return an unmodifiable map with the parameters.
+     */
+    @NonNull
+    public Map<String, Object> with(@Nullable Map<String, Object> overlay) {
+        if (overlay == null || overlay.isEmpty()) {
+            return values;
+        }
+        return new OverlayMap(values, overlay);
+    }
+
+    /**
+     * Lays the given values over a base map without copying any of them.
+     *
+     * @param base    the base values.
+     * @param overlay the values that win when a key is in both, or null.
+     * @return an unmodifiable map with the parameters.
+     */
+    @NonNull
+    public static Map<String, Object> overlay(@NonNull Map<String, Object> base, @Nullable Map<String, Object> overlay) {
+        if (overlay == null || overlay.isEmpty()) {
+            return Collections.unmodifiableMap(base);
+        }
+        return new OverlayMap(base, overlay);
+    }
+
+    /**
+     * Read-only view of two maps, where the keys of the top map hide the same keys in the base one.
+     */
+    private static final class OverlayMap extends AbstractMap<String, Object> {
+
+        private final Map<String, Object> base;
+        private final Map<String, Object> top;
+        private final int size;
+
+        OverlayMap(Map<String, Object> base, Map<String, Object> top) {
+            this.base = base;
+            this.top = top;
+            int hidden = 0;
+            for (String key : top.keySet()) {
+                if (base.containsKey(key)) {
+                    hidden++;
+                }
+            }
+            this.size = base.size() + top.size() - hidden;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return top.containsKey(key) ? top.get(key) : base.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return top.containsKey(key) || base.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @NonNull
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @NonNull
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new OverlayIterator(top.entrySet().iterator(), base.entrySet().iterator(), top);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    private static final class OverlayIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private final Iterator<Map.Entry<String, Object>> top;
+        private final Iterator<Map.Entry<String, Object>> base;
+        private final Map<String, Object> hidden;
+        private Map.Entry<String, Object> next;
+
+        OverlayIterator(Iterator<Map.Entry<String, Object>> top, Iterator<Map.Entry<String, Object>> base, Map<String, Object> hidden) {
+            this.top = top;
+            this.base = base;
+            this.hidden = hidden;
+            advance();
+        }
+
+        private void advance() {
+            if (top.hasNext()) {
+                next = top.next();
+                return;
+            }
+            while (base.hasNext()) {
+                Map.Entry<String, Object> entry = base.next();
+                if (!hidden.containsKey(entry.getKey())) {
+                    next = entry;
+                    return;
+                }
+            }
+            next = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Object> current = next;
+            advance();
+            return new AbstractMap.SimpleImmutableEntry<>(current);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
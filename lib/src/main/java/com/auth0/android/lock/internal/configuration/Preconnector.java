@@ -0,0 +1,116 @@
+/*
+ * Preconnector.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.internal.configuration;
+
+import android.support.annotation.NonNull;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.lock.LockMetrics;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.lock.internal.metrics.MetricsRecorder;
+import com.squareup.okhttp.Callback;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+import java.io.IOException;
+
+/**
+ * Opens the connection to the Auth0 domain ahead of the first Authentication API request.
+ * A HEAD request is sent and its response discarded, leaving the connection in the shared OkHttp
+ * connection pool so the log in or sign up request doesn't have to wait for the DNS lookup and the
+ * TCP and TLS handshakes.
+ */
+public class Preconnector {
+
+    private static final String TAG = Preconnector.class.getSimpleName();
+
+    private final OkHttpClient client;
+
+    /**
+     * Helper class to warm up the connection to the Auth0 domain.
+     *
+     * @param client the OkHttpClient instance to use. It must use the default connection pool for the connection to be reused.
+     */
+    public Preconnector(@NonNull OkHttpClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Preconnects to the domain of the given account, in a background thread.
+     *
+     * @param account the account whose domain will receive the Authentication API requests.
+     */
+    public void preconnect(@NonNull Auth0 account) {
+        preconnect(account.getDomainUrl());
+    }
+
+    /**
+     * Preconnects to the host of the given url, in a background thread.
+     *
+     * @param url the url to connect to.
+     */
+    public void preconnect(@NonNull String url) {
+        final Request request;
+        try {
+            request = new Request.Builder()
+                    .url(url)
+                    .head()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            LockLog.w(TAG, "Can't preconnect to an invalid url: %s", url);
+            return;
+        }
+
+        final OkHttpClient httpClient = client.clone();
+        httpClient.setFollowRedirects(false);
+        httpClient.setFollowSslRedirects(false);
+        if (MetricsRecorder.isEnabled()) {
+            final long startTime = MetricsRecorder.now();
+            httpClient.networkInterceptors().add(new Interceptor() {
+                @Override
+                public Response intercept(Chain chain) throws IOException {
+                    MetricsRecorder.phaseCompleted(LockMetrics.Phase.PRECONNECT, startTime);
+                    return chain.proceed(chain.request());
+                }
+            });
+        }
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Request request, IOException e) {
+                LockLog.w(TAG, "Failed to preconnect to %s: %s", request.httpUrl().host(), e.getMessage());
+            }
+
+            @Override
+            public void onResponse(Response response) throws IOException {
+                //closing the body releases the connection back to the pool
+                response.body().close();
+                LockLog.v(TAG, "Preconnected to %s", response.request().httpUrl().host());
+            }
+        });
+    }
+}
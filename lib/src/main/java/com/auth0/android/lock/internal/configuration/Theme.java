@@ -32,6 +32,7 @@ import android.support.annotation.AttrRes;
 import android.support.annotation.ColorInt;
 import android.support.annotation.ColorRes;
 import android.support.annotation.DrawableRes;
+import android.support.annotation.Nullable;
 import android.support.annotation.StringRes;
 import android.support.v4.content.ContextCompat;
 import android.util.TypedValue;
@@ -47,14 +48,16 @@ public class Theme implements Parcelable {
 
     private final int headerTitle;
     private final int headerLogo;
+    private final String headerLogoUrl;
     private final int headerColor;
     private final int headerTitleColor;
     private final int primaryColor;
     private final int darkPrimaryColor;
 
-    private Theme(int headerTitle, int headerLogo, int headerColor, int headerTitleColor, int primaryColor, int darkPrimaryColor) {
+    private Theme(int headerTitle, int headerLogo, String headerLogoUrl, int headerColor, int headerTitleColor, int primaryColor, int darkPrimaryColor) {
         this.headerTitle = headerTitle;
         this.headerLogo = headerLogo;
+        this.headerLogoUrl = headerLogoUrl;
         this.headerColor = headerColor;
         this.headerTitleColor = headerTitleColor;
         this.primaryColor = primaryColor;
@@ -71,6 +74,19 @@ public class Theme implements Parcelable {
         return context.getString(typedValue.resourceId);
     }
 
+    @Nullable
+    private String resolveOptionalString(Context context, String value, @AttrRes int attrName) {
+        if (value != null) {
+            return value;
+        }
+
+        TypedValue typedValue = new TypedValue();
+        if (!context.getTheme().resolveAttribute(attrName, typedValue, true) || typedValue.string == null) {
+            return null;
+        }
+        return typedValue.string.toString();
+    }
+
     @ColorInt
     private int resolveColorResource(Context context, @ColorRes int res, @AttrRes int attrName) {
         if (res > 0) {
@@ -100,6 +116,18 @@ public class Theme implements Parcelable {
         return resolveDrawableResource(context, headerLogo, R.attr.Auth0_HeaderLogo);
     }
 
+    /**
+     * The URL of a remote logo to show in the header instead of the {@link #getHeaderLogo(Context)} drawable,
+     * once it's been downloaded.
+     *
+     * @param context a valid context.
+     * @return the logo URL, or null if there isn't one.
+     */
+    @Nullable
+    public String getHeaderLogoUrl(Context context) {
+        return resolveOptionalString(context, headerLogoUrl, R.attr.Auth0_HeaderLogoUrl);
+    }
+
     @ColorInt
     public int getHeaderColor(Context context) {
         return resolveColorResource(context, headerColor, R.attr.Auth0_HeaderBackground);
@@ -128,6 +156,10 @@ public class Theme implements Parcelable {
         return headerLogo;
     }
 
+    String getCustomHeaderLogoUrl() {
+        return headerLogoUrl;
+    }
+
     int getCustomHeaderColorRes() {
         return headerColor;
     }
@@ -147,6 +179,7 @@ public class Theme implements Parcelable {
     protected Theme(Parcel in) {
         headerTitle = in.readInt();
         headerLogo = in.readInt();
+        headerLogoUrl = in.readString();
         headerColor = in.readInt();
         headerTitleColor = in.readInt();
         primaryColor = in.readInt();
@@ -162,6 +195,7 @@ public class Theme implements Parcelable {
     public void writeToParcel(Parcel dest, int flags) {
         dest.writeInt(headerTitle);
         dest.writeInt(headerLogo);
+        dest.writeString(headerLogoUrl);
         dest.writeInt(headerColor);
         dest.writeInt(headerTitleColor);
         dest.writeInt(primaryColor);
@@ -190,6 +224,7 @@ public class Theme implements Parcelable {
 
         private int headerTitleRes;
         private int headerLogoRes;
+        private String headerLogoUrl;
         private int headerColorRes;
         private int headerTitleColorRes;
         private int primaryColorRes;
@@ -205,6 +240,11 @@ public class Theme implements Parcelable {
             return this;
         }
 
+        public Builder withHeaderLogoUrl(String logoUrl) {
+            headerLogoUrl = logoUrl;
+            return this;
+        }
+
         public Builder withHeaderColor(@ColorRes int color) {
             headerColorRes = color;
             return this;
@@ -226,7 +266,7 @@ public class Theme implements Parcelable {
         }
 
         public Theme build() {
-            return new Theme(headerTitleRes, headerLogoRes, headerColorRes, headerTitleColorRes, primaryColorRes, darkPrimaryColorRes);
+            return new Theme(headerTitleRes, headerLogoRes, headerLogoUrl, headerColorRes, headerTitleColorRes, primaryColorRes, darkPrimaryColorRes);
         }
     }
 }
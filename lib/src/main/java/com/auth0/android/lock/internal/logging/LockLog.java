@@ -0,0 +1,267 @@
+/*
+ * LockLog.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.logging;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.auth0.android.lock.LockLogger;
+
+import java.util.Locale;
+
+/**
+ * Sends the Lock messages to the {@link LockLogger} set in the Lock builders, or to {@link Log} when none is set.
+ * Every method checks the level first and returns right away when the message won't be logged, so the format
+ * strings are only expanded for the messages that are delivered. The methods take up to three arguments instead
+ * of varargs for the same reason: no array is allocated on each call.
+ * <p>
+ * The user identities, like emails, usernames or phone numbers, must be wrapped with {@link #identity(String)}
+ * so that they are redacted when the message is formatted.
+ * <p>
+ * Disclaimer: The classes in the internal package may change in the future. Don't use them directly.
+ */
+public final class LockLog {
+
+    /**
+     * The level used when the Lock builders don't set one: info, warnings and errors are logged.
+     */
+    public static final int DEFAULT_LEVEL = Log.INFO;
+
+    private static final LockLogger ANDROID_LOGGER = new LockLogger() {
+        @Override
+        public void log(int priority, @NonNull String tag, @NonNull String message, @Nullable Throwable error) {
+            Log.println(priority, tag, error == null ? message : message + '\n' + Log.getStackTraceString(error));
+        }
+    };
+
+    private static volatile int level = DEFAULT_LEVEL;
+    private static volatile LockLogger logger = ANDROID_LOGGER;
+
+    private LockLog() {
+    }
+
+    /**
+     * Sets the minimum priority of the messages to log.
+     *
+     * @param priority one of the {@link Log} levels, like {@link Log#DEBUG}. Use {@link Log#ASSERT} to log nothing.
+     */
+    public static void setLevel(int priority) {
+        level = priority;
+    }
+
+    /**
+     * Sets the logger that will receive the messages.
+     *
+     * @param lockLogger the logger to use, or null to send the messages to {@link Log}.
+     */
+    public static void setLogger(@Nullable LockLogger lockLogger) {
+        logger = lockLogger != null ? lockLogger : ANDROID_LOGGER;
+    }
+
+    /**
+     * Goes back to sending the messages to {@link Log}, if the given logger is the one currently set.
+     *
+     * @param lockLogger the logger to remove.
+     */
+    public static void removeLogger(@NonNull LockLogger lockLogger) {
+        if (logger == lockLogger) {
+            logger = ANDROID_LOGGER;
+        }
+    }
+
+    /**
+     * Checks if messages with the given priority are logged. Only needed to skip building the arguments
+     * of a message when that is expensive.
+     *
+     * @param priority one of the {@link Log} levels.
+     * @return whether the messages with that priority will be logged.
+     */
+    public static boolean isLoggable(int priority) {
+        return priority >= level;
+    }
+
+    /**
+     * Wraps a user identity so that it's redacted when a message is formatted with it.
+     * An email keeps only its first character and its domain, and any other value only its last two characters.
+     *
+     * @param identity the email, username or phone number.
+     * @return the argument to pass to the log methods.
+     */
+    @NonNull
+    public static Object identity(@Nullable String identity) {
+        return new RedactedIdentity(identity);
+    }
+
+    public static void v(@NonNull String tag, @NonNull String message) {
+        if (isLoggable(Log.VERBOSE)) {
+            logger.log(Log.VERBOSE, tag, message, null);
+        }
+    }
+
+    public static void v(@NonNull String tag, @NonNull String format, @Nullable Object arg) {
+        if (isLoggable(Log.VERBOSE)) {
+            logger.log(Log.VERBOSE, tag, format(format, arg), null);
+        }
+    }
+
+    public static void v(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        if (isLoggable(Log.VERBOSE)) {
+            logger.log(Log.VERBOSE, tag, format(format, arg1, arg2), null);
+        }
+    }
+
+    public static void v(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2, @Nullable Object arg3) {
+        if (isLoggable(Log.VERBOSE)) {
+            logger.log(Log.VERBOSE, tag, format(format, arg1, arg2, arg3), null);
+        }
+    }
+
+    public static void d(@NonNull String tag, @NonNull String message) {
+        if (isLoggable(Log.DEBUG)) {
+            logger.log(Log.DEBUG, tag, message, null);
+        }
+    }
+
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg) {
+        if (isLoggable(Log.DEBUG)) {
+            logger.log(Log.DEBUG, tag, format(format, arg), null);
+        }
+    }
+
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        if (isLoggable(Log.DEBUG)) {
+            logger.log(Log.DEBUG, tag, format(format, arg1, arg2), null);
+        }
+    }
+
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2, @Nullable Object arg3) {
+        if (isLoggable(Log.DEBUG)) {
+            logger.log(Log.DEBUG, tag, format(format, arg1, arg2, arg3), null);
+        }
+    }
+
+    public static void i(@NonNull String tag, @NonNull String message) {
+        if (isLoggable(Log.INFO)) {
+            logger.log(Log.INFO, tag, message, null);
+        }
+    }
+
+    public static void i(@NonNull String tag, @NonNull String format, @Nullable Object arg) {
+        if (isLoggable(Log.INFO)) {
+            logger.log(Log.INFO, tag, format(format, arg), null);
+        }
+    }
+
+    public static void w(@NonNull String tag, @NonNull String message) {
+        if (isLoggable(Log.WARN)) {
+            logger.log(Log.WARN, tag, message, null);
+        }
+    }
+
+    public static void w(@NonNull String tag, @NonNull String format, @Nullable Object arg) {
+        if (isLoggable(Log.WARN)) {
+            logger.log(Log.WARN, tag, format(format, arg), null);
+        }
+    }
+
+    public static void w(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2) {
+        if (isLoggable(Log.WARN)) {
+            logger.log(Log.WARN, tag, format(format, arg1, arg2), null);
+        }
+    }
+
+    public static void w(@NonNull String tag, @NonNull String message, @Nullable Throwable error) {
+        if (isLoggable(Log.WARN)) {
+            logger.log(Log.WARN, tag, message, error);
+        }
+    }
+
+    public static void w(@NonNull String tag, @NonNull String format, @Nullable Object arg, @Nullable Throwable error) {
+        if (isLoggable(Log.WARN)) {
+            logger.log(Log.WARN, tag, format(format, arg), error);
+        }
+    }
+
+    public static void w(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2, @Nullable Throwable error) {
+        if (isLoggable(Log.WARN)) {
+            logger.log(Log.WARN, tag, format(format, arg1, arg2), error);
+        }
+    }
+
+    public static void e(@NonNull String tag, @NonNull String message) {
+        if (isLoggable(Log.ERROR)) {
+            logger.log(Log.ERROR, tag, message, null);
+        }
+    }
+
+    public static void e(@NonNull String tag, @NonNull String format, @Nullable Object arg) {
+        if (isLoggable(Log.ERROR)) {
+            logger.log(Log.ERROR, tag, format(format, arg), null);
+        }
+    }
+
+    public static void e(@NonNull String tag, @NonNull String message, @Nullable Throwable error) {
+        if (isLoggable(Log.ERROR)) {
+            logger.log(Log.ERROR, tag, message, error);
+        }
+    }
+
+    public static void e(@NonNull String tag, @NonNull String format, @Nullable Object arg, @Nullable Throwable error) {
+        if (isLoggable(Log.ERROR)) {
+            logger.log(Log.ERROR, tag, format(format, arg), error);
+        }
+    }
+
+    public static void e(@NonNull String tag, @NonNull String format, @Nullable Object arg1, @Nullable Object arg2, @Nullable Throwable error) {
+        if (isLoggable(Log.ERROR)) {
+            logger.log(Log.ERROR, tag, format(format, arg1, arg2), error);
+        }
+    }
+
+    private static String format(String format, Object... args) {
+        return String.format(Locale.US, format, args);
+    }
+
+    private static class RedactedIdentity {
+        private final String identity;
+
+        RedactedIdentity(String identity) {
+            this.identity = identity;
+        }
+
+        @Override
+        public String toString() {
+            if (identity == null || identity.isEmpty()) {
+                return String.valueOf(identity);
+            }
+            final int at = identity.lastIndexOf('@');
+            if (at > 0) {
+                return identity.charAt(0) + "***" + identity.substring(at);
+            }
+            return identity.length() > 4 ? "***" + identity.substring(identity.length() - 2) : "***";
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * FunnelRecorder.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.metrics;
+
+import android.os.AsyncTask;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+import com.auth0.android.lock.LockFunnelRecord;
+import com.auth0.android.lock.LockMetrics;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Collects the timings of the current Lock launch into a {@link LockFunnelRecord}, and appends it to the
+ * {@link FunnelStore} in background when the launch ends. It receives the same phases as the {@link LockMetrics}
+ * listener set by the application, plus the launch events only the funnel needs, through {@link MetricsRecorder}.
+ * Phases reported outside of a launch are ignored.
+ * <p>
+ * Disclaimer: The classes in the internal package may change in the future. Don't use them directly.
+ */
+public class FunnelRecorder implements LockMetrics {
+
+    private final FunnelStore store;
+    private final Executor executor;
+
+    private boolean launchActive;
+    private long launchTime;
+    private long formShownTime;
+    @LockFunnelRecord.ConfigurationSource
+    private int configurationSource;
+    private long fetchDuration;
+    private long parseDuration;
+    private long formDuration;
+    @LockFunnelRecord.ConnectionType
+    private int connectionType;
+    private long authenticationLatency;
+    @LockFunnelRecord.Outcome
+    private int authenticationOutcome;
+
+    public FunnelRecorder(@NonNull FunnelStore store) {
+        this(store, AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    @VisibleForTesting
+    FunnelRecorder(@NonNull FunnelStore store, @NonNull Executor executor) {
+        this.store = store;
+        this.executor = executor;
+    }
+
+    synchronized void launchStarted() {
+        launchActive = true;
+        launchTime = System.currentTimeMillis();
+        formShownTime = 0;
+        configurationSource = LockFunnelRecord.ConfigurationSource.NONE;
+        fetchDuration = LockFunnelRecord.NOT_MEASURED;
+        parseDuration = LockFunnelRecord.NOT_MEASURED;
+        formDuration = LockFunnelRecord.NOT_MEASURED;
+        connectionType = LockFunnelRecord.ConnectionType.NONE;
+        authenticationLatency = LockFunnelRecord.NOT_MEASURED;
+        authenticationOutcome = LockFunnelRecord.Outcome.NONE;
+    }
+
+    /**
+     * Ends the current launch and stores its record, off the calling thread.
+     */
+    synchronized void launchEnded() {
+        if (!launchActive) {
+            return;
+        }
+        launchActive = false;
+        final LockFunnelRecord record = new LockFunnelRecord(launchTime, configurationSource, toMillis(fetchDuration), toMillis(parseDuration),
+                toMillis(formDuration), connectionType, toMillis(authenticationLatency), authenticationOutcome);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                store.append(record);
+            }
+        });
+    }
+
+    /**
+     * Only the first configuration shown is kept, as it's the one the user waited for.
+     */
+    synchronized void configurationRead(@LockFunnelRecord.ConfigurationSource int source) {
+        if (launchActive && configurationSource == LockFunnelRecord.ConfigurationSource.NONE) {
+            configurationSource = source;
+        }
+    }
+
+    synchronized void authenticationStarted(long startTime) {
+        if (launchActive && formDuration == LockFunnelRecord.NOT_MEASURED && formShownTime != 0) {
+            formDuration = startTime - formShownTime;
+        }
+    }
+
+    synchronized void authenticationCompleted(@LockFunnelRecord.ConnectionType int type, boolean successful, long durationMillis) {
+        if (!launchActive) {
+            return;
+        }
+        connectionType = type;
+        authenticationLatency = durationMillis;
+        authenticationOutcome = successful ? LockFunnelRecord.Outcome.SUCCESS : LockFunnelRecord.Outcome.FAILURE;
+    }
+
+    @Override
+    public synchronized void onPhaseCompleted(@Phase int phase, long durationMillis) {
+        if (!launchActive) {
+            return;
+        }
+        switch (phase) {
+            case Phase.CONFIGURATION_CONNECT:
+            case Phase.CONFIGURATION_FIRST_BYTE:
+            case Phase.CONFIGURATION_BODY:
+                fetchDuration = Math.max(0, fetchDuration) + durationMillis;
+                break;
+            case Phase.CONFIGURATION_PARSE:
+                parseDuration = durationMillis;
+                break;
+            case Phase.FIRST_FORM_FRAME:
+                //reported right when the frame is drawn
+                formShownTime = SystemClock.elapsedRealtime();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void onAuthenticationCompleted(@NonNull String connection, boolean successful, long durationMillis) {
+        //reported with the connection type through authenticationCompleted
+    }
+
+    @Override
+    public void onDuplicateRequestSuppressed(@NonNull String action) {
+    }
+
+    private static int toMillis(long duration) {
+        return duration < 0 ? LockFunnelRecord.NOT_MEASURED : (int) Math.min(duration, Integer.MAX_VALUE);
+    }
+}
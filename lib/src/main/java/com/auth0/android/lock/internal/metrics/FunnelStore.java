@@ -0,0 +1,283 @@
+/*
+ * FunnelStore.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.metrics;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+import android.support.annotation.WorkerThread;
+
+import com.auth0.android.lock.LockFunnelRecord;
+import com.auth0.android.lock.internal.logging.LockLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fixed size ring buffer file that holds the {@link LockFunnelRecord}s until the application reads them.
+ * The file is allocated once with room for {@link #DEFAULT_CAPACITY} records, and when it's full each new
+ * record replaces the oldest one, so it never grows. Records are only appended and the header keeps two
+ * sequence numbers: the count of records ever written and the count of records already read.
+ * <p>
+ * File format, big endian: a 32 bytes header with the magic number, the format version, the capacity,
+ * the record size, the write sequence and the read sequence, followed by the record slots.
+ * All the methods do disk I/O and must not be called on the main thread.
+ * <p>
+ * Disclaimer: The classes in the internal package may change in the future. Don't use them directly.
+ */
+public class FunnelStore {
+
+    private static final String TAG = FunnelStore.class.getSimpleName();
+    private static final String FILE_NAME = "com_auth0_lock_funnel.bin";
+    static final int DEFAULT_CAPACITY = 256;
+
+    private static final int MAGIC = 0x4C4B464E;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 28;
+    private static final int WRITE_SEQUENCE_OFFSET = 16;
+    private static final int READ_SEQUENCE_OFFSET = 24;
+
+    private static FunnelStore instance;
+
+    private final File file;
+    private final int capacity;
+
+    /**
+     * Records read from the store, and the position to mark as read once they were exported.
+     */
+    public static class Batch {
+        private final List<LockFunnelRecord> records;
+        private final long endSequence;
+
+        Batch(@NonNull List<LockFunnelRecord> records, long endSequence) {
+            this.records = records;
+            this.endSequence = endSequence;
+        }
+
+        @NonNull
+        public List<LockFunnelRecord> getRecords() {
+            return records;
+        }
+
+        public long getEndSequence() {
+            return endSequence;
+        }
+    }
+
+    @VisibleForTesting
+    FunnelStore(@NonNull File file, int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the store shared by the whole process.
+     *
+     * @param context any context, only its application context is kept.
+     * @return the funnel store.
+     */
+    @NonNull
+    public static synchronized FunnelStore getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new FunnelStore(new File(context.getApplicationContext().getFilesDir(), FILE_NAME), DEFAULT_CAPACITY);
+        }
+        return instance;
+    }
+
+    /**
+     * Appends a record, replacing the oldest one if the store is full. Failures are logged and the record is dropped.
+     *
+     * @param record the record to store.
+     */
+    @WorkerThread
+    public synchronized void append(@NonNull LockFunnelRecord record) {
+        RandomAccessFile raf = null;
+        try {
+            raf = open();
+            final long writeSequence = readLong(raf, WRITE_SEQUENCE_OFFSET);
+            final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+            buffer.putLong(record.getLaunchTime());
+            buffer.put((byte) record.getConfigurationSource());
+            buffer.put((byte) record.getConnectionType());
+            buffer.put((byte) record.getAuthenticationOutcome());
+            buffer.put((byte) 0);
+            buffer.putInt(record.getFetchDuration());
+            buffer.putInt(record.getParseDuration());
+            buffer.putInt(record.getFormDuration());
+            buffer.putInt(record.getAuthenticationLatency());
+            raf.seek(slotOffset(writeSequence));
+            raf.write(buffer.array());
+            //the record is only visible once the sequence moves past it
+            writeLong(raf, WRITE_SEQUENCE_OFFSET, writeSequence + 1);
+        } catch (IOException e) {
+            LockLog.w(TAG, "Could not store the funnel record", e);
+        } finally {
+            close(raf);
+        }
+    }
+
+    /**
+     * Reads the oldest records not marked as read yet. They stay in the store until {@link #markRead(long)} is called.
+     *
+     * @param maxRecords the maximum number of records to read.
+     * @return the records, from the oldest to the newest.
+     */
+    @WorkerThread
+    @NonNull
+    public synchronized Batch read(int maxRecords) {
+        RandomAccessFile raf = null;
+        try {
+            raf = open();
+            final long writeSequence = readLong(raf, WRITE_SEQUENCE_OFFSET);
+            final long start = firstUnread(writeSequence, readLong(raf, READ_SEQUENCE_OFFSET));
+            final long end = Math.min(writeSequence, start + Math.max(0, maxRecords));
+            final List<LockFunnelRecord> records = new ArrayList<>((int) (end - start));
+            final byte[] slot = new byte[RECORD_SIZE];
+            for (long sequence = start; sequence < end; sequence++) {
+                raf.seek(slotOffset(sequence));
+                raf.readFully(slot);
+                final ByteBuffer buffer = ByteBuffer.wrap(slot);
+                final long launchTime = buffer.getLong();
+                final int source = buffer.get();
+                final int connectionType = buffer.get();
+                final int outcome = buffer.get();
+                buffer.get();
+                //noinspection WrongConstant
+                records.add(new LockFunnelRecord(launchTime, source, buffer.getInt(), buffer.getInt(), buffer.getInt(), connectionType, buffer.getInt(), outcome));
+            }
+            return new Batch(Collections.unmodifiableList(records), end);
+        } catch (IOException e) {
+            LockLog.w(TAG, "Could not read the funnel records", e);
+            return new Batch(Collections.<LockFunnelRecord>emptyList(), 0);
+        } finally {
+            close(raf);
+        }
+    }
+
+    /**
+     * Marks as read every record before the given sequence, so they are not returned again.
+     *
+     * @param endSequence the end of a {@link Batch} returned by {@link #read(int)}.
+     */
+    @WorkerThread
+    public synchronized void markRead(long endSequence) {
+        RandomAccessFile raf = null;
+        try {
+            raf = open();
+            final long writeSequence = readLong(raf, WRITE_SEQUENCE_OFFSET);
+            final long readSequence = readLong(raf, READ_SEQUENCE_OFFSET);
+            if (endSequence > readSequence && endSequence <= writeSequence) {
+                writeLong(raf, READ_SEQUENCE_OFFSET, endSequence);
+            }
+        } catch (IOException e) {
+            LockLog.w(TAG, "Could not update the funnel records", e);
+        } finally {
+            close(raf);
+        }
+    }
+
+    /**
+     * @return the number of records not marked as read yet.
+     */
+    @WorkerThread
+    public synchronized int size() {
+        RandomAccessFile raf = null;
+        try {
+            raf = open();
+            final long writeSequence = readLong(raf, WRITE_SEQUENCE_OFFSET);
+            return (int) (writeSequence - firstUnread(writeSequence, readLong(raf, READ_SEQUENCE_OFFSET)));
+        } catch (IOException e) {
+            LockLog.w(TAG, "Could not read the funnel records", e);
+            return 0;
+        } finally {
+            close(raf);
+        }
+    }
+
+    /**
+     * The records older than the capacity were overwritten, even if they were never read.
+     */
+    private long firstUnread(long writeSequence, long readSequence) {
+        return Math.max(readSequence, writeSequence - capacity);
+    }
+
+    private long slotOffset(long sequence) {
+        return HEADER_SIZE + (sequence % capacity) * RECORD_SIZE;
+    }
+
+    /**
+     * Opens the file, creating it or starting over if it doesn't have the expected format.
+     */
+    private RandomAccessFile open() throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            final long length = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+            if (raf.length() == length && raf.readInt() == MAGIC && raf.readInt() == VERSION && raf.readInt() == capacity && raf.readInt() == RECORD_SIZE) {
+                return raf;
+            }
+            if (raf.length() != 0) {
+                LockLog.w(TAG, "The funnel records file has an unexpected format and will be cleared");
+            }
+            raf.setLength(length);
+            raf.seek(0);
+            raf.writeInt(MAGIC);
+            raf.writeInt(VERSION);
+            raf.writeInt(capacity);
+            raf.writeInt(RECORD_SIZE);
+            raf.writeLong(0);
+            raf.writeLong(0);
+            return raf;
+        } catch (IOException e) {
+            close(raf);
+            throw e;
+        }
+    }
+
+    private static long readLong(RandomAccessFile raf, long offset) throws IOException {
+        raf.seek(offset);
+        return raf.readLong();
+    }
+
+    private static void writeLong(RandomAccessFile raf, long offset, long value) throws IOException {
+        raf.seek(offset);
+        raf.writeLong(value);
+    }
+
+    private static void close(RandomAccessFile raf) {
+        if (raf == null) {
+            return;
+        }
+        try {
+            raf.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * AuthenticationCallback.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.metrics;
+
+import android.app.Dialog;
+import android.os.SystemClock;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.os.TraceCompat;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.auth0.android.authentication.AuthenticationException;
+import com.auth0.android.callback.AuthenticationCallback;
+import com.auth0.android.lock.LockFunnelRecord;
+import com.auth0.android.lock.LockMetrics;
+import com.auth0.android.provider.AuthCallback;
+import com.auth0.android.result.Credentials;
+
+/**
+ * Takes the measures reported to the {@link LockMetrics} listener set in the Lock builders, and to the
+ * {@link FunnelRecorder} when the funnel recording is enabled.
+ * Every method returns right away when no listener is set, without reading the clock or allocating.
+ * Timestamps are taken with {@link SystemClock#elapsedRealtime()}, and 0 means no timestamp was taken.
+ * <p>
+ * Disclaimer: The classes in the internal package may change in the future. Don't use them directly.
+ */
+public final class MetricsRecorder {
+
+    private static volatile LockMetrics applicationListener;
+    private static volatile FunnelRecorder funnelRecorder;
+    //every measure is reported to this one, which forwards it to the listeners above
+    private static volatile LockMetrics listener;
+    private static volatile long sessionStartTime;
+    private static boolean formFrameRecorded;
+    private static volatile boolean keystrokeRecorded;
+
+    private MetricsRecorder() {
+    }
+
+    /**
+     * Sets the listener that will receive the measures.
+     *
+     * @param metrics the listener to notify, or null to stop measuring.
+     */
+    public static void setListener(@Nullable LockMetrics metrics) {
+        applicationListener = metrics;
+        updateListener();
+    }
+
+    /**
+     * Removes the given listener, if it's the one currently set.
+     *
+     * @param metrics the listener to remove.
+     */
+    public static void removeListener(@NonNull LockMetrics metrics) {
+        if (applicationListener == metrics) {
+            applicationListener = null;
+            updateListener();
+        }
+    }
+
+    /**
+     * Sets the recorder that will store the timings of each launch on the device.
+     *
+     * @param recorder the recorder to use, or null to stop recording.
+     */
+    public static void setFunnelRecorder(@Nullable FunnelRecorder recorder) {
+        funnelRecorder = recorder;
+        updateListener();
+    }
+
+    /**
+     * Removes the given recorder, if it's the one currently set.
+     *
+     * @param recorder the recorder to remove.
+     */
+    public static void removeFunnelRecorder(@NonNull FunnelRecorder recorder) {
+        if (funnelRecorder == recorder) {
+            funnelRecorder = null;
+            updateListener();
+        }
+    }
+
+    private static synchronized void updateListener() {
+        final LockMetrics metrics = applicationListener;
+        final FunnelRecorder recorder = funnelRecorder;
+        if (metrics == null || recorder == null) {
+            listener = metrics != null ? metrics : recorder;
+            return;
+        }
+        listener = new LockMetrics() {
+            @Override
+            public void onPhaseCompleted(@Phase int phase, long durationMillis) {
+                recorder.onPhaseCompleted(phase, durationMillis);
+                metrics.onPhaseCompleted(phase, durationMillis);
+            }
+
+            @Override
+            public void onAuthenticationCompleted(@NonNull String connection, boolean successful, long durationMillis) {
+                metrics.onAuthenticationCompleted(connection, successful, durationMillis);
+            }
+
+            @Override
+            public void onDuplicateRequestSuppressed(@NonNull String action) {
+                metrics.onDuplicateRequestSuppressed(action);
+            }
+        };
+    }
+
+    public static boolean isEnabled() {
+        return listener != null;
+    }
+
+    /**
+     * The current time, or 0 if nothing is being measured.
+     *
+     * @return the timestamp to pass to {@link #phaseCompleted(int, long)}.
+     */
+    public static long now() {
+        return listener == null ? 0 : SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Reports the end of a phase that started at the given time.
+     *
+     * @param phase     the phase that ended.
+     * @param startTime the timestamp taken when the phase started.
+     * @return the timestamp taken when the phase ended, so it can be used as the start of the next phase.
+     */
+    public static long phaseCompleted(@LockMetrics.Phase int phase, long startTime) {
+        final LockMetrics metrics = listener;
+        if (metrics == null || startTime == 0) {
+            return 0;
+        }
+        final long endTime = SystemClock.elapsedRealtime();
+        metrics.onPhaseCompleted(phase, endTime - startTime);
+        return endTime;
+    }
+
+    /**
+     * Marks the start of a start up stage. The stage shows up as a section in systrace, and its
+     * duration is reported to the listener when {@link #stageCompleted(int, long)} is called.
+     * Must be paired with stageCompleted on the same thread.
+     *
+     * @param sectionName the name of the systrace section.
+     * @return the timestamp to pass to {@link #stageCompleted(int, long)}.
+     */
+    public static long stageStarted(@NonNull String sectionName) {
+        TraceCompat.beginSection(sectionName);
+        return now();
+    }
+
+    /**
+     * Marks the end of the start up stage that started at the given time.
+     *
+     * @param phase     the phase to report.
+     * @param startTime the timestamp returned by {@link #stageStarted(String)}.
+     * @return the timestamp taken when the stage ended.
+     */
+    public static long stageCompleted(@LockMetrics.Phase int phase, long startTime) {
+        TraceCompat.endSection();
+        return phaseCompleted(phase, startTime);
+    }
+
+    /**
+     * Starts measuring the phases that are relative to the creation of a Lock activity.
+     * Must be called once per log in flow, as the first keystroke and form frame are only reported once.
+     */
+    @MainThread
+    public static void startSession() {
+        sessionStartTime = now();
+        formFrameRecorded = false;
+        keystrokeRecorded = false;
+        final FunnelRecorder recorder = funnelRecorder;
+        if (recorder != null) {
+            recorder.launchStarted();
+        }
+    }
+
+    /**
+     * Reports that the log in flow started with {@link #startSession()} ended, i.e. the Lock activity is finishing.
+     */
+    @MainThread
+    public static void endSession() {
+        final FunnelRecorder recorder = funnelRecorder;
+        if (recorder != null) {
+            recorder.launchEnded();
+        }
+    }
+
+    /**
+     * Reports where the configuration shown in the form came from.
+     *
+     * @param source the configuration source.
+     */
+    public static void configurationRead(@LockFunnelRecord.ConfigurationSource int source) {
+        final FunnelRecorder recorder = funnelRecorder;
+        if (recorder != null) {
+            recorder.configurationRead(source);
+        }
+    }
+
+    /**
+     * Reports that the Lock activity finished setting up its views.
+     */
+    @MainThread
+    public static void activityStarted() {
+        phaseCompleted(LockMetrics.Phase.ACTIVITY_START, sessionStartTime);
+    }
+
+    /**
+     * Reports the first frame drawn by the given view, if it's the first form frame of the session.
+     *
+     * @param view the view that holds the form.
+     */
+    @MainThread
+    public static void formConfigured(@NonNull final View view) {
+        if (listener == null || sessionStartTime == 0 || formFrameRecorded) {
+            return;
+        }
+        formFrameRecorded = true;
+        final ViewTreeObserver observer = view.getViewTreeObserver();
+        observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                phaseCompleted(LockMetrics.Phase.FIRST_FORM_FRAME, sessionStartTime);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Reports that the user typed in the form, if it's the first time in the session.
+     */
+    public static void keystroke() {
+        if (keystrokeRecorded || listener == null) {
+            return;
+        }
+        keystrokeRecorded = true;
+        phaseCompleted(LockMetrics.Phase.FIRST_KEYSTROKE, sessionStartTime);
+    }
+
+    /**
+     * Wraps the given callback to measure the authentication request it's given to. Only log in requests, or
+     * sign up requests that log in the user, are measured. The same callback is returned when nothing is being measured.
+     *
+     * @param connection     the name of the connection the request is made against.
+     * @param connectionType the kind of connection, as stored in the funnel records.
+     * @param callback       the callback to deliver the result to.
+     * @param <T>            the type of the result.
+     * @return the callback to pass to the request.
+     */
+    @NonNull
+    public static <T> AuthenticationCallback<T> timeAuthentication(@NonNull final String connection, @LockFunnelRecord.ConnectionType final int connectionType, @NonNull final AuthenticationCallback<T> callback) {
+        if (listener == null) {
+            return callback;
+        }
+        final long startTime = authenticationStarted();
+        return new AuthenticationCallback<T>() {
+            @Override
+            public void onSuccess(T payload) {
+                authenticationCompleted(connection, connectionType, true, startTime);
+                callback.onSuccess(payload);
+            }
+
+            @Override
+            public void onFailure(AuthenticationException error) {
+                authenticationCompleted(connection, connectionType, false, startTime);
+                callback.onFailure(error);
+            }
+        };
+    }
+
+    /**
+     * Wraps the given callback to measure a log in made in the browser or by a custom AuthProvider. The duration
+     * includes the time the user spent on the pages of the identity provider.
+     * The same callback is returned when nothing is being measured.
+     *
+     * @param connection the name of the connection the user logs in with.
+     * @param callback   the callback to deliver the result to.
+     * @return the callback to pass to the provider.
+     */
+    @NonNull
+    public static AuthCallback timeAuthorization(@NonNull final String connection, @NonNull final AuthCallback callback) {
+        if (listener == null) {
+            return callback;
+        }
+        final long startTime = authenticationStarted();
+        return new AuthCallback() {
+            @Override
+            public void onFailure(@NonNull Dialog dialog) {
+                authenticationCompleted(connection, LockFunnelRecord.ConnectionType.OAUTH, false, startTime);
+                callback.onFailure(dialog);
+            }
+
+            @Override
+            public void onFailure(AuthenticationException exception) {
+                authenticationCompleted(connection, LockFunnelRecord.ConnectionType.OAUTH, false, startTime);
+                callback.onFailure(exception);
+            }
+
+            @Override
+            public void onSuccess(@NonNull Credentials credentials) {
+                authenticationCompleted(connection, LockFunnelRecord.ConnectionType.OAUTH, true, startTime);
+                callback.onSuccess(credentials);
+            }
+        };
+    }
+
+    /**
+     * Reports a repeated submit that was attached to the running request.
+     *
+     * @param action the kind of request.
+     */
+    public static void duplicateRequestSuppressed(@NonNull String action) {
+        final LockMetrics metrics = listener;
+        if (metrics != null) {
+            metrics.onDuplicateRequestSuppressed(action);
+        }
+    }
+
+    private static long authenticationStarted() {
+        final long startTime = SystemClock.elapsedRealtime();
+        final FunnelRecorder recorder = funnelRecorder;
+        if (recorder != null) {
+            recorder.authenticationStarted(startTime);
+        }
+        return startTime;
+    }
+
+    private static void authenticationCompleted(String connection, @LockFunnelRecord.ConnectionType int connectionType, boolean successful, long startTime) {
+        final long duration = SystemClock.elapsedRealtime() - startTime;
+        final FunnelRecorder recorder = funnelRecorder;
+        if (recorder != null) {
+            recorder.authenticationCompleted(connectionType, successful, duration);
+        }
+        final LockMetrics metrics = listener;
+        if (metrics != null) {
+            metrics.onAuthenticationCompleted(connection, successful, duration);
+        }
+    }
+}
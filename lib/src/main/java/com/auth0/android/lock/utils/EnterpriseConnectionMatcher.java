@@ -26,9 +26,9 @@ package com.auth0.android.lock.utils;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 
 import com.auth0.android.lock.internal.configuration.OAuthConnection;
+import com.auth0.android.lock.internal.logging.LockLog;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -47,7 +47,7 @@ public class EnterpriseConnectionMatcher {
 
     public EnterpriseConnectionMatcher(@NonNull List<OAuthConnection> connections) {
         this.connections = new ArrayList<>(connections);
-        Log.v(TAG, String.format("Creating a new instance to match %d Enterprise Connections", this.connections.size()));
+        LockLog.v(TAG, "Creating a new instance to match %d Enterprise Connections", this.connections.size());
     }
 
     /**
@@ -26,7 +26,8 @@ package com.auth0.android.lock.utils;
 
 import android.content.Context;
 import android.os.AsyncTask;
-import android.util.Log;
+
+import com.auth0.android.lock.internal.logging.LockLog;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -57,10 +58,10 @@ public abstract class LoadCountriesTask extends AsyncTask<String, Void, Map<Stri
         try {
             final Reader reader = new InputStreamReader(context.getAssets().open(params[0]));
             codes = new Gson().fromJson(reader, mapType);
-            Log.d(TAG, String.format("Loaded %d countries", codes.size()));
+            LockLog.d(TAG, "Loaded %d countries", codes.size());
         } catch (IOException e) {
             codes = new HashMap<>();
-            Log.e(TAG, "Failed to load the countries list from the JSON file", e);
+            LockLog.e(TAG, "Failed to load the countries list from the JSON file", e);
         }
         return codes;
     }
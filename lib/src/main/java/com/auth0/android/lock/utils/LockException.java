@@ -32,4 +32,8 @@ public class LockException extends Exception {
     public LockException(@NonNull String message) {
         super(message);
     }
+
+    public LockException(@NonNull String message, Throwable cause) {
+        super(message, cause);
+    }
 }
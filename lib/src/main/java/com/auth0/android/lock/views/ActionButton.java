@@ -32,7 +32,6 @@ import android.graphics.drawable.RippleDrawable;
 import android.graphics.drawable.StateListDrawable;
 import android.support.annotation.StringRes;
 import android.support.v4.content.ContextCompat;
-import android.util.Log;
 import android.view.View;
 import android.widget.FrameLayout;
 import android.widget.ImageView;
@@ -42,6 +41,7 @@ import android.widget.TextView;
 
 import com.auth0.android.lock.R;
 import com.auth0.android.lock.internal.configuration.Theme;
+import com.auth0.android.lock.internal.logging.LockLog;
 
 public class ActionButton extends FrameLayout {
 
@@ -92,7 +92,7 @@ public class ActionButton extends FrameLayout {
      * @param show whether to show the progress bar or not.
      */
     public void showProgress(boolean show) {
-        Log.v(TAG, show ? "Disabling the button while showing progress" : "Enabling the button and hiding progress");
+        LockLog.v(TAG, show ? "Disabling the button while showing progress" : "Enabling the button and hiding progress");
         setEnabled(!show);
         progress.setVisibility(show ? VISIBLE : GONE);
         if (show) {
@@ -2,9 +2,12 @@ package com.auth0.android.lock.views;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.support.annotation.ColorInt;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.StyleRes;
 import android.support.annotation.StyleableRes;
 import android.support.v4.content.ContextCompat;
@@ -28,6 +31,11 @@ public class AuthConfig {
         return connection;
     }
 
+    @StyleRes
+    int getStyleRes() {
+        return styleRes;
+    }
+
     @NonNull
     public String getName(@NonNull Context context) {
         //noinspection ResourceType
@@ -35,14 +43,28 @@ public class AuthConfig {
         return id != -1 ? context.getString(id) : connection.getStrategy();
     }
 
+    /**
+     * The logo set in the style, or else the packed social icon named in it. Falls back to the Auth0 logo.
+     *
+     * @param context a valid Context
+     * @return the logo to show for this connection.
+     */
     @NonNull
     public Drawable getLogo(@NonNull Context context) {
         //noinspection ResourceType
         int id = getIdForResource(context, R.attr.Auth0_Logo);
-        if (id == -1) {
-            id = R.drawable.com_auth0_lock_ic_social_auth0;
+        if (id != -1) {
+            return ContextCompat.getDrawable(context, id);
+        }
+        //noinspection ResourceType
+        final String iconName = getStringForResource(context, R.attr.Auth0_LogoIcon);
+        if (iconName != null) {
+            final Bitmap icon = SocialIconLoader.getInstance(context).load(iconName);
+            if (icon != null) {
+                return new BitmapDrawable(context.getResources(), icon);
+            }
         }
-        return ContextCompat.getDrawable(context, id);
+        return ContextCompat.getDrawable(context, R.drawable.com_auth0_lock_ic_social_auth0);
     }
 
     @ColorInt
@@ -70,6 +92,22 @@ public class AuthConfig {
         return id;
     }
 
+    /**
+     * Retrieves the string value of the given Style index.
+     *
+     * @param context a valid Context
+     * @param index   The index to search on the Style definition.
+     * @return the value if found or null.
+     */
+    @Nullable
+    String getStringForResource(@NonNull Context context, @StyleableRes int index) {
+        final int[] attrs = new int[]{index};
+        final TypedArray typedArray = context.getTheme().obtainStyledAttributes(styleRes, attrs);
+        String value = typedArray.getString(0);
+        typedArray.recycle();
+        return value;
+    }
+
     /**
      * It will resolve the given Strategy Name to a valid Style.
      *
@@ -26,7 +26,6 @@ package com.auth0.android.lock.views;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
-import android.util.Log;
 import android.view.KeyEvent;
 import android.view.View;
 import android.view.inputmethod.EditorInfo;
@@ -34,6 +33,7 @@ import android.widget.TextView;
 
 import com.auth0.android.lock.R;
 import com.auth0.android.lock.events.DatabaseChangePasswordEvent;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.views.interfaces.IdentityListener;
 import com.auth0.android.lock.views.interfaces.LockWidgetForm;
 
@@ -48,16 +48,16 @@ public class ChangePasswordFormView extends FormView implements TextView.OnEdito
         lockWidget = null;
     }
 
-    public ChangePasswordFormView(LockWidgetForm lockWidget, String email) {
+    public ChangePasswordFormView(LockWidgetForm lockWidget) {
         super(lockWidget.getContext());
         this.lockWidget = lockWidget;
-        init(email);
+        init();
     }
 
-    private void init(String email) {
+    private void init() {
         inflate(getContext(), R.layout.com_auth0_lock_changepwd_form_view, this);
         emailInput = (ValidatedInputView) findViewById(R.id.com_auth0_lock_input_email);
-        emailInput.setText(email);
+        emailInput.setText(lockWidget.getFormState().getIdentity());
         emailInput.setIdentityListener(this);
         emailInput.setOnEditorActionListener(this);
     }
@@ -80,10 +80,10 @@ public class ChangePasswordFormView extends FormView implements TextView.OnEdito
     @Override
     public Object submitForm() {
         if (validateForm()) {
-            Log.d(TAG, "Form submitted");
+            LockLog.d(TAG, "Form submitted");
             return getActionEvent();
         }
-        Log.w(TAG, "Form has some validation issues and won't be submitted.");
+        LockLog.w(TAG, "Form has some validation issues and won't be submitted.");
         return null;
     }
 
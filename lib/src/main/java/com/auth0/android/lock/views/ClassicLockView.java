@@ -34,7 +34,6 @@ import android.support.annotation.StringRes;
 import android.support.v7.app.AlertDialog;
 import android.text.Html;
 import android.text.method.LinkMovementMethod;
-import android.util.Log;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -51,7 +50,9 @@ import com.auth0.android.lock.events.FetchApplicationEvent;
 import com.auth0.android.lock.events.OAuthLoginEvent;
 import com.auth0.android.lock.internal.configuration.AuthMode;
 import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.ConfigurationDiff;
 import com.auth0.android.lock.internal.configuration.Theme;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.views.interfaces.LockWidgetForm;
 import com.squareup.otto.Bus;
 
@@ -72,20 +73,24 @@ public class ClassicLockView extends LinearLayout implements LockWidgetForm {
     private ActionButton actionButton;
     private ProgressBar loadingProgressBar;
 
-    private String lastEmailInput;
+    private final FormState formState = new FormState();
+    private boolean formStatePending;
 
     public ClassicLockView(Context context, Bus lockBus, Theme lockTheme) {
         super(context);
         this.bus = lockBus;
         this.configuration = null;
         this.lockTheme = lockTheme;
+        //every input shares the same id, so the framework would restore the text of the last one into all of them.
+        //the forms restore their values from the FormState instead.
+        setSaveFromParentEnabled(false);
         showWaitForConfigurationLayout();
     }
 
     private void init() {
         setOrientation(VERTICAL);
         if (configuration == null) {
-            Log.w(TAG, "Configuration is missing, the view won't init.");
+            LockLog.w(TAG, "Configuration is missing, the view won't init.");
             showConfigurationMissingLayout(true);
         } else {
             showContentLayout();
@@ -165,13 +170,48 @@ public class ClassicLockView extends LinearLayout implements LockWidgetForm {
     }
 
     /**
-     * Setup the panel to show the correct forms by reading the Auth0 Configuration.
+     * Setup the panel to show the correct forms by reading the Auth0 Configuration. When the forms are
+     * already shown for a previous snapshot, only the views affected by the differences are updated, so
+     * the focus and the typed input are kept. If the layout must change, it's built again keeping the
+     * selected mode and the last identity input.
      *
      * @param configuration the configuration to use on this view, or null if it is missing.
      */
     public void configure(@Nullable Configuration configuration) {
-        removeView(loadingProgressBar);
+        if (formLayout == null || this.configuration == null || configuration == null || !configuration.hasClassicConnections()) {
+            final int mode = formState.getMode();
+            rebuild(configuration);
+            if (formStatePending && formLayout != null) {
+                formStatePending = false;
+                //noinspection WrongConstant
+                showFormState(mode);
+            }
+            return;
+        }
+        final ConfigurationDiff diff = ConfigurationDiff.between(this.configuration, configuration);
+        this.configuration = configuration;
+        if (diff.isEmpty()) {
+            LockLog.v(TAG, "The new configuration doesn't change the forms");
+            return;
+        }
+        if (formLayout.reconcile(diff)) {
+            LockLog.v(TAG, "The new configuration was applied to the shown forms");
+            return;
+        }
+
+        LockLog.v(TAG, "The new configuration changes the layout, building the forms again");
+        final int mode = formState.getMode();
+        rebuild(configuration);
+        //noinspection WrongConstant
+        showFormState(mode);
+    }
+
+    private void rebuild(@Nullable Configuration configuration) {
+        removeAllViews();
         loadingProgressBar = null;
+        subForm = null;
+        formLayout = null;
+        actionButton = null;
         this.configuration = configuration;
         if (configuration != null && configuration.hasClassicConnections()) {
             init();
@@ -219,7 +259,7 @@ public class ClassicLockView extends LinearLayout implements LockWidgetForm {
     @Override
     public void showChangePasswordForm(boolean show) {
         if (show) {
-            ChangePasswordFormView form = new ChangePasswordFormView(this, lastEmailInput);
+            ChangePasswordFormView form = new ChangePasswordFormView(this);
             updateHeaderTitle(R.string.com_auth0_lock_title_change_password);
             addSubForm(form);
             updateButtonLabel(R.string.com_auth0_lock_action_send_email);
@@ -377,7 +417,60 @@ public class ClassicLockView extends LinearLayout implements LockWidgetForm {
 
     @Override
     public void onEmailChanged(String email) {
-        lastEmailInput = email;
-        formLayout.onEmailChanged(email);
+        formState.setIdentity(email);
+    }
+
+    /**
+     * Getter for the mode currently selected on the main form.
+     *
+     * @return the selected AuthMode, or -1 if the form is not shown yet.
+     */
+    @AuthMode
+    public int getSelectedMode() {
+        return formLayout != null ? formLayout.getSelectedMode() : -1;
+    }
+
+    /**
+     * Getter for the last email or username typed in the forms.
+     *
+     * @return the last identity input, or null if nothing was typed yet.
+     */
+    @Nullable
+    public String getLastEmailInput() {
+        return formState.getIdentity();
+    }
+
+    @NonNull
+    @Override
+    public FormState getFormState() {
+        return formState;
+    }
+
+    /**
+     * Restores the form state saved from a previous instance of this view. If this view is not configured yet,
+     * the values are shown once the forms are built. Passwords are never restored.
+     *
+     * @param state the state returned by {@link #getFormState()} on the previous instance.
+     */
+    public void restoreFormState(@NonNull FormState state) {
+        final int mode = state.getMode();
+        formState.restoreFrom(state);
+        formStatePending = formLayout == null;
+        //noinspection WrongConstant
+        showFormState(mode);
+    }
+
+    /**
+     * Shows the values of the form state on the forms, selecting the given mode if it's still allowed.
+     */
+    private void showFormState(@AuthMode int mode) {
+        if (formLayout == null) {
+            return;
+        }
+        if (mode == AuthMode.LOG_IN && configuration.allowLogIn() || mode == AuthMode.SIGN_UP && configuration.allowSignUp()) {
+            formLayout.setSelectedMode(mode);
+        }
+        formState.setMode(formLayout.getSelectedMode());
+        formLayout.refreshFormState();
     }
 }
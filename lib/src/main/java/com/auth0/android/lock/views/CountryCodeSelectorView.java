@@ -30,7 +30,6 @@ import android.graphics.drawable.GradientDrawable;
 import android.support.annotation.NonNull;
 import android.support.v4.content.ContextCompat;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
@@ -38,6 +37,7 @@ import android.widget.TextView;
 
 import com.auth0.android.lock.R;
 import com.auth0.android.lock.adapters.Country;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.utils.LoadCountriesTask;
 
 import java.util.ArrayList;
@@ -123,7 +123,7 @@ public class CountryCodeSelectorView extends LinearLayout {
      * @param country the country to set.
      */
     public void setSelectedCountry(@NonNull Country country) {
-        Log.d(TAG, "Selected country changed to " + country.getDisplayName());
+        LockLog.d(TAG, "Selected country changed to %s", country.getDisplayName());
         countryNameTextView.setText(country.getDisplayName());
         countryCodeTextView.setText(country.getDialCode());
         selectedCountry = country;
@@ -27,7 +27,6 @@ package com.auth0.android.lock.views;
 import android.content.Context;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 import android.view.Gravity;
 import android.view.KeyEvent;
 import android.view.ViewGroup;
@@ -37,12 +36,12 @@ import android.widget.TextView;
 
 import com.auth0.android.lock.R;
 import com.auth0.android.lock.events.DatabaseSignUpEvent;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.utils.CustomField;
 import com.auth0.android.lock.views.interfaces.LockWidgetForm;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class CustomFieldsFormView extends FormView implements TextView.OnEditorActionListener {
 
@@ -57,6 +56,7 @@ public class CustomFieldsFormView extends FormView implements TextView.OnEditorA
     private LockWidgetForm lockWidget;
     private List<CustomField> fieldsData;
     private LinearLayout fieldContainer;
+    private final List<ValidatedInputView> fieldInputs = new ArrayList<>();
     private LinearLayout.LayoutParams fieldParams;
 
     public CustomFieldsFormView(Context context) {
@@ -90,44 +90,33 @@ public class CustomFieldsFormView extends FormView implements TextView.OnEditorA
     }
 
     private void addCustomFields() {
-        Log.d(TAG, String.format("Adding %d custom fields.", fieldsData.size()));
+        LockLog.d(TAG, "Adding %d custom fields.", fieldsData.size());
 
         for (CustomField data : fieldsData) {
-            ValidatedInputView field = new ValidatedInputView(getContext());
-            data.configureField(field);
+            ValidatedInputView field = createCustomFieldInput(data, lockWidget.getFormState());
             field.setLayoutParams(fieldParams);
             field.setOnEditorActionListener(this);
             fieldContainer.addView(field);
+            fieldInputs.add(field);
         }
     }
 
-    private Map<String, String> getCustomFieldValues() {
-        Map<String, String> map = new HashMap<>();
-        for (CustomField data : fieldsData) {
-            map.put(data.getKey(), data.findValue(fieldContainer));
-        }
-        Log.d(TAG, "Custom field values are" + map.values().toString());
-
-        return map;
-    }
-
     @Override
     public Object getActionEvent() {
         DatabaseSignUpEvent event = new DatabaseSignUpEvent(email, password, username);
-        event.setExtraFields(getCustomFieldValues());
+        event.setExtraFields(lockWidget.getFormState().getCustomFieldValues());
         return event;
     }
 
     @Override
     public boolean validateForm() {
         boolean valid = true;
-        for (int i = 0; i < fieldContainer.getChildCount(); i++) {
-            ValidatedInputView input = (ValidatedInputView) fieldContainer.getChildAt(i);
+        for (ValidatedInputView input : fieldInputs) {
             if (input.isEnabled()) {
                 valid = input.validate() && valid;
             }
         }
-        Log.d(TAG, "Is form data valid? " + valid);
+        LockLog.d(TAG, "Is form data valid? %s", valid);
         return valid;
     }
 
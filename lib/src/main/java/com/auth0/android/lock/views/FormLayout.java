@@ -28,7 +28,6 @@ import android.content.Context;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.content.ContextCompat;
-import android.util.Log;
 import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.View;
@@ -42,6 +41,9 @@ import com.auth0.android.lock.InitialScreen;
 import com.auth0.android.lock.R;
 import com.auth0.android.lock.events.DatabaseSignUpEvent;
 import com.auth0.android.lock.internal.configuration.AuthMode;
+import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.ConfigurationDiff;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.views.interfaces.IdentityListener;
 import com.auth0.android.lock.views.interfaces.LockWidgetForm;
 
@@ -63,8 +65,6 @@ public class FormLayout extends RelativeLayout implements ModeSelectionView.Mode
     private LinearLayout formsHolder;
     private ModeSelectionView modeSelectionView;
 
-    private String lastEmailInput;
-
     @AuthMode
     private int lastFormMode = -1;
 
@@ -89,12 +89,7 @@ public class FormLayout extends RelativeLayout implements ModeSelectionView.Mode
         int horizontalMargin = getResources().getDimensionPixelSize(R.dimen.com_auth0_lock_widget_horizontal_margin);
 
         if (showModeSelection) {
-            Log.v(TAG, "Showing the LogIn/SignUp tabs");
-            modeSelectionView = new ModeSelectionView(getContext(), this);
-            modeSelectionView.setId(R.id.com_auth0_lock_form_selector);
-            LayoutParams modeSelectionParams = new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
-            modeSelectionParams.addRule(ALIGN_PARENT_TOP);
-            addView(modeSelectionView, modeSelectionParams);
+            addModeSelection();
         }
         formsHolder = new LinearLayout(getContext());
         formsHolder.setOrientation(LinearLayout.VERTICAL);
@@ -114,6 +109,15 @@ public class FormLayout extends RelativeLayout implements ModeSelectionView.Mode
         displayInitialScreen();
     }
 
+    private void addModeSelection() {
+        LockLog.v(TAG, "Showing the LogIn/SignUp tabs");
+        modeSelectionView = new ModeSelectionView(getContext(), this);
+        modeSelectionView.setId(R.id.com_auth0_lock_form_selector);
+        LayoutParams modeSelectionParams = new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        modeSelectionParams.addRule(ALIGN_PARENT_TOP);
+        addView(modeSelectionView, 0, modeSelectionParams);
+    }
+
     private void displayInitialScreen() {
         if (!showDatabase && !showEnterprise) {
             return;
@@ -134,17 +138,71 @@ public class FormLayout extends RelativeLayout implements ModeSelectionView.Mode
     }
 
     private void addSocialLayout() {
-        int style = lockWidget.getConfiguration().getSocialButtonStyle();
+        socialLayout = new SocialView(lockWidget, useSmallSocialButtons(lockWidget.getConfiguration()));
+        formsHolder.addView(socialLayout);
+    }
+
+    private boolean useSmallSocialButtons(Configuration configuration) {
+        int style = configuration.getSocialButtonStyle();
+        if (style != AuthButtonSize.UNSPECIFIED) {
+            return style == AuthButtonSize.SMALL;
+        }
         boolean formContainsFields = showDatabase || showEnterprise;
-        boolean singleConnection = lockWidget.getConfiguration().getSocialConnections().size() == 1;
+        boolean singleConnection = configuration.getSocialConnections().size() == 1;
+        return formContainsFields && !singleConnection;
+    }
 
-        if (style == AuthButtonSize.UNSPECIFIED) {
-            socialLayout = new SocialView(lockWidget, formContainsFields && !singleConnection);
-        } else {
-            socialLayout = new SocialView(lockWidget, style == AuthButtonSize.SMALL);
+    /**
+     * Applies the changes of a refreshed configuration to the views already shown, without rebuilding them,
+     * so the focus and the typed input are kept. Nothing is changed when the layout itself must change, i.e.
+     * when the database or enterprise connections changed, or the social buttons must appear, disappear or
+     * change their size.
+     *
+     * @param diff the differences between the configuration this layout was built with and
+     *             {@link LockWidgetForm#getConfiguration()}, which must already return the new one.
+     * @return true if the changes were applied, false if this layout must be built again.
+     */
+    public boolean reconcile(@NonNull ConfigurationDiff diff) {
+        final Configuration configuration = lockWidget.getConfiguration();
+        if (diff.databaseConnectionChanged() || diff.enterpriseConnectionsChanged() || diff.allowLogInChanged()) {
+            return false;
+        }
+        final boolean updateSocial = diff.socialConnectionsChanged();
+        if (updateSocial && (socialLayout == null || configuration.getSocialConnections().isEmpty()
+                || socialLayout.usesSmallButtons() != useSmallSocialButtons(configuration))) {
+            return false;
+        }
+        if (diff.allowSignUpChanged() && !configuration.allowLogIn()) {
+            return false;
         }
 
-        formsHolder.addView(socialLayout);
+        if (updateSocial) {
+            LockLog.v(TAG, "Social connections added: %s, removed: %s", diff.getAddedSocialConnections(), diff.getRemovedSocialConnections());
+            socialLayout.setConnections(configuration.getSocialConnections());
+        }
+        if (diff.allowSignUpChanged()) {
+            setSignUpAllowed(configuration.allowSignUp());
+        }
+        if (diff.allowForgotPasswordChanged() && logInForm != null) {
+            logInForm.setChangePasswordEnabled(configuration.allowForgotPassword());
+        }
+        return true;
+    }
+
+    private void setSignUpAllowed(boolean allowed) {
+        if (allowed && modeSelectionView == null) {
+            addModeSelection();
+            if (lastFormMode != -1) {
+                modeSelectionView.setSelectedMode(lastFormMode);
+            }
+        } else if (!allowed && modeSelectionView != null) {
+            LockLog.v(TAG, "Hiding the LogIn/SignUp tabs");
+            removeView(modeSelectionView);
+            modeSelectionView = null;
+            if (lastFormMode == AuthMode.SIGN_UP) {
+                changeFormMode(AuthMode.LOG_IN);
+            }
+        }
     }
 
     private void addSeparator() {
@@ -164,12 +222,13 @@ public class FormLayout extends RelativeLayout implements ModeSelectionView.Mode
      * @param mode the new DatabaseMode to change to
      */
     private void changeFormMode(@AuthMode int mode) {
-        Log.d(TAG, "Mode changed to " + mode);
+        LockLog.d(TAG, "Mode changed to %s", mode);
         if (lastFormMode == mode || !showDatabase && !showEnterprise) {
             return;
         }
-        Log.d(TAG, "Mode changed to " + mode);
+        LockLog.d(TAG, "Mode changed to %s", mode);
         lastFormMode = mode;
+        lockWidget.getFormState().setMode(mode);
         lockWidget.showTopBanner(false);
         if (socialLayout != null) {
             socialLayout.setCurrentMode(mode);
@@ -206,7 +265,7 @@ public class FormLayout extends RelativeLayout implements ModeSelectionView.Mode
         if (signUpForm == null) {
             signUpForm = new SignUpFormView(lockWidget);
         }
-        signUpForm.setLastEmail(lastEmailInput);
+        signUpForm.refreshIdentityInput();
         signUpForm.clearEmptyFieldsError();
         formsHolder.addView(signUpForm);
     }
@@ -217,7 +276,7 @@ public class FormLayout extends RelativeLayout implements ModeSelectionView.Mode
         if (logInForm == null) {
             logInForm = new LogInFormView(lockWidget);
         }
-        logInForm.setLastEmail(lastEmailInput);
+        logInForm.refreshIdentityInput();
         logInForm.clearEmptyFieldsError();
         formsHolder.addView(logInForm);
     }
@@ -280,7 +339,7 @@ public class FormLayout extends RelativeLayout implements ModeSelectionView.Mode
 
     @Override
     public void onModeSelected(@AuthMode int mode) {
-        Log.d(TAG, "Mode changed to " + mode);
+        LockLog.d(TAG, "Mode changed to %s", mode);
         changeFormMode(mode);
     }
 
@@ -289,17 +348,43 @@ public class FormLayout extends RelativeLayout implements ModeSelectionView.Mode
         return lastFormMode;
     }
 
+    /**
+     * Selects the given mode, as if the user had picked it on the tabs.
+     *
+     * @param mode the AuthMode to show.
+     */
+    public void setSelectedMode(@AuthMode int mode) {
+        if (modeSelectionView != null) {
+            modeSelectionView.setSelectedMode(mode);
+        } else {
+            changeFormMode(mode);
+        }
+    }
+
     @Override
     public void onEmailChanged(String currentValue) {
-        lastEmailInput = currentValue;
+        lockWidget.getFormState().setIdentity(currentValue);
+    }
+
+    /**
+     * Fills every input of the forms, except the passwords, with the values kept in the form state.
+     */
+    public void refreshFormState() {
+        refreshIdentityInput();
+        if (signUpForm != null) {
+            signUpForm.refreshFormState();
+        }
     }
 
+    /**
+     * Fills the identity input of the forms with the one kept in the form state.
+     */
     public void refreshIdentityInput() {
         if (logInForm != null) {
-            logInForm.setLastEmail(lastEmailInput);
+            logInForm.refreshIdentityInput();
         }
         if (signUpForm != null) {
-            signUpForm.setLastEmail(lastEmailInput);
+            signUpForm.refreshIdentityInput();
         }
     }
 }
@@ -0,0 +1,176 @@
+/*
+ * FormState.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.views;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.auth0.android.lock.internal.configuration.AuthMode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The values typed in the Lock forms, kept apart from the views that show them. The forms write every change
+ * here as it happens, so submitting, switching modes and saving or restoring the state read the values
+ * directly instead of looking for them in the view hierarchy. Passwords are never kept in this model.
+ * It's Parcelable, so it can also be kept in the saved instance state when the process is killed.
+ */
+public class FormState implements Parcelable {
+
+    @AuthMode
+    private int mode = -1;
+    private String identity;
+    private String username;
+    private final Map<String, String> customFields = new LinkedHashMap<>();
+
+    public FormState() {
+    }
+
+    protected FormState(Parcel in) {
+        //noinspection WrongConstant
+        mode = in.readInt();
+        identity = in.readString();
+        username = in.readString();
+        final List<String> keys = new ArrayList<>();
+        final List<String> values = new ArrayList<>();
+        in.readStringList(keys);
+        in.readStringList(values);
+        for (int i = 0; i < keys.size(); i++) {
+            customFields.put(keys.get(i), values.get(i));
+        }
+    }
+
+    /**
+     * Getter for the mode selected on the main form.
+     *
+     * @return the selected AuthMode, or -1 if none was selected yet.
+     */
+    @AuthMode
+    public int getMode() {
+        return mode;
+    }
+
+    void setMode(@AuthMode int mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Getter for the email or username typed in the identity inputs, which is shared by all the forms.
+     *
+     * @return the identity, or null if nothing was typed yet.
+     */
+    @Nullable
+    public String getIdentity() {
+        return identity;
+    }
+
+    void setIdentity(@Nullable String identity) {
+        this.identity = identity;
+    }
+
+    /**
+     * Getter for the username typed in the Sign Up form, when the connection requires one.
+     *
+     * @return the username, or null if nothing was typed yet.
+     */
+    @Nullable
+    public String getUsername() {
+        return username;
+    }
+
+    void setUsername(@Nullable String username) {
+        this.username = username;
+    }
+
+    /**
+     * Getter for the value typed in a custom sign up field.
+     *
+     * @param key the key of the custom field.
+     * @return the value, or null if the field wasn't shown yet.
+     */
+    @Nullable
+    public String getCustomFieldValue(@NonNull String key) {
+        return customFields.get(key);
+    }
+
+    void setCustomFieldValue(@NonNull String key, @Nullable String value) {
+        customFields.put(key, value);
+    }
+
+    /**
+     * Getter for the values of every custom sign up field shown so far.
+     *
+     * @return a copy of the values, by field key.
+     */
+    @NonNull
+    public Map<String, String> getCustomFieldValues() {
+        return new HashMap<>(customFields);
+    }
+
+    /**
+     * Replaces the values of this state with the ones of another instance, i.e. one saved by a previous view.
+     *
+     * @param other the state to copy.
+     */
+    void restoreFrom(@NonNull FormState other) {
+        mode = other.mode;
+        identity = other.identity;
+        username = other.username;
+        customFields.clear();
+        customFields.putAll(other.customFields);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeInt(mode);
+        dest.writeString(identity);
+        dest.writeString(username);
+        dest.writeStringList(new ArrayList<>(customFields.keySet()));
+        dest.writeStringList(new ArrayList<>(customFields.values()));
+    }
+
+    public static final Parcelable.Creator<FormState> CREATOR = new Parcelable.Creator<FormState>() {
+        @Override
+        public FormState createFromParcel(Parcel in) {
+            return new FormState(in);
+        }
+
+        @Override
+        public FormState[] newArray(int size) {
+            return new FormState[size];
+        }
+    };
+}
@@ -25,9 +25,14 @@
 package com.auth0.android.lock.views;
 
 import android.content.Context;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.widget.RelativeLayout;
 
+import com.auth0.android.lock.utils.CustomField;
+
 public abstract class FormView extends RelativeLayout {
 
     public FormView(Context context) {
@@ -49,4 +54,37 @@ public abstract class FormView extends RelativeLayout {
     @Nullable
     public abstract Object submitForm();
 
+    /**
+     * Creates the input of a custom field, filled with the value kept in the form state. Every change is
+     * written back to the state, so the values can be read without looking for the input again.
+     *
+     * @param field the custom field to show.
+     * @param state the state to keep the value in.
+     * @return the configured input.
+     */
+    ValidatedInputView createCustomFieldInput(@NonNull final CustomField field, @NonNull final FormState state) {
+        ValidatedInputView input = new ValidatedInputView(getContext());
+        field.configureField(input);
+        final String value = state.getCustomFieldValue(field.getKey());
+        if (value != null) {
+            input.setText(value);
+        }
+        state.setCustomFieldValue(field.getKey(), input.getText());
+        input.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                state.setCustomFieldValue(field.getKey(), s.toString());
+            }
+        });
+        return input;
+    }
+
 }
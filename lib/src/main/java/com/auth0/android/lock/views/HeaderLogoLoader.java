@@ -0,0 +1,324 @@
+/*
+ * HeaderLogoLoader.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.views;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.annotation.WorkerThread;
+import android.support.v4.util.LruCache;
+
+import com.auth0.android.lock.internal.logging.LockLog;
+
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads the remote header logos. The downloaded image is kept in a size bounded disk cache, so it's only
+ * requested once, and it's decoded downsampled to the size it will have on the header. The decoded logos
+ * are kept in a size bounded memory cache. Both caches evict the least recently used logos first.
+ */
+class HeaderLogoLoader {
+
+    private static final String TAG = HeaderLogoLoader.class.getSimpleName();
+    private static final String DIRECTORY_NAME = "com_auth0_lock_logos";
+    private static final int MAX_MEMORY_BYTES = 4 * 1024 * 1024;
+    private static final long MAX_DISK_BYTES = 2 * 1024 * 1024;
+    private static final Object DISK_LOCK = new Object();
+
+    private static HeaderLogoLoader instance;
+
+    /**
+     * Receives the loaded logo on the main thread.
+     */
+    interface Callback {
+        void onLogoLoaded(@NonNull Bitmap logo);
+    }
+
+    /**
+     * A logo load that can be cancelled, i.e. when the view that requested it is detached.
+     */
+    static class LoadRequest {
+        private volatile boolean cancelled;
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final File directory;
+    private final OkHttpClient client;
+    private final Executor executor;
+    private final Handler handler;
+    private final long maxDiskBytes;
+    private final LruCache<String, Bitmap> memoryCache;
+
+    @VisibleForTesting
+    HeaderLogoLoader(@NonNull File directory, @NonNull OkHttpClient client, @NonNull Executor executor, int maxMemoryBytes, long maxDiskBytes) {
+        this.directory = directory;
+        this.client = client;
+        this.executor = executor;
+        this.handler = new Handler(Looper.getMainLooper());
+        this.maxDiskBytes = maxDiskBytes;
+        this.memoryCache = new LruCache<String, Bitmap>(maxMemoryBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getRowBytes() * value.getHeight();
+            }
+        };
+    }
+
+    static synchronized HeaderLogoLoader getInstance(@NonNull Context context) {
+        if (instance == null) {
+            final File directory = new File(context.getApplicationContext().getCacheDir(), DIRECTORY_NAME);
+            instance = new HeaderLogoLoader(directory, new OkHttpClient(), AsyncTask.THREAD_POOL_EXECUTOR, MAX_MEMORY_BYTES, MAX_DISK_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * Loads the logo in background, downsampled to fit in the given size. A logo in the memory cache
+     * is delivered right away.
+     *
+     * @param url       the logo URL.
+     * @param maxWidth  the maximum width the logo will be shown at, in pixels.
+     * @param maxHeight the maximum height the logo will be shown at, in pixels.
+     * @param callback  the callback to deliver the logo to. It's not called if the logo can't be loaded.
+     * @return the request, to cancel it if the logo is no longer needed.
+     */
+    @MainThread
+    LoadRequest load(@NonNull final String url, final int maxWidth, final int maxHeight, @NonNull final Callback callback) {
+        final LoadRequest request = new LoadRequest();
+        final Bitmap cached = memoryCache.get(keyFor(url, maxWidth, maxHeight));
+        if (cached != null) {
+            callback.onLogoLoaded(cached);
+            return request;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (request.isCancelled()) {
+                    return;
+                }
+                final Bitmap logo = loadNow(url, maxWidth, maxHeight);
+                if (logo == null) {
+                    return;
+                }
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!request.isCancelled()) {
+                            callback.onLogoLoaded(logo);
+                        }
+                    }
+                });
+            }
+        });
+        return request;
+    }
+
+    /**
+     * Loads the logo from the caches, downloading it if needed.
+     *
+     * @return the decoded logo, or null if it couldn't be downloaded or decoded.
+     */
+    @WorkerThread
+    @Nullable
+    Bitmap loadNow(@NonNull String url, int maxWidth, int maxHeight) {
+        final String key = keyFor(url, maxWidth, maxHeight);
+        Bitmap logo = memoryCache.get(key);
+        if (logo != null) {
+            return logo;
+        }
+        final File file = new File(directory, fileNameFor(url));
+        synchronized (DISK_LOCK) {
+            if (file.exists()) {
+                //noinspection ResultOfMethodCallIgnored
+                file.setLastModified(System.currentTimeMillis());
+            } else if (!download(url, file)) {
+                return null;
+            }
+        }
+        logo = decode(file, maxWidth, maxHeight);
+        if (logo == null) {
+            LockLog.w(TAG, "Could not decode the logo downloaded from %s", url);
+            synchronized (DISK_LOCK) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+            return null;
+        }
+        memoryCache.put(key, logo);
+        return logo;
+    }
+
+    /**
+     * Decodes the image with the largest sample size that keeps it at least as big as the size it will be
+     * shown at, preserving its aspect ratio.
+     */
+    @VisibleForTesting
+    @Nullable
+    static Bitmap decode(@NonNull File file, int maxWidth, int maxHeight) {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+        final float scale = Math.min(1f, Math.min(maxWidth / (float) options.outWidth, maxHeight / (float) options.outHeight));
+        final int targetWidth = Math.max(1, Math.round(options.outWidth * scale));
+        final int targetHeight = Math.max(1, Math.round(options.outHeight * scale));
+        options.inSampleSize = SocialIconLoader.sampleSizeFor(options.outWidth, options.outHeight, targetWidth, targetHeight);
+        options.inJustDecodeBounds = false;
+        return BitmapFactory.decodeFile(file.getPath(), options);
+    }
+
+    private boolean download(String url, File file) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            LockLog.w(TAG, "Could not create the logo cache directory");
+            return false;
+        }
+        final File temp = new File(file.getPath() + ".tmp");
+        Response response = null;
+        InputStream input = null;
+        OutputStream output = null;
+        try {
+            response = client.newCall(new Request.Builder().url(url).build()).execute();
+            if (!response.isSuccessful()) {
+                LockLog.w(TAG, "Could not download the logo from %s, the server returned %d", url, response.code());
+                return false;
+            }
+            input = response.body().byteStream();
+            output = new FileOutputStream(temp);
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            output.close();
+            output = null;
+            if (!temp.renameTo(file)) {
+                LockLog.w(TAG, "Could not store the logo downloaded from %s", url);
+                return false;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            LockLog.w(TAG, "Could not download the logo from %s", url, e);
+            return false;
+        } finally {
+            closeQuietly(output);
+            if (input != null) {
+                closeQuietly(input);
+            } else if (response != null) {
+                closeQuietly(response.body());
+            }
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+        }
+        trimDiskCache(file);
+        return true;
+    }
+
+    /**
+     * Deletes the least recently used logos until the disk cache fits in its maximum size. The logo that
+     * was just stored is always kept.
+     */
+    private void trimDiskCache(File keep) {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        long size = 0;
+        for (File f : files) {
+            size += f.length();
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                return Long.valueOf(lhs.lastModified()).compareTo(rhs.lastModified());
+            }
+        });
+        for (int i = 0; i < files.length && size > maxDiskBytes; i++) {
+            if (files[i].equals(keep)) {
+                continue;
+            }
+            final long length = files[i].length();
+            if (files[i].delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    private static String keyFor(String url, int maxWidth, int maxHeight) {
+        return maxWidth + "x" + maxHeight + "@" + url;
+    }
+
+    @VisibleForTesting
+    static String fileNameFor(String url) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(url.getBytes("UTF-8"));
+            final StringBuilder name = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                name.append(String.format("%02x", b));
+            }
+            return name.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            return Integer.toHexString(url.hashCode());
+        }
+    }
+
+    private static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
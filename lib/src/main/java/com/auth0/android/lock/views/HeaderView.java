@@ -25,6 +25,8 @@
 package com.auth0.android.lock.views;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
 import android.support.annotation.ColorRes;
 import android.support.annotation.DrawableRes;
 import android.support.v4.content.ContextCompat;
@@ -40,6 +42,9 @@ public class HeaderView extends RelativeLayout {
     private View header;
     private ImageView logo;
     private TextView text;
+    private String logoUrl;
+    private boolean remoteLogoLoaded;
+    private HeaderLogoLoader.LoadRequest logoRequest;
 
     public HeaderView(Context context, Theme lockTheme) {
         super(context);
@@ -55,6 +60,56 @@ public class HeaderView extends RelativeLayout {
         logo.setImageDrawable(lockTheme.getHeaderLogo(getContext()));
         text.setText(lockTheme.getHeaderTitle(getContext()));
         text.setTextColor(lockTheme.getHeaderTitleColor(getContext()));
+        logoUrl = lockTheme.getHeaderLogoUrl(getContext());
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        loadRemoteLogo();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        loadRemoteLogo();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        cancelRemoteLogo();
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Starts loading the remote logo once the header has been measured, so it's decoded at the size it
+     * will be shown at. The local logo is shown meanwhile.
+     */
+    private void loadRemoteLogo() {
+        final int maxWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+        final int maxHeight = logo.getLayoutParams().height;
+        if (logoUrl == null || remoteLogoLoaded || logoRequest != null || maxWidth <= 0 || maxHeight <= 0) {
+            return;
+        }
+        final HeaderLogoLoader.LoadRequest request = HeaderLogoLoader.getInstance(getContext()).load(logoUrl, maxWidth, maxHeight, new HeaderLogoLoader.Callback() {
+            @Override
+            public void onLogoLoaded(@NonNull Bitmap remoteLogo) {
+                logoRequest = null;
+                remoteLogoLoaded = true;
+                logo.setImageBitmap(remoteLogo);
+            }
+        });
+        if (!remoteLogoLoaded) {
+            //otherwise the logo was already delivered from the memory cache
+            logoRequest = request;
+        }
+    }
+
+    private void cancelRemoteLogo() {
+        if (logoRequest != null) {
+            logoRequest.cancel();
+            logoRequest = null;
+        }
     }
 
     /**
@@ -85,6 +140,8 @@ public class HeaderView extends RelativeLayout {
      * @param logo the logo to use
      */
     public void setLogo(@DrawableRes int logo) {
+        cancelRemoteLogo();
+        logoUrl = null;
         this.logo.setImageResource(logo);
     }
 
@@ -28,7 +28,6 @@ import android.content.Context;
 import android.support.annotation.Nullable;
 import android.text.Editable;
 import android.text.TextWatcher;
-import android.util.Log;
 import android.view.KeyEvent;
 import android.view.View;
 import android.view.inputmethod.EditorInfo;
@@ -42,6 +41,7 @@ import com.auth0.android.lock.events.OAuthLoginEvent;
 import com.auth0.android.lock.internal.configuration.AuthMode;
 import com.auth0.android.lock.internal.configuration.Configuration;
 import com.auth0.android.lock.internal.configuration.OAuthConnection;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.utils.EnterpriseConnectionMatcher;
 import com.auth0.android.lock.views.interfaces.IdentityListener;
 import com.auth0.android.lock.views.interfaces.LockWidgetForm;
@@ -59,7 +59,6 @@ public class LogInFormView extends FormView implements TextView.OnEditorActionLi
     private View changePasswordBtn;
     private TextView topMessage;
     private OAuthConnection currentConnection;
-    private String currentUsername;
     private EnterpriseConnectionMatcher domainParser;
     private boolean fallbackToDatabase;
     private boolean corporateSSO;
@@ -107,10 +106,10 @@ public class LogInFormView extends FormView implements TextView.OnEditorActionLi
         boolean socialAvailable = !configuration.getSocialConnections().isEmpty();
         boolean singleEnterprise = configuration.getEnterpriseConnections().size() == 1;
         if (!fallbackToDatabase && !socialAvailable && singleEnterprise) {
-            Log.v(TAG, "Only one enterprise connection was found.");
+            LockLog.v(TAG, "Only one enterprise connection was found.");
             setupSingleConnectionUI(configuration.getEnterpriseConnections().get(0));
         } else {
-            Log.v(TAG, "Multiple enterprise/database connections found.");
+            LockLog.v(TAG, "Multiple enterprise/database connections found.");
             setupMultipleConnectionUI();
         }
     }
@@ -136,9 +135,8 @@ public class LogInFormView extends FormView implements TextView.OnEditorActionLi
                 }
 
                 currentConnection = domainParser.parse(text);
-                currentUsername = domainParser.extractUsername(text);
                 if (currentConnection != null) {
-                    Log.v(TAG, String.format("Matched results are connection %s with username %s", currentConnection, currentUsername));
+                    LockLog.v(TAG, "Matched results are connection %s with username %s", currentConnection, LockLog.identity(domainParser.extractUsername(text)));
                     passwordInput.setVisibility(GONE);
                     showSSOMessage(true);
                 } else if (fallbackToDatabase) {
@@ -198,7 +196,7 @@ public class LogInFormView extends FormView implements TextView.OnEditorActionLi
     @Override
     public Object submitForm() {
         if (!validateForm()) {
-            Log.w(TAG, "Form has some validation issues and won't be submitted.");
+            LockLog.w(TAG, "Form has some validation issues and won't be submitted.");
             return null;
         }
 
@@ -206,15 +204,16 @@ public class LogInFormView extends FormView implements TextView.OnEditorActionLi
             return getActionEvent();
         }
 
-        Log.d(TAG, "Now showing SSO Login Form for connection " + currentConnection);
+        LockLog.d(TAG, "Now showing SSO Login Form for connection %s", currentConnection);
         String loginWithCorporate = String.format(getResources().getString(R.string.com_auth0_lock_action_login_with_corporate), domainParser.domainForConnection(currentConnection));
         topMessage.setText(loginWithCorporate);
         topMessage.setVisibility(View.VISIBLE);
         emailInput.setVisibility(GONE);
         passwordInput.setVisibility(View.VISIBLE);
         usernameInput.setVisibility(VISIBLE);
-        if (currentUsername != null && !currentUsername.isEmpty()) {
-            usernameInput.setText(currentUsername);
+        final String enterpriseUsername = domainParser.extractUsername(emailInput.getText());
+        if (enterpriseUsername != null && !enterpriseUsername.isEmpty()) {
+            usernameInput.setText(enterpriseUsername);
         }
         changePasswordBtn.setVisibility(GONE);
         corporateSSO = true;
@@ -227,15 +226,15 @@ public class LogInFormView extends FormView implements TextView.OnEditorActionLi
     @Override
     public Object getActionEvent() {
         if (currentConnection != null && currentConnection.isActiveFlowEnabled()) {
-            Log.d(TAG, String.format("Form submitted. Logging in with enterprise connection %s using active flow", currentConnection.getName()));
+            LockLog.d(TAG, "Form submitted. Logging in with enterprise connection %s using active flow", currentConnection.getName());
             return new OAuthLoginEvent(currentConnection, getUsername(), getPassword());
         }
         if (currentConnection != null) {
-            Log.d(TAG, String.format("Form submitted. Logging in with enterprise connection %s using authorize screen", currentConnection.getName()));
+            LockLog.d(TAG, "Form submitted. Logging in with enterprise connection %s using authorize screen", currentConnection.getName());
             return new OAuthLoginEvent(currentConnection, getUsername(), null);
         }
         if (fallbackToDatabase) {
-            Log.d(TAG, "Logging in with database connection using active flow");
+            LockLog.d(TAG, "Logging in with database connection using active flow");
             return new DatabaseLoginEvent(getUsername(), getPassword());
         }
         return new LockMessageEvent(R.string.com_auth0_lock_enterprise_no_connection_message);
@@ -263,7 +262,7 @@ public class LogInFormView extends FormView implements TextView.OnEditorActionLi
      */
     public boolean onBackPressed() {
         if (corporateSSO) {
-            Log.d(TAG, "Removing the SSO Login Form, going back to the Username/Password Form.");
+            LockLog.d(TAG, "Removing the SSO Login Form, going back to the Username/Password Form.");
             resetDomain();
             showSSOMessage(true);
             return true;
@@ -271,6 +270,16 @@ public class LogInFormView extends FormView implements TextView.OnEditorActionLi
         return false;
     }
 
+    /**
+     * Shows or hides the button that leads to the Change Password form.
+     *
+     * @param enabled whether the user can change the password.
+     */
+    public void setChangePasswordEnabled(boolean enabled) {
+        changePasswordEnabled = fallbackToDatabase && enabled;
+        changePasswordBtn.setVisibility(changePasswordEnabled && !corporateSSO ? VISIBLE : GONE);
+    }
+
     private void showSSOMessage(boolean show) {
         lockWidget.showTopBanner(show);
         if (changePasswordEnabled) {
@@ -286,8 +295,11 @@ public class LogInFormView extends FormView implements TextView.OnEditorActionLi
         return false;
     }
 
-    public void setLastEmail(String email) {
-        emailInput.setText(email);
+    /**
+     * Fills the identity input with the one kept in the form state. The password is cleared.
+     */
+    public void refreshIdentityInput() {
+        emailInput.setText(lockWidget.getFormState().getIdentity());
         passwordInput.clearInput();
     }
 
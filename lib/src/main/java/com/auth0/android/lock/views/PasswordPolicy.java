@@ -0,0 +1,185 @@
+/*
+ * CheckableOptionView.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.views;
+
+import android.support.annotation.NonNull;
+
+import com.auth0.android.lock.internal.configuration.PasswordStrength;
+
+import java.util.regex.Pattern;
+
+/**
+ * The password rules that apply to each {@link PasswordStrength} level.
+ * It doesn't depend on any view, so the rules can be checked without a UI.
+ *
+ * @see "https://auth0.com/docs/connections/database/password-strength"
+ */
+class PasswordPolicy {
+
+    static final int RULE_LENGTH = 1;
+    static final int RULE_IDENTICAL_CHARACTERS = 1 << 1;
+    static final int RULE_LOWERCASE = 1 << 2;
+    static final int RULE_UPPERCASE = 1 << 3;
+    static final int RULE_NUMERIC = 1 << 4;
+    static final int RULE_SPECIAL_CHARACTERS = 1 << 5;
+
+    private static final int MAX_IDENTICAL_CHARACTERS = 2;
+    private static final int MAX_LENGTH = 128;
+    private static final int MIN_LENGTH_EXCELLENT = 10;
+    private static final int MIN_LENGTH_GOOD = 8;
+    private static final int MIN_LENGTH_FAIR = 8;
+    private static final int MIN_LENGTH_LOW = 6;
+    private static final int MIN_LENGTH_NONE = 1;
+
+    private static final Pattern PATTERN_UPPERCASE = Pattern.compile("^.*[A-Z]+.*$");
+    private static final Pattern PATTERN_LOWERCASE = Pattern.compile("^.*[a-z]+.*$");
+    private static final Pattern PATTERN_SPECIAL = Pattern.compile("^.*[ !\"#\\$%&'\\(\\)\\*\\+,-\\./:;<=>\\?@\\[\\\\\\]\\^_`{\\|}~]+.*$");
+    private static final Pattern PATTERN_NUMERIC = Pattern.compile("^.*[0-9]+.*$");
+    private static final Pattern PATTERN_IDENTICAL = Pattern.compile("^.*(?=(.)\\1{" + MAX_IDENTICAL_CHARACTERS + ",}).*$");
+
+    @PasswordStrength
+    private final int strength;
+
+    PasswordPolicy(@PasswordStrength int strength) {
+        this.strength = strength;
+    }
+
+    @PasswordStrength
+    int getStrength() {
+        return strength;
+    }
+
+    int getMinimumLength() {
+        switch (strength) {
+            case PasswordStrength.EXCELLENT:
+                return MIN_LENGTH_EXCELLENT;
+            case PasswordStrength.GOOD:
+                return MIN_LENGTH_GOOD;
+            case PasswordStrength.FAIR:
+                return MIN_LENGTH_FAIR;
+            case PasswordStrength.LOW:
+                return MIN_LENGTH_LOW;
+            default:
+            case PasswordStrength.NONE:
+                return MIN_LENGTH_NONE;
+        }
+    }
+
+    /**
+     * The rules that are checked for this strength level.
+     *
+     * @return a bit mask of the RULE_ constants.
+     */
+    int getRules() {
+        switch (strength) {
+            case PasswordStrength.EXCELLENT:
+                return RULE_LENGTH | RULE_IDENTICAL_CHARACTERS | RULE_LOWERCASE | RULE_UPPERCASE | RULE_NUMERIC | RULE_SPECIAL_CHARACTERS;
+            case PasswordStrength.GOOD:
+                return RULE_LENGTH | RULE_LOWERCASE | RULE_UPPERCASE | RULE_NUMERIC | RULE_SPECIAL_CHARACTERS;
+            case PasswordStrength.FAIR:
+                return RULE_LENGTH | RULE_LOWERCASE | RULE_UPPERCASE | RULE_NUMERIC;
+            default:
+                return RULE_LENGTH;
+        }
+    }
+
+    /**
+     * Checks the given password against the rules of this strength level.
+     *
+     * @param password the password to check.
+     * @return a bit mask of the RULE_ constants that the password satisfies. Only the rules returned by {@link #getRules()} are checked.
+     */
+    int check(@NonNull String password) {
+        final int rules = getRules();
+        int passed = 0;
+        if (password.length() >= getMinimumLength() && password.length() <= MAX_LENGTH) {
+            passed |= RULE_LENGTH;
+        }
+        if ((rules & RULE_IDENTICAL_CHARACTERS) != 0 && !PATTERN_IDENTICAL.matcher(password).matches()) {
+            passed |= RULE_IDENTICAL_CHARACTERS;
+        }
+        if ((rules & RULE_LOWERCASE) != 0 && PATTERN_LOWERCASE.matcher(password).matches()) {
+            passed |= RULE_LOWERCASE;
+        }
+        if ((rules & RULE_UPPERCASE) != 0 && PATTERN_UPPERCASE.matcher(password).matches()) {
+            passed |= RULE_UPPERCASE;
+        }
+        if ((rules & RULE_NUMERIC) != 0 && PATTERN_NUMERIC.matcher(password).matches()) {
+            passed |= RULE_NUMERIC;
+        }
+        if ((rules & RULE_SPECIAL_CHARACTERS) != 0 && PATTERN_SPECIAL.matcher(password).matches()) {
+            passed |= RULE_SPECIAL_CHARACTERS;
+        }
+        return passed;
+    }
+
+    /**
+     * Whether the given result of {@link #check(String)} complies with this strength level.
+     *
+     * @param passed the rules satisfied by the password.
+     * @return true if the password is valid, false otherwise.
+     */
+    boolean isSatisfiedBy(int passed) {
+        final boolean length = (passed & RULE_LENGTH) != 0;
+        final boolean lowercase = (passed & RULE_LOWERCASE) != 0;
+        final boolean uppercase = (passed & RULE_UPPERCASE) != 0;
+        final boolean numeric = (passed & RULE_NUMERIC) != 0;
+        final boolean special = (passed & RULE_SPECIAL_CHARACTERS) != 0;
+        boolean other = true;
+        switch (strength) {
+            case PasswordStrength.EXCELLENT:
+                other = (passed & RULE_IDENTICAL_CHARACTERS) != 0 && atLeastThree(lowercase, uppercase, numeric, special);
+                break;
+            case PasswordStrength.GOOD:
+                other = atLeastThree(lowercase, uppercase, numeric, special);
+                break;
+            case PasswordStrength.FAIR:
+                other = lowercase && uppercase && numeric;
+                break;
+            case PasswordStrength.LOW:
+            case PasswordStrength.NONE:
+        }
+        return length && other;
+    }
+
+    /**
+     * Checks that all the requirements are meet.
+     *
+     * @param password the password to validate.
+     * @return whether the given password complies with this strength level or not.
+     */
+    boolean isValid(String password) {
+        return password != null && isSatisfiedBy(check(password));
+    }
+
+    private boolean atLeastThree(boolean a, boolean b, boolean c, boolean d) {
+        boolean all = a && b && c && d;
+        boolean one = a && b && (c ^ d);
+        boolean two = b && c && (d ^ a);
+        boolean three = c && d && (a ^ b);
+
+        return all || one || two || three;
+    }
+}
@@ -26,39 +26,28 @@ package com.auth0.android.lock.views;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import com.auth0.android.lock.R;
+import com.auth0.android.lock.internal.configuration.BreachedPasswordFilter;
 import com.auth0.android.lock.internal.configuration.PasswordStrength;
 
-import java.util.regex.Pattern;
-
 
 public class PasswordStrengthView extends LinearLayout {
 
     private static final String TAG = PasswordStrengthView.class.getSimpleName();
 
-    private static final int MAX_IDENTICAL_CHARACTERS = 2;
-    private static final int MAX_LENGTH = 128;
-    private static final int MIN_LENGTH_EXCELLENT = 10;
-    private static final int MIN_LENGTH_GOOD = 8;
-    private static final int MIN_LENGTH_FAIR = 8;
-    private static final int MIN_LENGTH_LOW = 6;
-    private static final int MIN_LENGTH_NONE = 1;
-
-    private final Pattern patternUppercase = Pattern.compile("^.*[A-Z]+.*$");
-    private final Pattern patternLowercase = Pattern.compile("^.*[a-z]+.*$");
-    private final Pattern patternSpecial = Pattern.compile("^.*[ !\"#\\$%&'\\(\\)\\*\\+,-\\./:;<=>\\?@\\[\\\\\\]\\^_`{\\|}~]+.*$");
-    private final Pattern patternNumeric = Pattern.compile("^.*[0-9]+.*$");
-    private final Pattern patternIdentical = Pattern.compile("^.*(?=(.)\\1{" + MAX_IDENTICAL_CHARACTERS + ",}).*$");
-
     @PasswordStrength
     private int strength;
+    private PasswordPolicy policy;
+    private BreachedPasswordFilter breachedPasswordFilter;
 
     private TextView titleAtLeast;
     private CheckableOptionView optionLength;
     private CheckableOptionView optionIdenticalCharacters;
+    private CheckableOptionView optionNotBreached;
     private CheckableOptionView optionLowercase;
     private CheckableOptionView optionUppercase;
     private CheckableOptionView optionNumeric;
@@ -78,6 +67,9 @@ public class PasswordStrengthView extends LinearLayout {
         optionIdenticalCharacters = (CheckableOptionView) findViewById(R.id.com_auth0_lock_password_strength_option_identical_characters);
         optionIdenticalCharacters.setMandatory(true);
         optionIdenticalCharacters.setChecked(true);
+        optionNotBreached = (CheckableOptionView) findViewById(R.id.com_auth0_lock_password_strength_option_not_breached);
+        optionNotBreached.setMandatory(true);
+        optionNotBreached.setChecked(true);
         optionLowercase = (CheckableOptionView) findViewById(R.id.com_auth0_lock_password_strength_option_lowercase);
         optionUppercase = (CheckableOptionView) findViewById(R.id.com_auth0_lock_password_strength_option_uppercase);
         optionNumeric = (CheckableOptionView) findViewById(R.id.com_auth0_lock_password_strength_option_numeric);
@@ -89,13 +81,26 @@ public class PasswordStrengthView extends LinearLayout {
      * @see "https://auth0.com/docs/connections/database/password-strength"
      */
     private void showPolicy() {
-        if (strength == PasswordStrength.NONE) {
+        if (strength == PasswordStrength.NONE && breachedPasswordFilter == null) {
             setEnabled(false);
             setVisibility(GONE);
             return;
         }
         setEnabled(true);
         setVisibility(VISIBLE);
+        optionNotBreached.setVisibility(breachedPasswordFilter != null ? VISIBLE : GONE);
+        if (strength == PasswordStrength.NONE) {
+            //only the breached passwords check applies
+            optionLength.setVisibility(GONE);
+            titleAtLeast.setVisibility(GONE);
+            optionLowercase.setVisibility(GONE);
+            optionUppercase.setVisibility(GONE);
+            optionNumeric.setVisibility(GONE);
+            optionSpecialCharacters.setVisibility(GONE);
+            optionIdenticalCharacters.setVisibility(GONE);
+            return;
+        }
+        optionLength.setVisibility(VISIBLE);
 
         optionLowercase.setMandatory(strength == PasswordStrength.FAIR);
         optionUppercase.setMandatory(strength == PasswordStrength.FAIR);
@@ -103,7 +108,7 @@ public class PasswordStrengthView extends LinearLayout {
 
         titleAtLeast.setVisibility(strength == PasswordStrength.FAIR || strength == PasswordStrength.LOW ? GONE : VISIBLE);
         String lengthRequirements = getContext().getResources().getString(R.string.com_auth0_lock_password_strength_chars_length);
-        optionLength.setText(String.format(lengthRequirements, getMinimumLength()));
+        optionLength.setText(String.format(lengthRequirements, policy.getMinimumLength()));
 
         optionLowercase.setVisibility(strength == PasswordStrength.LOW ? GONE : VISIBLE);
         optionUppercase.setVisibility(strength == PasswordStrength.LOW ? GONE : VISIBLE);
@@ -112,71 +117,6 @@ public class PasswordStrengthView extends LinearLayout {
         optionIdenticalCharacters.setVisibility(strength == PasswordStrength.EXCELLENT ? VISIBLE : GONE);
     }
 
-    private boolean hasIdenticalCharacters(@NonNull String input) {
-        boolean v = !patternIdentical.matcher(input).matches();
-        optionIdenticalCharacters.setChecked(v);
-        return v;
-    }
-
-    private boolean hasUppercaseCharacters(@NonNull String input) {
-        boolean v = patternUppercase.matcher(input).matches();
-        optionUppercase.setChecked(v);
-        return v;
-    }
-
-    private boolean hasLowercaseCharacters(@NonNull String input) {
-        boolean v = patternLowercase.matcher(input).matches();
-        optionLowercase.setChecked(v);
-        return v;
-    }
-
-    private boolean hasNumericCharacters(@NonNull String input) {
-        boolean v = patternNumeric.matcher(input).matches();
-        optionNumeric.setChecked(v);
-        return v;
-    }
-
-    private boolean hasSpecialCharacters(@NonNull String input) {
-        boolean v = patternSpecial.matcher(input).matches();
-        optionSpecialCharacters.setChecked(v);
-        return v;
-    }
-
-    private boolean hasMinimumLength(@NonNull String input, int length) {
-        boolean v = input.length() >= length && input.length() <= MAX_LENGTH;
-        optionLength.setChecked(v);
-        return v;
-    }
-
-    private boolean atLeastThree(boolean a, boolean b, boolean c, boolean d) {
-        boolean all = a && b && c && d;
-        boolean one = a && b && (c ^ d);
-        boolean two = b && c && (d ^ a);
-        boolean three = c && d && (a ^ b);
-
-        return all || one || two || three;
-    }
-
-    private boolean allThree(boolean a, boolean b, boolean c) {
-        return a && b && c;
-    }
-
-    private int getMinimumLength() {
-        switch (strength) {
-            case PasswordStrength.EXCELLENT:
-                return MIN_LENGTH_EXCELLENT;
-            case PasswordStrength.GOOD:
-                return MIN_LENGTH_GOOD;
-            case PasswordStrength.FAIR:
-                return MIN_LENGTH_FAIR;
-            case PasswordStrength.LOW:
-                return MIN_LENGTH_LOW;
-            default:
-            case PasswordStrength.NONE:
-                return MIN_LENGTH_NONE;
-        }
-    }
-
     /**
      * Sets the current level of Strength that this widget is going to validate.
      *
@@ -184,6 +124,18 @@ public class PasswordStrengthView extends LinearLayout {
      */
     public void setStrength(@PasswordStrength int strength) {
         this.strength = strength;
+        this.policy = new PasswordPolicy(strength);
+        showPolicy();
+    }
+
+    /**
+     * Sets the filter used to reject the known breached passwords, on top of the Strength requirements.
+     * The lookup is done on every call to {@link #isValid(String)}, so it must be already opened.
+     *
+     * @param filter the breached passwords filter, or null to skip this check.
+     */
+    public void setBreachedPasswordFilter(@Nullable BreachedPasswordFilter filter) {
+        this.breachedPasswordFilter = filter;
         showPolicy();
     }
 
@@ -198,23 +150,23 @@ public class PasswordStrengthView extends LinearLayout {
             return false;
         }
 
-        boolean length = hasMinimumLength(password, getMinimumLength());
-        boolean other = true;
-        switch (strength) {
-            case PasswordStrength.EXCELLENT:
-                boolean atLeast = atLeastThree(hasLowercaseCharacters(password), hasUppercaseCharacters(password), hasNumericCharacters(password), hasSpecialCharacters(password));
-                other = hasIdenticalCharacters(password) && atLeast;
-                break;
-            case PasswordStrength.GOOD:
-                other = atLeastThree(hasLowercaseCharacters(password), hasUppercaseCharacters(password), hasNumericCharacters(password), hasSpecialCharacters(password));
-                break;
-            case PasswordStrength.FAIR:
-                other = allThree(hasLowercaseCharacters(password), hasUppercaseCharacters(password), hasNumericCharacters(password));
-                break;
-            case PasswordStrength.LOW:
-            case PasswordStrength.NONE:
+        final int rules = policy.getRules();
+        final int passed = policy.check(password);
+        updateOption(optionLength, rules, passed, PasswordPolicy.RULE_LENGTH);
+        updateOption(optionIdenticalCharacters, rules, passed, PasswordPolicy.RULE_IDENTICAL_CHARACTERS);
+        updateOption(optionLowercase, rules, passed, PasswordPolicy.RULE_LOWERCASE);
+        updateOption(optionUppercase, rules, passed, PasswordPolicy.RULE_UPPERCASE);
+        updateOption(optionNumeric, rules, passed, PasswordPolicy.RULE_NUMERIC);
+        updateOption(optionSpecialCharacters, rules, passed, PasswordPolicy.RULE_SPECIAL_CHARACTERS);
+        final boolean notBreached = breachedPasswordFilter == null || password.isEmpty() || !breachedPasswordFilter.mightContain(password);
+        optionNotBreached.setChecked(notBreached);
+        return policy.isSatisfiedBy(passed) && notBreached;
+    }
+
+    private void updateOption(@NonNull CheckableOptionView option, int rules, int passed, int rule) {
+        if ((rules & rule) != 0) {
+            option.setChecked((passed & rule) != 0);
         }
-        return length && other;
     }
 
 }
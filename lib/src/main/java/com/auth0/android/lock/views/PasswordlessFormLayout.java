@@ -27,7 +27,6 @@ package com.auth0.android.lock.views;
 import android.content.Context;
 import android.support.annotation.Nullable;
 import android.support.v4.content.ContextCompat;
-import android.util.Log;
 import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.View;
@@ -39,6 +38,7 @@ import com.auth0.android.lock.AuthButtonSize;
 import com.auth0.android.lock.R;
 import com.auth0.android.lock.adapters.Country;
 import com.auth0.android.lock.internal.configuration.PasswordlessMode;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.views.interfaces.LockWidgetPasswordless;
 
 public class PasswordlessFormLayout extends LinearLayout implements PasswordlessInputCodeFormView.OnCodeResendListener {
@@ -132,7 +132,7 @@ public class PasswordlessFormLayout extends LinearLayout implements Passwordless
      */
     public boolean onBackPressed() {
         if (passwordlessInputCodeLayout != null) {
-            Log.d(TAG, "Removing the Code Input Form, going back to the Social/Passwordless Form.");
+            LockLog.d(TAG, "Removing the Code Input Form, going back to the Social/Passwordless Form.");
             if (socialLayout != null) {
                 socialLayout.setVisibility(VISIBLE);
             }
@@ -155,7 +155,7 @@ public class PasswordlessFormLayout extends LinearLayout implements Passwordless
      * @param emailOrNumber the email or phone number to which the code was sent.
      */
     public void codeSent(String emailOrNumber) {
-        Log.d(TAG, "Now showing the Code Input Form");
+        LockLog.d(TAG, "Now showing the Code Input Form");
         if (passwordlessRequestCodeLayout != null) {
             removeView(passwordlessRequestCodeLayout);
             if (socialLayout != null) {
@@ -213,9 +213,18 @@ public class PasswordlessFormLayout extends LinearLayout implements Passwordless
         }
     }
 
+    /**
+     * Whether the form is currently waiting for the user to input the code.
+     *
+     * @return true if the code input form is shown, false otherwise.
+     */
+    public boolean isWaitingForCode() {
+        return passwordlessInputCodeLayout != null;
+    }
+
     public void loadPasswordlessData(String emailOrNumber, @Nullable Country country) {
         if (passwordlessRequestCodeLayout != null) {
-            Log.d(TAG, String.format("Loading recent passwordless data into the form. Identity %s with Country %s", emailOrNumber, country));
+            LockLog.d(TAG, "Loading recent passwordless data into the form. Identity %s with Country %s", LockLog.identity(emailOrNumber), country);
             passwordlessRequestCodeLayout.setInputText(emailOrNumber);
             if (country != null) {
                 passwordlessRequestCodeLayout.onCountryCodeSelected(country.getIsoCode(), country.getDialCode());
@@ -26,7 +26,6 @@ package com.auth0.android.lock.views;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 import android.view.KeyEvent;
 import android.view.View;
 import android.view.inputmethod.EditorInfo;
@@ -35,6 +34,7 @@ import android.widget.TextView;
 import com.auth0.android.lock.R;
 import com.auth0.android.lock.events.PasswordlessLoginEvent;
 import com.auth0.android.lock.internal.configuration.PasswordlessMode;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.views.interfaces.LockWidgetPasswordless;
 
 import static com.auth0.android.lock.internal.configuration.PasswordlessMode.DISABLED;
@@ -68,7 +68,7 @@ public class PasswordlessInputCodeFormView extends FormView implements View.OnCl
         passwordlessMode = lockWidget.getConfiguration().getPasswordlessMode();
         this.lockWidget = lockWidget;
         this.listener = listener;
-        Log.v(TAG, String.format("New instance with mode %s for Identity %s", passwordlessMode, identity));
+        LockLog.v(TAG, "New instance with mode %s for Identity %s", passwordlessMode, LockLog.identity(identity));
         init(identity);
     }
 
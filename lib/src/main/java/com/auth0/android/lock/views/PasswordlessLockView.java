@@ -29,7 +29,6 @@ import android.content.Intent;
 import android.net.Uri;
 import android.support.annotation.Nullable;
 import android.support.annotation.StringRes;
-import android.util.Log;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -44,7 +43,9 @@ import com.auth0.android.lock.events.CountryCodeChangeEvent;
 import com.auth0.android.lock.events.FetchApplicationEvent;
 import com.auth0.android.lock.events.OAuthLoginEvent;
 import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.ConfigurationDiff;
 import com.auth0.android.lock.internal.configuration.Theme;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.views.interfaces.LockWidgetPasswordless;
 import com.squareup.otto.Bus;
 
@@ -69,7 +70,7 @@ public class PasswordlessLockView extends LinearLayout implements LockWidgetPass
     private void init() {
         setOrientation(VERTICAL);
         if (configuration == null) {
-            Log.w(TAG, "Configuration is missing, the view won't init.");
+            LockLog.w(TAG, "Configuration is missing, the view won't init.");
             showConfigurationMissingLayout(true);
         } else {
             showContentLayout();
@@ -107,8 +108,19 @@ public class PasswordlessLockView extends LinearLayout implements LockWidgetPass
     }
 
     public void configure(@Nullable Configuration configuration) {
-        removeView(loadingProgressBar);
+        if (formLayout != null && this.configuration != null && configuration != null && configuration.hasPasswordlessConnections()) {
+            final ConfigurationDiff diff = ConfigurationDiff.between(this.configuration, configuration);
+            if (!diff.passwordlessConnectionChanged() && !diff.socialConnectionsChanged()) {
+                LockLog.v(TAG, "The new configuration doesn't change the forms");
+                this.configuration = configuration;
+                return;
+            }
+        }
+        //a newer configuration snapshot may arrive while this view is already bound.
+        removeAllViews();
         loadingProgressBar = null;
+        formLayout = null;
+        actionButton = null;
         this.configuration = configuration;
         if (configuration != null && configuration.hasPasswordlessConnections()) {
             init();
@@ -198,6 +210,15 @@ public class PasswordlessLockView extends LinearLayout implements LockWidgetPass
         formLayout.codeSent(emailOrNumber);
     }
 
+    /**
+     * Whether the form is currently waiting for the user to input the code.
+     *
+     * @return true if the code input form is shown, false otherwise.
+     */
+    public boolean isWaitingForCode() {
+        return formLayout != null && formLayout.isWaitingForCode();
+    }
+
     @Override
     public Configuration getConfiguration() {
         return configuration;
@@ -210,7 +231,7 @@ public class PasswordlessLockView extends LinearLayout implements LockWidgetPass
 
     @Override
     public void onOAuthLoginRequest(OAuthLoginEvent event) {
-        Log.d(TAG, "Social login triggered for connection " + event.getConnection());
+        LockLog.d(TAG, "Social login triggered for connection %s", event.getConnection());
         bus.post(event);
     }
 
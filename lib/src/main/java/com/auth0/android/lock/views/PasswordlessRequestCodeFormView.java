@@ -25,7 +25,6 @@
 package com.auth0.android.lock.views;
 
 import android.support.annotation.Nullable;
-import android.util.Log;
 import android.view.KeyEvent;
 import android.view.View;
 import android.view.inputmethod.EditorInfo;
@@ -35,6 +34,7 @@ import com.auth0.android.lock.R;
 import com.auth0.android.lock.adapters.Country;
 import com.auth0.android.lock.events.PasswordlessLoginEvent;
 import com.auth0.android.lock.internal.configuration.PasswordlessMode;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.views.interfaces.LockWidgetPasswordless;
 
 import static com.auth0.android.lock.internal.configuration.PasswordlessMode.DISABLED;
@@ -59,7 +59,7 @@ public class PasswordlessRequestCodeFormView extends FormView implements View.On
         this.lockWidget = lockWidget;
         passwordlessMode = lockWidget.getConfiguration().getPasswordlessMode();
         boolean showTitle = lockWidget.getConfiguration().getSocialConnections().isEmpty();
-        Log.v(TAG, "New instance with mode " + passwordlessMode);
+        LockLog.v(TAG, "New instance with mode %s", passwordlessMode);
         init(showTitle);
     }
 
@@ -110,10 +110,10 @@ public class PasswordlessRequestCodeFormView extends FormView implements View.On
     public Object getActionEvent() {
         String emailOrNumber = getInputText();
         if (passwordlessMode == SMS_CODE || passwordlessMode == SMS_LINK) {
-            Log.d(TAG, "Starting a SMS Passwordless flow");
+            LockLog.d(TAG, "Starting a SMS Passwordless flow");
             return PasswordlessLoginEvent.requestCode(passwordlessMode, emailOrNumber, countryCodeSelector.getSelectedCountry());
         } else {
-            Log.d(TAG, "Starting an Email Passwordless flow");
+            LockLog.d(TAG, "Starting an Email Passwordless flow");
             return PasswordlessLoginEvent.requestCode(passwordlessMode, emailOrNumber);
         }
     }
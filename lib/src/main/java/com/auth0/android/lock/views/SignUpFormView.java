@@ -27,7 +27,8 @@ package com.auth0.android.lock.views;
 import android.content.Context;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.Gravity;
 import android.view.KeyEvent;
 import android.view.View;
@@ -40,13 +41,13 @@ import com.auth0.android.lock.R;
 import com.auth0.android.lock.UsernameStyle;
 import com.auth0.android.lock.events.DatabaseSignUpEvent;
 import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.utils.CustomField;
 import com.auth0.android.lock.views.interfaces.IdentityListener;
 import com.auth0.android.lock.views.interfaces.LockWidgetForm;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class SignUpFormView extends FormView implements TextView.OnEditorActionListener, IdentityListener {
 
@@ -58,6 +59,8 @@ public class SignUpFormView extends FormView implements TextView.OnEditorActionL
     private ValidatedInputView emailInput;
     private ValidatedPasswordInputView passwordInput;
     private LinearLayout fieldContainer;
+    private final List<CustomField> customFields = new ArrayList<>();
+    private final List<ValidatedInputView> customFieldInputs = new ArrayList<>();
     private boolean displayFewCustomFields;
 
     public SignUpFormView(Context context) {
@@ -80,12 +83,29 @@ public class SignUpFormView extends FormView implements TextView.OnEditorActionL
         usernameInput.configureFrom(configuration.getDatabaseConnection());
         usernameInput.setUsernameStyle(UsernameStyle.USERNAME);
         usernameInput.setOnEditorActionListener(this);
+        final FormState formState = lockWidget.getFormState();
+        usernameInput.setText(formState.getUsername());
+        usernameInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                formState.setUsername(s.toString());
+            }
+        });
         emailInput = (ValidatedInputView) findViewById(R.id.com_auth0_lock_input_email);
         emailInput.setDataType(ValidatedInputView.DataType.EMAIL);
         emailInput.setIdentityListener(this);
         emailInput.setOnEditorActionListener(this);
         passwordInput = (ValidatedPasswordInputView) findViewById(R.id.com_auth0_lock_input_password);
         passwordInput.setPasswordPolicy(configuration.getPasswordPolicy());
+        passwordInput.setBreachedPasswordFilter(configuration.getBreachedPasswordFilter());
         passwordInput.setAllowShowPassword(configuration.allowShowPassword());
         passwordInput.setOnEditorActionListener(this);
 
@@ -98,28 +118,19 @@ public class SignUpFormView extends FormView implements TextView.OnEditorActionL
     }
 
     private void addCustomFields(List<CustomField> customFields) {
-        Log.d(TAG, String.format("Adding %d custom fields.", customFields.size()));
+        LockLog.d(TAG, "Adding %d custom fields.", customFields.size());
         ViewGroup.LayoutParams fieldParams = defineFieldParams();
 
         for (CustomField data : customFields) {
-            ValidatedInputView field = new ValidatedInputView(getContext());
-            data.configureField(field);
+            ValidatedInputView field = createCustomFieldInput(data, lockWidget.getFormState());
             field.setLayoutParams(fieldParams);
             field.setOnEditorActionListener(this);
             fieldContainer.addView(field);
+            this.customFields.add(data);
+            customFieldInputs.add(field);
         }
     }
 
-    private Map<String, String> getCustomFieldValues() {
-        Map<String, String> map = new HashMap<>();
-        for (CustomField data : lockWidget.getConfiguration().getExtraSignUpFields()) {
-            map.put(data.getKey(), data.findValue(fieldContainer));
-        }
-        Log.d(TAG, "Custom field values are" + map.values().toString());
-
-        return map;
-    }
-
     private LinearLayout.LayoutParams defineFieldParams() {
         int verticalMargin = getResources().getDimensionPixelSize(R.dimen.com_auth0_lock_widget_vertical_margin_field);
         LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
@@ -131,7 +142,7 @@ public class SignUpFormView extends FormView implements TextView.OnEditorActionL
     @Override
     @NonNull
     public Object getActionEvent() {
-        Log.d(TAG, String.format("Triggered sign up with email %s and username %s", getEmail(), getUsername()));
+        LockLog.d(TAG, "Triggered sign up with email %s and username %s", LockLog.identity(getEmail()), LockLog.identity(getUsername()));
         return new DatabaseSignUpEvent(getEmail(), getPassword(), getUsername());
     }
 
@@ -162,8 +173,7 @@ public class SignUpFormView extends FormView implements TextView.OnEditorActionL
         if (passwordInput.getVisibility() == VISIBLE) {
             valid = passwordInput.validate() && valid;
         }
-        for (int i = 0; displayFewCustomFields && i < fieldContainer.getChildCount(); i++) {
-            ValidatedInputView input = (ValidatedInputView) fieldContainer.getChildAt(i);
+        for (ValidatedInputView input : customFieldInputs) {
             valid = input.validate() && valid;
         }
         return valid;
@@ -175,7 +185,7 @@ public class SignUpFormView extends FormView implements TextView.OnEditorActionL
         if (validateForm()) {
             DatabaseSignUpEvent event = (DatabaseSignUpEvent) getActionEvent();
             if (displayFewCustomFields) {
-                event.setExtraFields(getCustomFieldValues());
+                event.setExtraFields(lockWidget.getFormState().getCustomFieldValues());
                 return event;
             }
             if (lockWidget.getConfiguration().hasExtraFields()) {
@@ -193,8 +203,22 @@ public class SignUpFormView extends FormView implements TextView.OnEditorActionL
         return false;
     }
 
-    public void setLastEmail(String email) {
-        emailInput.setText(email);
+    /**
+     * Fills the username and custom field inputs with the values kept in the form state.
+     */
+    public void refreshFormState() {
+        final FormState formState = lockWidget.getFormState();
+        usernameInput.setText(formState.getUsername());
+        for (int i = 0; i < customFields.size(); i++) {
+            customFieldInputs.get(i).setText(formState.getCustomFieldValue(customFields.get(i).getKey()));
+        }
+    }
+
+    /**
+     * Fills the identity input with the one kept in the form state. The password is cleared.
+     */
+    public void refreshIdentityInput() {
+        emailInput.setText(lockWidget.getFormState().getIdentity());
         passwordInput.clearInput();
     }
 
@@ -0,0 +1,200 @@
+/*
+ * SocialIconLoader.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.views;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.util.LruCache;
+
+import com.auth0.android.lock.R;
+import com.auth0.android.lock.internal.logging.LockLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads the social connection icons from the packed atlas in raw/com_auth0_lock_social_icons.png,
+ * instead of shipping every icon in every density. Only the requested icons are decoded, at the
+ * size they have on this screen density, and kept in a bounded memory cache.
+ */
+class SocialIconLoader {
+
+    private static final String TAG = SocialIconLoader.class.getSimpleName();
+    /**
+     * The atlas is drawn for xxxhdpi screens.
+     */
+    private static final float ATLAS_DENSITY = 4f;
+    private static final int MAX_CACHE_BYTES = 1024 * 1024;
+
+    private static SocialIconLoader instance;
+
+    private final Resources resources;
+    private final LruCache<String, Bitmap> cache;
+    private Map<String, Rect> index;
+    private BitmapRegionDecoder decoder;
+
+    @VisibleForTesting
+    SocialIconLoader(@NonNull Resources resources, int maxCacheBytes) {
+        this.resources = resources;
+        this.cache = new LruCache<String, Bitmap>(maxCacheBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getRowBytes() * value.getHeight();
+            }
+        };
+    }
+
+    static synchronized SocialIconLoader getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new SocialIconLoader(context.getApplicationContext().getResources(), MAX_CACHE_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * Whether the atlas contains an icon with the given name.
+     *
+     * @param name the icon name, i.e. 'google_oauth2'.
+     * @return true if the icon exists, false otherwise.
+     */
+    synchronized boolean hasIcon(@NonNull String name) {
+        return getIndex().containsKey(name);
+    }
+
+    /**
+     * Decodes the icon with the given name, or takes it from the cache.
+     *
+     * @param name the icon name, i.e. 'google_oauth2'.
+     * @return the icon sized for the screen density, or null if it doesn't exist or couldn't be decoded.
+     */
+    @Nullable
+    synchronized Bitmap load(@NonNull String name) {
+        final Bitmap cached = cache.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        final Rect region = getIndex().get(name);
+        if (region == null) {
+            LockLog.w(TAG, "There is no social icon named %s", name);
+            return null;
+        }
+        final BitmapRegionDecoder decoder = getDecoder();
+        if (decoder == null) {
+            return null;
+        }
+        final float scale = resources.getDisplayMetrics().density / ATLAS_DENSITY;
+        final int width = Math.max(1, Math.round(region.width() * scale));
+        final int height = Math.max(1, Math.round(region.height() * scale));
+
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSizeFor(region.width(), region.height(), width, height);
+        Bitmap icon = decoder.decodeRegion(region, options);
+        if (icon == null) {
+            LockLog.w(TAG, "Could not decode the social icon %s", name);
+            return null;
+        }
+        if (icon.getWidth() != width || icon.getHeight() != height) {
+            final Bitmap scaled = Bitmap.createScaledBitmap(icon, width, height, true);
+            if (scaled != icon) {
+                icon.recycle();
+            }
+            icon = scaled;
+        }
+        cache.put(name, icon);
+        return icon;
+    }
+
+    /**
+     * The largest power of two that keeps the decoded region at least as big as the target size,
+     * so the final scaling never upsamples.
+     */
+    @VisibleForTesting
+    static int sampleSizeFor(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        while (sourceWidth / (sampleSize * 2) >= targetWidth && sourceHeight / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    @VisibleForTesting
+    static Map<String, Rect> parseIndex(@NonNull String[] entries) {
+        final Map<String, Rect> index = new HashMap<>(entries.length);
+        for (String entry : entries) {
+            final String[] values = entry.trim().split("\\s+");
+            if (values.length != 5) {
+                LockLog.w(TAG, "Ignoring the invalid social icon entry: %s", entry);
+                continue;
+            }
+            try {
+                final int left = Integer.parseInt(values[1]);
+                final int top = Integer.parseInt(values[2]);
+                index.put(values[0], new Rect(left, top, left + Integer.parseInt(values[3]), top + Integer.parseInt(values[4])));
+            } catch (NumberFormatException e) {
+                LockLog.w(TAG, "Ignoring the invalid social icon entry: %s", entry);
+            }
+        }
+        return index;
+    }
+
+    private Map<String, Rect> getIndex() {
+        if (index == null) {
+            index = parseIndex(resources.getStringArray(R.array.com_auth0_lock_social_icon_index));
+        }
+        return index;
+    }
+
+    @Nullable
+    private BitmapRegionDecoder getDecoder() {
+        if (decoder != null) {
+            return decoder;
+        }
+        InputStream input = null;
+        try {
+            input = resources.openRawResource(R.raw.com_auth0_lock_social_icons);
+            decoder = BitmapRegionDecoder.newInstance(input, false);
+        } catch (IOException e) {
+            LockLog.e(TAG, "Could not open the social icons", e);
+        } finally {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        return decoder;
+    }
+}
@@ -27,13 +27,13 @@ package com.auth0.android.lock.views;
 import android.support.annotation.NonNull;
 import android.support.v7.widget.GridLayoutManager;
 import android.support.v7.widget.RecyclerView;
-import android.util.Log;
 import android.view.Gravity;
 import android.view.ViewGroup;
 import android.widget.LinearLayout;
 
 import com.auth0.android.lock.R;
 import com.auth0.android.lock.events.OAuthLoginEvent;
+import com.auth0.android.lock.internal.logging.LockLog;
 import com.auth0.android.lock.views.interfaces.LockWidgetOAuth;
 import com.auth0.android.lock.internal.configuration.AuthMode;
 import com.auth0.android.lock.internal.configuration.OAuthConnection;
@@ -48,18 +48,21 @@ public class SocialView extends LinearLayout implements SocialViewAdapter.OAuthL
     private static final String TAG = SocialView.class.getSimpleName();
     private LockWidgetOAuth lockWidget;
     private SocialViewAdapter adapter;
+    private RecyclerView recycler;
+    private boolean smallButtons;
 
     public SocialView(LockWidgetOAuth lockWidget, boolean smallButtons) {
         super(lockWidget.getContext());
         this.lockWidget = lockWidget;
-        Log.v(TAG, "New instance created. Using small buttons: " + smallButtons);
+        LockLog.v(TAG, "New instance created. Using small buttons: %s", smallButtons);
         init(smallButtons);
     }
 
     private void init(boolean smallButtons) {
+        this.smallButtons = smallButtons;
         setOrientation(VERTICAL);
         setGravity(Gravity.CENTER);
-        RecyclerView recycler = new RecyclerView(getContext());
+        recycler = new RecyclerView(getContext());
         List<OAuthConnection> connections = lockWidget.getConfiguration().getSocialConnections();
         adapter = new SocialViewAdapter(getContext(), generateAuthConfigs(connections));
         adapter.setButtonSize(smallButtons);
@@ -91,6 +94,26 @@ public class SocialView extends LinearLayout implements SocialViewAdapter.OAuthL
         lockWidget.onOAuthLoginRequest(new OAuthLoginEvent(connection));
     }
 
+    /**
+     * Whether this view shows small buttons in a horizontal list, or large buttons in a vertical one.
+     *
+     * @return true if the buttons are small.
+     */
+    public boolean usesSmallButtons() {
+        return smallButtons;
+    }
+
+    /**
+     * Replaces the connections shown by this view, keeping the buttons of the connections that remain.
+     *
+     * @param connections the social connections to show.
+     */
+    public void setConnections(@NonNull List<OAuthConnection> connections) {
+        adapter.setAuthConfigs(generateAuthConfigs(connections));
+        //the list has a fixed size, so it must be measured again to fit the new amount of buttons.
+        recycler.requestLayout();
+    }
+
     /**
      * Updates the Authentication mode for all the SocialButtons on this view.
      *
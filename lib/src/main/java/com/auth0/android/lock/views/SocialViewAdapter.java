@@ -26,13 +26,14 @@ package com.auth0.android.lock.views;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.v7.util.DiffUtil;
 import android.support.v7.widget.RecyclerView;
-import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
 
 import com.auth0.android.lock.internal.configuration.AuthMode;
 import com.auth0.android.lock.internal.configuration.OAuthConnection;
+import com.auth0.android.lock.internal.logging.LockLog;
 
 import java.util.List;
 
@@ -40,7 +41,7 @@ class SocialViewAdapter extends RecyclerView.Adapter<SocialViewAdapter.ViewHolde
     private static final String TAG = SocialViewAdapter.class.getSimpleName();
 
     private final Context context;
-    private final List<AuthConfig> authConfigs;
+    private List<AuthConfig> authConfigs;
     private boolean useSmallButtons;
     private OAuthListener callback;
     @AuthMode
@@ -67,6 +68,42 @@ class SocialViewAdapter extends RecyclerView.Adapter<SocialViewAdapter.ViewHolde
         return authConfigs.size();
     }
 
+    /**
+     * Replaces the buttons shown by this list. Only the buttons that were added, removed, moved or
+     * restyled are notified, so the rest keep their views.
+     *
+     * @param configs the new buttons to show.
+     */
+    public void setAuthConfigs(@NonNull final List<AuthConfig> configs) {
+        final List<AuthConfig> previous = authConfigs;
+        final DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return previous.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return configs.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                return previous.get(oldItemPosition).getConnection().getName().equals(configs.get(newItemPosition).getConnection().getName());
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                final AuthConfig oldConfig = previous.get(oldItemPosition);
+                final AuthConfig newConfig = configs.get(newItemPosition);
+                return oldConfig.getStyleRes() == newConfig.getStyleRes()
+                        && oldConfig.getConnection().getStrategy().equals(newConfig.getConnection().getStrategy());
+            }
+        });
+        authConfigs = configs;
+        diff.dispatchUpdatesTo(this);
+    }
+
     /**
      * Sets the size of the buttons this list will hold. Use large buttons if you want it to
      * scroll vertically, or small buttons if you want it to scroll horizontally.
@@ -110,7 +147,7 @@ class SocialViewAdapter extends RecyclerView.Adapter<SocialViewAdapter.ViewHolde
                 final AuthConfig item = authConfigs.get(getAdapterPosition());
                 callback.onAuthenticationRequest(item.getConnection());
             } else {
-                Log.w(TAG, "No callback was configured");
+                LockLog.w(TAG, "No callback was configured");
             }
         }
 
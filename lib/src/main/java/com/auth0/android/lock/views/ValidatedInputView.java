@@ -42,7 +42,6 @@ import android.text.InputType;
 import android.text.TextWatcher;
 import android.text.method.PasswordTransformationMethod;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.util.Patterns;
 import android.view.ViewGroup;
 import android.widget.CompoundButton;
@@ -52,6 +51,8 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import com.auth0.android.lock.R;
+import com.auth0.android.lock.internal.logging.LockLog;
+import com.auth0.android.lock.internal.metrics.MetricsRecorder;
 import com.auth0.android.lock.views.interfaces.IdentityListener;
 
 import java.lang.annotation.Retention;
@@ -187,6 +188,9 @@ public class ValidatedInputView extends LinearLayout {
 
         @Override
         public void afterTextChanged(Editable s) {
+            if (input.isFocused()) {
+                MetricsRecorder.keystroke();
+            }
             runValidation();
             if (dataType == EMAIL || dataType == USERNAME_OR_EMAIL) {
                 notifyEmailChanged(s.toString());
@@ -219,7 +223,7 @@ public class ValidatedInputView extends LinearLayout {
         String hint = "";
         String error = "";
         input.setTransformationMethod(null);
-        Log.v(TAG, "Setting up validation for field of type " + dataType);
+        LockLog.v(TAG, "Setting up validation for field of type %s", dataType);
         switch (dataType) {
             case EMAIL:
                 input.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_VARIATION_EMAIL_ADDRESS);
@@ -408,7 +412,7 @@ public class ValidatedInputView extends LinearLayout {
                 break;
         }
 
-        Log.v(TAG, "Field validation results: Is valid? " + isValid);
+        LockLog.v(TAG, "Field validation results: Is valid? %s", isValid);
         return isValid;
     }
 
@@ -488,7 +492,7 @@ public class ValidatedInputView extends LinearLayout {
      * Removes any text present on the input field and clears any validation error, if present.
      */
     public void clearInput() {
-        Log.v(TAG, "Input cleared and validation errors removed");
+        LockLog.v(TAG, "Input cleared and validation errors removed");
         input.setText("");
         updateBorder(true);
         showPasswordToggle.setChecked(false);
@@ -1,10 +1,12 @@
 package com.auth0.android.lock.views;
 
 import android.content.Context;
+import android.support.annotation.Nullable;
 import android.util.AttributeSet;
-import android.util.Log;
 
+import com.auth0.android.lock.internal.configuration.BreachedPasswordFilter;
 import com.auth0.android.lock.internal.configuration.PasswordStrength;
+import com.auth0.android.lock.internal.logging.LockLog;
 
 
 public class ValidatedPasswordInputView extends ValidatedInputView {
@@ -47,7 +49,7 @@ public class ValidatedPasswordInputView extends ValidatedInputView {
             return true;
         }
 
-        Log.v(TAG, "Field validation results: Is valid? " + valid);
+        LockLog.v(TAG, "Field validation results: Is valid? %s", valid);
         return valid;
     }
 
@@ -67,4 +69,13 @@ public class ValidatedPasswordInputView extends ValidatedInputView {
     public void setPasswordPolicy(@PasswordStrength int strength) {
         strengthView.setStrength(strength);
     }
+
+    /**
+     * Sets the filter used to reject the known breached passwords as they are typed.
+     *
+     * @param filter the breached passwords filter, or null to skip this check.
+     */
+    public void setBreachedPasswordFilter(@Nullable BreachedPasswordFilter filter) {
+        strengthView.setBreachedPasswordFilter(filter);
+    }
 }
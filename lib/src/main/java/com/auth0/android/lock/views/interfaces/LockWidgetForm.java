@@ -24,9 +24,11 @@
 
 package com.auth0.android.lock.views.interfaces;
 
+import android.support.annotation.NonNull;
 import android.support.annotation.StringRes;
 
 import com.auth0.android.lock.events.DatabaseSignUpEvent;
+import com.auth0.android.lock.views.FormState;
 
 public interface LockWidgetForm extends LockWidgetOAuth, IdentityListener {
 
@@ -39,4 +41,7 @@ public interface LockWidgetForm extends LockWidgetOAuth, IdentityListener {
     void showTopBanner(boolean show);
 
     void updateButtonLabel(@StringRes int stringRes);
+
+    @NonNull
+    FormState getFormState();
 }
@@ -3,6 +3,7 @@ package com.auth0.android.lock;
 import android.app.Activity;
 import android.app.Application;
 import android.content.BroadcastReceiver;
+import android.content.Context;
 import android.content.IntentFilter;
 import android.content.res.Resources;
 
@@ -24,6 +25,7 @@ import org.robolectric.annotation.Config;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(constants = android.support.v7.appcompat.BuildConfig.class, sdk = 23, manifest = Config.NONE)
@@ -90,6 +92,17 @@ public class ClassicBuilderTest {
         builder.build(activity);
     }
 
+    @Test
+    public void shouldThrowIfTheCredentialsStoreBelongsToAnotherAccount() throws Exception {
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("The SecureCredentialsStore was created for another Auth0 account.");
+
+        Auth0 otherAccount = new Auth0("otherClientId", "other.auth0.com");
+        Lock.Builder builder = Lock.newBuilder(new Auth0("clientId", "domain.auth0.com"), callback);
+        builder.withCredentialsStore(new SecureCredentialsStore(RuntimeEnvironment.application, otherAccount));
+        builder.build(RuntimeEnvironment.application);
+    }
+
     @Test
     public void shouldThrowIfAllScreensAreDisabled() throws Exception {
         expectedException.expect(IllegalStateException.class);
@@ -134,4 +147,42 @@ public class ClassicBuilderTest {
         builder.initialScreen(InitialScreen.FORGOT_PASSWORD);
         builder.build(new Activity());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldScheduleTheConfigurationRefresh() throws Exception {
+        final Auth0 account = new Auth0("client_id", "domain.auth0.com");
+        final ConfigurationRefreshScheduler scheduler = Mockito.mock(ConfigurationRefreshScheduler.class);
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+
+        Lock.newBuilder(account, callback)
+                .refreshConfigurationInBackground(3600000)
+                .withConfigurationRefreshScheduler(scheduler)
+                .build(activity);
+
+        Mockito.verify(scheduler).schedule(any(Context.class), eq(account), eq(3600000L));
+    }
+
+    @Test
+    public void shouldThrowIfTheConfigurationRefreshJobIdsAreNotReserved() throws Exception {
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("You need to reserve the JobScheduler ids of the configuration refresh with withConfigurationRefreshJobIds, or set your own ConfigurationRefreshScheduler.");
+
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        Lock.newBuilder(new Auth0("client_id", "domain.auth0.com"), callback)
+                .refreshConfigurationInBackground(3600000)
+                .build(activity);
+    }
+
+    @Test
+    public void shouldNotScheduleTheConfigurationRefreshByDefault() throws Exception {
+        final Auth0 account = new Auth0("client_id", "domain.auth0.com");
+        final ConfigurationRefreshScheduler scheduler = Mockito.mock(ConfigurationRefreshScheduler.class);
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+
+        Lock.newBuilder(account, callback)
+                .withConfigurationRefreshScheduler(scheduler)
+                .build(activity);
+
+        Mockito.verifyZeroInteractions(scheduler);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * CredentialsCacheTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.auth0.android.result.Credentials;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class CredentialsCacheTest {
+
+    @Mock
+    CredentialsStore store;
+    @Mock
+    CredentialsCache.Callback callback;
+    private CredentialsCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        Executor directExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        cache = new CredentialsCache(store, directExecutor, new Handler(Looper.getMainLooper()));
+    }
+
+    @Test
+    public void shouldDeliverValidCredentials() throws Exception {
+        Credentials credentials = new Credentials("idToken", "accessToken", "bearer", "refreshToken", 3600L);
+        when(store.load()).thenReturn(credentials);
+
+        cache.load(callback);
+
+        verify(callback).onCredentialsLoaded(credentials);
+    }
+
+    @Test
+    public void shouldNotDeliverCredentialsAboutToExpire() throws Exception {
+        Credentials credentials = new Credentials("idToken", "accessToken", "bearer", "refreshToken", CredentialsCache.MIN_REMAINING_SECONDS);
+        when(store.load()).thenReturn(credentials);
+
+        cache.load(callback);
+
+        verify(callback).onCredentialsLoaded(null);
+    }
+
+    @Test
+    public void shouldDeliverNullWhenTheStoreFails() throws Exception {
+        when(store.load()).thenThrow(new IllegalStateException("broken"));
+
+        cache.load(callback);
+
+        verify(callback).onCredentialsLoaded(null);
+    }
+
+    @Test
+    public void shouldSaveCredentialsFromIntent() throws Exception {
+        Credentials credentials = new Credentials("idToken", "accessToken", "bearer", "refreshToken", 3600L);
+
+        cache.save(CredentialsCache.toIntent(credentials));
+
+        ArgumentCaptor<Credentials> captor = ArgumentCaptor.forClass(Credentials.class);
+        verify(store).save(captor.capture());
+        assertThat(captor.getValue(), is(notNullValue()));
+        assertThat(captor.getValue().getIdToken(), is("idToken"));
+        assertThat(captor.getValue().getAccessToken(), is("accessToken"));
+        assertThat(captor.getValue().getType(), is("bearer"));
+        assertThat(captor.getValue().getRefreshToken(), is("refreshToken"));
+        assertThat(captor.getValue().getExpiresIn(), is(3600L));
+    }
+
+    @Test
+    public void shouldNotSaveCredentialsWithoutExpiration() throws Exception {
+        Intent data = new Intent(Constants.AUTHENTICATION_ACTION);
+        data.putExtra(Constants.ID_TOKEN_EXTRA, "idToken");
+
+        cache.save(data);
+
+        verify(store, never()).save(any(Credentials.class));
+    }
+
+    @Test
+    public void shouldConvertToAuthenticationIntent() throws Exception {
+        Credentials credentials = new Credentials("idToken", "accessToken", "bearer", null, 3600L);
+
+        Intent intent = CredentialsCache.toIntent(credentials);
+
+        assertThat(intent.getAction(), is(Constants.AUTHENTICATION_ACTION));
+        assertThat(intent.getStringExtra(Constants.ID_TOKEN_EXTRA), is("idToken"));
+        assertThat(intent.getStringExtra(Constants.REFRESH_TOKEN_EXTRA), is(nullValue()));
+        assertThat(intent.getLongExtra(Constants.EXPIRES_IN_EXTRA, 0), is(3600L));
+    }
+}
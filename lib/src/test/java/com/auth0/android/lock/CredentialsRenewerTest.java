@@ -0,0 +1,205 @@
+/*
+ * CredentialsRenewerTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.auth0.android.authentication.AuthenticationAPIClient;
+import com.auth0.android.authentication.AuthenticationException;
+import com.auth0.android.callback.BaseCallback;
+import com.auth0.android.lock.utils.LockException;
+import com.auth0.android.request.ParameterizableRequest;
+import com.auth0.android.result.Credentials;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Random;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class CredentialsRenewerTest {
+
+    @Mock
+    AuthenticationAPIClient client;
+    @Mock
+    ParameterizableRequest<Credentials, AuthenticationException> request;
+    @Mock
+    Random random;
+    private long now;
+    private CredentialsRenewer renewer;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(client.renewAuth(anyString())).thenReturn(request);
+        when(random.nextDouble()).thenReturn(0.5);
+        now = 0;
+        renewer = new CredentialsRenewer(client, new Handler(Looper.getMainLooper()), random) {
+            @Override
+            long now() {
+                return now;
+            }
+        };
+    }
+
+    @Test
+    public void shouldFailWithoutCredentials() throws Exception {
+        CredentialsRenewer.Callback callback = mock(CredentialsRenewer.Callback.class);
+
+        renewer.getValidCredentials(callback);
+
+        verify(callback).onFailure(any(LockException.class));
+        verify(client, never()).renewAuth(anyString());
+    }
+
+    @Test
+    public void shouldDeliverValidCredentialsWithoutRenewing() throws Exception {
+        Credentials credentials = new Credentials("idToken", "accessToken", "bearer", "refreshToken", 3600L);
+        renewer.setCredentials(credentials);
+        CredentialsRenewer.Callback callback = mock(CredentialsRenewer.Callback.class);
+
+        renewer.getValidCredentials(callback);
+
+        verify(callback).onSuccess(credentials);
+        verify(client, never()).renewAuth(anyString());
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentCallersOntoOneRenewal() throws Exception {
+        renewer.setCredentials(new Credentials("idToken", "accessToken", "bearer", "refreshToken", 30L));
+        CredentialsRenewer.Callback first = mock(CredentialsRenewer.Callback.class);
+        CredentialsRenewer.Callback second = mock(CredentialsRenewer.Callback.class);
+
+        renewer.getValidCredentials(first);
+        renewer.getValidCredentials(second);
+
+        assertThat(renewer.isRenewing(), is(true));
+        verify(client, times(1)).renewAuth("refreshToken");
+        Credentials renewed = new Credentials("newIdToken", "newAccessToken", "bearer", null, 3600L);
+        captureCallback().onSuccess(renewed);
+
+        ArgumentCaptor<Credentials> captor = ArgumentCaptor.forClass(Credentials.class);
+        verify(first).onSuccess(captor.capture());
+        verify(second).onSuccess(captor.getValue());
+        assertThat(captor.getValue().getAccessToken(), is("newAccessToken"));
+        assertThat(captor.getValue().getRefreshToken(), is("refreshToken"));
+        assertThat(renewer.isRenewing(), is(false));
+    }
+
+    @Test
+    public void shouldPublishTheFailureToAllCallers() throws Exception {
+        renewer.setCredentials(new Credentials("idToken", "accessToken", "bearer", "refreshToken", 30L));
+        CredentialsRenewer.Callback first = mock(CredentialsRenewer.Callback.class);
+        CredentialsRenewer.Callback second = mock(CredentialsRenewer.Callback.class);
+        renewer.getValidCredentials(first);
+        renewer.getValidCredentials(second);
+
+        captureCallback().onFailure(mock(AuthenticationException.class));
+
+        verify(first).onFailure(any(LockException.class));
+        verify(second).onFailure(any(LockException.class));
+        assertThat(renewer.isRenewing(), is(false));
+    }
+
+    @Test
+    public void shouldFailWithoutRefreshToken() throws Exception {
+        renewer.setCredentials(new Credentials("idToken", "accessToken", "bearer", null, 30L));
+        CredentialsRenewer.Callback callback = mock(CredentialsRenewer.Callback.class);
+
+        renewer.getValidCredentials(callback);
+
+        verify(callback).onFailure(any(LockException.class));
+        verify(client, never()).renewAuth(anyString());
+    }
+
+    @Test
+    public void shouldScheduleRenewalAheadOfExpiration() throws Exception {
+        renewer.setCredentials(new Credentials("idToken", "accessToken", "bearer", "refreshToken", 3600L));
+        long delay = renewer.getRenewalDelay(3600 * 1000);
+
+        ShadowLooper.idleMainLooper(delay - 1);
+        verify(client, never()).renewAuth(anyString());
+        ShadowLooper.idleMainLooper(1);
+        verify(client).renewAuth("refreshToken");
+    }
+
+    @Test
+    public void shouldNotRenewAfterClear() throws Exception {
+        renewer.setCredentials(new Credentials("idToken", "accessToken", "bearer", "refreshToken", 3600L));
+
+        renewer.clear();
+        ShadowLooper.idleMainLooper(3600 * 1000);
+
+        verify(client, never()).renewAuth(anyString());
+    }
+
+    @Test
+    public void shouldApplyJitterWithinBounds() throws Exception {
+        when(random.nextDouble()).thenReturn(0.0);
+        long latest = renewer.getRenewalDelay(3600 * 1000);
+        when(random.nextDouble()).thenReturn(0.999);
+        long earliest = renewer.getRenewalDelay(3600 * 1000);
+
+        assertThat(latest, is(3600 * 1000 - CredentialsRenewer.RENEW_BEFORE_EXPIRY_MS));
+        assertThat(earliest, is(greaterThanOrEqualTo(latest - CredentialsRenewer.MAX_JITTER_MS)));
+        assertThat(earliest, is(lessThanOrEqualTo(latest)));
+    }
+
+    @Test
+    public void shouldRenewShortLivedCredentialsHalfwayThrough() throws Exception {
+        when(random.nextDouble()).thenReturn(0.0);
+
+        assertThat(renewer.getRenewalDelay(120 * 1000), is(60 * 1000L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private BaseCallback<Credentials, AuthenticationException> captureCallback() {
+        ArgumentCaptor<BaseCallback> captor = ArgumentCaptor.forClass(BaseCallback.class);
+        verify(request).start(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * JobSchedulerRefreshSchedulerTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.Context;
+
+import com.auth0.android.Auth0;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class JobSchedulerRefreshSchedulerTest {
+
+    private static final int FIRST_JOB_ID = 5000;
+
+    private JobScheduler jobScheduler;
+    private JobSchedulerRefreshScheduler scheduler;
+    private Auth0 account;
+
+    @Before
+    public void setUp() throws Exception {
+        jobScheduler = (JobScheduler) RuntimeEnvironment.application.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        jobScheduler.cancelAll();
+        scheduler = new JobSchedulerRefreshScheduler(FIRST_JOB_ID);
+        account = new Auth0("client_id", "domain.auth0.com");
+    }
+
+    @Test
+    public void shouldKeepTheJobIdsInTheReservedRange() throws Exception {
+        final String[] clientIds = {"client_id", "", "a", "Z2hWUuyLfaVhNXiKalfpaIOHm0ZBF8G2", "￿￿￿￿"};
+        for (String clientId : clientIds) {
+            final int unmetered = JobSchedulerRefreshScheduler.unmeteredJobId(FIRST_JOB_ID, clientId);
+            final int charging = JobSchedulerRefreshScheduler.chargingJobId(FIRST_JOB_ID, clientId);
+            assertThat(unmetered, is(greaterThanOrEqualTo(FIRST_JOB_ID)));
+            assertThat(charging, is(unmetered + 1));
+            assertThat(charging, is(lessThan(FIRST_JOB_ID + JobSchedulerRefreshScheduler.JOB_ID_RANGE)));
+        }
+    }
+
+    @Test
+    public void shouldScheduleTheJobsWithTheReservedIds() throws Exception {
+        scheduler.schedule(RuntimeEnvironment.application, account, 3600000);
+
+        final List<JobInfo> jobs = jobScheduler.getAllPendingJobs();
+        assertThat(jobs, hasSize(2));
+        for (JobInfo job : jobs) {
+            assertThat(job.getId(), is(greaterThanOrEqualTo(FIRST_JOB_ID)));
+            assertThat(job.getId(), is(lessThan(FIRST_JOB_ID + JobSchedulerRefreshScheduler.JOB_ID_RANGE)));
+        }
+    }
+
+    @Test
+    public void shouldReplaceThePreviousJobsOfTheAccount() throws Exception {
+        scheduler.schedule(RuntimeEnvironment.application, account, 3600000);
+        scheduler.schedule(RuntimeEnvironment.application, account, 7200000);
+
+        final List<JobInfo> jobs = jobScheduler.getAllPendingJobs();
+        assertThat(jobs, hasSize(2));
+        for (JobInfo job : jobs) {
+            assertThat(job.getIntervalMillis(), is(7200000L));
+        }
+    }
+}
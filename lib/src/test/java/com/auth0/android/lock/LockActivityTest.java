@@ -2,27 +2,44 @@ package com.auth0.android.lock;
 
 import android.app.Activity;
 import android.content.Intent;
+import android.os.Bundle;
+import android.os.Parcel;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.widget.TextView;
 
 import com.auth0.android.Auth0;
 import com.auth0.android.authentication.AuthenticationAPIClient;
+import com.auth0.android.authentication.AuthenticationException;
 import com.auth0.android.authentication.request.DatabaseConnectionRequest;
 import com.auth0.android.authentication.request.SignUpRequest;
+import com.auth0.android.callback.AuthenticationCallback;
 import com.auth0.android.callback.BaseCallback;
 import com.auth0.android.lock.events.DatabaseChangePasswordEvent;
 import com.auth0.android.lock.events.DatabaseLoginEvent;
 import com.auth0.android.lock.events.DatabaseSignUpEvent;
 import com.auth0.android.lock.events.OAuthLoginEvent;
+import com.auth0.android.lock.internal.configuration.AuthMode;
 import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.ConfigurationHolder;
 import com.auth0.android.lock.internal.configuration.DatabaseConnection;
 import com.auth0.android.lock.internal.configuration.OAuthConnection;
 import com.auth0.android.lock.internal.configuration.Options;
+import com.auth0.android.lock.internal.configuration.ParameterTemplate;
+import com.auth0.android.lock.internal.metrics.MetricsRecorder;
 import com.auth0.android.lock.provider.AuthResolver;
+import com.auth0.android.lock.utils.Auth0StandIn;
 import com.auth0.android.lock.views.ClassicLockView;
+import com.auth0.android.lock.views.FormLayout;
+import com.auth0.android.lock.views.ValidatedInputView;
+import com.auth0.android.lock.views.ValidatedUsernameInputView;
 import com.auth0.android.provider.AuthCallback;
 import com.auth0.android.provider.AuthHandler;
 import com.auth0.android.provider.AuthProvider;
 import com.auth0.android.request.AuthenticationRequest;
+import com.auth0.android.result.Credentials;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -30,27 +47,41 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.ActivityController;
+import org.robolectric.util.ReflectionHelpers;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import edu.emory.mathcs.backport.java.util.Collections;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyMapOf;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.atLeastOnce;
@@ -62,6 +93,8 @@ public class LockActivityTest {
     private static final int REQ_CODE_WEB_PROVIDER = 200;
     private static final int REQ_CODE_CUSTOM_PROVIDER = 201;
     private static final int REQ_CODE_PERMISSIONS = 202;
+    private static final long LOGIN_LATENCY = 200;
+    private static final long STAND_IN_TIMEOUT = 10000;
     @Mock
     Options options;
     @Mock
@@ -80,6 +113,8 @@ public class LockActivityTest {
     ClassicLockView lockView;
     @Captor
     ArgumentCaptor<Map> mapCaptor;
+    @Captor
+    ArgumentCaptor<AuthenticationCallback<Credentials>> callbackCaptor;
     LockActivity activity;
     HashMap basicParameters;
     HashMap connectionScope;
@@ -110,14 +145,20 @@ public class LockActivityTest {
         when(connection.getName()).thenReturn("connection");
         when(configuration.getDatabaseConnection()).thenReturn(connection);
 
+        stubParameterTemplates(configuration, options);
         activity = new LockActivity(configuration, options, lockView, webProvider);
     }
 
+    @After
+    public void tearDown() throws Exception {
+        MetricsRecorder.setListener(null);
+    }
+
     @Test
     public void shouldFailDatabaseLoginOnNullConnection() throws Exception {
         when(configuration.getDatabaseConnection()).thenReturn(null);
         DatabaseLoginEvent event = new DatabaseLoginEvent("username", "password");
-        activity.onDatabaseAuthenticationRequest(event);
+        activity.getController().onDatabaseAuthenticationRequest(event);
 
         verify(lockView, never()).showProgress(true);
         verify(options, never()).getAuthenticationAPIClient();
@@ -130,7 +171,7 @@ public class LockActivityTest {
     @Test
     public void shouldCallLegacyDatabaseLogin() throws Exception {
         DatabaseLoginEvent event = new DatabaseLoginEvent("username", "password");
-        activity.onDatabaseAuthenticationRequest(event);
+        activity.getController().onDatabaseAuthenticationRequest(event);
 
 
         verify(lockView).showProgress(true);
@@ -151,7 +192,7 @@ public class LockActivityTest {
     public void shouldCallLegacyDatabaseLoginWithVerificationCode() throws Exception {
         DatabaseLoginEvent event = new DatabaseLoginEvent("username", "password");
         event.setVerificationCode("123456");
-        activity.onDatabaseAuthenticationRequest(event);
+        activity.getController().onDatabaseAuthenticationRequest(event);
 
 
         verify(lockView).showProgress(true);
@@ -179,10 +220,11 @@ public class LockActivityTest {
         when(options.getScope()).thenReturn("openid user photos");
         when(options.getAudience()).thenReturn("aud");
         when(options.getAuthenticationParameters()).thenReturn(basicParameters);
+        stubParameterTemplates(configuration, options);
         LockActivity activity = new LockActivity(configuration, options, lockView, webProvider);
 
         DatabaseLoginEvent event = new DatabaseLoginEvent("username", "password");
-        activity.onDatabaseAuthenticationRequest(event);
+        activity.getController().onDatabaseAuthenticationRequest(event);
 
         verify(lockView).showProgress(true);
         verify(options).getAuthenticationAPIClient();
@@ -203,7 +245,7 @@ public class LockActivityTest {
     public void shouldFailDatabaseSignUpOnNullConnection() throws Exception {
         when(configuration.getDatabaseConnection()).thenReturn(null);
         DatabaseSignUpEvent event = new DatabaseSignUpEvent("email@domain.com", "password", "username");
-        activity.onDatabaseAuthenticationRequest(event);
+        activity.getController().onDatabaseAuthenticationRequest(event);
 
         verify(lockView, never()).showProgress(true);
         verify(options, never()).getAuthenticationAPIClient();
@@ -218,7 +260,7 @@ public class LockActivityTest {
         when(configuration.loginAfterSignUp()).thenReturn(false);
 
         DatabaseSignUpEvent event = new DatabaseSignUpEvent("email@domain.com", "password", "username");
-        activity.onDatabaseAuthenticationRequest(event);
+        activity.getController().onDatabaseAuthenticationRequest(event);
 
         verify(lockView).showProgress(true);
         verify(options).getAuthenticationAPIClient();
@@ -232,7 +274,7 @@ public class LockActivityTest {
         when(configuration.loginAfterSignUp()).thenReturn(false);
 
         DatabaseSignUpEvent event = new DatabaseSignUpEvent("email@domain.com", "password", null);
-        activity.onDatabaseAuthenticationRequest(event);
+        activity.getController().onDatabaseAuthenticationRequest(event);
 
         verify(lockView).showProgress(true);
         verify(options).getAuthenticationAPIClient();
@@ -251,12 +293,13 @@ public class LockActivityTest {
         when(options.getAudience()).thenReturn("aud");
         when(options.getScope()).thenReturn("openid user photos");
         when(options.getAuthenticationParameters()).thenReturn(basicParameters);
+        stubParameterTemplates(configuration, options);
         LockActivity activity = new LockActivity(configuration, options, lockView, webProvider);
 
         when(configuration.loginAfterSignUp()).thenReturn(true);
 
         DatabaseSignUpEvent event = new DatabaseSignUpEvent("email@domain.com", "password", "username");
-        activity.onDatabaseAuthenticationRequest(event);
+        activity.getController().onDatabaseAuthenticationRequest(event);
 
 
         verify(lockView).showProgress(true);
@@ -278,7 +321,7 @@ public class LockActivityTest {
         when(configuration.loginAfterSignUp()).thenReturn(true);
 
         DatabaseSignUpEvent event = new DatabaseSignUpEvent("email@domain.com", "password", "username");
-        activity.onDatabaseAuthenticationRequest(event);
+        activity.getController().onDatabaseAuthenticationRequest(event);
 
 
         verify(lockView).showProgress(true);
@@ -300,7 +343,7 @@ public class LockActivityTest {
         when(configuration.loginAfterSignUp()).thenReturn(true);
 
         DatabaseSignUpEvent event = new DatabaseSignUpEvent("email", "password", null);
-        activity.onDatabaseAuthenticationRequest(event);
+        activity.getController().onDatabaseAuthenticationRequest(event);
 
 
         verify(lockView).showProgress(true);
@@ -321,7 +364,7 @@ public class LockActivityTest {
     public void shouldFailDatabasePasswordResetOnNullConnection() throws Exception {
         when(configuration.getDatabaseConnection()).thenReturn(null);
         DatabaseChangePasswordEvent event = new DatabaseChangePasswordEvent("email@domain.com");
-        activity.onDatabaseAuthenticationRequest(event);
+        activity.getController().onDatabaseAuthenticationRequest(event);
 
         verify(lockView, never()).showProgress(true);
         verify(options, never()).getAuthenticationAPIClient();
@@ -334,7 +377,7 @@ public class LockActivityTest {
     @Test
     public void shouldCallDatabasePasswordReset() throws Exception {
         DatabaseChangePasswordEvent event = new DatabaseChangePasswordEvent("email@domain.com");
-        activity.onDatabaseAuthenticationRequest(event);
+        activity.getController().onDatabaseAuthenticationRequest(event);
 
         verify(lockView).showProgress(true);
         verify(options).getAuthenticationAPIClient();
@@ -350,7 +393,7 @@ public class LockActivityTest {
         when(connection.getName()).thenReturn("my-connection");
         when(connection.isActiveFlowEnabled()).thenReturn(true);
         OAuthLoginEvent event = new OAuthLoginEvent(connection, "email@domain.com", "password");
-        activity.onOAuthAuthenticationRequest(event);
+        activity.getController().onOAuthAuthenticationRequest(event);
 
 
         verify(lockView).showProgress(true);
@@ -376,7 +419,7 @@ public class LockActivityTest {
         OAuthConnection connection = mock(OAuthConnection.class);
         when(connection.getName()).thenReturn("custom-connection");
         OAuthLoginEvent event = new OAuthLoginEvent(connection);
-        activity.onOAuthAuthenticationRequest(event);
+        activity.getController().onOAuthAuthenticationRequest(event);
 
 
         verify(lockView, never()).showProgress(true);
@@ -392,6 +435,30 @@ public class LockActivityTest {
         assertThat(reqParams, not(hasKey("audience")));
     }
 
+    @Test
+    public void shouldLetTheCustomProviderChangeItsParameters() throws Exception {
+        AuthProvider customProvider = mock(AuthProvider.class);
+        AuthHandler handler = mock(AuthHandler.class);
+        when(handler.providerFor(anyString(), eq("custom-connection"))).thenReturn(customProvider);
+        AuthResolver.setAuthHandlers(Collections.singletonList(handler));
+
+        OAuthConnection connection = mock(OAuthConnection.class);
+        when(connection.getName()).thenReturn("custom-connection");
+        activity.getController().onOAuthAuthenticationRequest(new OAuthLoginEvent(connection));
+        verify(customProvider).setParameters(mapCaptor.capture());
+        //noinspection unchecked
+        mapCaptor.getValue().put("scope", "openid changed");
+        //noinspection unchecked
+        mapCaptor.getValue().put("custom", "value");
+        activity.getController().onOAuthAuthenticationRequest(new OAuthLoginEvent(connection));
+        AuthResolver.setAuthHandlers(Collections.emptyList());
+
+        verify(customProvider, times(2)).setParameters(mapCaptor.capture());
+        Map<String, String> reqParams = mapCaptor.getValue();
+        assertThat(reqParams, hasEntry("scope", "openid user photos"));
+        assertThat(reqParams, not(hasKey("custom")));
+    }
+
     @Test
     public void shouldCallOAuthAuthenticationWithCustomProviderAndAudience() throws Exception {
         Auth0 account = new Auth0("cliendId", "domain");
@@ -403,6 +470,7 @@ public class LockActivityTest {
         when(options.getScope()).thenReturn("openid user photos");
         when(options.getConnectionsScope()).thenReturn(connectionScope);
         when(options.getAuthenticationParameters()).thenReturn(basicParameters);
+        stubParameterTemplates(configuration, options);
         LockActivity activity = new LockActivity(configuration, options, lockView, webProvider);
 
 
@@ -414,7 +482,7 @@ public class LockActivityTest {
         OAuthConnection connection = mock(OAuthConnection.class);
         when(connection.getName()).thenReturn("custom-connection");
         OAuthLoginEvent event = new OAuthLoginEvent(connection);
-        activity.onOAuthAuthenticationRequest(event);
+        activity.getController().onOAuthAuthenticationRequest(event);
 
 
         verify(lockView, never()).showProgress(true);
@@ -439,6 +507,7 @@ public class LockActivityTest {
         when(options.getScope()).thenReturn("openid user photos");
         when(options.getConnectionsScope()).thenReturn(connectionScope);
         when(options.getAuthenticationParameters()).thenReturn(basicParameters);
+        stubParameterTemplates(configuration, options);
         LockActivity activity = new LockActivity(configuration, options, lockView, webProvider);
 
 
@@ -451,7 +520,7 @@ public class LockActivityTest {
         when(connection.getName()).thenReturn("custom-connection");
         when(connection.isActiveFlowEnabled()).thenReturn(false);
         OAuthLoginEvent event = new OAuthLoginEvent(connection, "user@domain.com", null);
-        activity.onOAuthAuthenticationRequest(event);
+        activity.getController().onOAuthAuthenticationRequest(event);
 
 
         verify(lockView, never()).showProgress(true);
@@ -474,7 +543,7 @@ public class LockActivityTest {
         when(connection.isActiveFlowEnabled()).thenReturn(false);
         OAuthLoginEvent event = new OAuthLoginEvent(connection, "user@domain.com", null);
         when(options.useBrowser()).thenReturn(true);
-        activity.onOAuthAuthenticationRequest(event);
+        activity.getController().onOAuthAuthenticationRequest(event);
 
         verify(lockView, never()).showProgress(true);
         verify(webProvider).start(eq(activity), eq("my-connection"), mapCaptor.capture(), any(AuthCallback.class), eq(REQ_CODE_WEB_PROVIDER));
@@ -491,7 +560,7 @@ public class LockActivityTest {
         when(connection.getName()).thenReturn("my-connection");
         when(connection.isActiveFlowEnabled()).thenReturn(false);
         OAuthLoginEvent event = new OAuthLoginEvent(connection, "user@domain.com", null);
-        activity.onOAuthAuthenticationRequest(event);
+        activity.getController().onOAuthAuthenticationRequest(event);
 
         Intent intent = mock(Intent.class);
         activity.onActivityResult(REQ_CODE_WEB_PROVIDER, Activity.RESULT_OK, intent);
@@ -506,7 +575,7 @@ public class LockActivityTest {
         when(connection.getName()).thenReturn("my-connection");
         OAuthLoginEvent event = new OAuthLoginEvent(connection);
         when(options.useBrowser()).thenReturn(true);
-        activity.onOAuthAuthenticationRequest(event);
+        activity.getController().onOAuthAuthenticationRequest(event);
 
         verify(lockView, never()).showProgress(true);
         verify(webProvider).start(eq(activity), eq("my-connection"), mapCaptor.capture(), any(AuthCallback.class), eq(REQ_CODE_WEB_PROVIDER));
@@ -515,12 +584,82 @@ public class LockActivityTest {
         assertThat(extraParams, is(nullValue()));
     }
 
+    @Test
+    public void shouldReportTheWebProviderAuthenticationToTheMetrics() throws Exception {
+        final LockMetrics metrics = mock(LockMetrics.class);
+        MetricsRecorder.setListener(metrics);
+        OAuthConnection connection = mock(OAuthConnection.class);
+        when(connection.getName()).thenReturn("my-connection");
+        activity.getController().onOAuthAuthenticationRequest(new OAuthLoginEvent(connection));
+
+        ArgumentCaptor<AuthCallback> authCallbackCaptor = ArgumentCaptor.forClass(AuthCallback.class);
+        verify(webProvider).start(eq(activity), eq("my-connection"), any(Map.class), authCallbackCaptor.capture(), eq(REQ_CODE_WEB_PROVIDER));
+        //this activity has no window to show the result, only the metrics are checked
+        ShadowLooper.pauseMainLooper();
+        authCallbackCaptor.getValue().onSuccess(mock(Credentials.class));
+
+        verify(metrics).onAuthenticationCompleted(eq("my-connection"), eq(true), anyLong());
+    }
+
+    @Test
+    public void shouldReportTheCustomProviderAuthenticationToTheMetrics() throws Exception {
+        final LockMetrics metrics = mock(LockMetrics.class);
+        MetricsRecorder.setListener(metrics);
+        AuthProvider customProvider = mock(AuthProvider.class);
+        AuthHandler handler = mock(AuthHandler.class);
+        when(handler.providerFor(anyString(), eq("custom-connection"))).thenReturn(customProvider);
+        AuthResolver.setAuthHandlers(Collections.singletonList(handler));
+        OAuthConnection connection = mock(OAuthConnection.class);
+        when(connection.getName()).thenReturn("custom-connection");
+        activity.getController().onOAuthAuthenticationRequest(new OAuthLoginEvent(connection));
+
+        ArgumentCaptor<AuthCallback> authCallbackCaptor = ArgumentCaptor.forClass(AuthCallback.class);
+        verify(customProvider).start(eq(activity), authCallbackCaptor.capture(), eq(REQ_CODE_PERMISSIONS), eq(REQ_CODE_CUSTOM_PROVIDER));
+        AuthResolver.setAuthHandlers(Collections.emptyList());
+        //this activity has no window to show the result, only the metrics are checked
+        ShadowLooper.pauseMainLooper();
+        authCallbackCaptor.getValue().onFailure(mock(AuthenticationException.class));
+
+        verify(metrics).onAuthenticationCompleted(eq("custom-connection"), eq(false), anyLong());
+    }
+
+    @Test
+    public void shouldNotReportTheSignUpWithoutLogInToTheMetrics() throws Exception {
+        final LockMetrics metrics = mock(LockMetrics.class);
+        MetricsRecorder.setListener(metrics);
+        when(configuration.loginAfterSignUp()).thenReturn(false);
+        activity.getController().onDatabaseAuthenticationRequest(new DatabaseSignUpEvent("email@domain.com", "password", null));
+
+        ArgumentCaptor<BaseCallback> signUpCallbackCaptor = ArgumentCaptor.forClass(BaseCallback.class);
+        verify(dbRequest).start(signUpCallbackCaptor.capture());
+        //this activity has no window to show the result, only the metrics are checked
+        ShadowLooper.pauseMainLooper();
+        signUpCallbackCaptor.getValue().onSuccess(null);
+
+        verify(metrics, never()).onAuthenticationCompleted(anyString(), anyBoolean(), anyLong());
+    }
+
+    @Test
+    public void shouldNotReportTheChangePasswordToTheMetrics() throws Exception {
+        final LockMetrics metrics = mock(LockMetrics.class);
+        MetricsRecorder.setListener(metrics);
+        activity.getController().onDatabaseAuthenticationRequest(new DatabaseChangePasswordEvent("email@domain.com"));
+
+        ArgumentCaptor<BaseCallback> changePasswordCallbackCaptor = ArgumentCaptor.forClass(BaseCallback.class);
+        verify(dbRequest).start(changePasswordCallbackCaptor.capture());
+        //this activity has no window to show the result, only the metrics are checked
+        ShadowLooper.pauseMainLooper();
+        changePasswordCallbackCaptor.getValue().onSuccess(null);
+
+        verify(metrics, never()).onAuthenticationCompleted(anyString(), anyBoolean(), anyLong());
+    }
+
     @Test
     public void shouldResumeOAuthAuthenticationWithWebProviderOnActivityResult() throws Exception {
         OAuthConnection connection = mock(OAuthConnection.class);
         when(connection.getName()).thenReturn("my-connection");
         OAuthLoginEvent event = new OAuthLoginEvent(connection);
-        activity.onOAuthAuthenticationRequest(event);
+        activity.getController().onOAuthAuthenticationRequest(event);
 
         Intent intent = mock(Intent.class);
         activity.onActivityResult(REQ_CODE_WEB_PROVIDER, Activity.RESULT_OK, intent);
@@ -539,7 +678,7 @@ public class LockActivityTest {
         OAuthConnection connection = mock(OAuthConnection.class);
         when(connection.getName()).thenReturn("custom-connection");
         OAuthLoginEvent event = new OAuthLoginEvent(connection);
-        activity.onOAuthAuthenticationRequest(event);
+        activity.getController().onOAuthAuthenticationRequest(event);
 
         Intent intent = mock(Intent.class);
         activity.onActivityResult(REQ_CODE_CUSTOM_PROVIDER, Activity.RESULT_OK, intent);
@@ -554,7 +693,7 @@ public class LockActivityTest {
         OAuthConnection connection = mock(OAuthConnection.class);
         when(connection.getName()).thenReturn("my-connection");
         OAuthLoginEvent event = new OAuthLoginEvent(connection);
-        activity.onOAuthAuthenticationRequest(event);
+        activity.getController().onOAuthAuthenticationRequest(event);
 
         Intent intent = mock(Intent.class);
         activity.onNewIntent(intent);
@@ -573,7 +712,7 @@ public class LockActivityTest {
         OAuthConnection connection = mock(OAuthConnection.class);
         when(connection.getName()).thenReturn("custom-connection");
         OAuthLoginEvent event = new OAuthLoginEvent(connection);
-        activity.onOAuthAuthenticationRequest(event);
+        activity.getController().onOAuthAuthenticationRequest(event);
 
         Intent intent = mock(Intent.class);
         activity.onNewIntent(intent);
@@ -588,7 +727,7 @@ public class LockActivityTest {
         OAuthConnection connection = mock(OAuthConnection.class);
         when(connection.getName()).thenReturn("my-connection");
         OAuthLoginEvent event = new OAuthLoginEvent(connection, "user@domain.com", null);
-        activity.onOAuthAuthenticationRequest(event);
+        activity.getController().onOAuthAuthenticationRequest(event);
 
         Intent intent = mock(Intent.class);
         activity.onNewIntent(intent);
@@ -596,4 +735,209 @@ public class LockActivityTest {
         verify(lockView).showProgress(false);
         verify(webProvider).resume(intent);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldRebindToTheRunningConfigurationFetchWhenRecreated() throws Exception {
+        final ConfigurationHolder holder = new ConfigurationHolder();
+        final ConfigurationLoader loader = mock(ConfigurationLoader.class);
+        when(loader.getHolder()).thenReturn(holder);
+        when(loader.isFetching()).thenReturn(true);
+        final TestLockActivity activity = launch(loader);
+        verify(loader).fetch();
+
+        recreate(activity);
+        holder.publish(configuration);
+
+        assertThat(activity.createdLoaders, is(1));
+        verify(loader, never()).release();
+        assertThat(activity.findViewById(R.id.com_auth0_lock_input_username_email), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldRestoreTheFormStateWhenRecreated() throws Exception {
+        final TestLockActivity activity = launch(new ConfigurationLoader(options, new ConfigurationHolder(configuration)));
+        ValidatedUsernameInputView emailInput = (ValidatedUsernameInputView) activity.findViewById(R.id.com_auth0_lock_input_username_email);
+        emailInput.setText("user@domain.com");
+
+        recreate(activity);
+
+        emailInput = (ValidatedUsernameInputView) activity.findViewById(R.id.com_auth0_lock_input_username_email);
+        assertThat(emailInput.getText(), is("user@domain.com"));
+    }
+
+    @Test
+    public void shouldRestoreTheSavedFormStateOnceConfiguredAfterTheProcessDied() throws Exception {
+        when(configuration.allowSignUp()).thenReturn(true);
+        final TestLockActivity previous = launch(new ConfigurationLoader(options, new ConfigurationHolder(configuration)));
+        ((ValidatedUsernameInputView) previous.findViewById(R.id.com_auth0_lock_input_username_email)).setText("user@domain.com");
+        ReflectionHelpers.<FormLayout>getField(ReflectionHelpers.getField(previous, "lockView"), "formLayout").setSelectedMode(AuthMode.SIGN_UP);
+        final Bundle savedInstanceState = parcel(saveInstanceState(previous));
+
+        final ConfigurationHolder holder = new ConfigurationHolder();
+        final ConfigurationLoader loader = mock(ConfigurationLoader.class);
+        when(loader.getHolder()).thenReturn(holder);
+        when(loader.isFetching()).thenReturn(true);
+        final TestLockActivity activity = launch(loader, savedInstanceState);
+        holder.publish(configuration);
+
+        assertThat(ReflectionHelpers.<ClassicLockView>getField(activity, "lockView").getSelectedMode(), is(AuthMode.SIGN_UP));
+        final ValidatedInputView emailInput = (ValidatedInputView) activity.findViewById(R.id.com_auth0_lock_input_email);
+        assertThat(emailInput.getText(), is("user@domain.com"));
+    }
+
+    @Test
+    public void shouldDeliverTheAuthenticationStartedBeforeTheRecreation() throws Exception {
+        final ConfigurationLoader loader = new ConfigurationLoader(options, new ConfigurationHolder(configuration));
+        final TestLockActivity activity = launch(loader);
+        activity.getController().onDatabaseAuthenticationRequest(new DatabaseLoginEvent("username", "password"));
+        verify(authRequest).start(callbackCaptor.capture());
+
+        recreate(activity);
+        callbackCaptor.getValue().onSuccess(mock(Credentials.class));
+
+        assertThat(activity.isFinishing(), is(true));
+        assertThat(loader.isFetching(), is(false));
+    }
+
+    @Test
+    public void shouldReleaseTheRequestsWhenDestroyedForGood() throws Exception {
+        final TestLockActivity activity = launch(new ConfigurationLoader(options, new ConfigurationHolder(configuration)));
+        activity.getController().onDatabaseAuthenticationRequest(new DatabaseLoginEvent("username", "password"));
+        verify(authRequest).start(callbackCaptor.capture());
+
+        activity.finish();
+        callbackCaptor.getValue().onFailure(mock(AuthenticationException.class));
+
+        final TextView resultMessage = (TextView) activity.findViewById(R.id.com_auth0_lock_result_message);
+        assertThat(resultMessage.getVisibility(), is(View.GONE));
+    }
+
+    @Test
+    public void shouldLogInAgainstTheStandInAfterARateLimitBurst() throws Exception {
+        final Auth0StandIn standIn = new Auth0StandIn(1234);
+        try {
+            standIn.failNext(Auth0StandIn.Endpoint.LOGIN, 2, 429)
+                    .withLatency(Auth0StandIn.Endpoint.LOGIN, Auth0StandIn.Latency.fixed(LOGIN_LATENCY));
+            when(options.getAuthenticationAPIClient()).thenReturn(new AuthenticationAPIClient(new Auth0(Auth0StandIn.CLIENT_ID, standIn.getDomain())));
+            final TestLockActivity activity = launch(new ConfigurationLoader(options, new ConfigurationHolder(configuration)));
+            final TextView resultMessage = (TextView) activity.findViewById(R.id.com_auth0_lock_result_message);
+            final long start = System.currentTimeMillis();
+
+            for (int attempt = 1; attempt <= 2; attempt++) {
+                activity.getController().onDatabaseAuthenticationRequest(new DatabaseLoginEvent("user@example.com", "123456"));
+                //a second submit while the first one is in flight must not reach the server
+                activity.getController().onDatabaseAuthenticationRequest(new DatabaseLoginEvent("user@example.com", "123456"));
+                idleMainLooperUntil(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        return resultMessage.getVisibility() == View.VISIBLE;
+                    }
+                });
+                assertThat(standIn.getRequestCount(Auth0StandIn.Endpoint.LOGIN), is(attempt));
+                resultMessage.setVisibility(View.GONE);
+            }
+            activity.getController().onDatabaseAuthenticationRequest(new DatabaseLoginEvent("user@example.com", "123456"));
+            idleMainLooperUntil(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return activity.isFinishing();
+                }
+            });
+
+            assertThat(standIn.getRequestCount(Auth0StandIn.Endpoint.LOGIN), is(3));
+            assertThat(resultMessage.getVisibility(), is(View.GONE));
+            assertThat(System.currentTimeMillis() - start, is(greaterThanOrEqualTo(3 * LOGIN_LATENCY)));
+        } finally {
+            standIn.shutdown();
+        }
+    }
+
+    private TestLockActivity launch(ConfigurationLoader loader) {
+        return launch(loader, null);
+    }
+
+    private TestLockActivity launch(ConfigurationLoader loader, @Nullable Bundle savedInstanceState) {
+        when(configuration.hasClassicConnections()).thenReturn(true);
+        when(configuration.allowLogIn()).thenReturn(true);
+        when(options.getTheme()).thenReturn(new Options().getTheme());
+        final Intent intent = new Intent(RuntimeEnvironment.application, TestLockActivity.class);
+        intent.putExtra(Constants.OPTIONS_EXTRA, options);
+        final ActivityController<TestLockActivity> controller = Robolectric.buildActivity(TestLockActivity.class).withIntent(intent);
+        controller.get().loader = loader;
+        return controller.create(savedInstanceState).start().resume().visible().get();
+    }
+
+    /**
+     * The stand-in answers on a background thread, and the result is posted back to the main looper.
+     */
+    private static void idleMainLooperUntil(Callable<Boolean> condition) throws Exception {
+        final long deadline = System.currentTimeMillis() + STAND_IN_TIMEOUT;
+        while (!condition.call()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("The stand-in didn't answer in time");
+            }
+            Thread.sleep(10);
+            ShadowLooper.idleMainLooper();
+        }
+    }
+
+    private static Bundle saveInstanceState(LockActivity activity) {
+        final Bundle outState = new Bundle();
+        activity.onSaveInstanceState(outState);
+        return outState;
+    }
+
+    /**
+     * The saved state is written to a Parcel when the process is killed, and read back by the new one.
+     */
+    private static Bundle parcel(Bundle bundle) {
+        final Parcel parcel = Parcel.obtain();
+        bundle.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        final Bundle read = parcel.readBundle(LockActivity.class.getClassLoader());
+        parcel.recycle();
+        return read;
+    }
+
+    /**
+     * Robolectric recreates the same instance and doesn't flag the configuration change by itself.
+     */
+    private static void recreate(Activity activity) {
+        ReflectionHelpers.setField(activity, "mChangingConfigurations", true);
+        activity.recreate();
+        ReflectionHelpers.setField(activity, "mChangingConfigurations", false);
+    }
+
+    private static void stubParameterTemplates(Configuration configuration, final Options options) {
+        doAnswer(new Answer<ParameterTemplate>() {
+            @Override
+            public ParameterTemplate answer(InvocationOnMock invocation) throws Throwable {
+                return ParameterTemplate.forAuthentication(options);
+            }
+        }).when(configuration).getAuthenticationParameters();
+        doAnswer(new Answer<ParameterTemplate>() {
+            @Override
+            public ParameterTemplate answer(InvocationOnMock invocation) throws Throwable {
+                return ParameterTemplate.forAuthorize(options, (String) invocation.getArguments()[0]);
+            }
+        }).when(configuration).getAuthorizeParameters(anyString());
+    }
+
+    public static class TestLockActivity extends LockActivity {
+
+        ConfigurationLoader loader;
+        int createdLoaders;
+
+        @Override
+        protected void onCreate(@Nullable Bundle savedInstanceState) {
+            setTheme(R.style.Lock_Theme);
+            super.onCreate(savedInstanceState);
+        }
+
+        @Override
+        ConfigurationLoader createConfigurationLoader() {
+            createdLoaders++;
+            return loader;
+        }
+    }
+}
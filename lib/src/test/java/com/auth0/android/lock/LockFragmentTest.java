@@ -0,0 +1,233 @@
+package com.auth0.android.lock;
+
+import android.support.v4.app.FragmentActivity;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.authentication.AuthenticationAPIClient;
+import com.auth0.android.authentication.AuthenticationException;
+import com.auth0.android.authentication.request.DatabaseConnectionRequest;
+import com.auth0.android.callback.AuthenticationCallback;
+import com.auth0.android.lock.events.DatabaseLoginEvent;
+import com.auth0.android.lock.events.DatabaseSignUpEvent;
+import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.DatabaseConnection;
+import com.auth0.android.lock.internal.configuration.Options;
+import com.auth0.android.lock.internal.configuration.ParameterTemplate;
+import com.auth0.android.request.AuthenticationRequest;
+import com.auth0.android.result.Credentials;
+import com.auth0.android.result.DatabaseUser;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ActivityController;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class LockFragmentTest {
+
+    private static final String TAG = "lock";
+
+    private Lock lock;
+    private Options options;
+    private Configuration configuration;
+    private AuthenticationAPIClient client;
+    private AuthenticationRequest authRequest;
+    private DatabaseConnectionRequest<DatabaseUser, AuthenticationException> dbRequest;
+    @Captor
+    private ArgumentCaptor<AuthenticationCallback> callbackCaptor;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        final FragmentActivity activity = Robolectric.buildActivity(FragmentActivity.class).create().get();
+        lock = Lock.newBuilder(new Auth0("client_id", "domain.auth0.com"), Mockito.mock(LockCallback.class))
+                .preconnect(false)
+                .build(activity);
+
+        client = mock(AuthenticationAPIClient.class);
+        authRequest = mock(AuthenticationRequest.class);
+        //noinspection unchecked
+        dbRequest = mock(DatabaseConnectionRequest.class);
+        when(client.login(anyString(), anyString(), anyString())).thenReturn(authRequest);
+        when(client.createUser(anyString(), anyString(), anyString())).thenReturn(dbRequest);
+        when(authRequest.addAuthenticationParameters(anyMapOf(String.class, Object.class))).thenReturn(authRequest);
+
+        options = spy(lock.getOptions());
+        doReturn(client).when(options).getAuthenticationAPIClient();
+        final ParameterTemplate parameters = ParameterTemplate.forAuthentication(options);
+        DatabaseConnection connection = mock(DatabaseConnection.class);
+        when(connection.getName()).thenReturn("connection");
+        configuration = mock(Configuration.class);
+        when(configuration.getDatabaseConnection()).thenReturn(connection);
+        when(configuration.getAuthenticationParameters()).thenReturn(parameters);
+    }
+
+    @Test
+    public void shouldPassTheLockOptionsAsArguments() throws Exception {
+        final LockFragment fragment = LockFragment.newInstance(lock);
+
+        final Options options = fragment.getArguments().getParcelable(Constants.OPTIONS_EXTRA);
+        assertThat(options, is(notNullValue()));
+        assertThat(options.getAccount().getClientId(), is("client_id"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRequireTheHostToImplementTheCallback() throws Exception {
+        final FragmentActivity activity = Robolectric.buildActivity(FragmentActivity.class).create().start().resume().get();
+
+        activity.getSupportFragmentManager()
+                .beginTransaction()
+                .add(LockFragment.newInstance(lock), "lock")
+                .commitNow();
+    }
+
+    @Test
+    public void shouldNotHandleBackPressedWithoutAView() throws Exception {
+        final LockFragment fragment = LockFragment.newInstance(lock);
+
+        assertThat(fragment.onBackPressed(), is(false));
+    }
+
+    @Test
+    public void shouldDeliverTheAuthenticationToTheCallback() throws Exception {
+        final CallbackActivity activity = Robolectric.buildActivity(CallbackActivity.class).create().start().resume().get();
+        final LockFragment fragment = addFragment(activity);
+
+        fragment.getController().onDatabaseAuthenticationRequest(new DatabaseLoginEvent("username", "password"));
+        verify(authRequest).start(callbackCaptor.capture());
+        final Credentials credentials = mock(Credentials.class);
+        callbackCaptor.getValue().onSuccess(credentials);
+
+        verify(activity.callback).onAuthentication(credentials);
+    }
+
+    @Test
+    public void shouldHandTheCredentialsToTheLockOfTheSameAccount() throws Exception {
+        final CredentialsStore store = mock(CredentialsStore.class);
+        final CredentialsStore otherStore = mock(CredentialsStore.class);
+        final CallbackActivity activity = Robolectric.buildActivity(CallbackActivity.class).create().start().resume().get();
+        Lock.newBuilder(new Auth0("client_id", "domain.auth0.com"), mock(LockCallback.class))
+                .withCredentialsStore(store)
+                .preconnect(false)
+                .build(activity);
+        Lock.newBuilder(new Auth0("other_client_id", "domain.auth0.com"), mock(LockCallback.class))
+                .withCredentialsStore(otherStore)
+                .preconnect(false)
+                .build(activity);
+        final LockFragment fragment = addFragment(activity);
+
+        fragment.getController().onDatabaseAuthenticationRequest(new DatabaseLoginEvent("username", "password"));
+        verify(authRequest).start(callbackCaptor.capture());
+        final Credentials credentials = new Credentials("idToken", "accessToken", "bearer", "refreshToken", 3600L);
+        callbackCaptor.getValue().onSuccess(credentials);
+
+        verify(activity.callback).onAuthentication(credentials);
+        final ArgumentCaptor<Credentials> savedCaptor = ArgumentCaptor.forClass(Credentials.class);
+        verify(store, timeout(1000)).save(savedCaptor.capture());
+        assertThat(savedCaptor.getValue().getAccessToken(), is("accessToken"));
+        assertThat(savedCaptor.getValue().getExpiresIn(), is(3600L));
+        verify(otherStore, never()).save(any(Credentials.class));
+    }
+
+    @Test
+    public void shouldDeliverTheSignUpToTheCallback() throws Exception {
+        when(configuration.loginAfterSignUp()).thenReturn(false);
+        final CallbackActivity activity = Robolectric.buildActivity(CallbackActivity.class).create().start().resume().get();
+        final LockFragment fragment = addFragment(activity);
+
+        fragment.getController().onDatabaseAuthenticationRequest(new DatabaseSignUpEvent("email@domain.com", "password", null));
+        verify(dbRequest).start(callbackCaptor.capture());
+        final DatabaseUser user = mock(DatabaseUser.class);
+        callbackCaptor.getValue().onSuccess(user);
+
+        verify(activity.callback).onSignUp(user);
+    }
+
+    @Test
+    public void shouldRetainTheInstanceAcrossRecreation() throws Exception {
+        final ActivityController<CallbackActivity> controller = Robolectric.buildActivity(CallbackActivity.class).create().start().resume();
+        final LockFragment fragment = addFragment(controller.get());
+        final LockController lockController = fragment.getController();
+
+        controller.get().recreate();
+
+        final LockFragment recreated = (LockFragment) controller.get().getSupportFragmentManager().findFragmentByTag(TAG);
+        assertThat(recreated, is(sameInstance(fragment)));
+        assertThat(recreated.getController(), is(sameInstance(lockController)));
+        assertThat(recreated.getView(), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldDeliverTheAuthenticationStartedBeforeTheRecreation() throws Exception {
+        final ActivityController<CallbackActivity> controller = Robolectric.buildActivity(CallbackActivity.class).create().start().resume();
+        final LockFragment fragment = addFragment(controller.get());
+        fragment.getController().onDatabaseAuthenticationRequest(new DatabaseLoginEvent("username", "password"));
+        verify(authRequest).start(callbackCaptor.capture());
+
+        controller.get().recreate();
+        final Credentials credentials = mock(Credentials.class);
+        callbackCaptor.getValue().onSuccess(credentials);
+
+        verify(controller.get().callback).onAuthentication(credentials);
+    }
+
+    @Test
+    public void shouldNotDeliverTheResultOnceDestroyed() throws Exception {
+        final ActivityController<CallbackActivity> controller = Robolectric.buildActivity(CallbackActivity.class).create().start().resume();
+        final LockFragment fragment = addFragment(controller.get());
+        fragment.getController().onDatabaseAuthenticationRequest(new DatabaseLoginEvent("username", "password"));
+        verify(authRequest).start(callbackCaptor.capture());
+
+        controller.pause().stop().destroy();
+        callbackCaptor.getValue().onSuccess(mock(Credentials.class));
+
+        verify(controller.get().callback, never()).onAuthentication(any(Credentials.class));
+    }
+
+    private LockFragment addFragment(FragmentActivity activity) {
+        final LockFragment fragment = new LockFragment(configuration, options, mock(WebProvider.class));
+        activity.getSupportFragmentManager()
+                .beginTransaction()
+                .add(fragment, TAG)
+                .commitNow();
+        return fragment;
+    }
+
+    public static class CallbackActivity extends FragmentActivity implements LockFragment.Callback {
+
+        final LockFragment.Callback callback = mock(LockFragment.Callback.class);
+
+        @Override
+        public void onAuthentication(Credentials credentials) {
+            callback.onAuthentication(credentials);
+        }
+
+        @Override
+        public void onSignUp(DatabaseUser user) {
+            callback.onSignUp(user);
+        }
+    }
+}
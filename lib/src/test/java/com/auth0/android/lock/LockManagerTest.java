@@ -0,0 +1,154 @@
+package com.auth0.android.lock;
+
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.content.Intent;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.Options;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class LockManagerTest {
+
+    private LockManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new LockManager(RuntimeEnvironment.application, 2);
+        LockManager.setInstance(manager);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        LockManager.setInstance(null);
+    }
+
+    @Test
+    public void shouldLaunchWithThePreparedConfiguration() throws Exception {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        final Lock lock = Lock.newBuilder(new Auth0("client_id", "domain.auth0.com"), Mockito.mock(LockCallback.class)).build(activity);
+        final Configuration configuration = Mockito.mock(Configuration.class);
+        manager.putPrepared(lock.getOptions(), configuration);
+
+        final Intent intent = manager.newIntent(activity, lock);
+
+        assertThat(intent.hasExtra(Constants.PREPARED_CONFIGURATION_EXTRA), is(true));
+        assertThat(LockManager.findPrepared(intent, lock.getOptions()), is(sameInstance(configuration)));
+        assertThat(manager.isPrepared(lock.getOptions().getAccount()), is(true));
+    }
+
+    @Test
+    public void shouldNotFindTheConfigurationWithoutThePreparedExtra() throws Exception {
+        final Options options = optionsFor("client_id");
+        manager.putPrepared(options, Mockito.mock(Configuration.class));
+
+        assertThat(LockManager.findPrepared(new Intent(), options), is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotFindAReplacedConfiguration() throws Exception {
+        final Options options = optionsFor("client_id");
+        manager.putPrepared(options, Mockito.mock(Configuration.class));
+        final Intent intent = new Intent();
+        intent.putExtra(Constants.PREPARED_CONFIGURATION_EXTRA, 1L);
+        manager.putPrepared(options, Mockito.mock(Configuration.class));
+
+        assertThat(LockManager.findPrepared(intent, options), is(nullValue()));
+    }
+
+    @Test
+    public void shouldEvictTheLeastRecentlyUsedAccount() throws Exception {
+        final Options first = optionsFor("first");
+        final Options second = optionsFor("second");
+        final Options third = optionsFor("third");
+        manager.putPrepared(first, Mockito.mock(Configuration.class));
+        manager.putPrepared(second, Mockito.mock(Configuration.class));
+        manager.isPrepared(first.getAccount());
+        manager.putPrepared(third, Mockito.mock(Configuration.class));
+
+        assertThat(manager.size(), is(2));
+        assertThat(manager.isPrepared(first.getAccount()), is(true));
+        assertThat(manager.isPrepared(second.getAccount()), is(false));
+        assertThat(manager.isPrepared(third.getAccount()), is(true));
+    }
+
+    @Test
+    public void shouldKeepTheMostRecentAccountOnModerateMemoryPressure() throws Exception {
+        final Options first = optionsFor("first");
+        final Options second = optionsFor("second");
+        manager.putPrepared(first, Mockito.mock(Configuration.class));
+        manager.putPrepared(second, Mockito.mock(Configuration.class));
+
+        manager.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+
+        assertThat(manager.size(), is(1));
+        assertThat(manager.isPrepared(second.getAccount()), is(true));
+    }
+
+    @Test
+    public void shouldNotEvictOnUiHidden() throws Exception {
+        manager.putPrepared(optionsFor("first"), Mockito.mock(Configuration.class));
+        manager.putPrepared(optionsFor("second"), Mockito.mock(Configuration.class));
+
+        manager.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+        assertThat(manager.size(), is(2));
+    }
+
+    @Test
+    public void shouldEvictEverythingOnCriticalMemoryPressure() throws Exception {
+        manager.putPrepared(optionsFor("first"), Mockito.mock(Configuration.class));
+        manager.putPrepared(optionsFor("second"), Mockito.mock(Configuration.class));
+
+        manager.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+
+        assertThat(manager.size(), is(0));
+    }
+
+    @Test
+    public void shouldEvictEverythingOnLowMemory() throws Exception {
+        manager.putPrepared(optionsFor("first"), Mockito.mock(Configuration.class));
+
+        manager.onLowMemory();
+
+        assertThat(manager.size(), is(0));
+    }
+
+    @Test
+    public void shouldEvictAnAccount() throws Exception {
+        final Options options = optionsFor("client_id");
+        manager.putPrepared(options, Mockito.mock(Configuration.class));
+
+        manager.evict(options.getAccount());
+
+        assertThat(manager.isPrepared(options.getAccount()), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowAnEmptyManager() throws Exception {
+        manager.setMaxSize(0);
+    }
+
+    private static Options optionsFor(String clientId) {
+        final Options options = new Options();
+        options.setAccount(new Auth0(clientId, "domain.auth0.com"));
+        return options;
+    }
+}
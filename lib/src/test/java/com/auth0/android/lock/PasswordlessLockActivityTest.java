@@ -1,27 +1,40 @@
 package com.auth0.android.lock;
 
 import android.app.Activity;
+import android.content.Context;
 import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewParent;
+import android.widget.EditText;
 
 import com.auth0.android.Auth0;
 import com.auth0.android.authentication.AuthenticationAPIClient;
+import com.auth0.android.authentication.AuthenticationException;
 import com.auth0.android.authentication.PasswordlessType;
 import com.auth0.android.callback.BaseCallback;
 import com.auth0.android.lock.adapters.Country;
 import com.auth0.android.lock.events.OAuthLoginEvent;
 import com.auth0.android.lock.events.PasswordlessLoginEvent;
 import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.ConfigurationHolder;
 import com.auth0.android.lock.internal.configuration.OAuthConnection;
 import com.auth0.android.lock.internal.configuration.Options;
+import com.auth0.android.lock.internal.configuration.ParameterTemplate;
 import com.auth0.android.lock.internal.configuration.PasswordlessConnection;
 import com.auth0.android.lock.internal.configuration.PasswordlessMode;
 import com.auth0.android.lock.provider.AuthResolver;
+import com.auth0.android.lock.utils.Auth0StandIn;
+import com.auth0.android.lock.views.PasswordlessInputCodeFormView;
 import com.auth0.android.lock.views.PasswordlessLockView;
 import com.auth0.android.provider.AuthCallback;
 import com.auth0.android.provider.AuthHandler;
 import com.auth0.android.provider.AuthProvider;
 import com.auth0.android.request.AuthenticationRequest;
 import com.auth0.android.request.ParameterizableRequest;
+import com.squareup.otto.Subscribe;
 
 import org.hamcrest.collection.IsEmptyCollection;
 import org.hamcrest.collection.IsMapContaining;
@@ -29,30 +42,43 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.ActivityController;
+import org.robolectric.util.ReflectionHelpers;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import edu.emory.mathcs.backport.java.util.Collections;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyMapOf;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.atLeastOnce;
@@ -64,6 +90,8 @@ public class PasswordlessLockActivityTest {
     private static final int REQ_CODE_WEB_PROVIDER = 200;
     private static final int REQ_CODE_CUSTOM_PROVIDER = 201;
     private static final int REQ_CODE_PERMISSIONS = 202;
+    private static final long CODE_REQUEST_LATENCY = 200;
+    private static final long STAND_IN_TIMEOUT = 10000;
 
     @Mock
     Options options;
@@ -79,6 +107,8 @@ public class PasswordlessLockActivityTest {
     Configuration configuration;
     @Mock
     PasswordlessLockView lockView;
+    @Captor
+    ArgumentCaptor<BaseCallback> callbackCaptor;
     Map<String, String> connectionScope;
     PasswordlessLockActivity activity;
 
@@ -104,13 +134,16 @@ public class PasswordlessLockActivityTest {
 
         PasswordlessConnection connection = mock(PasswordlessConnection.class);
         when(connection.getName()).thenReturn("connection");
+        when(connection.getStrategy()).thenReturn("email");
         when(configuration.getPasswordlessConnection()).thenReturn(connection);
 
+        stubParameterTemplates(configuration, options);
         activity = new PasswordlessLockActivity(configuration, options, lockView, webProvider, null);
     }
 
     @Test
     public void shouldFailPasswordlessCodeRequestWithEmailOnNullConnection() throws Exception {
+        stubParameterTemplates(configuration, options);
         activity = new PasswordlessLockActivity(configuration, options, lockView, webProvider, "user@domain.com");
 
         when(configuration.getPasswordlessConnection()).thenReturn(null);
@@ -126,6 +159,7 @@ public class PasswordlessLockActivityTest {
 
     @Test
     public void shouldCallPasswordlessCodeRequestWithEmail() throws Exception {
+        stubParameterTemplates(configuration, options);
         activity = new PasswordlessLockActivity(configuration, options, lockView, webProvider, "user@domain.com");
 
         PasswordlessLoginEvent event = PasswordlessLoginEvent.requestCode(PasswordlessMode.EMAIL_CODE, "email@domain.com");
@@ -141,6 +175,7 @@ public class PasswordlessLockActivityTest {
 
     @Test
     public void shouldDoPasswordlessLoginWithEmail() throws Exception {
+        stubParameterTemplates(configuration, options);
         activity = new PasswordlessLockActivity(configuration, options, lockView, webProvider, "user@domain.com");
 
         PasswordlessLoginEvent event = PasswordlessLoginEvent.submitCode(PasswordlessMode.EMAIL_CODE, "1234");
@@ -193,6 +228,7 @@ public class PasswordlessLockActivityTest {
 
     @Test
     public void shouldDoPasswordlessLoginWithPhone() throws Exception {
+        stubParameterTemplates(configuration, options);
         activity = new PasswordlessLockActivity(configuration, options, lockView, webProvider, "+541234567890");
 
         PasswordlessLoginEvent event = PasswordlessLoginEvent.submitCode(PasswordlessMode.SMS_CODE, "1234");
@@ -214,6 +250,31 @@ public class PasswordlessLockActivityTest {
         assertThat(reqParams, hasEntry("extra", "value"));
     }
 
+    @Test
+    public void shouldLetTheCustomProviderChangeItsParameters() throws Exception {
+        AuthProvider customProvider = mock(AuthProvider.class);
+        AuthHandler handler = mock(AuthHandler.class);
+        when(handler.providerFor(anyString(), eq("my-connection"))).thenReturn(customProvider);
+        AuthResolver.setAuthHandlers(Collections.singletonList(handler));
+
+        OAuthConnection connection = mock(OAuthConnection.class);
+        when(connection.getName()).thenReturn("my-connection");
+        activity.onOAuthAuthenticationRequest(new OAuthLoginEvent(connection));
+        ArgumentCaptor<Map> mapCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(customProvider).setParameters(mapCaptor.capture());
+        //noinspection unchecked
+        mapCaptor.getValue().put("scope", "openid changed");
+        //noinspection unchecked
+        mapCaptor.getValue().put("custom", "value");
+        activity.onOAuthAuthenticationRequest(new OAuthLoginEvent(connection));
+        AuthResolver.setAuthHandlers(Collections.emptyList());
+
+        verify(customProvider, times(2)).setParameters(mapCaptor.capture());
+        Map<String, String> reqParams = mapCaptor.getValue();
+        assertThat(reqParams, hasEntry("scope", "openid user photos"));
+        assertThat(reqParams, not(hasKey("custom")));
+    }
+
     @Test
     public void shouldCallOAuthAuthenticationWithCustomProvider() throws Exception {
         AuthProvider customProvider = mock(AuthProvider.class);
@@ -253,6 +314,7 @@ public class PasswordlessLockActivityTest {
         when(options.getConnectionsScope()).thenReturn(connectionScope);
         HashMap basicParameters = new HashMap<>(Collections.singletonMap("extra", "value"));
         when(options.getAuthenticationParameters()).thenReturn(basicParameters);
+        stubParameterTemplates(configuration, options);
         PasswordlessLockActivity activity = new PasswordlessLockActivity(configuration, options, lockView, webProvider, null);
 
 
@@ -365,4 +427,270 @@ public class PasswordlessLockActivityTest {
         verify(customProvider).authorize(eq(intent));
         AuthResolver.setAuthHandlers(Collections.emptyList());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldRestoreTheCodeSentStateWhenRecreated() throws Exception {
+        when(options.useCodePasswordless()).thenReturn(true);
+        final TestPasswordlessLockActivity activity = launch(PasswordlessMode.EMAIL_CODE);
+        activity.onPasswordlessAuthenticationRequest(PasswordlessLoginEvent.requestCode(PasswordlessMode.EMAIL_CODE, "email@domain.com"));
+        verify(codeRequest).start(callbackCaptor.capture());
+        callbackCaptor.getValue().onSuccess(null);
+        assertThat(isShowingTheCodeInput(activity), is(true));
+
+        recreate(activity);
+
+        assertThat(activity.createdLoaders, is(1));
+        assertThat(isShowingTheCodeInput(activity), is(true));
+    }
+
+    @Test
+    public void shouldShowTheCodeSentWhenTheRequestCompletesAfterTheRecreation() throws Exception {
+        when(options.useCodePasswordless()).thenReturn(true);
+        final TestPasswordlessLockActivity activity = launch(PasswordlessMode.EMAIL_CODE);
+        activity.onPasswordlessAuthenticationRequest(PasswordlessLoginEvent.requestCode(PasswordlessMode.EMAIL_CODE, "email@domain.com"));
+        verify(codeRequest).start(callbackCaptor.capture());
+
+        recreate(activity);
+        assertThat(isShowingTheCodeInput(activity), is(false));
+        callbackCaptor.getValue().onSuccess(null);
+
+        assertThat(isShowingTheCodeInput(activity), is(true));
+    }
+
+    @Test
+    public void shouldRestoreTheLinkSentStateWithTheRemainingResendDelay() throws Exception {
+        final TestPasswordlessLockActivity activity = launch(PasswordlessMode.EMAIL_LINK);
+        activity.onPasswordlessAuthenticationRequest(PasswordlessLoginEvent.requestCode(PasswordlessMode.EMAIL_LINK, "email@domain.com"));
+        verify(codeRequest).start(callbackCaptor.capture());
+        callbackCaptor.getValue().onSuccess(null);
+        ShadowLooper.idleMainLooper(15000);
+
+        recreate(activity);
+
+        final View linkSentCover = activity.findViewById(R.id.com_auth0_lock_link_sent_cover);
+        final View resendButton = linkSentCover.findViewById(R.id.com_auth0_lock_resend);
+        assertThat(linkSentCover.getVisibility(), is(View.VISIBLE));
+        assertThat(resendButton.getVisibility(), is(not(View.VISIBLE)));
+        ShadowLooper.idleMainLooper(4000);
+        assertThat(resendButton.getVisibility(), is(not(View.VISIBLE)));
+        ShadowLooper.idleMainLooper(1000);
+        assertThat(resendButton.getVisibility(), is(View.VISIBLE));
+    }
+
+    @Test
+    public void shouldSubmitTheLinkThatArrivedBeforeTheConfiguration() throws Exception {
+        final ConfigurationHolder holder = new ConfigurationHolder();
+        final TestPasswordlessLockActivity activity = launch(PasswordlessMode.EMAIL_LINK, fetchingLoader(holder), savedIdentity("email@domain.com"));
+
+        activity.onNewIntent(linkIntent("123456"));
+        verify(authRequest, never()).start(any(BaseCallback.class));
+        holder.publish(configuration);
+
+        verify(client).loginWithEmail("email@domain.com", "123456");
+        verify(authRequest).start(any(BaseCallback.class));
+        verify(codeRequest, never()).start(any(BaseCallback.class));
+    }
+
+    @Test
+    public void shouldSubmitTheLinkThatArrivedBeforeTheConfigurationOnlyOnceWithAStaleSnapshot() throws Exception {
+        final ConfigurationHolder holder = new ConfigurationHolder();
+        final TestPasswordlessLockActivity activity = launch(PasswordlessMode.EMAIL_LINK, fetchingLoader(holder), savedIdentity("email@domain.com"));
+        activity.onNewIntent(linkIntent("123456"));
+
+        holder.publish(configuration);
+        //the cached snapshot refreshed from the network arrives as a newer version
+        holder.publish(configuration);
+
+        verify(client).loginWithEmail("email@domain.com", "123456");
+        verify(authRequest).start(any(BaseCallback.class));
+    }
+
+    @Test
+    public void shouldReloadTheLastIdentityOnlyOnTheFirstConfigurationBind() throws Exception {
+        RuntimeEnvironment.application.getSharedPreferences("Lock", Context.MODE_PRIVATE).edit()
+                .putString("last_passwordless_identity", "email@domain.com")
+                .putInt("last_passwordless_mode", PasswordlessMode.EMAIL_LINK)
+                .commit();
+        when(configuration.usePasswordlessAutoSubmit()).thenReturn(true);
+        final ConfigurationHolder holder = new ConfigurationHolder();
+        final TestPasswordlessLockActivity activity = launch(PasswordlessMode.EMAIL_LINK, fetchingLoader(holder), null);
+
+        holder.publish(configuration);
+        verify(codeRequest).start(callbackCaptor.capture());
+        callbackCaptor.getValue().onFailure(mock(AuthenticationException.class));
+        passwordlessInput(activity).setText("other@domain.com");
+        holder.publish(configuration);
+        recreate(activity);
+
+        verify(client).passwordlessWithEmail("email@domain.com", PasswordlessType.ANDROID_LINK);
+        verify(codeRequest).start(any(BaseCallback.class));
+        assertThat(passwordlessInput(activity).getText().toString(), is("other@domain.com"));
+    }
+
+    @Test
+    public void shouldSubmitTheLinkThatArrivedAfterTheRecreation() throws Exception {
+        final TestPasswordlessLockActivity activity = launch(PasswordlessMode.EMAIL_LINK);
+        activity.onPasswordlessAuthenticationRequest(PasswordlessLoginEvent.requestCode(PasswordlessMode.EMAIL_LINK, "email@domain.com"));
+        verify(codeRequest).start(callbackCaptor.capture());
+        callbackCaptor.getValue().onSuccess(null);
+
+        recreate(activity);
+        activity.onNewIntent(linkIntent("123456"));
+
+        verify(client).passwordlessWithEmail("email@domain.com", PasswordlessType.ANDROID_LINK);
+        verify(client).loginWithEmail("email@domain.com", "123456");
+        verify(authRequest).start(any(BaseCallback.class));
+    }
+
+    @Test
+    public void shouldRequestTheCodeFromTheStandInAfterAServerError() throws Exception {
+        final Auth0StandIn standIn = new Auth0StandIn(1234);
+        try {
+            standIn.failNext(Auth0StandIn.Endpoint.PASSWORDLESS_START, 1, 503)
+                    .withLatency(Auth0StandIn.Endpoint.PASSWORDLESS_START, Auth0StandIn.Latency.fixed(CODE_REQUEST_LATENCY));
+            when(options.getAuthenticationAPIClient()).thenReturn(new AuthenticationAPIClient(new Auth0(Auth0StandIn.CLIENT_ID, standIn.getDomain())));
+            final TestPasswordlessLockActivity activity = launch(PasswordlessMode.EMAIL_CODE);
+            final PasswordlessLockView lockView = ReflectionHelpers.getField(activity, "lockView");
+            final View resultMessage = activity.findViewById(R.id.com_auth0_lock_result_message);
+            final long start = System.currentTimeMillis();
+
+            activity.onPasswordlessAuthenticationRequest(PasswordlessLoginEvent.requestCode(PasswordlessMode.EMAIL_CODE, "user@example.com"));
+            //a second submit while the first one is in flight must not reach the server
+            activity.onPasswordlessAuthenticationRequest(PasswordlessLoginEvent.requestCode(PasswordlessMode.EMAIL_CODE, "user@example.com"));
+            idleMainLooperUntil(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return resultMessage.getVisibility() == View.VISIBLE;
+                }
+            });
+            assertThat(standIn.getRequestCount(Auth0StandIn.Endpoint.PASSWORDLESS_START), is(1));
+            assertThat(lockView.isWaitingForCode(), is(false));
+
+            activity.onPasswordlessAuthenticationRequest(PasswordlessLoginEvent.requestCode(PasswordlessMode.EMAIL_CODE, "user@example.com"));
+            idleMainLooperUntil(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return lockView.isWaitingForCode();
+                }
+            });
+
+            assertThat(standIn.getRequestCount(Auth0StandIn.Endpoint.PASSWORDLESS_START), is(2));
+            assertThat(System.currentTimeMillis() - start, is(greaterThanOrEqualTo(2 * CODE_REQUEST_LATENCY)));
+        } finally {
+            standIn.shutdown();
+        }
+    }
+
+    private TestPasswordlessLockActivity launch(@PasswordlessMode int mode) {
+        return launch(mode, new ConfigurationLoader(options, new ConfigurationHolder(configuration)), null);
+    }
+
+    private TestPasswordlessLockActivity launch(@PasswordlessMode int mode, ConfigurationLoader loader, @Nullable Bundle savedInstanceState) {
+        when(configuration.hasPasswordlessConnections()).thenReturn(true);
+        when(configuration.getPasswordlessMode()).thenReturn(mode);
+        when(options.getTheme()).thenReturn(new Options().getTheme());
+        final Intent intent = new Intent(RuntimeEnvironment.application, TestPasswordlessLockActivity.class);
+        intent.putExtra(Constants.OPTIONS_EXTRA, options);
+        final ActivityController<TestPasswordlessLockActivity> controller = Robolectric.buildActivity(TestPasswordlessLockActivity.class).withIntent(intent);
+        controller.get().loader = loader;
+        return controller.create(savedInstanceState).start().resume().visible().get();
+    }
+
+    /**
+     * The stand-in answers on a background thread, and the result is posted back to the main looper.
+     */
+    private static void idleMainLooperUntil(Callable<Boolean> condition) throws Exception {
+        final long deadline = System.currentTimeMillis() + STAND_IN_TIMEOUT;
+        while (!condition.call()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("The stand-in didn't answer in time");
+            }
+            Thread.sleep(10);
+            ShadowLooper.idleMainLooper();
+        }
+    }
+
+    private static ConfigurationLoader fetchingLoader(ConfigurationHolder holder) {
+        final ConfigurationLoader loader = mock(ConfigurationLoader.class);
+        when(loader.getHolder()).thenReturn(holder);
+        when(loader.isFetching()).thenReturn(true);
+        return loader;
+    }
+
+    /**
+     * The state saved by an instance that requested a link before the process was killed.
+     */
+    private static Bundle savedIdentity(String email) {
+        final Bundle savedInstanceState = new Bundle();
+        savedInstanceState.putString("com.auth0.android.lock.key.LastPasswordlessIdentity", email);
+        return savedInstanceState;
+    }
+
+    private static EditText passwordlessInput(Activity activity) {
+        return (EditText) activity.findViewById(R.id.com_auth0_lock_input_passwordless).findViewById(R.id.com_auth0_lock_input);
+    }
+
+    private static Intent linkIntent(String code) {
+        final Intent intent = new Intent(Intent.ACTION_VIEW);
+        intent.setData(Uri.parse("https://domain.auth0.com/android/com.auth0.app/email?code=" + code));
+        return intent;
+    }
+
+    private static boolean isShowingTheCodeInput(Activity activity) {
+        final View input = activity.findViewById(R.id.com_auth0_lock_input_passwordless);
+        ViewParent parent = input != null ? input.getParent() : null;
+        while (parent != null && !(parent instanceof PasswordlessInputCodeFormView)) {
+            parent = parent.getParent();
+        }
+        return parent != null;
+    }
+
+    /**
+     * Robolectric recreates the same instance and doesn't flag the configuration change by itself.
+     */
+    private static void recreate(Activity activity) {
+        ReflectionHelpers.setField(activity, "mChangingConfigurations", true);
+        activity.recreate();
+        ReflectionHelpers.setField(activity, "mChangingConfigurations", false);
+    }
+
+    private static void stubParameterTemplates(Configuration configuration, final Options options) {
+        doAnswer(new Answer<ParameterTemplate>() {
+            @Override
+            public ParameterTemplate answer(InvocationOnMock invocation) throws Throwable {
+                return ParameterTemplate.forAuthentication(options);
+            }
+        }).when(configuration).getAuthenticationParameters();
+        doAnswer(new Answer<ParameterTemplate>() {
+            @Override
+            public ParameterTemplate answer(InvocationOnMock invocation) throws Throwable {
+                return ParameterTemplate.forAuthorize(options, (String) invocation.getArguments()[0]);
+            }
+        }).when(configuration).getAuthorizeParameters(anyString());
+    }
+
+    public static class TestPasswordlessLockActivity extends PasswordlessLockActivity {
+
+        ConfigurationLoader loader;
+        int createdLoaders;
+
+        @Override
+        protected void onCreate(@Nullable Bundle savedInstanceState) {
+            setTheme(R.style.Lock_Theme);
+            super.onCreate(savedInstanceState);
+        }
+
+        @Override
+        ConfigurationLoader createConfigurationLoader() {
+            createdLoaders++;
+            return loader;
+        }
+
+        //Otto only looks for subscribers in the registered class, not in its parents
+        @Subscribe
+        @Override
+        public void onPasswordlessAuthenticationRequest(PasswordlessLoginEvent event) {
+            super.onPasswordlessAuthenticationRequest(event);
+        }
+    }
+}
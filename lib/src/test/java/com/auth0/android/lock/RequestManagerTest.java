@@ -0,0 +1,126 @@
+/*
+ * RequestManagerTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import com.auth0.android.authentication.AuthenticationException;
+import com.auth0.android.callback.AuthenticationCallback;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class RequestManagerTest {
+
+    @Mock
+    AuthenticationCallback<String> callback;
+    @Mock
+    RequestManager.Cancellable call;
+    private RequestManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        manager = new RequestManager();
+    }
+
+    @Test
+    public void shouldDeliverSuccessWhileNotCancelled() throws Exception {
+        AuthenticationCallback<String> tracked = manager.track(callback);
+        assertThat(manager.getOutstandingCount(), is(1));
+
+        tracked.onSuccess("result");
+        verify(callback).onSuccess("result");
+        assertThat(manager.getOutstandingCount(), is(0));
+    }
+
+    @Test
+    public void shouldDeliverFailureWhileNotCancelled() throws Exception {
+        AuthenticationException error = mock(AuthenticationException.class);
+        AuthenticationCallback<String> tracked = manager.track(callback);
+
+        tracked.onFailure(error);
+        verify(callback).onFailure(error);
+        assertThat(manager.getOutstandingCount(), is(0));
+    }
+
+    @Test
+    public void shouldHaveOutstandingCallsUntilTheResultArrives() throws Exception {
+        assertThat(manager.hasOutstanding(), is(false));
+        AuthenticationCallback<String> tracked = manager.track(callback);
+        assertThat(manager.hasOutstanding(), is(true));
+
+        tracked.onSuccess("result");
+        assertThat(manager.hasOutstanding(), is(false));
+    }
+
+    @Test
+    public void shouldDropResultsAfterCancel() throws Exception {
+        AuthenticationCallback<String> tracked = manager.track(callback);
+        manager.cancelAll();
+
+        tracked.onSuccess("result");
+        tracked.onFailure(mock(AuthenticationException.class));
+        verify(callback, never()).onSuccess(any(String.class));
+        verify(callback, never()).onFailure(any(AuthenticationException.class));
+        assertThat(manager.isCancelled(), is(true));
+    }
+
+    @Test
+    public void shouldCancelRunningCalls() throws Exception {
+        manager.track(callback, call);
+        manager.cancelAll();
+
+        verify(call).cancel();
+        assertThat(manager.getOutstandingCount(), is(0));
+    }
+
+    @Test
+    public void shouldNotCancelFinishedCalls() throws Exception {
+        AuthenticationCallback<String> tracked = manager.track(callback, call);
+        tracked.onSuccess("result");
+        manager.cancelAll();
+
+        verify(call, never()).cancel();
+    }
+
+    @Test
+    public void shouldNotDeliverCallbacksTrackedAfterCancel() throws Exception {
+        manager.cancelAll();
+        AuthenticationCallback<String> tracked = manager.track(callback);
+
+        tracked.onSuccess("result");
+        verify(callback, never()).onSuccess(any(String.class));
+        assertThat(manager.getOutstandingCount(), is(0));
+    }
+}
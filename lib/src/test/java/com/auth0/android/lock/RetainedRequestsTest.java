@@ -0,0 +1,134 @@
+/*
+ * RetainedRequestsTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+
+package com.auth0.android.lock;
+
+import com.auth0.android.callback.AuthenticationCallback;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class RetainedRequestsTest {
+
+    private static final String KEY = SingleFlight.key(SingleFlight.ACTION_LOG_IN, "Username-Password-Authentication", "john@doe.com");
+
+    @Mock
+    AuthenticationCallback<String> callback;
+    @Mock
+    RetainedRequests.HostAction<Object> firstAction;
+    @Mock
+    RetainedRequests.HostAction<Object> secondAction;
+    private RetainedRequests<Object> requests;
+    private Object host;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        requests = new RetainedRequests<>();
+        host = new Object();
+    }
+
+    @Test
+    public void shouldRunTheActionWithTheAttachedHost() throws Exception {
+        requests.attach(host);
+
+        requests.runOnHost(firstAction);
+        ShadowLooper.idleMainLooper();
+
+        verify(firstAction).run(host);
+    }
+
+    @Test
+    public void shouldKeepTheActionsUntilTheNextHostRunsThem() throws Exception {
+        requests.attach(new Object());
+        requests.detach();
+        assertThat(requests.getHost(), is(nullValue()));
+
+        requests.runOnHost(firstAction);
+        requests.runOnHost(secondAction);
+        ShadowLooper.idleMainLooper();
+        requests.attach(host);
+        verify(firstAction, never()).run(host);
+
+        requests.runPendingActions();
+        InOrder order = inOrder(firstAction, secondAction);
+        order.verify(firstAction).run(host);
+        order.verify(secondAction).run(host);
+    }
+
+    @Test
+    public void shouldDropThePendingActionsOnRelease() throws Exception {
+        ShadowLooper.pauseMainLooper();
+        requests.runOnHost(firstAction);
+        requests.release();
+        ShadowLooper.unPauseMainLooper();
+        requests.attach(host);
+        requests.runPendingActions();
+
+        verify(firstAction, never()).run(host);
+    }
+
+    @Test
+    public void shouldStartTheSameRequestAgainOnceTheResultArrives() throws Exception {
+        assertThat(requests.acquire(KEY), is(true));
+        AuthenticationCallback<String> tracked = requests.track(KEY, callback);
+        assertThat(requests.acquire(KEY), is(false));
+        assertThat(requests.hasOutstanding(), is(true));
+
+        tracked.onSuccess("result");
+        verify(callback).onSuccess("result");
+        assertThat(requests.hasOutstanding(), is(false));
+        assertThat(requests.acquire(KEY), is(true));
+    }
+
+    @Test
+    public void shouldDropTheResultsOnRelease() throws Exception {
+        requests.acquire(KEY);
+        AuthenticationCallback<String> tracked = requests.track(KEY, callback);
+
+        requests.release();
+        tracked.onSuccess("result");
+        verify(callback, never()).onSuccess(anyString());
+    }
+}
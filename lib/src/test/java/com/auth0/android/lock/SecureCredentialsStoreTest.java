@@ -0,0 +1,203 @@
+/*
+ * SecureCredentialsStoreTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.result.Credentials;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class SecureCredentialsStoreTest {
+
+    private static final String ACCOUNT = "clientId@https://domain.auth0.com/";
+    private static final String OTHER_ACCOUNT = "otherClientId@https://other.auth0.com/";
+
+    private SharedPreferences preferences;
+    private long now;
+
+    @Before
+    public void setUp() throws Exception {
+        preferences = RuntimeEnvironment.application.getSharedPreferences("test-credentials", Context.MODE_PRIVATE);
+        preferences.edit().clear().commit();
+        now = 1000000L;
+    }
+
+    @Test
+    public void shouldTrackExpirationWithElapsedTime() throws Exception {
+        SecureCredentialsStore store = new TestStore(ACCOUNT, false);
+        store.save(new Credentials("idToken", "accessToken", "bearer", "refreshToken", 3600L));
+
+        now += 600 * 1000;
+        Credentials loaded = store.load();
+
+        assertThat(loaded, is(notNullValue()));
+        assertThat(loaded.getIdToken(), is("idToken"));
+        assertThat(loaded.getAccessToken(), is("accessToken"));
+        assertThat(loaded.getType(), is("bearer"));
+        assertThat(loaded.getRefreshToken(), is("refreshToken"));
+        assertThat(loaded.getExpiresIn(), is(3000L));
+    }
+
+    @Test
+    public void shouldNotReportNegativeExpiration() throws Exception {
+        SecureCredentialsStore store = new TestStore(ACCOUNT, false);
+        store.save(new Credentials("idToken", "accessToken", "bearer", null, 60L));
+
+        now += 3600 * 1000;
+
+        assertThat(store.load().getExpiresIn(), is(0L));
+    }
+
+    @Test
+    public void shouldNotWriteToDiskWhenNotPersistent() throws Exception {
+        SecureCredentialsStore store = new TestStore(ACCOUNT, false);
+        store.save(new Credentials("idToken", "accessToken", "bearer", null, 3600L));
+
+        assertThat(preferences.getAll().isEmpty(), is(true));
+        assertThat(store.load(), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldWriteEncryptedDataWhenPersistent() throws Exception {
+        SecureCredentialsStore store = new TestStore(ACCOUNT, true);
+        store.save(new Credentials("idToken", "accessToken", "bearer", null, 3600L));
+
+        assertThat(preferences.getString(ACCOUNT + "/data", null), is(notNullValue()));
+        assertThat(preferences.getString(ACCOUNT + "/data", null), not(containsString("accessToken")));
+        Credentials loaded = new TestStore(ACCOUNT, true).load();
+        assertThat(loaded, is(notNullValue()));
+        assertThat(loaded.getAccessToken(), is("accessToken"));
+    }
+
+    @Test
+    public void shouldClear() throws Exception {
+        SecureCredentialsStore store = new TestStore(ACCOUNT, true);
+        store.save(new Credentials("idToken", "accessToken", "bearer", null, 3600L));
+
+        store.clear();
+
+        assertThat(store.load(), is(nullValue()));
+        assertThat(preferences.getAll().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldNotSaveCredentialsWithoutExpiration() throws Exception {
+        SecureCredentialsStore store = new TestStore(ACCOUNT, false);
+        store.save(new Credentials("idToken", "accessToken", "bearer", null, null));
+
+        assertThat(store.load(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReturnNullOnCorruptedData() throws Exception {
+        assertThat(SecureCredentialsStore.deserialize("{not json", ACCOUNT, now), is(nullValue()));
+    }
+
+    @Test
+    public void shouldKeepTheCredentialsOfEachAccountApart() throws Exception {
+        SecureCredentialsStore store = new TestStore(ACCOUNT, true);
+        SecureCredentialsStore otherStore = new TestStore(OTHER_ACCOUNT, true);
+        store.save(new Credentials("idToken", "accessToken", "bearer", null, 3600L));
+
+        assertThat(otherStore.load(), is(nullValue()));
+
+        otherStore.save(new Credentials("otherIdToken", "otherAccessToken", "bearer", null, 3600L));
+        assertThat(store.load().getAccessToken(), is("accessToken"));
+        assertThat(otherStore.load().getAccessToken(), is("otherAccessToken"));
+
+        otherStore.clear();
+        assertThat(otherStore.load(), is(nullValue()));
+        assertThat(store.load().getAccessToken(), is("accessToken"));
+    }
+
+    @Test
+    public void shouldNotReturnTheCredentialsOfAnotherAccount() throws Exception {
+        String data = SecureCredentialsStore.serialize(new Credentials("idToken", "accessToken", "bearer", null, 3600L), OTHER_ACCOUNT, now);
+
+        assertThat(SecureCredentialsStore.deserialize(data, ACCOUNT, now), is(nullValue()));
+        assertThat(SecureCredentialsStore.deserialize(data, OTHER_ACCOUNT, now), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldBelongToTheAccountItWasCreatedFor() throws Exception {
+        Auth0 account = new Auth0("clientId", "domain.auth0.com");
+        Auth0 otherAccount = new Auth0("otherClientId", "other.auth0.com");
+        SecureCredentialsStore store = new TestStore(LockManager.keyFor(account), true);
+
+        assertThat(store.belongsTo(account), is(true));
+        assertThat(store.belongsTo(otherAccount), is(false));
+    }
+
+    /**
+     * The AndroidKeyStore provider is not available on the JVM, so a reversible transformation is used instead.
+     */
+    private class TestStore extends SecureCredentialsStore {
+
+        TestStore(String account, boolean persistent) {
+            super(preferences, account, persistent);
+        }
+
+        @Override
+        long currentTimeMillis() {
+            return now;
+        }
+
+        @Override
+        byte[][] encrypt(byte[] input) {
+            return new byte[][]{new byte[]{1}, xor(input)};
+        }
+
+        @Override
+        byte[] decrypt(byte[] iv, byte[] input) {
+            return xor(input);
+        }
+
+        private byte[] xor(byte[] input) {
+            byte[] output = new byte[input.length];
+            for (int i = 0; i < input.length; i++) {
+                output[i] = (byte) (input[i] ^ 0x5A);
+            }
+            return output;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * SingleFlightTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.util.Log;
+
+import com.auth0.android.authentication.AuthenticationException;
+import com.auth0.android.callback.AuthenticationCallback;
+import com.auth0.android.lock.internal.logging.LockLog;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class SingleFlightTest {
+
+    private static final String KEY = SingleFlight.key(SingleFlight.ACTION_LOG_IN, "Username-Password-Authentication", "john@doe.com");
+
+    @Mock
+    AuthenticationCallback<String> callback;
+    private SingleFlight singleFlight;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        singleFlight = new SingleFlight();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        LockLog.setLogger(null);
+        LockLog.setLevel(LockLog.DEFAULT_LEVEL);
+    }
+
+    @Test
+    public void shouldBuildDifferentKeysForDifferentActionsOrIdentities() throws Exception {
+        assertThat(SingleFlight.key(SingleFlight.ACTION_SIGN_UP, "Username-Password-Authentication", "john@doe.com"), is(not(KEY)));
+        assertThat(SingleFlight.key(SingleFlight.ACTION_LOG_IN, "Username-Password-Authentication", "jane@doe.com"), is(not(KEY)));
+        assertThat(SingleFlight.key(SingleFlight.ACTION_LOG_IN, "other-connection", "john@doe.com"), is(not(KEY)));
+    }
+
+    @Test
+    public void shouldAcquireFirstRequest() throws Exception {
+        assertThat(singleFlight.acquire(KEY), is(true));
+        assertThat(singleFlight.isInFlight(KEY), is(true));
+        assertThat(singleFlight.getSuppressedCount(), is(0));
+    }
+
+    @Test
+    public void shouldSuppressDuplicatesWhileInFlight() throws Exception {
+        singleFlight.acquire(KEY);
+
+        assertThat(singleFlight.acquire(KEY), is(false));
+        assertThat(singleFlight.acquire(KEY), is(false));
+        assertThat(singleFlight.getSuppressedCount(), is(2));
+        assertThat(singleFlight.getInFlightCount(), is(1));
+    }
+
+    @Test
+    public void shouldNotSuppressDifferentKeys() throws Exception {
+        singleFlight.acquire(KEY);
+
+        assertThat(singleFlight.acquire(SingleFlight.key(SingleFlight.ACTION_LOG_IN, "Username-Password-Authentication", "jane@doe.com")), is(true));
+        assertThat(singleFlight.getSuppressedCount(), is(0));
+        assertThat(singleFlight.getInFlightCount(), is(2));
+    }
+
+    @Test
+    public void shouldReleaseOnSuccess() throws Exception {
+        singleFlight.acquire(KEY);
+        AuthenticationCallback<String> releasing = singleFlight.releasing(KEY, callback);
+
+        releasing.onSuccess("result");
+        verify(callback).onSuccess("result");
+        assertThat(singleFlight.isInFlight(KEY), is(false));
+        assertThat(singleFlight.acquire(KEY), is(true));
+    }
+
+    @Test
+    public void shouldReleaseOnFailure() throws Exception {
+        AuthenticationException error = mock(AuthenticationException.class);
+        singleFlight.acquire(KEY);
+        AuthenticationCallback<String> releasing = singleFlight.releasing(KEY, callback);
+
+        releasing.onFailure(error);
+        verify(callback).onFailure(error);
+        assertThat(singleFlight.isInFlight(KEY), is(false));
+        assertThat(singleFlight.acquire(KEY), is(true));
+    }
+
+    @Test
+    public void shouldNotLogTheIdentityOfASuppressedRequest() throws Exception {
+        LockLogger logger = mock(LockLogger.class);
+        LockLog.setLogger(logger);
+        LockLog.setLevel(Log.VERBOSE);
+        singleFlight.acquire(KEY);
+
+        singleFlight.acquire(KEY);
+
+        ArgumentCaptor<String> messageCaptor = ArgumentCaptor.forClass(String.class);
+        verify(logger).log(anyInt(), anyString(), messageCaptor.capture(), any(Throwable.class));
+        assertThat(messageCaptor.getValue(), containsString("log_in/Username-Password-Authentication "));
+        assertThat(messageCaptor.getValue(), not(containsString("john")));
+        assertThat(messageCaptor.getValue(), not(containsString("doe.com")));
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * WebProviderWarmUpTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock;
+
+import android.support.annotation.NonNull;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.OAuthConnection;
+import com.auth0.android.lock.internal.configuration.Options;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs on the plain JVM: the browser service is replaced by a fake that records the calls.
+ */
+public class WebProviderWarmUpTest {
+
+    private Options options;
+    private Configuration configuration;
+    private ConnectionHistory history;
+    private FakeBrowserWarmUp browser;
+    private WebProvider webProvider;
+
+    @Before
+    public void setUp() throws Exception {
+        Auth0 account = mock(Auth0.class);
+        when(account.getDomainUrl()).thenReturn("https://tenant.auth0.com/");
+        when(account.getClientId()).thenReturn("clientId");
+        options = mock(Options.class);
+        when(options.getAccount()).thenReturn(account);
+        configuration = mock(Configuration.class);
+        when(configuration.getEnterpriseConnections()).thenReturn(Collections.<OAuthConnection>emptyList());
+        history = mock(ConnectionHistory.class);
+        browser = new FakeBrowserWarmUp();
+        webProvider = new WebProvider(options, browser, history);
+    }
+
+    @Test
+    public void shouldNotWarmUpWithoutWebConnections() throws Exception {
+        when(configuration.getSocialConnections()).thenReturn(Collections.<OAuthConnection>emptyList());
+
+        webProvider.warmUp(configuration);
+
+        assertThat(browser.warmedUp, is(false));
+        assertThat(browser.urls, is(nullValue()));
+    }
+
+    @Test
+    public void shouldHintTheConnectionsInDisplayOrder() throws Exception {
+        when(configuration.getSocialConnections()).thenReturn(connections("google-oauth2", "facebook"));
+
+        webProvider.warmUp(configuration);
+
+        assertThat(browser.warmedUp, is(true));
+        assertThat(browser.urls, hasSize(2));
+        assertThat(browser.urls.get(0), startsWith("https://tenant.auth0.com/authorize?"));
+        assertThat(browser.urls.get(0), containsString("client_id=clientId"));
+        assertThat(browser.urls.get(0), containsString("connection=google-oauth2"));
+        assertThat(browser.urls.get(1), containsString("connection=facebook"));
+    }
+
+    @Test
+    public void shouldHintTheLastUsedConnectionFirst() throws Exception {
+        when(configuration.getSocialConnections()).thenReturn(connections("google-oauth2", "facebook", "twitter"));
+        when(history.getLastUsed()).thenReturn("twitter");
+
+        webProvider.warmUp(configuration);
+
+        assertThat(browser.urls.get(0), containsString("connection=twitter"));
+        assertThat(browser.urls.get(1), containsString("connection=google-oauth2"));
+    }
+
+    @Test
+    public void shouldIgnoreLastUsedConnectionIfNoLongerAvailable() throws Exception {
+        when(configuration.getSocialConnections()).thenReturn(connections("google-oauth2"));
+        when(history.getLastUsed()).thenReturn("twitter");
+
+        webProvider.warmUp(configuration);
+
+        assertThat(browser.urls, hasSize(1));
+        assertThat(browser.urls.get(0), containsString("connection=google-oauth2"));
+    }
+
+    @Test
+    public void shouldLimitTheNumberOfHints() throws Exception {
+        when(configuration.getSocialConnections()).thenReturn(connections("a", "b", "c", "d", "e"));
+
+        webProvider.warmUp(configuration);
+
+        assertThat(browser.urls, hasSize(WebProvider.MAX_URL_HINTS));
+    }
+
+    @Test
+    public void shouldSkipEnterpriseConnectionsUsingActiveFlow() throws Exception {
+        when(configuration.getSocialConnections()).thenReturn(Collections.<OAuthConnection>emptyList());
+        List<OAuthConnection> enterprise = connections("ad-connection", "saml-connection");
+        when(enterprise.get(0).isActiveFlowEnabled()).thenReturn(true);
+        when(configuration.getEnterpriseConnections()).thenReturn(enterprise);
+
+        webProvider.warmUp(configuration);
+
+        assertThat(browser.urls, hasSize(1));
+        assertThat(browser.urls.get(0), containsString("connection=saml-connection"));
+    }
+
+    @Test
+    public void shouldNotWarmUpWithoutBrowserWarmUp() throws Exception {
+        when(configuration.getSocialConnections()).thenReturn(connections("google-oauth2"));
+
+        new WebProvider(options).warmUp(configuration);
+        new WebProvider(options).release();
+    }
+
+    @Test
+    public void shouldReleaseTheBrowser() throws Exception {
+        webProvider.release();
+
+        assertThat(browser.released, is(true));
+    }
+
+    @Test
+    public void shouldBuildCandidatesFromHistory() throws Exception {
+        when(configuration.getSocialConnections()).thenReturn(connections("google-oauth2", "facebook"));
+        when(history.getLastUsed()).thenReturn("facebook");
+
+        webProvider.warmUp(configuration);
+
+        verify(history).getLastUsed();
+        assertThat(connectionNames(browser.urls), contains("facebook", "google-oauth2"));
+    }
+
+    private static List<OAuthConnection> connections(String... names) {
+        List<OAuthConnection> connections = new ArrayList<>();
+        for (String name : names) {
+            OAuthConnection connection = mock(OAuthConnection.class);
+            when(connection.getName()).thenReturn(name);
+            connections.add(connection);
+        }
+        return connections;
+    }
+
+    private static List<String> connectionNames(List<String> urls) {
+        List<String> names = new ArrayList<>();
+        for (String url : urls) {
+            names.add(url.substring(url.indexOf("connection=") + "connection=".length()));
+        }
+        return names;
+    }
+
+    private static class FakeBrowserWarmUp implements BrowserWarmUp {
+        boolean warmedUp;
+        boolean released;
+        List<String> urls;
+
+        @Override
+        public void warmUp() {
+            warmedUp = true;
+        }
+
+        @Override
+        public void mayLaunchUrls(@NonNull List<String> urls) {
+            this.urls = new ArrayList<>(urls);
+        }
+
+        @Override
+        public void release() {
+            released = true;
+        }
+    }
+}
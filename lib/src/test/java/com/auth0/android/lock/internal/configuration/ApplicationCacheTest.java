@@ -0,0 +1,148 @@
+/*
+ * ApplicationCacheTest.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.configuration;
+
+import com.auth0.android.Auth0;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class ApplicationCacheTest {
+
+    private static final String BODY = "Auth0.setClient({\"id\":\"client_id\"});";
+
+    private File directory;
+    private TestCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = new File(RuntimeEnvironment.application.getCacheDir(), "application_cache_test");
+        cache = new TestCache(directory);
+        cache.clear();
+    }
+
+    @Test
+    public void shouldBeEmptyByDefault() throws Exception {
+        assertThat(cache.hasBody(), is(false));
+        assertThat(cache.readBody(), is(nullValue()));
+        assertThat(cache.getETag(), is(nullValue()));
+        assertThat(cache.getLastModified(), is(nullValue()));
+        assertThat(cache.getUpdatedAt(), is(0L));
+    }
+
+    @Test
+    public void shouldWriteTheBodyAndValidators() throws Exception {
+        cache.time = 1000;
+        cache.write(BODY, "\"v1\"", "Wed, 21 Oct 2015 07:28:00 GMT");
+
+        assertThat(cache.hasBody(), is(true));
+        assertThat(cache.readBody(), is(BODY));
+        assertThat(cache.getETag(), is("\"v1\""));
+        assertThat(cache.getLastModified(), is("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertThat(cache.getUpdatedAt(), is(1000L));
+    }
+
+    @Test
+    public void shouldReplaceThePreviousValidators() throws Exception {
+        cache.write(BODY, "\"v1\"", "Wed, 21 Oct 2015 07:28:00 GMT");
+        cache.write(BODY, "\"v2\"", null);
+
+        assertThat(cache.getETag(), is("\"v2\""));
+        assertThat(cache.getLastModified(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldKeepTheCacheAcrossInstances() throws Exception {
+        cache.write(BODY, "\"v1\"", null);
+
+        final ApplicationCache other = new ApplicationCache(directory, "client_id");
+        assertThat(other.readBody(), is(BODY));
+        assertThat(other.getETag(), is("\"v1\""));
+    }
+
+    @Test
+    public void shouldNotShareTheCacheBetweenClients() throws Exception {
+        cache.write(BODY, "\"v1\"", null);
+
+        final ApplicationCache other = new ApplicationCache(directory, "other_client_id");
+        assertThat(other.hasBody(), is(false));
+    }
+
+    @Test
+    public void shouldTouchTheUpdateTime() throws Exception {
+        cache.time = 1000;
+        cache.write(BODY, "\"v1\"", null);
+        cache.time = 5000;
+        cache.touch();
+
+        assertThat(cache.getUpdatedAt(), is(5000L));
+        assertThat(cache.getETag(), is("\"v1\""));
+        assertThat(cache.readBody(), is(BODY));
+    }
+
+    @Test
+    public void shouldClear() throws Exception {
+        cache.write(BODY, "\"v1\"", null);
+        cache.clear();
+
+        assertThat(cache.hasBody(), is(false));
+        assertThat(cache.getETag(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldCreateTheCacheForTheAccount() throws Exception {
+        final ApplicationCache accountCache = ApplicationCache.forAccount(RuntimeEnvironment.application, new Auth0("account_client_id", "domain.auth0.com"));
+        accountCache.clear();
+        accountCache.write(BODY, null, null);
+
+        assertThat(new File(RuntimeEnvironment.application.getCacheDir(), "com_auth0_lock/account_client_id.js").exists(), is(true));
+        accountCache.clear();
+    }
+
+    private static class TestCache extends ApplicationCache {
+        long time;
+
+        TestCache(File directory) {
+            super(directory, "client_id");
+        }
+
+        @Override
+        long currentTimeMillis() {
+            return time;
+        }
+    }
+}
@@ -39,10 +39,18 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
 
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
 import java.util.List;
 
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 @RunWith(RobolectricGradleTestRunner.class)
@@ -50,6 +58,8 @@ import static org.junit.Assert.assertThat;
 public class ApplicationFetcherTest {
 
     private ApplicationFetcher appFetcher;
+    private ApplicationFetcher cachedAppFetcher;
+    private ApplicationCache cache;
     private ApplicationAPI mockAPI;
 
     @Before
@@ -61,6 +71,9 @@ public class ApplicationFetcherTest {
         Mockito.when(options.getAccount()).thenReturn(account);
         OkHttpClient client = new OkHttpClient();
         appFetcher = new ApplicationFetcher(account, client);
+        cache = new ApplicationCache(RuntimeEnvironment.application.getCacheDir(), "client_id");
+        cache.clear();
+        cachedAppFetcher = new ApplicationFetcher(account, client, cache);
     }
 
     @After
@@ -91,4 +104,112 @@ public class ApplicationFetcherTest {
         assertThat(callback.getError(), CoreMatchers.instanceOf(Auth0Exception.class));
         assertThat(callback.getError().getCause().getCause().getMessage(), CoreMatchers.containsString("Invalid App Info JSONP"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldFailWhenCancelledBeforeTheRequestIsMade() throws Exception {
+        mockAPI.willReturnValidJSONPResponse();
+        final MockAuthenticationCallback<List<Connection>> callback = new MockAuthenticationCallback<>();
+        appFetcher.cancel();
+        appFetcher.fetch(callback);
+
+        TypeToken<List<Connection>> applicationType = new TypeToken<List<Connection>>(){};
+        assertThat(callback, Auth0AuthenticationCallbackMatcher.hasNoPayloadOfType(applicationType));
+        assertThat(callback.getError(), CoreMatchers.instanceOf(Auth0Exception.class));
+    }
+
+    @Test
+    public void shouldReadApplicationSnapshot() throws Exception {
+        final FileInputStream input = new FileInputStream("src/test/resources/appinfo.json");
+        final List<Connection> connections = ApplicationFetcher.readSnapshot(input);
+        input.close();
+
+        assertThat(connections, is(notNullValue()));
+        assertThat(connections.isEmpty(), is(false));
+    }
+
+    @Test(expected = Auth0Exception.class)
+    public void shouldFailToReadInvalidApplicationSnapshot() throws Exception {
+        ApplicationFetcher.readSnapshot(new ByteArrayInputStream("{\"strategies\": []}".getBytes("UTF-8")));
+    }
+
+    @Test(expected = Auth0Exception.class)
+    public void shouldFailToReadEmptyApplicationSnapshot() throws Exception {
+        ApplicationFetcher.readSnapshot(new ByteArrayInputStream(new byte[0]));
+    }
+
+    @Test
+    public void shouldReturnNullWhenNoSnapshotIsBundled() throws Exception {
+        assertThat(appFetcher.readSnapshot(RuntimeEnvironment.application.getAssets()), is(nullValue()));
+    }
+
+    @Test
+    public void shouldCacheTheReceivedApplication() throws Exception {
+        mockAPI.willReturnValidJSONPResponseWithETag("\"v1\"");
+        final MockAuthenticationCallback<List<Connection>> callback = new MockAuthenticationCallback<>();
+        cachedAppFetcher.fetch(callback);
+        mockAPI.takeRequest();
+
+        TypeToken<List<Connection>> applicationType = new TypeToken<List<Connection>>(){};
+        assertThat(callback, Auth0AuthenticationCallbackMatcher.hasPayloadOfType(applicationType));
+        assertThat(cache.getETag(), is("\"v1\""));
+        assertThat(cachedAppFetcher.readCached(), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldNotCacheAnInvalidApplication() throws Exception {
+        mockAPI.willReturnInvalidJSONPLengthResponse();
+        final MockAuthenticationCallback<List<Connection>> callback = new MockAuthenticationCallback<>();
+        cachedAppFetcher.fetch(callback);
+        mockAPI.takeRequest();
+
+        assertThat(callback.getError(), is(notNullValue()));
+        assertThat(cache.hasBody(), is(false));
+    }
+
+    @Test
+    public void shouldReturnNullWhenNothingIsCached() throws Exception {
+        assertThat(cachedAppFetcher.readCached(), is(nullValue()));
+        assertThat(appFetcher.readCached(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldRevalidateTheCachedApplication() throws Exception {
+        mockAPI.willReturnValidJSONPResponseWithETag("\"v1\"")
+                .willReturnNotModified();
+
+        assertThat(cachedAppFetcher.refresh(), is(true));
+        final RecordedRequest first = mockAPI.takeRequest();
+        assertThat(first.getHeader("If-None-Match"), is(nullValue()));
+
+        assertThat(cachedAppFetcher.refresh(), is(false));
+        final RecordedRequest second = mockAPI.takeRequest();
+        assertThat(second.getHeader("If-None-Match"), is("\"v1\""));
+        assertThat(cachedAppFetcher.readCached(), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldDeliverTheCachedApplicationWhenNotModified() throws Exception {
+        mockAPI.willReturnValidJSONPResponseWithETag("\"v1\"")
+                .willReturnNotModified();
+        cachedAppFetcher.refresh();
+        mockAPI.takeRequest();
+
+        final MockAuthenticationCallback<List<Connection>> callback = new MockAuthenticationCallback<>();
+        cachedAppFetcher.fetch(callback);
+        final RecordedRequest request = mockAPI.takeRequest();
+
+        assertThat(request.getHeader("If-None-Match"), is("\"v1\""));
+        TypeToken<List<Connection>> applicationType = new TypeToken<List<Connection>>(){};
+        assertThat(callback, Auth0AuthenticationCallbackMatcher.hasPayloadOfType(applicationType));
+    }
+
+    @Test(expected = Auth0Exception.class)
+    public void shouldFailToRefreshAnInvalidApplication() throws Exception {
+        mockAPI.willReturnInvalidJSONPLengthResponse();
+        try {
+            cachedAppFetcher.refresh();
+        } finally {
+            assertThat(cache.hasBody(), is(false));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * BreachedPasswordFilterTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.configuration;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class BreachedPasswordFilterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    private List<String> passwords;
+
+    @Before
+    public void setUp() throws Exception {
+        passwords = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            passwords.add("breached-" + i);
+        }
+        passwords.addAll(Arrays.asList("123456", "password", "qwerty", "contraseña"));
+    }
+
+    @Test
+    public void shouldContainEveryWrittenPassword() throws Exception {
+        final BreachedPasswordFilter filter = BreachedPasswordFilter.open(writeFile(0.01));
+
+        for (String password : passwords) {
+            assertThat(filter.mightContain(password), is(true));
+        }
+    }
+
+    @Test
+    public void shouldKeepTheFalsePositiveRateNearTheRequestedOne() throws Exception {
+        final BreachedPasswordFilter filter = BreachedPasswordFilter.open(writeFile(0.01));
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("not-breached-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives, is(lessThan(300)));
+    }
+
+    @Test
+    public void shouldUseMoreBitsForALowerFalsePositiveRate() throws Exception {
+        final BreachedPasswordFilter coarse = BreachedPasswordFilter.open(writeFile(0.05));
+        final BreachedPasswordFilter fine = BreachedPasswordFilter.open(writeFile(0.001));
+
+        assertThat(fine.getBitCount(), is(greaterThan(coarse.getBitCount())));
+        assertThat(fine.getHashCount(), is(greaterThan(coarse.getHashCount())));
+    }
+
+    @Test
+    public void shouldOpenAFilePathLocation() throws Exception {
+        final File file = writeFile(0.01);
+
+        final BreachedPasswordFilter filter = BreachedPasswordFilter.open(null, file.getAbsolutePath());
+        assertThat(filter.mightContain("qwerty"), is(true));
+    }
+
+    @Test
+    public void shouldFailToOpenAnAssetWithoutAssetManager() throws Exception {
+        exception.expect(IOException.class);
+        BreachedPasswordFilter.open(null, BreachedPasswordFilter.ASSET_PREFIX + "breached.bloom");
+    }
+
+    @Test
+    public void shouldRejectAnInvalidFile() throws Exception {
+        exception.expect(IOException.class);
+        exception.expectMessage("not a breached passwords filter");
+        new BreachedPasswordFilter(ByteBuffer.wrap("not a filter at all".getBytes()));
+    }
+
+    @Test
+    public void shouldRejectATruncatedFile() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BreachedPasswordFilter.write(passwords, 0.01, out);
+        final byte[] content = out.toByteArray();
+
+        exception.expect(IOException.class);
+        exception.expectMessage("truncated");
+        new BreachedPasswordFilter(ByteBuffer.wrap(Arrays.copyOf(content, content.length / 2)));
+    }
+
+    @Test
+    public void shouldRejectAnInvalidFalsePositiveRate() throws Exception {
+        exception.expect(IllegalArgumentException.class);
+        BreachedPasswordFilter.write(passwords, 1, new ByteArrayOutputStream());
+    }
+
+    private File writeFile(double falsePositiveRate) throws IOException {
+        final File file = folder.newFile();
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            BreachedPasswordFilter.write(passwords, falsePositiveRate, out);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}
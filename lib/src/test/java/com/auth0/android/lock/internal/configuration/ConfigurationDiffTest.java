@@ -0,0 +1,124 @@
+/*
+ * ConfigurationDiffTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.configuration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import static com.auth0.android.lock.internal.configuration.Connections.database;
+import static com.auth0.android.lock.internal.configuration.Connections.databaseValues;
+import static com.auth0.android.lock.internal.configuration.Connections.enterprise;
+import static com.auth0.android.lock.internal.configuration.Connections.social;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class ConfigurationDiffTest {
+
+    private Options options;
+
+    @Before
+    public void setUp() throws Exception {
+        options = new Options();
+    }
+
+    @Test
+    public void shouldBeEmptyForTheSameConnections() throws Exception {
+        final Configuration shown = configurationWith(database(true, true), social("facebook"), social("twitter"), enterprise("ad", "auth0.com"));
+        final Configuration updated = configurationWith(database(true, true), social("facebook"), social("twitter"), enterprise("ad", "auth0.com"));
+
+        final ConfigurationDiff diff = ConfigurationDiff.between(shown, updated);
+        assertThat(diff.isEmpty(), is(true));
+        assertThat(diff.socialConnectionsChanged(), is(false));
+    }
+
+    @Test
+    public void shouldListAddedAndRemovedSocialConnections() throws Exception {
+        final Configuration shown = configurationWith(database(true, true), social("facebook"), social("twitter"));
+        final Configuration updated = configurationWith(database(true, true), social("twitter"), social("github"));
+
+        final ConfigurationDiff diff = ConfigurationDiff.between(shown, updated);
+        assertThat(diff.isEmpty(), is(false));
+        assertThat(diff.socialConnectionsChanged(), is(true));
+        assertThat(diff.getAddedSocialConnections(), contains("github"));
+        assertThat(diff.getRemovedSocialConnections(), contains("facebook"));
+        assertThat(diff.databaseConnectionChanged(), is(false));
+        assertThat(diff.enterpriseConnectionsChanged(), is(false));
+    }
+
+    @Test
+    public void shouldDetectReorderedSocialConnections() throws Exception {
+        final Configuration shown = configurationWith(social("facebook"), social("twitter"));
+        final Configuration updated = configurationWith(social("twitter"), social("facebook"));
+
+        final ConfigurationDiff diff = ConfigurationDiff.between(shown, updated);
+        assertThat(diff.socialConnectionsChanged(), is(true));
+        assertThat(diff.getAddedSocialConnections().isEmpty(), is(true));
+        assertThat(diff.getRemovedSocialConnections().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldDetectSignUpAndForgotPasswordToggles() throws Exception {
+        final Configuration shown = configurationWith(database(true, true));
+        final Configuration updated = configurationWith(database(false, false));
+
+        final ConfigurationDiff diff = ConfigurationDiff.between(shown, updated);
+        assertThat(diff.allowSignUpChanged(), is(true));
+        assertThat(diff.allowForgotPasswordChanged(), is(true));
+        assertThat(diff.allowLogInChanged(), is(false));
+        assertThat(diff.databaseConnectionChanged(), is(false));
+    }
+
+    @Test
+    public void shouldDetectDatabaseConnectionChanges() throws Exception {
+        final Map<String, Object> requiresUsername = databaseValues(true, true);
+        requiresUsername.put("requires_username", true);
+        final Configuration shown = configurationWith(database(true, true));
+
+        assertThat(ConfigurationDiff.between(shown, configurationWith(database(requiresUsername))).databaseConnectionChanged(), is(true));
+        assertThat(ConfigurationDiff.between(shown, configurationWith(social("facebook"))).databaseConnectionChanged(), is(true));
+    }
+
+    @Test
+    public void shouldDetectEnterpriseDomainChanges() throws Exception {
+        final Configuration shown = configurationWith(enterprise("ad", "auth0.com"));
+        final Configuration updated = configurationWith(enterprise("ad", "auth0.io"));
+
+        assertThat(ConfigurationDiff.between(shown, updated).enterpriseConnectionsChanged(), is(true));
+    }
+
+    private Configuration configurationWith(Connection... connections) {
+        return new Configuration(new ArrayList<>(Arrays.asList(connections)), options);
+    }
+}
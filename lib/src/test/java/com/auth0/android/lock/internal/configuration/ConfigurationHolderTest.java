@@ -0,0 +1,150 @@
+/*
+ * ConfigurationHolderTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.internal.configuration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class ConfigurationHolderTest {
+
+    @Mock
+    ConfigurationHolder.ConfigurationListener listener;
+    private ConfigurationHolder holder;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        ShadowLooper.pauseMainLooper();
+        holder = new ConfigurationHolder();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void shouldStartEmpty() throws Exception {
+        assertThat(holder.get(), is(nullValue()));
+        assertThat(holder.getVersion(), is(0));
+    }
+
+    @Test
+    public void shouldStartWithInitialConfiguration() throws Exception {
+        Configuration configuration = mock(Configuration.class);
+        holder = new ConfigurationHolder(configuration);
+
+        assertThat(holder.get(), is(configuration));
+        assertThat(holder.getVersion(), is(1));
+    }
+
+    @Test
+    public void shouldDeliverCurrentConfigurationToEachNewListener() throws Exception {
+        Configuration configuration = mock(Configuration.class);
+        holder.publish(configuration);
+        ShadowLooper.idleMainLooper();
+        holder.setListener(listener);
+        verify(listener).onConfigurationChanged(configuration, 1);
+
+        ConfigurationHolder.ConfigurationListener otherListener = mock(ConfigurationHolder.ConfigurationListener.class);
+        holder.setListener(otherListener);
+        verify(otherListener).onConfigurationChanged(configuration, 1);
+    }
+
+    @Test
+    public void shouldIncreaseVersionOnPublish() throws Exception {
+        Configuration first = mock(Configuration.class);
+        Configuration second = mock(Configuration.class);
+
+        assertThat(holder.publish(first), is(1));
+        assertThat(holder.publish(second), is(2));
+        assertThat(holder.get(), is(second));
+        assertThat(holder.getVersion(), is(2));
+    }
+
+    @Test
+    public void shouldNotifyListenerOnMainThread() throws Exception {
+        holder.setListener(listener);
+        Configuration configuration = mock(Configuration.class);
+        holder.publish(configuration);
+        verify(listener, never()).onConfigurationChanged(any(Configuration.class), anyInt());
+
+        ShadowLooper.idleMainLooper();
+        verify(listener).onConfigurationChanged(configuration, 1);
+    }
+
+    @Test
+    public void shouldOnlyNotifyLatestConfiguration() throws Exception {
+        holder.setListener(listener);
+        Configuration first = mock(Configuration.class);
+        Configuration second = mock(Configuration.class);
+        holder.publish(first);
+        holder.publish(second);
+
+        ShadowLooper.idleMainLooper();
+        verify(listener).onConfigurationChanged(second, 2);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void shouldDeliverPendingConfigurationWhenListenerIsSet() throws Exception {
+        Configuration configuration = mock(Configuration.class);
+        holder.publish(configuration);
+        ShadowLooper.idleMainLooper();
+
+        holder.setListener(listener);
+        verify(listener).onConfigurationChanged(configuration, 1);
+    }
+
+    @Test
+    public void shouldNotNotifyRemovedListener() throws Exception {
+        holder.setListener(listener);
+        holder.publish(mock(Configuration.class));
+        holder.setListener(null);
+
+        ShadowLooper.idleMainLooper();
+        verify(listener, never()).onConfigurationChanged(any(Configuration.class), anyInt());
+    }
+}
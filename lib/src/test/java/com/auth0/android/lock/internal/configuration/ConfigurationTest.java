@@ -48,6 +48,7 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 
 import static com.auth0.android.lock.internal.configuration.ConnectionMatcher.hasConnection;
@@ -57,12 +58,15 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.emptyIterable;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 @RunWith(RobolectricTestRunner.class)
@@ -112,6 +116,37 @@ public class ConfigurationTest extends GsonBaseTest {
         assertThat(configuration.usePasswordlessAutoSubmit(), is(false));
     }
 
+    @Test
+    public void shouldPrecomputeAuthorizeParametersForOAuthConnections() throws Exception {
+        options.withConnectionScope("facebook", "email,user_birthday");
+        options.setAuthenticationParameters(new HashMap<String, Object>(Collections.singletonMap("extra", "value")));
+        configuration = new Configuration(connections, options);
+
+        ParameterTemplate template = configuration.getAuthorizeParameters("facebook");
+        assertThat(configuration.getAuthorizeParameters("facebook"), is(sameInstance(template)));
+        assertThat(template.asMap(), hasEntry("connection_scope", (Object) "email,user_birthday"));
+        assertThat(template.asMap(), hasEntry("extra", (Object) "value"));
+        assertThat(configuration.getAuthenticationParameters().asMap(), hasEntry("extra", (Object) "value"));
+        assertThat(configuration.getAuthenticationParameters().asMap(), not(hasKey("connection_scope")));
+    }
+
+    @Test
+    public void shouldBuildAuthorizeParametersForUnknownConnections() throws Exception {
+        options.withConnectionScope("custom-connection", "the connection scope");
+        configuration = new Configuration(connections, options);
+
+        ParameterTemplate template = configuration.getAuthorizeParameters("custom-connection");
+        assertThat(template.asMap(), hasEntry("connection_scope", (Object) "the connection scope"));
+    }
+
+    @Test
+    public void shouldNotBeAffectedByLaterOptionsChanges() throws Exception {
+        configuration = new Configuration(connections, options);
+        options.withConnectionScope("facebook", "email");
+
+        assertThat(configuration.getAuthorizeParameters("facebook").asMap(), not(hasKey("connection_scope")));
+    }
+
     @Test
     public void shouldGetValidStyleForNotOverriddenStrategy() throws Exception {
         configuration = new Configuration(connections, options);
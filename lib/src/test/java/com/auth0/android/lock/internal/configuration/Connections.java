@@ -0,0 +1,68 @@
+/*
+ * Connections.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.internal.configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the connections of an Application without going through its JSON.
+ */
+public abstract class Connections {
+
+    public static Connection social(String name) {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("name", name);
+        return Connection.newConnectionFor(name, values);
+    }
+
+    public static Connection enterprise(String name, String domain) {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("name", name);
+        values.put("domain", domain);
+        final List<String> aliases = new ArrayList<>();
+        values.put("domain_aliases", aliases);
+        return Connection.newConnectionFor("ad", values);
+    }
+
+    public static Connection database(boolean showSignUp, boolean showForgot) {
+        return database(databaseValues(showSignUp, showForgot));
+    }
+
+    public static Connection database(Map<String, Object> values) {
+        return Connection.newConnectionFor("auth0", values);
+    }
+
+    public static Map<String, Object> databaseValues(boolean showSignUp, boolean showForgot) {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("name", "Username-Password-Authentication");
+        values.put("showSignup", showSignUp);
+        values.put("showForgot", showForgot);
+        return values;
+    }
+}
@@ -175,6 +175,19 @@ public class OptionsTest {
         assertThat(options.useLabeledSubmitButton(), is(equalTo(parceledOptions.useLabeledSubmitButton())));
     }
 
+    @Test
+    public void shouldDisablePreconnect() throws Exception {
+        options.setPreconnect(false);
+
+        Parcel parcel = Parcel.obtain();
+        options.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+
+        Options parceledOptions = Options.CREATOR.createFromParcel(parcel);
+        assertThat(options.preconnect(), is(false));
+        assertThat(options.preconnect(), is(equalTo(parceledOptions.preconnect())));
+    }
+
     @Test
     public void shouldHideMainScreenTitle() throws Exception {
         options.setHideMainScreenTitle(true);
@@ -479,6 +492,7 @@ public class OptionsTest {
         Theme theme = Theme.newBuilder()
                 .withHeaderTitle(R.string.com_auth0_lock_header_title)
                 .withHeaderLogo(R.drawable.com_auth0_lock_header_logo)
+                .withHeaderLogoUrl("https://example.com/logo.png")
                 .withHeaderColor(R.color.com_auth0_lock_social_unknown)
                 .withHeaderTitleColor(R.color.com_auth0_lock_social_unknown)
                 .withPrimaryColor(R.color.com_auth0_lock_social_unknown)
@@ -495,6 +509,7 @@ public class OptionsTest {
         assertThat(options.getTheme().getCustomPrimaryColorRes(), is(equalTo(parceledOptions.getTheme().getCustomPrimaryColorRes())));
         assertThat(options.getTheme().getCustomHeaderColorRes(), is(equalTo(parceledOptions.getTheme().getCustomHeaderColorRes())));
         assertThat(options.getTheme().getCustomHeaderLogoRes(), is(equalTo(parceledOptions.getTheme().getCustomHeaderLogoRes())));
+        assertThat(options.getTheme().getCustomHeaderLogoUrl(), is(equalTo(parceledOptions.getTheme().getCustomHeaderLogoUrl())));
         assertThat(options.getTheme().getCustomHeaderTitleRes(), is(equalTo(parceledOptions.getTheme().getCustomHeaderTitleRes())));
         assertThat(options.getTheme().getCustomHeaderTitleColorRes(), is(equalTo(parceledOptions.getTheme().getCustomHeaderTitleColorRes())));
     }
@@ -596,6 +611,19 @@ public class OptionsTest {
         assertThat(parceledOptions.getScheme(), is("auth0"));
     }
 
+    @Test
+    public void shouldSetBreachedPasswordsFilter() throws Exception {
+        options.setBreachedPasswordsFilter("file:///android_asset/breached.bloom");
+
+        Parcel parcel = Parcel.obtain();
+        options.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+
+        Options parceledOptions = Options.CREATOR.createFromParcel(parcel);
+        assertThat(options.getBreachedPasswordsFilter(), is(equalTo("file:///android_asset/breached.bloom")));
+        assertThat(parceledOptions.getBreachedPasswordsFilter(), is("file:///android_asset/breached.bloom"));
+    }
+
     @SuppressWarnings("ResourceType")
     @Test
     public void shouldAddAuthStyles() throws Exception {
@@ -703,9 +731,11 @@ public class OptionsTest {
         assertThat(options.useLabeledSubmitButton(), is(true));
         assertThat(options.hideMainScreenTitle(), is(false));
         assertThat(options.rememberLastPasswordlessAccount(), is(false));
+        assertThat(options.preconnect(), is(true));
         assertThat(options.getScope(), is(nullValue()));
         assertThat(options.getAudience(), is(nullValue()));
         assertThat(options.getScheme(), is(nullValue()));
+        assertThat(options.getBreachedPasswordsFilter(), is(nullValue()));
         assertThat(options.usernameStyle(), is(equalTo(UsernameStyle.DEFAULT)));
         assertThat(options.authButtonSize(), is(equalTo(AuthButtonSize.UNSPECIFIED)));
         assertThat(options.getTheme(), is(notNullValue()));
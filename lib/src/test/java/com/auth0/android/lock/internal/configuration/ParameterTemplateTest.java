@@ -0,0 +1,153 @@
+/*
+ * ParameterTemplateTest.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.internal.configuration;
+
+import com.auth0.android.Auth0;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ParameterTemplateTest {
+
+    private Options options;
+    private Auth0 account;
+
+    @Before
+    public void setUp() throws Exception {
+        account = mock(Auth0.class);
+        options = mock(Options.class);
+        HashMap<String, Object> parameters = new HashMap<>();
+        parameters.put("extra", "value");
+        parameters.put("device", "phone");
+        when(options.getAuthenticationParameters()).thenReturn(parameters);
+        when(options.getConnectionsScope()).thenReturn(Collections.singletonMap("my-connection", "the connection scope"));
+        when(options.getScope()).thenReturn("openid email");
+        when(options.getAudience()).thenReturn("aud");
+        when(options.getAccount()).thenReturn(account);
+    }
+
+    @Test
+    public void shouldCopyTheAuthenticationParameters() throws Exception {
+        ParameterTemplate template = ParameterTemplate.forAuthentication(options);
+        options.getAuthenticationParameters().put("later", "value");
+
+        assertThat(template.asMap(), hasEntry("extra", (Object) "value"));
+        assertThat(template.asMap(), not(hasKey("later")));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldBeImmutable() throws Exception {
+        ParameterTemplate.forAuthentication(options).asMap().put("key", "value");
+    }
+
+    @Test
+    public void shouldIncludeConnectionScopeAndScope() throws Exception {
+        Map<String, Object> values = ParameterTemplate.forAuthorize(options, "my-connection").asMap();
+
+        assertThat(values, hasEntry("connection_scope", (Object) "the connection scope"));
+        assertThat(values, hasEntry("scope", (Object) "openid email"));
+        assertThat(values, not(hasKey("audience")));
+    }
+
+    @Test
+    public void shouldIncludeAudienceWhenOIDCConformant() throws Exception {
+        when(account.isOIDCConformant()).thenReturn(true);
+
+        Map<String, Object> values = ParameterTemplate.forAuthorize(options, "other-connection").asMap();
+
+        assertThat(values, hasEntry("audience", (Object) "aud"));
+        assertThat(values, not(hasKey("connection_scope")));
+    }
+
+    @Test
+    public void shouldReturnTheTemplateWhenThereIsNothingToOverlay() throws Exception {
+        ParameterTemplate template = ParameterTemplate.forAuthentication(options);
+
+        assertThat(template.with("login_hint", null), is(sameInstance(template.asMap())));
+        assertThat(template.with(null), is(sameInstance(template.asMap())));
+        assertThat(template.with(Collections.<String, Object>emptyMap()), is(sameInstance(template.asMap())));
+    }
+
+    @Test
+    public void shouldOverlayValues() throws Exception {
+        ParameterTemplate template = ParameterTemplate.forAuthentication(options);
+        Map<String, Object> overlay = new HashMap<>();
+        overlay.put("device", "tablet");
+        overlay.put("login_hint", "john@doe.com");
+
+        Map<String, Object> values = template.with(overlay);
+
+        assertThat(values.size(), is(3));
+        assertThat(values, hasEntry("extra", (Object) "value"));
+        assertThat(values, hasEntry("device", (Object) "tablet"));
+        assertThat(values, hasEntry("login_hint", (Object) "john@doe.com"));
+        assertThat(values.get("device"), is((Object) "tablet"));
+        assertThat(values.containsKey("extra"), is(true));
+        assertThat(template.asMap(), hasEntry("device", (Object) "phone"));
+        assertThat(new HashMap<>(values), is(values));
+    }
+
+    @Test
+    public void shouldIterateEachKeyOnce() throws Exception {
+        Map<String, Object> values = ParameterTemplate.forAuthentication(options).with("device", "tablet");
+
+        int count = 0;
+        Iterator<Map.Entry<String, Object>> iterator = values.entrySet().iterator();
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertThat(count, is(2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotAllowChangesToTheOverlay() throws Exception {
+        ParameterTemplate.forAuthentication(options).with("device", "tablet").put("key", "value");
+    }
+
+    @Test
+    public void shouldOverlayPlainMaps() throws Exception {
+        Map<String, Object> base = new HashMap<>();
+        base.put("a", "1");
+
+        assertThat(ParameterTemplate.overlay(base, null), hasEntry("a", (Object) "1"));
+        assertThat(ParameterTemplate.overlay(base, Collections.singletonMap("a", (Object) "2")), hasEntry("a", (Object) "2"));
+    }
+}
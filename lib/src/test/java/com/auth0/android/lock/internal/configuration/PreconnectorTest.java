@@ -0,0 +1,117 @@
+/*
+ * PreconnectorTest.java
+ *
+ * Copyright (c) 2016 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.internal.configuration;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.lock.LockMetrics;
+import com.auth0.android.lock.internal.metrics.MetricsRecorder;
+import com.squareup.okhttp.OkHttpClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class PreconnectorTest {
+
+    private MockWebServer server;
+    private Preconnector preconnector;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        preconnector = new Preconnector(new OkHttpClient());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        MetricsRecorder.setListener(null);
+        server.shutdown();
+    }
+
+    @Test
+    public void shouldSendHeadRequestToTheDomain() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        Auth0 account = new Auth0("client_id", server.url("/").toString());
+
+        preconnector.preconnect(account);
+
+        RecordedRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+        assertThat(request, is(notNullValue()));
+        assertThat(request.getMethod(), is("HEAD"));
+        assertThat(request.getPath(), is("/"));
+    }
+
+    @Test
+    public void shouldNotFollowRedirects() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(302).setHeader("Location", server.url("/login").toString()));
+        server.enqueue(new MockResponse());
+
+        preconnector.preconnect(server.url("/").toString());
+
+        assertThat(server.takeRequest(5, TimeUnit.SECONDS).getPath(), is("/"));
+        assertThat(server.takeRequest(500, TimeUnit.MILLISECONDS), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReportTheConnectionTime() throws Exception {
+        LockMetrics metrics = mock(LockMetrics.class);
+        MetricsRecorder.setListener(metrics);
+        server.enqueue(new MockResponse());
+
+        preconnector.preconnect(server.url("/").toString());
+
+        verify(metrics, timeout(5000)).onPhaseCompleted(eq(LockMetrics.Phase.PRECONNECT), anyLong());
+    }
+
+    @Test
+    public void shouldIgnoreInvalidUrls() throws Exception {
+        preconnector.preconnect("not a url");
+
+        assertThat(server.getRequestCount(), is(0));
+    }
+}
@@ -50,6 +50,7 @@ import org.robolectric.annotation.Config;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 @RunWith(RobolectricTestRunner.class)
@@ -206,6 +207,23 @@ public class ThemeTest {
         assertThat(theme.getCustomHeaderLogoRes(), is(equalTo(DRAWABLE_RES)));
     }
 
+    @Test
+    public void shouldSetHeaderLogoUrl() throws Exception {
+        final Theme theme = builder.withHeaderLogoUrl("https://example.com/logo.png")
+                .build();
+        assertThat(theme.getCustomHeaderLogoUrl(), is(equalTo("https://example.com/logo.png")));
+        assertThat(theme.getHeaderLogoUrl(RuntimeEnvironment.application), is(equalTo("https://example.com/logo.png")));
+    }
+
+    @Test
+    public void shouldNotHaveDefaultHeaderLogoUrl() throws Exception {
+        final Theme theme = builder.build();
+        final Context context = RuntimeEnvironment.application;
+        context.setTheme(R.style.Lock_Theme);
+
+        assertThat(theme.getHeaderLogoUrl(context), is(nullValue()));
+    }
+
     @Test
     public void shouldSetHeaderColor() throws Exception {
         final Theme theme = builder.withHeaderColor(COLOR_RES)
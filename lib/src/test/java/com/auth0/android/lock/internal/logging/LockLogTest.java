@@ -0,0 +1,177 @@
+/*
+ * LockLogTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.logging;
+
+import android.util.Log;
+
+import com.auth0.android.lock.LockLogger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class LockLogTest {
+
+    @Mock
+    LockLogger logger;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        LockLog.setLogger(logger);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        LockLog.setLogger(null);
+        LockLog.setLevel(LockLog.DEFAULT_LEVEL);
+    }
+
+    @Test
+    public void shouldLogInfoWarningsAndErrorsByDefault() throws Exception {
+        assertThat(LockLog.isLoggable(Log.VERBOSE), is(false));
+        assertThat(LockLog.isLoggable(Log.DEBUG), is(false));
+        assertThat(LockLog.isLoggable(Log.INFO), is(true));
+        assertThat(LockLog.isLoggable(Log.WARN), is(true));
+        assertThat(LockLog.isLoggable(Log.ERROR), is(true));
+    }
+
+    @Test
+    public void shouldNotFormatTheMessagesBelowTheLevel() throws Exception {
+        final Object argument = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("The argument should not be formatted");
+            }
+        };
+
+        LockLog.v("Tag", "Value %s", argument);
+        LockLog.d("Tag", "Values %s and %s", argument, argument);
+        verifyZeroInteractions(logger);
+    }
+
+    @Test
+    public void shouldFormatTheMessagesAtOrAboveTheLevel() throws Exception {
+        LockLog.setLevel(Log.DEBUG);
+
+        LockLog.d("Tag", "Loaded %d countries in %s", 250, "12ms");
+        verify(logger).log(eq(Log.DEBUG), eq("Tag"), eq("Loaded 250 countries in 12ms"), isNull(Throwable.class));
+    }
+
+    @Test
+    public void shouldNotFormatAMessageWithoutArguments() throws Exception {
+        LockLog.w("Tag", "100% of the fields are invalid");
+        verify(logger).log(eq(Log.WARN), eq("Tag"), eq("100% of the fields are invalid"), isNull(Throwable.class));
+    }
+
+    @Test
+    public void shouldPassTheError() throws Exception {
+        final Exception error = new Exception("Something went wrong");
+
+        LockLog.e("Tag", "Failed to fetch", error);
+        verify(logger).log(Log.ERROR, "Tag", "Failed to fetch", error);
+    }
+
+    @Test
+    public void shouldFormatTheMessageAndPassTheError() throws Exception {
+        final Exception error = new Exception("Something went wrong");
+
+        LockLog.w("Tag", "Could not download the logo from %s", "https://logo", error);
+        LockLog.e("Tag", "Failed to create the user %s: %s", LockLog.identity("john@doe.com"), error.getMessage(), error);
+        verify(logger).log(Log.WARN, "Tag", "Could not download the logo from https://logo", error);
+        verify(logger).log(Log.ERROR, "Tag", "Failed to create the user j***@doe.com: Something went wrong", error);
+    }
+
+    @Test
+    public void shouldNotFormatTheMessagesWithAnErrorBelowTheLevel() throws Exception {
+        final Object argument = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("The argument should not be formatted");
+            }
+        };
+        LockLog.setLevel(Log.ASSERT);
+
+        LockLog.w("Tag", "Value %s", argument, new Exception());
+        LockLog.e("Tag", "Values %s and %s", argument, argument, new Exception());
+        verifyZeroInteractions(logger);
+    }
+
+    @Test
+    public void shouldLogNothingWithAssertLevel() throws Exception {
+        LockLog.setLevel(Log.ASSERT);
+
+        LockLog.w("Tag", "Warning");
+        LockLog.e("Tag", "Error", new Exception());
+        verify(logger, never()).log(anyInt(), anyString(), anyString(), any(Throwable.class));
+    }
+
+    @Test
+    public void shouldRemoveTheLoggerOnlyIfItsTheCurrentOne() throws Exception {
+        final LockLogger other = new LockLogger() {
+            @Override
+            public void log(int priority, String tag, String message, Throwable error) {
+            }
+        };
+        LockLog.removeLogger(other);
+        LockLog.i("Tag", "Still here");
+        verify(logger).log(Log.INFO, "Tag", "Still here", null);
+
+        LockLog.removeLogger(logger);
+        LockLog.i("Tag", "Gone");
+        verify(logger, never()).log(Log.INFO, "Tag", "Gone", null);
+    }
+
+    @Test
+    public void shouldRedactEmails() throws Exception {
+        assertThat(LockLog.identity("john.doe@example.com").toString(), is("j***@example.com"));
+    }
+
+    @Test
+    public void shouldRedactUsernamesAndPhoneNumbers() throws Exception {
+        assertThat(LockLog.identity("+5491123456789").toString(), is("***89"));
+        assertThat(LockLog.identity("johndoe").toString(), is("***oe"));
+        assertThat(LockLog.identity("jdoe").toString(), is("***"));
+        assertThat(LockLog.identity(null).toString(), is("null"));
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * FunnelRecorderTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.metrics;
+
+import com.auth0.android.lock.LockFunnelRecord;
+import com.auth0.android.lock.LockMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowSystemClock;
+
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class FunnelRecorderTest {
+
+    @Mock
+    FunnelStore store;
+
+    private FunnelRecorder recorder;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        ShadowSystemClock.setCurrentTimeMillis(1000);
+        recorder = new FunnelRecorder(store, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+    }
+
+    @Test
+    public void shouldStoreTheLaunchTimings() throws Exception {
+        recorder.launchStarted();
+        recorder.configurationRead(LockFunnelRecord.ConfigurationSource.CACHE);
+        recorder.onPhaseCompleted(LockMetrics.Phase.FIRST_FORM_FRAME, 400);
+        recorder.onPhaseCompleted(LockMetrics.Phase.CONFIGURATION_CONNECT, 100);
+        recorder.onPhaseCompleted(LockMetrics.Phase.CONFIGURATION_FIRST_BYTE, 50);
+        recorder.onPhaseCompleted(LockMetrics.Phase.CONFIGURATION_BODY, 20);
+        recorder.onPhaseCompleted(LockMetrics.Phase.CONFIGURATION_PARSE, 8);
+        recorder.configurationRead(LockFunnelRecord.ConfigurationSource.NETWORK);
+        recorder.authenticationStarted(6000);
+        recorder.authenticationCompleted(LockFunnelRecord.ConnectionType.DATABASE, false, 300);
+        recorder.authenticationStarted(9000);
+        recorder.authenticationCompleted(LockFunnelRecord.ConnectionType.DATABASE, true, 250);
+        recorder.launchEnded();
+
+        final LockFunnelRecord record = storedRecord();
+        assertThat(record.getConfigurationSource(), is(LockFunnelRecord.ConfigurationSource.CACHE));
+        assertThat(record.getFetchDuration(), is(170));
+        assertThat(record.getParseDuration(), is(8));
+        assertThat(record.getFormDuration(), is(5000));
+        assertThat(record.getConnectionType(), is(LockFunnelRecord.ConnectionType.DATABASE));
+        assertThat(record.getAuthenticationLatency(), is(250));
+        assertThat(record.getAuthenticationOutcome(), is(LockFunnelRecord.Outcome.SUCCESS));
+    }
+
+    @Test
+    public void shouldMarkTheMissingStepsAsNotMeasured() throws Exception {
+        recorder.launchStarted();
+        recorder.launchEnded();
+
+        final LockFunnelRecord record = storedRecord();
+        assertThat(record.getConfigurationSource(), is(LockFunnelRecord.ConfigurationSource.NONE));
+        assertThat(record.getFetchDuration(), is(LockFunnelRecord.NOT_MEASURED));
+        assertThat(record.getParseDuration(), is(LockFunnelRecord.NOT_MEASURED));
+        assertThat(record.getFormDuration(), is(LockFunnelRecord.NOT_MEASURED));
+        assertThat(record.getConnectionType(), is(LockFunnelRecord.ConnectionType.NONE));
+        assertThat(record.getAuthenticationLatency(), is(LockFunnelRecord.NOT_MEASURED));
+        assertThat(record.getAuthenticationOutcome(), is(LockFunnelRecord.Outcome.NONE));
+    }
+
+    @Test
+    public void shouldIgnoreTheTimingsOutsideOfALaunch() throws Exception {
+        recorder.onPhaseCompleted(LockMetrics.Phase.CONFIGURATION_PARSE, 8);
+        recorder.authenticationCompleted(LockFunnelRecord.ConnectionType.PASSWORDLESS, true, 250);
+        recorder.launchEnded();
+
+        verify(store, never()).append(any(LockFunnelRecord.class));
+    }
+
+    @Test
+    public void shouldStoreEachLaunchOnce() throws Exception {
+        recorder.launchStarted();
+        recorder.launchEnded();
+        recorder.launchEnded();
+
+        verify(store).append(any(LockFunnelRecord.class));
+    }
+
+    @Test
+    public void shouldReceiveTheMeasuresThroughTheMetricsRecorder() throws Exception {
+        MetricsRecorder.setFunnelRecorder(recorder);
+        try {
+            MetricsRecorder.startSession();
+            MetricsRecorder.configurationRead(LockFunnelRecord.ConfigurationSource.SNAPSHOT);
+            MetricsRecorder.phaseCompleted(LockMetrics.Phase.CONFIGURATION_PARSE, MetricsRecorder.now() - 12);
+            MetricsRecorder.endSession();
+        } finally {
+            MetricsRecorder.removeFunnelRecorder(recorder);
+        }
+
+        final LockFunnelRecord record = storedRecord();
+        assertThat(record.getConfigurationSource(), is(LockFunnelRecord.ConfigurationSource.SNAPSHOT));
+        assertThat(record.getParseDuration(), is(12));
+        assertThat(MetricsRecorder.isEnabled(), is(false));
+    }
+
+    private LockFunnelRecord storedRecord() {
+        final ArgumentCaptor<LockFunnelRecord> captor = ArgumentCaptor.forClass(LockFunnelRecord.class);
+        verify(store).append(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * FunnelStoreTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.internal.metrics;
+
+import com.auth0.android.lock.LockFunnelRecord;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class FunnelStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private FunnelStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(folder.getRoot(), "funnel.bin");
+        store = new FunnelStore(file, 4);
+    }
+
+    @Test
+    public void shouldBeEmptyAtFirst() throws Exception {
+        assertThat(store.size(), is(0));
+        assertThat(store.read(10).getRecords(), hasSize(0));
+    }
+
+    @Test
+    public void shouldReadTheStoredRecords() throws Exception {
+        final LockFunnelRecord record = new LockFunnelRecord(1500000000000L, LockFunnelRecord.ConfigurationSource.NETWORK, 320, 15, 8000,
+                LockFunnelRecord.ConnectionType.DATABASE, 450, LockFunnelRecord.Outcome.SUCCESS);
+        store.append(record);
+
+        final List<LockFunnelRecord> records = store.read(10).getRecords();
+        assertThat(records, hasSize(1));
+        final LockFunnelRecord read = records.get(0);
+        assertThat(read.getLaunchTime(), is(1500000000000L));
+        assertThat(read.getConfigurationSource(), is(LockFunnelRecord.ConfigurationSource.NETWORK));
+        assertThat(read.getFetchDuration(), is(320));
+        assertThat(read.getParseDuration(), is(15));
+        assertThat(read.getFormDuration(), is(8000));
+        assertThat(read.getConnectionType(), is(LockFunnelRecord.ConnectionType.DATABASE));
+        assertThat(read.getAuthenticationLatency(), is(450));
+        assertThat(read.getAuthenticationOutcome(), is(LockFunnelRecord.Outcome.SUCCESS));
+    }
+
+    @Test
+    public void shouldKeepTheRecordsUntilMarkedAsRead() throws Exception {
+        store.append(recordAt(1));
+        store.append(recordAt(2));
+        store.append(recordAt(3));
+
+        final FunnelStore.Batch batch = store.read(2);
+        assertThat(launchTimes(batch.getRecords()), is(new long[]{1, 2}));
+        assertThat(launchTimes(store.read(2).getRecords()), is(new long[]{1, 2}));
+
+        store.markRead(batch.getEndSequence());
+        assertThat(store.size(), is(1));
+        assertThat(launchTimes(store.read(10).getRecords()), is(new long[]{3}));
+    }
+
+    @Test
+    public void shouldReplaceTheOldestRecordsWhenFull() throws Exception {
+        for (int i = 1; i <= 6; i++) {
+            store.append(recordAt(i));
+        }
+
+        assertThat(store.size(), is(4));
+        assertThat(launchTimes(store.read(10).getRecords()), is(new long[]{3, 4, 5, 6}));
+        assertThat(file.length(), is(32L + 4 * 28));
+    }
+
+    @Test
+    public void shouldNotMarkAsReadTheRecordsOverwrittenAfterTheRead() throws Exception {
+        store.append(recordAt(1));
+        final FunnelStore.Batch batch = store.read(10);
+        for (int i = 2; i <= 6; i++) {
+            store.append(recordAt(i));
+        }
+
+        store.markRead(batch.getEndSequence());
+        assertThat(launchTimes(store.read(10).getRecords()), is(new long[]{3, 4, 5, 6}));
+    }
+
+    @Test
+    public void shouldKeepTheRecordsAcrossInstances() throws Exception {
+        store.append(recordAt(1));
+
+        final FunnelStore other = new FunnelStore(file, 4);
+        assertThat(launchTimes(other.read(10).getRecords()), is(new long[]{1}));
+    }
+
+    @Test
+    public void shouldStartOverWithAnInvalidFile() throws Exception {
+        final FileOutputStream out = new FileOutputStream(file);
+        out.write("not a funnel file".getBytes());
+        out.close();
+
+        assertThat(store.size(), is(0));
+        store.append(recordAt(1));
+        assertThat(launchTimes(store.read(10).getRecords()), is(new long[]{1}));
+    }
+
+    @Test
+    public void shouldStartOverWhenTheCapacityChanges() throws Exception {
+        store.append(recordAt(1));
+
+        final FunnelStore bigger = new FunnelStore(file, 8);
+        assertThat(bigger.size(), is(0));
+    }
+
+    private static LockFunnelRecord recordAt(long launchTime) {
+        return new LockFunnelRecord(launchTime, LockFunnelRecord.ConfigurationSource.CACHE, LockFunnelRecord.NOT_MEASURED, LockFunnelRecord.NOT_MEASURED,
+                LockFunnelRecord.NOT_MEASURED, LockFunnelRecord.ConnectionType.NONE, LockFunnelRecord.NOT_MEASURED, LockFunnelRecord.Outcome.NONE);
+    }
+
+    private static long[] launchTimes(List<LockFunnelRecord> records) {
+        final long[] times = new long[records.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = records.get(i).getLaunchTime();
+        }
+        return times;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * MetricsRecorderTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.internal.metrics;
+
+import android.app.Dialog;
+
+import com.auth0.android.authentication.AuthenticationException;
+import com.auth0.android.callback.AuthenticationCallback;
+import com.auth0.android.lock.LockFunnelRecord;
+import com.auth0.android.lock.LockMetrics;
+import com.auth0.android.provider.AuthCallback;
+import com.auth0.android.result.Credentials;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowSystemClock;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class MetricsRecorderTest {
+
+    @Mock
+    LockMetrics metrics;
+    @Mock
+    AuthenticationCallback<String> callback;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        ShadowSystemClock.setCurrentTimeMillis(1000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        MetricsRecorder.setListener(null);
+    }
+
+    @Test
+    public void shouldNotMeasureWithoutListener() throws Exception {
+        assertThat(MetricsRecorder.isEnabled(), is(false));
+        assertThat(MetricsRecorder.now(), is(0L));
+        assertThat(MetricsRecorder.phaseCompleted(LockMetrics.Phase.CONFIGURATION_BUILD, 500), is(0L));
+    }
+
+    @Test
+    public void shouldReturnSameCallbackWithoutListener() throws Exception {
+        assertThat(MetricsRecorder.timeAuthentication("connection", LockFunnelRecord.ConnectionType.DATABASE, callback), is(sameInstance(callback)));
+    }
+
+    @Test
+    public void shouldReportPhaseDuration() throws Exception {
+        MetricsRecorder.setListener(metrics);
+        long start = MetricsRecorder.now();
+        ShadowSystemClock.setCurrentTimeMillis(1250);
+        long end = MetricsRecorder.phaseCompleted(LockMetrics.Phase.CONFIGURATION_PARSE, start);
+
+        assertThat(end, is(1250L));
+        verify(metrics).onPhaseCompleted(LockMetrics.Phase.CONFIGURATION_PARSE, 250);
+    }
+
+    @Test
+    public void shouldNotReportPhaseWithoutStartTime() throws Exception {
+        MetricsRecorder.setListener(metrics);
+        MetricsRecorder.phaseCompleted(LockMetrics.Phase.CONFIGURATION_PARSE, 0);
+
+        verify(metrics, never()).onPhaseCompleted(anyInt(), anyLong());
+    }
+
+    @Test
+    public void shouldReportStageDuration() throws Exception {
+        MetricsRecorder.setListener(metrics);
+        long start = MetricsRecorder.stageStarted("Lock.readOptions");
+        ShadowSystemClock.setCurrentTimeMillis(1040);
+        long end = MetricsRecorder.stageCompleted(LockMetrics.Phase.OPTIONS_READ, start);
+
+        assertThat(end, is(1040L));
+        verify(metrics).onPhaseCompleted(LockMetrics.Phase.OPTIONS_READ, 40);
+    }
+
+    @Test
+    public void shouldNotReportStageWithoutListener() throws Exception {
+        long start = MetricsRecorder.stageStarted("Lock.readOptions");
+        assertThat(MetricsRecorder.stageCompleted(LockMetrics.Phase.OPTIONS_READ, start), is(0L));
+    }
+
+    @Test
+    public void shouldReportFirstKeystrokeOnce() throws Exception {
+        MetricsRecorder.setListener(metrics);
+        MetricsRecorder.startSession();
+        ShadowSystemClock.setCurrentTimeMillis(3000);
+        MetricsRecorder.keystroke();
+        MetricsRecorder.keystroke();
+
+        verify(metrics, times(1)).onPhaseCompleted(LockMetrics.Phase.FIRST_KEYSTROKE, 2000);
+    }
+
+    @Test
+    public void shouldReportAuthenticationSuccess() throws Exception {
+        MetricsRecorder.setListener(metrics);
+        AuthenticationCallback<String> timed = MetricsRecorder.timeAuthentication("connection", LockFunnelRecord.ConnectionType.DATABASE, callback);
+        assertThat(timed, is(not(sameInstance(callback))));
+        ShadowSystemClock.setCurrentTimeMillis(1400);
+        timed.onSuccess("result");
+
+        verify(metrics).onAuthenticationCompleted("connection", true, 400);
+        verify(callback).onSuccess("result");
+    }
+
+    @Test
+    public void shouldReportAuthenticationFailure() throws Exception {
+        AuthenticationException error = mock(AuthenticationException.class);
+        MetricsRecorder.setListener(metrics);
+        AuthenticationCallback<String> timed = MetricsRecorder.timeAuthentication("connection", LockFunnelRecord.ConnectionType.DATABASE, callback);
+        ShadowSystemClock.setCurrentTimeMillis(1100);
+        timed.onFailure(error);
+
+        verify(metrics).onAuthenticationCompleted("connection", false, 100);
+        verify(callback).onFailure(error);
+    }
+
+    @Test
+    public void shouldReturnSameAuthCallbackWithoutListener() throws Exception {
+        AuthCallback authCallback = mock(AuthCallback.class);
+        assertThat(MetricsRecorder.timeAuthorization("facebook", authCallback), is(sameInstance(authCallback)));
+    }
+
+    @Test
+    public void shouldReportAuthorizationSuccess() throws Exception {
+        Credentials credentials = mock(Credentials.class);
+        AuthCallback authCallback = mock(AuthCallback.class);
+        MetricsRecorder.setListener(metrics);
+        AuthCallback timed = MetricsRecorder.timeAuthorization("facebook", authCallback);
+        assertThat(timed, is(not(sameInstance(authCallback))));
+        ShadowSystemClock.setCurrentTimeMillis(9000);
+        timed.onSuccess(credentials);
+
+        verify(metrics).onAuthenticationCompleted("facebook", true, 8000);
+        verify(authCallback).onSuccess(credentials);
+    }
+
+    @Test
+    public void shouldReportAuthorizationFailures() throws Exception {
+        Dialog dialog = mock(Dialog.class);
+        AuthenticationException error = mock(AuthenticationException.class);
+        AuthCallback authCallback = mock(AuthCallback.class);
+        MetricsRecorder.setListener(metrics);
+        AuthCallback canceled = MetricsRecorder.timeAuthorization("facebook", authCallback);
+        AuthCallback failed = MetricsRecorder.timeAuthorization("facebook", authCallback);
+        ShadowSystemClock.setCurrentTimeMillis(1200);
+        canceled.onFailure(dialog);
+        ShadowSystemClock.setCurrentTimeMillis(1500);
+        failed.onFailure(error);
+
+        verify(metrics).onAuthenticationCompleted("facebook", false, 200);
+        verify(metrics).onAuthenticationCompleted("facebook", false, 500);
+        verify(authCallback).onFailure(dialog);
+        verify(authCallback).onFailure(error);
+    }
+
+    @Test
+    public void shouldReportSuppressedDuplicates() throws Exception {
+        MetricsRecorder.setListener(metrics);
+        MetricsRecorder.duplicateRequestSuppressed("log_in");
+
+        verify(metrics).onDuplicateRequestSuppressed(eq("log_in"));
+    }
+
+    @Test
+    public void shouldOnlyRemoveTheSameListener() throws Exception {
+        MetricsRecorder.setListener(metrics);
+        MetricsRecorder.removeListener(mock(LockMetrics.class));
+        assertThat(MetricsRecorder.isEnabled(), is(true));
+
+        MetricsRecorder.removeListener(metrics);
+        assertThat(MetricsRecorder.isEnabled(), is(false));
+    }
+}
@@ -33,6 +33,8 @@ import okhttp3.mockwebserver.RecordedRequest;
 
 public class ApplicationAPI {
 
+    private static final String VALID_JSONP = "Auth0.setClient({\"id\":\"CLIENTID\",\"tenant\":\"overmind\",\"subscription\":\"free\",\"authorize\":\"https://samples.auth0.com/authorize\",\"callback\":\"http://localhost:3000/\",\"hasAllowedOrigins\":true,\"strategies\":[{\"name\":\"twitter\",\"connections\":[{\"name\":\"twitter\"}]}]});";
+
     private MockWebServer server;
 
     public ApplicationAPI() throws IOException {
@@ -53,7 +55,17 @@ public class ApplicationAPI {
     }
 
     public ApplicationAPI willReturnValidJSONPResponse() {
-        return willReturnApplicationResponseWithBody("Auth0.setClient({\"id\":\"CLIENTID\",\"tenant\":\"overmind\",\"subscription\":\"free\",\"authorize\":\"https://samples.auth0.com/authorize\",\"callback\":\"http://localhost:3000/\",\"hasAllowedOrigins\":true,\"strategies\":[{\"name\":\"twitter\",\"connections\":[{\"name\":\"twitter\"}]}]});", 200);
+        return willReturnApplicationResponseWithBody(VALID_JSONP, 200);
+    }
+
+    public ApplicationAPI willReturnValidJSONPResponseWithETag(String eTag) {
+        server.enqueue(applicationResponseWithBody(VALID_JSONP, 200).addHeader("ETag", eTag));
+        return this;
+    }
+
+    public ApplicationAPI willReturnNotModified() {
+        server.enqueue(new MockResponse().setResponseCode(304));
+        return this;
     }
 
     public ApplicationAPI willReturnInvalidJSONPLengthResponse() {
@@ -62,12 +74,15 @@ public class ApplicationAPI {
     }
 
     private ApplicationAPI willReturnApplicationResponseWithBody(String body, int statusCode) {
-        MockResponse response = new MockResponse()
+        server.enqueue(applicationResponseWithBody(body, statusCode));
+        return this;
+    }
+
+    private MockResponse applicationResponseWithBody(String body, int statusCode) {
+        return new MockResponse()
                 .setResponseCode(statusCode)
                 .addHeader("Content-Type", "application/x-javascript")
                 .setBody(body);
-        server.enqueue(response);
-        return this;
     }
 
     private MockResponse responseWithJSON(String json, int statusCode) {
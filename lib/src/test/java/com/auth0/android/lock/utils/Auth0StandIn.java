@@ -0,0 +1,332 @@
+/*
+ * Auth0StandIn.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.utils;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+/**
+ * Local stand-in for the Auth0 endpoints used by Lock, built on MockWebServer.
+ * Unlike {@link ApplicationAPI}, it answers every request it receives depending on the path, and each
+ * endpoint can be scripted with latency, bandwidth limits, truncated bodies and bursts of error responses.
+ * All the random values come from the seed given in the constructor, so runs can be reproduced.
+ */
+public class Auth0StandIn {
+
+    public static final String CLIENT_ID = "CLIENTID";
+
+    /**
+     * The endpoints served by this stand-in.
+     */
+    public enum Endpoint {
+        APPLICATION("GET", "/client/"),
+        LOGIN("POST", "/oauth/ro"),
+        TOKEN("POST", "/oauth/token"),
+        SIGN_UP("POST", "/dbconnections/signup"),
+        CHANGE_PASSWORD("POST", "/dbconnections/change_password"),
+        PASSWORDLESS_START("POST", "/passwordless/start");
+
+        private final String method;
+        private final String pathPrefix;
+
+        Endpoint(String method, String pathPrefix) {
+            this.method = method;
+            this.pathPrefix = pathPrefix;
+        }
+
+        static Endpoint forRequest(RecordedRequest request) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.method.equals(request.getMethod()) && request.getPath() != null && request.getPath().startsWith(endpoint.pathPrefix)) {
+                    return endpoint;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A distribution of delays, in milliseconds.
+     */
+    public abstract static class Latency {
+
+        abstract long nextDelay(Random random);
+
+        public static Latency none() {
+            return fixed(0);
+        }
+
+        public static Latency fixed(final long millis) {
+            return new Latency() {
+                @Override
+                long nextDelay(Random random) {
+                    return millis;
+                }
+            };
+        }
+
+        public static Latency uniform(final long minMillis, final long maxMillis) {
+            return new Latency() {
+                @Override
+                long nextDelay(Random random) {
+                    return minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+                }
+            };
+        }
+
+        public static Latency normal(final long meanMillis, final long stdDevMillis) {
+            return new Latency() {
+                @Override
+                long nextDelay(Random random) {
+                    return Math.max(0, meanMillis + (long) (random.nextGaussian() * stdDevMillis));
+                }
+            };
+        }
+    }
+
+    private static class Script {
+        private Latency latency = Latency.none();
+        private long bytesPerSecond;
+        private final Deque<Integer> failures = new ArrayDeque<>();
+        private int truncations;
+        private int requestCount;
+    }
+
+    private final MockWebServer server;
+    private final Random random;
+    private final Map<Endpoint, Script> scripts = new EnumMap<>(Endpoint.class);
+    private String applicationBody;
+
+    public Auth0StandIn(long seed) throws IOException {
+        this.random = new Random(seed);
+        for (Endpoint endpoint : Endpoint.values()) {
+            scripts.put(endpoint, new Script());
+        }
+        this.applicationBody = generateApplication(1);
+        this.server = new MockWebServer();
+        this.server.setDispatcher(dispatcher);
+        this.server.start();
+    }
+
+    public String getDomain() {
+        return server.url("/").toString();
+    }
+
+    public void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    public RecordedRequest takeRequest() throws InterruptedException {
+        return server.takeRequest();
+    }
+
+    /**
+     * Serves the given JSONP on the Application endpoint.
+     */
+    public synchronized Auth0StandIn withApplication(String jsonp) {
+        this.applicationBody = jsonp;
+        return this;
+    }
+
+    /**
+     * Serves a generated tenant with a database connection and the given number of social and enterprise connections.
+     */
+    public synchronized Auth0StandIn withGeneratedTenant(int connections) {
+        this.applicationBody = generateApplication(connections);
+        return this;
+    }
+
+    /**
+     * Delays the response body of every request to the endpoint by a value taken from the given distribution.
+     */
+    public synchronized Auth0StandIn withLatency(Endpoint endpoint, Latency latency) {
+        scripts.get(endpoint).latency = latency;
+        return this;
+    }
+
+    /**
+     * Limits the speed at which the endpoint response bodies are written, or 0 for no limit.
+     */
+    public synchronized Auth0StandIn withBandwidth(Endpoint endpoint, long bytesPerSecond) {
+        scripts.get(endpoint).bytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    /**
+     * Answers the next requests to the endpoint with the given error status code, i.e. 429 or 503.
+     */
+    public synchronized Auth0StandIn failNext(Endpoint endpoint, int count, int statusCode) {
+        for (int i = 0; i < count; i++) {
+            scripts.get(endpoint).failures.add(statusCode);
+        }
+        return this;
+    }
+
+    /**
+     * Closes the connection halfway through the body of the next responses of the endpoint.
+     */
+    public synchronized Auth0StandIn truncateNext(Endpoint endpoint, int count) {
+        scripts.get(endpoint).truncations += count;
+        return this;
+    }
+
+    public synchronized int getRequestCount(Endpoint endpoint) {
+        return scripts.get(endpoint).requestCount;
+    }
+
+    private final Dispatcher dispatcher = new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            final Endpoint endpoint = Endpoint.forRequest(request);
+            if (endpoint == null) {
+                return jsonResponse(404, error("not_found", "Unknown endpoint " + request.getPath()));
+            }
+            synchronized (Auth0StandIn.this) {
+                final Script script = scripts.get(endpoint);
+                script.requestCount++;
+                MockResponse response;
+                final Integer failure = script.failures.poll();
+                if (failure != null) {
+                    response = failureResponse(failure);
+                } else {
+                    response = successResponse(endpoint);
+                }
+                if (failure == null && script.truncations > 0) {
+                    script.truncations--;
+                    truncate(response);
+                }
+                final long delay = script.latency.nextDelay(random);
+                if (delay > 0) {
+                    response.setBodyDelay(delay, TimeUnit.MILLISECONDS);
+                }
+                if (script.bytesPerSecond > 0) {
+                    response.throttleBody(script.bytesPerSecond, 1, TimeUnit.SECONDS);
+                }
+                return response;
+            }
+        }
+    };
+
+    private MockResponse successResponse(Endpoint endpoint) {
+        switch (endpoint) {
+            case APPLICATION:
+                return new MockResponse()
+                        .setResponseCode(200)
+                        .addHeader("Content-Type", "application/x-javascript")
+                        .setBody(applicationBody);
+            case LOGIN:
+            case TOKEN:
+                return jsonResponse(200, String.format(Locale.US, "{\"id_token\":\"%s\",\"access_token\":\"%s\",\"refresh_token\":\"%s\",\"token_type\":\"bearer\",\"expires_in\":86400}",
+                        randomToken(), randomToken(), randomToken()));
+            case SIGN_UP:
+                return jsonResponse(200, String.format(Locale.US, "{\"_id\":\"%s\",\"email\":\"user@example.com\",\"email_verified\":false}", randomToken()));
+            case CHANGE_PASSWORD:
+                return new MockResponse()
+                        .setResponseCode(200)
+                        .addHeader("Content-Type", "text/plain")
+                        .setBody("We've just sent you an email to reset your password.");
+            case PASSWORDLESS_START:
+            default:
+                return jsonResponse(200, "{}");
+        }
+    }
+
+    private MockResponse failureResponse(int statusCode) {
+        if (statusCode == 429) {
+            return jsonResponse(statusCode, error("too_many_requests", "Global limit has been reached"))
+                    .addHeader("Retry-After", "1");
+        } else if (statusCode == 401 || statusCode == 403) {
+            return jsonResponse(statusCode, error("invalid_user_password", "Wrong email or password."));
+        } else if (statusCode >= 500) {
+            return jsonResponse(statusCode, error("server_error", "Something went wrong"));
+        }
+        return jsonResponse(statusCode, error("invalid_request", "Invalid request"));
+    }
+
+    private void truncate(MockResponse response) {
+        final okio.Buffer body = response.getBody();
+        final long fullLength = body.size();
+        final okio.Buffer half = new okio.Buffer();
+        body.copyTo(half, 0, fullLength / 2);
+        response.setBody(half)
+                .setHeader("Content-Length", fullLength)
+                .setSocketPolicy(SocketPolicy.DISCONNECT_AT_END);
+    }
+
+    private MockResponse jsonResponse(int statusCode, String json) {
+        return new MockResponse()
+                .setResponseCode(statusCode)
+                .addHeader("Content-Type", "application/json")
+                .setBody(json);
+    }
+
+    private String error(String code, String description) {
+        return String.format("{\"error\":\"%s\",\"error_description\":\"%s\"}", code, description);
+    }
+
+    private String randomToken() {
+        final StringBuilder sb = new StringBuilder(32);
+        for (int i = 0; i < 32; i++) {
+            sb.append(Integer.toHexString(random.nextInt(16)));
+        }
+        return sb.toString();
+    }
+
+    private String generateApplication(int connections) {
+        final StringBuilder strategies = new StringBuilder();
+        strategies.append("{\"name\":\"auth0\",\"connections\":[{\"name\":\"Username-Password-Authentication\",\"showSignup\":true,\"showForgot\":true,\"requires_username\":false,\"passwordPolicy\":\"fair\"}]}");
+        final int social = connections / 2;
+        if (social > 0) {
+            strategies.append(",{\"name\":\"google-oauth2\",\"connections\":[");
+            for (int i = 0; i < social; i++) {
+                strategies.append(i == 0 ? "" : ",").append("{\"name\":\"social-").append(i).append("\"}");
+            }
+            strategies.append("]}");
+        }
+        final int enterprise = connections - social;
+        if (enterprise > 0) {
+            strategies.append(",{\"name\":\"ad\",\"connections\":[");
+            for (int i = 0; i < enterprise; i++) {
+                strategies.append(i == 0 ? "" : ",").append("{\"name\":\"enterprise-").append(i)
+                        .append("\",\"domain\":\"domain").append(i).append(".com\",\"domain_aliases\":[\"alias")
+                        .append(random.nextInt(Integer.MAX_VALUE)).append(".com\"]}");
+            }
+            strategies.append("]}");
+        }
+        return "Auth0.setClient({\"id\":\"" + CLIENT_ID + "\",\"tenant\":\"standin\",\"subscription\":\"free\",\"authorize\":\"https://standin.auth0.com/authorize\",\"callback\":\"http://localhost:3000/\",\"hasAllowedOrigins\":true,\"strategies\":[" + strategies + "]});";
+    }
+}
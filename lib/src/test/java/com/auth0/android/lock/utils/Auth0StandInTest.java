@@ -0,0 +1,137 @@
+/*
+ * Auth0StandInTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.utils;
+
+import com.auth0.android.Auth0;
+import com.auth0.android.authentication.AuthenticationAPIClient;
+import com.auth0.android.authentication.AuthenticationException;
+import com.auth0.android.authentication.PasswordlessType;
+import com.auth0.android.lock.internal.configuration.ApplicationFetcher;
+import com.auth0.android.lock.internal.configuration.Connection;
+import com.auth0.android.result.Credentials;
+import com.google.gson.reflect.TypeToken;
+import com.squareup.okhttp.OkHttpClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = com.auth0.android.lock.BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class Auth0StandInTest {
+
+    private Auth0StandIn standIn;
+    private Auth0 account;
+    private AuthenticationAPIClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        standIn = new Auth0StandIn(1234);
+        account = new Auth0(Auth0StandIn.CLIENT_ID, standIn.getDomain());
+        client = new AuthenticationAPIClient(account);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        standIn.shutdown();
+    }
+
+    @Test
+    public void shouldServeGeneratedTenant() throws Exception {
+        standIn.withGeneratedTenant(100);
+        final MockAuthenticationCallback<List<Connection>> callback = new MockAuthenticationCallback<>();
+        new ApplicationFetcher(account, new OkHttpClient()).fetch(callback);
+
+        assertThat(callback, Auth0AuthenticationCallbackMatcher.hasPayloadOfType(new TypeToken<List<Connection>>() {
+        }));
+        assertThat(callback.getPayload().size(), is(101));
+        assertThat(standIn.getRequestCount(Auth0StandIn.Endpoint.APPLICATION), is(1));
+    }
+
+    @Test
+    public void shouldFailApplicationRequestWithTruncatedBody() throws Exception {
+        standIn.truncateNext(Auth0StandIn.Endpoint.APPLICATION, 1);
+        final MockAuthenticationCallback<List<Connection>> callback = new MockAuthenticationCallback<>();
+        new ApplicationFetcher(account, new OkHttpClient()).fetch(callback);
+
+        assertThat(callback, Auth0AuthenticationCallbackMatcher.hasNoPayloadOfType(new TypeToken<List<Connection>>() {
+        }));
+        assertThat(callback.getError(), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldLogIn() throws Exception {
+        final Credentials credentials = client.login("user@example.com", "123456", "Username-Password-Authentication").execute();
+
+        assertThat(credentials.getIdToken(), is(notNullValue()));
+        assertThat(standIn.getRequestCount(Auth0StandIn.Endpoint.LOGIN), is(1));
+    }
+
+    @Test
+    public void shouldFailBurstOfRequestsAndThenRecover() throws Exception {
+        standIn.failNext(Auth0StandIn.Endpoint.LOGIN, 2, 429);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.login("user@example.com", "123456", "Username-Password-Authentication").execute();
+                fail("The request should have been rejected");
+            } catch (AuthenticationException e) {
+                assertThat(e.getStatusCode(), is(429));
+            }
+        }
+        assertThat(client.login("user@example.com", "123456", "Username-Password-Authentication").execute(), is(notNullValue()));
+        assertThat(standIn.getRequestCount(Auth0StandIn.Endpoint.LOGIN), is(3));
+    }
+
+    @Test
+    public void shouldDelayResponses() throws Exception {
+        standIn.withLatency(Auth0StandIn.Endpoint.PASSWORDLESS_START, Auth0StandIn.Latency.fixed(300));
+
+        final long start = System.nanoTime();
+        client.passwordlessWithEmail("user@example.com", PasswordlessType.CODE).execute();
+        final long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        assertThat(elapsedMillis, is(greaterThanOrEqualTo(300L)));
+    }
+
+    @Test
+    public void shouldSignUp() throws Exception {
+        client.createUser("user@example.com", "123456", "Username-Password-Authentication").execute();
+
+        assertThat(standIn.getRequestCount(Auth0StandIn.Endpoint.SIGN_UP), is(1));
+    }
+}
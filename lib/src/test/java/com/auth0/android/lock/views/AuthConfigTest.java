@@ -1,5 +1,6 @@
 package com.auth0.android.lock.views;
 
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
 
@@ -17,12 +18,13 @@ import org.robolectric.annotation.Config;
 import org.robolectric.util.ReflectionHelpers;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 @RunWith(RobolectricGradleTestRunner.class)
-@Config(constants = BuildConfig.class, sdk = 21, manifest = Config.NONE)
+@Config(constants = BuildConfig.class, sdk = 21, manifest = Config.NONE, shadows = ShadowBitmapRegionDecoder.class)
 public class AuthConfigTest {
 
     private AuthConfig authConfig;
@@ -51,8 +53,19 @@ public class AuthConfigTest {
     @Test
     public void shouldGetLogo() throws Exception {
         ReflectionHelpers.setStaticField(Build.VERSION.class, "SDK_INT", Build.VERSION_CODES.JELLY_BEAN);
-        final Drawable drawable = RuntimeEnvironment.application.getResources().getDrawable(R.drawable.com_auth0_lock_ic_social_facebook);
-        Assert.assertThat(authConfig.getLogo(RuntimeEnvironment.application), is(equalTo(drawable)));
+        final Drawable logo = authConfig.getLogo(RuntimeEnvironment.application);
+
+        //the facebook icon is packed as 36x64 for xxxhdpi screens
+        final float scale = RuntimeEnvironment.application.getResources().getDisplayMetrics().density / 4f;
+        Assert.assertThat(logo, is(instanceOf(BitmapDrawable.class)));
+        Assert.assertThat(((BitmapDrawable) logo).getBitmap().getWidth(), is(Math.round(36 * scale)));
+        Assert.assertThat(((BitmapDrawable) logo).getBitmap().getHeight(), is(Math.round(64 * scale)));
+    }
+
+    @Test
+    public void shouldGetLogoIconName() throws Exception {
+        //noinspection ResourceType
+        Assert.assertThat(authConfig.getStringForResource(RuntimeEnvironment.application, R.attr.Auth0_LogoIcon), is("facebook"));
     }
 
     @Test
@@ -73,7 +86,7 @@ public class AuthConfigTest {
     public void shouldHaveValidDefaultLogo() throws Exception {
         ReflectionHelpers.setStaticField(Build.VERSION.class, "SDK_INT", Build.VERSION_CODES.JELLY_BEAN);
         AuthConfig defaultConfig = new AuthConfig(connection, R.style.Lock_Theme);
-        final Drawable drawable = RuntimeEnvironment.application.getResources().getDrawable(R.drawable.com_auth0_lock_ic_social_facebook);
+        final Drawable drawable = RuntimeEnvironment.application.getResources().getDrawable(R.drawable.com_auth0_lock_ic_social_auth0);
         Assert.assertThat(defaultConfig.getLogo(RuntimeEnvironment.application), is(equalTo(drawable)));
     }
 
@@ -0,0 +1,166 @@
+/*
+ * ClassicLockViewTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.views;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.EditText;
+
+import com.auth0.android.lock.BuildConfig;
+import com.auth0.android.lock.R;
+import com.auth0.android.lock.internal.configuration.AuthMode;
+import com.auth0.android.lock.internal.configuration.Configuration;
+import com.auth0.android.lock.internal.configuration.Connection;
+import com.auth0.android.lock.internal.configuration.Options;
+import com.squareup.otto.Bus;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static com.auth0.android.lock.internal.configuration.Connections.database;
+import static com.auth0.android.lock.internal.configuration.Connections.social;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, manifest = "src/main/AndroidManifest.xml")
+public class ClassicLockViewTest {
+
+    private Options options;
+    private ClassicLockView view;
+
+    @Before
+    public void setUp() throws Exception {
+        options = new Options();
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().start().resume().visible().get();
+        activity.setTheme(R.style.Lock_Theme);
+        view = new ClassicLockView(activity, mock(Bus.class), options.getTheme());
+        activity.setContentView(view);
+    }
+
+    @Test
+    public void shouldShowTheTabsOnceSignUpIsAllowed() throws Exception {
+        view.configure(configurationWith(database(false, true)));
+        final FormLayout formLayout = formLayout();
+        assertThat(view.findViewById(R.id.com_auth0_lock_form_selector), is(nullValue()));
+
+        view.configure(configurationWith(database(true, true)));
+
+        assertThat(formLayout(), is(sameInstance(formLayout)));
+        assertThat(view.findViewById(R.id.com_auth0_lock_form_selector), is(notNullValue()));
+        assertThat(view.getSelectedMode(), is(AuthMode.LOG_IN));
+    }
+
+    @Test
+    public void shouldHideTheTabsOnceSignUpIsDisallowed() throws Exception {
+        view.configure(configurationWith(database(true, true)));
+        final FormLayout formLayout = formLayout();
+
+        view.configure(configurationWith(database(false, true)));
+
+        assertThat(formLayout(), is(sameInstance(formLayout)));
+        assertThat(view.findViewById(R.id.com_auth0_lock_form_selector), is(nullValue()));
+        assertThat(view.getSelectedMode(), is(AuthMode.LOG_IN));
+    }
+
+    @Test
+    public void shouldFallBackToLogInWhenSignUpIsDisallowedWhileShown() throws Exception {
+        view.configure(configurationWith(database(true, true)));
+        formLayout().setSelectedMode(AuthMode.SIGN_UP);
+        assertThat(view.findViewById(R.id.com_auth0_lock_change_password_btn), is(nullValue()));
+
+        view.configure(configurationWith(database(false, true)));
+
+        assertThat(view.getSelectedMode(), is(AuthMode.LOG_IN));
+        assertThat(view.getFormState().getMode(), is(AuthMode.LOG_IN));
+        assertThat(view.findViewById(R.id.com_auth0_lock_form_selector), is(nullValue()));
+        assertThat(view.findViewById(R.id.com_auth0_lock_change_password_btn), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldToggleTheChangePasswordButton() throws Exception {
+        view.configure(configurationWith(database(false, true)));
+        final View changePasswordButton = view.findViewById(R.id.com_auth0_lock_change_password_btn);
+        assertThat(changePasswordButton.getVisibility(), is(View.VISIBLE));
+
+        view.configure(configurationWith(database(false, false)));
+        assertThat(view.findViewById(R.id.com_auth0_lock_change_password_btn), is(sameInstance(changePasswordButton)));
+        assertThat(changePasswordButton.getVisibility(), is(View.GONE));
+
+        view.configure(configurationWith(database(false, true)));
+        assertThat(changePasswordButton.getVisibility(), is(View.VISIBLE));
+    }
+
+    @Test
+    public void shouldKeepTheTypedInputAndFocusWhenReconciled() throws Exception {
+        view.configure(configurationWith(database(true, true), social("facebook"), social("twitter")));
+        final ValidatedUsernameInputView emailInput = (ValidatedUsernameInputView) view.findViewById(R.id.com_auth0_lock_input_username_email);
+        final EditText emailText = (EditText) emailInput.findViewById(R.id.com_auth0_lock_input);
+        emailInput.setText("user@domain.com");
+        assertThat(emailText.requestFocus(), is(true));
+
+        view.configure(configurationWith(database(false, false), social("twitter"), social("github")));
+
+        assertThat(view.findViewById(R.id.com_auth0_lock_input_username_email), is(sameInstance((View) emailInput)));
+        assertThat(emailInput.getText(), is("user@domain.com"));
+        assertThat(emailText.hasFocus(), is(true));
+    }
+
+    @Test
+    public void shouldRebuildKeepingTheModeAndIdentityWhenTheLayoutChanges() throws Exception {
+        view.configure(configurationWith(database(true, true)));
+        final FormLayout formLayout = formLayout();
+        formLayout.setSelectedMode(AuthMode.SIGN_UP);
+        ((ValidatedInputView) view.findViewById(R.id.com_auth0_lock_input_email)).setText("user@domain.com");
+
+        view.configure(configurationWith(database(true, true), social("facebook")));
+
+        assertThat(formLayout(), is(not(sameInstance(formLayout))));
+        assertThat(view.getSelectedMode(), is(AuthMode.SIGN_UP));
+        assertThat(((ValidatedInputView) view.findViewById(R.id.com_auth0_lock_input_email)).getText(), is("user@domain.com"));
+    }
+
+    private FormLayout formLayout() {
+        return ReflectionHelpers.getField(view, "formLayout");
+    }
+
+    private Configuration configurationWith(Connection... connections) {
+        return new Configuration(new ArrayList<>(Arrays.asList(connections)), options);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * FormStateTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.views;
+
+import android.os.Parcel;
+
+import com.auth0.android.lock.BuildConfig;
+import com.auth0.android.lock.internal.configuration.AuthMode;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class FormStateTest {
+
+    private FormState state;
+
+    @Before
+    public void setUp() throws Exception {
+        state = new FormState();
+    }
+
+    @Test
+    public void shouldBeEmptyByDefault() throws Exception {
+        assertThat(state.getMode(), is(-1));
+        assertThat(state.getIdentity(), is(nullValue()));
+        assertThat(state.getUsername(), is(nullValue()));
+        assertThat(state.getCustomFieldValues().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldKeepTheCustomFieldValues() throws Exception {
+        state.setCustomFieldValue("first_name", "John");
+        state.setCustomFieldValue("last_name", "Doe");
+        state.setCustomFieldValue("first_name", "Jane");
+
+        assertThat(state.getCustomFieldValue("first_name"), is("Jane"));
+        assertThat(state.getCustomFieldValue("phone"), is(nullValue()));
+        final Map<String, String> values = state.getCustomFieldValues();
+        assertThat(values.size(), is(2));
+        assertThat(values, hasEntry("last_name", "Doe"));
+    }
+
+    @Test
+    public void shouldReturnACopyOfTheCustomFieldValues() throws Exception {
+        state.setCustomFieldValue("first_name", "John");
+        state.getCustomFieldValues().put("first_name", "Jane");
+
+        assertThat(state.getCustomFieldValue("first_name"), is("John"));
+    }
+
+    @Test
+    public void shouldRestoreFromAnotherState() throws Exception {
+        final FormState saved = new FormState();
+        saved.setMode(AuthMode.SIGN_UP);
+        saved.setIdentity("john@doe.com");
+        saved.setUsername("johndoe");
+        saved.setCustomFieldValue("first_name", "John");
+        state.setCustomFieldValue("last_name", "Doe");
+
+        state.restoreFrom(saved);
+
+        assertThat(state.getMode(), is(AuthMode.SIGN_UP));
+        assertThat(state.getIdentity(), is("john@doe.com"));
+        assertThat(state.getUsername(), is("johndoe"));
+        assertThat(state.getCustomFieldValue("first_name"), is("John"));
+        assertThat(state.getCustomFieldValue("last_name"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldBeParcelable() throws Exception {
+        state.setMode(AuthMode.SIGN_UP);
+        state.setIdentity("john@doe.com");
+        state.setCustomFieldValue("first_name", "John");
+        state.setCustomFieldValue("last_name", null);
+
+        final Parcel parcel = Parcel.obtain();
+        state.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        final FormState read = FormState.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+
+        assertThat(read.getMode(), is(AuthMode.SIGN_UP));
+        assertThat(read.getIdentity(), is("john@doe.com"));
+        assertThat(read.getUsername(), is(nullValue()));
+        assertThat(read.getCustomFieldValue("first_name"), is("John"));
+        assertThat(read.getCustomFieldValues().containsKey("last_name"), is(true));
+    }
+}
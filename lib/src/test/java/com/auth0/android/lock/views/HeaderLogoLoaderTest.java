@@ -0,0 +1,187 @@
+/*
+ * HeaderLogoLoaderTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.auth0.android.lock.views;
+
+import android.graphics.Bitmap;
+
+import com.auth0.android.lock.BuildConfig;
+import com.squareup.okhttp.OkHttpClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class HeaderLogoLoaderTest {
+
+    private static final int MAX_MEMORY_BYTES = 1024 * 1024;
+    private static final long MAX_DISK_BYTES = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private File directory;
+    private List<Runnable> pending;
+    private Executor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        directory = new File(folder.getRoot(), "logos");
+        pending = new ArrayList<>();
+        executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                pending.add(command);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void shouldDownloadTheLogoOnce() throws Exception {
+        server.enqueue(new MockResponse().setBody("logo"));
+        final String url = server.url("/logo.png").toString();
+
+        assertThat(newLoader(MAX_DISK_BYTES).loadNow(url, 200, 100), is(notNullValue()));
+        assertThat(new File(directory, HeaderLogoLoader.fileNameFor(url)).exists(), is(true));
+        assertThat(newLoader(MAX_DISK_BYTES).loadNow(url, 200, 100), is(notNullValue()));
+        assertThat(server.getRequestCount(), is(1));
+    }
+
+    @Test
+    public void shouldKeepTheDecodedLogoInMemory() throws Exception {
+        server.enqueue(new MockResponse().setBody("logo"));
+        final String url = server.url("/logo.png").toString();
+        final HeaderLogoLoader loader = newLoader(MAX_DISK_BYTES);
+
+        final Bitmap logo = loader.loadNow(url, 200, 100);
+        //noinspection ResultOfMethodCallIgnored
+        new File(directory, HeaderLogoLoader.fileNameFor(url)).delete();
+
+        assertThat(loader.loadNow(url, 200, 100), is(logo));
+        assertThat(server.getRequestCount(), is(1));
+    }
+
+    @Test
+    public void shouldNotCacheFailedDownloads() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        final String url = server.url("/logo.png").toString();
+
+        assertThat(newLoader(MAX_DISK_BYTES).loadNow(url, 200, 100), is(nullValue()));
+        assertThat(new File(directory, HeaderLogoLoader.fileNameFor(url)).exists(), is(false));
+    }
+
+    @Test
+    public void shouldEvictTheLeastRecentlyUsedLogosFromDisk() throws Exception {
+        server.enqueue(new MockResponse().setBody("first logo"));
+        server.enqueue(new MockResponse().setBody("second logo"));
+        final String firstUrl = server.url("/first.png").toString();
+        final String secondUrl = server.url("/second.png").toString();
+        final HeaderLogoLoader loader = newLoader(15);
+
+        loader.loadNow(firstUrl, 200, 100);
+        final File firstFile = new File(directory, HeaderLogoLoader.fileNameFor(firstUrl));
+        //noinspection ResultOfMethodCallIgnored
+        firstFile.setLastModified(1000);
+        loader.loadNow(secondUrl, 200, 100);
+
+        assertThat(firstFile.exists(), is(false));
+        assertThat(new File(directory, HeaderLogoLoader.fileNameFor(secondUrl)).exists(), is(true));
+    }
+
+    @Test
+    public void shouldDeliverTheLogoToTheCallback() throws Exception {
+        server.enqueue(new MockResponse().setBody("logo"));
+        final HeaderLogoLoader.Callback callback = mock(HeaderLogoLoader.Callback.class);
+
+        newLoader(MAX_DISK_BYTES).load(server.url("/logo.png").toString(), 200, 100, callback);
+        runPending();
+
+        verify(callback).onLogoLoaded(any(Bitmap.class));
+    }
+
+    @Test
+    public void shouldNotDeliverTheLogoAfterCancel() throws Exception {
+        server.enqueue(new MockResponse().setBody("logo"));
+        final HeaderLogoLoader.Callback callback = mock(HeaderLogoLoader.Callback.class);
+
+        final HeaderLogoLoader.LoadRequest request = newLoader(MAX_DISK_BYTES).load(server.url("/logo.png").toString(), 200, 100, callback);
+        request.cancel();
+        runPending();
+
+        verify(callback, never()).onLogoLoaded(any(Bitmap.class));
+        assertThat(server.getRequestCount(), is(0));
+    }
+
+    @Test
+    public void shouldUseADifferentFileForEachUrl() throws Exception {
+        final String name = HeaderLogoLoader.fileNameFor("https://example.com/logo.png");
+
+        assertThat(HeaderLogoLoader.fileNameFor("https://example.com/logo.png"), is(name));
+        assertThat(HeaderLogoLoader.fileNameFor("https://example.com/other.png"), is(not(name)));
+    }
+
+    private HeaderLogoLoader newLoader(long maxDiskBytes) {
+        return new HeaderLogoLoader(directory, new OkHttpClient(), executor, MAX_MEMORY_BYTES, maxDiskBytes);
+    }
+
+    private void runPending() {
+        for (Runnable runnable : pending) {
+            runnable.run();
+        }
+        pending.clear();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * PasswordPolicyTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.views;
+
+import com.auth0.android.lock.internal.configuration.PasswordStrength;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PasswordPolicyTest {
+
+    @Test
+    public void shouldOnlyCheckLengthForLowStrength() throws Exception {
+        PasswordPolicy policy = new PasswordPolicy(PasswordStrength.LOW);
+
+        assertThat(policy.getRules(), is(PasswordPolicy.RULE_LENGTH));
+        assertThat(policy.check("abcdef"), is(PasswordPolicy.RULE_LENGTH));
+        assertThat(policy.check("abc"), is(0));
+    }
+
+    @Test
+    public void shouldNotCheckSpecialCharactersForFairStrength() throws Exception {
+        PasswordPolicy policy = new PasswordPolicy(PasswordStrength.FAIR);
+
+        assertThat(policy.check("aB1$aB1$"), is(PasswordPolicy.RULE_LENGTH | PasswordPolicy.RULE_LOWERCASE | PasswordPolicy.RULE_UPPERCASE | PasswordPolicy.RULE_NUMERIC));
+    }
+
+    @Test
+    public void shouldCheckIdenticalCharactersForExcellentStrength() throws Exception {
+        PasswordPolicy policy = new PasswordPolicy(PasswordStrength.EXCELLENT);
+
+        int passed = policy.check("aB1$aB1$aB1$");
+        assertThat((passed & PasswordPolicy.RULE_IDENTICAL_CHARACTERS) != 0, is(true));
+        assertThat(policy.isSatisfiedBy(passed), is(true));
+
+        passed = policy.check("aB1$aaaB1$aB1$");
+        assertThat((passed & PasswordPolicy.RULE_IDENTICAL_CHARACTERS) != 0, is(false));
+        assertThat(policy.isSatisfiedBy(passed), is(false));
+    }
+
+    @Test
+    public void shouldReturnMinimumLengthForEachStrength() throws Exception {
+        assertThat(new PasswordPolicy(PasswordStrength.NONE).getMinimumLength(), is(1));
+        assertThat(new PasswordPolicy(PasswordStrength.LOW).getMinimumLength(), is(6));
+        assertThat(new PasswordPolicy(PasswordStrength.FAIR).getMinimumLength(), is(8));
+        assertThat(new PasswordPolicy(PasswordStrength.GOOD).getMinimumLength(), is(8));
+        assertThat(new PasswordPolicy(PasswordStrength.EXCELLENT).getMinimumLength(), is(10));
+    }
+
+    @Test
+    public void shouldNotAcceptNullPasswords() throws Exception {
+        assertThat(new PasswordPolicy(PasswordStrength.NONE).isValid(null), is(false));
+    }
+}
@@ -1,8 +1,11 @@
 package com.auth0.android.lock.views;
 
 import android.app.Activity;
+import android.view.View;
 
 import com.auth0.android.lock.BuildConfig;
+import com.auth0.android.lock.R;
+import com.auth0.android.lock.internal.configuration.BreachedPasswordFilter;
 import com.auth0.android.lock.internal.configuration.PasswordStrength;
 
 import org.junit.Before;
@@ -12,8 +15,13 @@ import org.robolectric.Robolectric;
 import org.robolectric.RobolectricGradleTestRunner;
 import org.robolectric.annotation.Config;
 
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @RunWith(RobolectricGradleTestRunner.class)
 @Config(constants = BuildConfig.class, sdk = 21, manifest = Config.NONE)
@@ -43,11 +51,15 @@ public class PasswordStrengthViewTest {
     public static final String PASSWORD_ALPHA_CASE_NUMERIC = "aB1aB1aB1aB1aB1";
 
     private PasswordStrengthView view;
+    private BreachedPasswordFilter filter;
 
     @Before
     public void setUp() throws Exception {
         Activity context = Robolectric.buildActivity(Activity.class).create().get();
         view = new PasswordStrengthView(context);
+        filter = mock(BreachedPasswordFilter.class);
+        when(filter.mightContain(anyString())).thenReturn(false);
+        when(filter.mightContain(PASSWORD_ALPHA_CASE_NUMERIC_SPECIAL)).thenReturn(true);
     }
 
     @Test
@@ -189,4 +201,61 @@ public class PasswordStrengthViewTest {
         assertFalse(view.isValid(PASSWORD_TOO_LONG));
         assertFalse(view.isValid(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldRejectABreachedPassword() throws Exception {
+        view.setStrength(PasswordStrength.GOOD);
+        view.setBreachedPasswordFilter(filter);
+
+        assertFalse(view.isValid(PASSWORD_ALPHA_CASE_NUMERIC_SPECIAL));
+        assertTrue(view.isValid(PASSWORD_ALPHA_CASE_NUMERIC));
+        assertFalse(view.isValid(PASSWORD_ALPHA_NUMERIC));
+    }
+
+    @Test
+    public void shouldOnlyCheckTheBreachedPasswordsWithPasswordStrengthNONE() throws Exception {
+        view.setStrength(PasswordStrength.NONE);
+        view.setBreachedPasswordFilter(filter);
+
+        assertThat(view.getVisibility(), is(View.VISIBLE));
+        assertThat(notBreachedOption().getVisibility(), is(View.VISIBLE));
+        assertFalse(view.isValid(PASSWORD_ALPHA_CASE_NUMERIC_SPECIAL));
+        assertTrue(view.isValid(PASSWORD_1_LONG));
+        assertTrue(view.isValid(PASSWORD_NUMERIC));
+
+        assertFalse(view.isValid(PASSWORD_EMPTY));
+        assertFalse(view.isValid(PASSWORD_TOO_LONG));
+        assertFalse(view.isValid(null));
+    }
+
+    @Test
+    public void shouldKeepTheBreachedPasswordFilterWhenTheStrengthChanges() throws Exception {
+        view.setBreachedPasswordFilter(filter);
+        view.setStrength(PasswordStrength.EXCELLENT);
+
+        assertThat(notBreachedOption().getVisibility(), is(View.VISIBLE));
+        assertFalse(view.isValid(PASSWORD_ALPHA_CASE_NUMERIC_SPECIAL));
+        assertTrue(view.isValid(PASSWORD_ALPHA_CASE_NUMERIC));
+        assertFalse(view.isValid(PASSWORD_8_LONG));
+
+        view.setStrength(PasswordStrength.NONE);
+
+        assertThat(view.getVisibility(), is(View.VISIBLE));
+        assertFalse(view.isValid(PASSWORD_ALPHA_CASE_NUMERIC_SPECIAL));
+        assertTrue(view.isValid(PASSWORD_8_LONG));
+    }
+
+    @Test
+    public void shouldHideThePolicyWithoutStrengthAndBreachedPasswordFilter() throws Exception {
+        view.setBreachedPasswordFilter(filter);
+        view.setStrength(PasswordStrength.NONE);
+        view.setBreachedPasswordFilter(null);
+
+        assertThat(view.getVisibility(), is(View.GONE));
+        assertTrue(view.isValid(PASSWORD_ALPHA_CASE_NUMERIC_SPECIAL));
+    }
+
+    private CheckableOptionView notBreachedOption() {
+        return (CheckableOptionView) view.findViewById(R.id.com_auth0_lock_password_strength_option_not_breached);
+    }
+}
@@ -0,0 +1,32 @@
+package com.auth0.android.lock.views;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.util.ReflectionHelpers;
+import org.robolectric.util.ReflectionHelpers.ClassParameter;
+
+import java.io.InputStream;
+
+/**
+ * Robolectric doesn't shadow the BitmapRegionDecoder, so the native calls return nothing. This one
+ * decodes an empty bitmap with the size of the requested region, honoring the sample size.
+ */
+@Implements(BitmapRegionDecoder.class)
+public class ShadowBitmapRegionDecoder {
+
+    @Implementation
+    public static BitmapRegionDecoder newInstance(InputStream is, boolean isShareable) {
+        return ReflectionHelpers.callConstructor(BitmapRegionDecoder.class, ClassParameter.from(long.class, 1L));
+    }
+
+    @Implementation
+    public Bitmap decodeRegion(Rect rect, BitmapFactory.Options options) {
+        final int sampleSize = options != null && options.inSampleSize > 1 ? options.inSampleSize : 1;
+        return Bitmap.createBitmap(rect.width() / sampleSize, rect.height() / sampleSize, Bitmap.Config.ARGB_8888);
+    }
+}
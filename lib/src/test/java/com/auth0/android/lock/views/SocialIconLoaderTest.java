@@ -0,0 +1,83 @@
+package com.auth0.android.lock.views;
+
+import android.graphics.Rect;
+
+import com.auth0.android.lock.BuildConfig;
+import com.auth0.android.lock.R;
+import com.auth0.android.lock.internal.configuration.OAuthConnection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class SocialIconLoaderTest {
+
+    private static final String[] STRATEGIES = new String[]{"amazon", "aol", "bitbucket", "dropbox", "yahoo", "linkedin",
+            "google-oauth2", "twitter", "facebook", "box", "evernote", "evernote-sandbox", "exact", "github", "instagram",
+            "miicard", "paypal", "paypal-sandbox", "salesforce", "salesforce-community", "salesforce-sandbox", "soundcloud",
+            "windowslive", "yammer", "baidu", "fitbit", "planningcenter", "renren", "thecity", "thecity-sandbox",
+            "thirtysevensignals", "vkontakte", "weibo", "wordpress", "yandex", "shopify", "dwolla"};
+
+    private SocialIconLoader loader;
+
+    @Before
+    public void setUp() throws Exception {
+        loader = new SocialIconLoader(RuntimeEnvironment.application.getResources(), 1024);
+    }
+
+    @Test
+    public void shouldParseTheIndex() throws Exception {
+        final Map<String, Rect> index = SocialIconLoader.parseIndex(new String[]{"facebook 10 20 36 64", " twitter  0 0 84 64 "});
+
+        assertThat(index.size(), is(2));
+        assertThat(index.get("facebook"), is(new Rect(10, 20, 46, 84)));
+        assertThat(index.get("twitter"), is(new Rect(0, 0, 84, 64)));
+    }
+
+    @Test
+    public void shouldIgnoreInvalidIndexEntries() throws Exception {
+        final Map<String, Rect> index = SocialIconLoader.parseIndex(new String[]{"facebook 10 20", "twitter a b c d", "github 0 0 64 64"});
+
+        assertThat(index.size(), is(1));
+        assertThat(index.get("github"), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldNeverSampleBelowTheTargetSize() throws Exception {
+        assertThat(SocialIconLoader.sampleSizeFor(64, 64, 64, 64), is(1));
+        assertThat(SocialIconLoader.sampleSizeFor(64, 64, 48, 48), is(1));
+        assertThat(SocialIconLoader.sampleSizeFor(64, 64, 32, 32), is(2));
+        assertThat(SocialIconLoader.sampleSizeFor(64, 64, 16, 16), is(4));
+        assertThat(SocialIconLoader.sampleSizeFor(92, 36, 23, 9), is(4));
+        assertThat(SocialIconLoader.sampleSizeFor(120, 136, 30, 40), is(2));
+    }
+
+    @Test
+    public void shouldPackAnIconForEveryBuiltInStyle() throws Exception {
+        for (String strategy : STRATEGIES) {
+            final AuthConfig config = new AuthConfig(mock(OAuthConnection.class), AuthConfig.styleForStrategy(strategy));
+            //noinspection ResourceType
+            final String iconName = config.getStringForResource(RuntimeEnvironment.application, R.attr.Auth0_LogoIcon);
+            assertThat(strategy, iconName, is(notNullValue()));
+            assertThat(strategy, loader.hasIcon(iconName), is(true));
+        }
+    }
+
+    @Test
+    public void shouldNotLoadUnknownIcons() throws Exception {
+        assertThat(loader.load("unknown"), is(nullValue()));
+    }
+}
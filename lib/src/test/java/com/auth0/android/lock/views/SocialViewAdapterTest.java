@@ -0,0 +1,120 @@
+/*
+ * SocialViewAdapterTest.java
+ *
+ * Copyright (c) 2017 Auth0 (http://auth0.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.auth0.android.lock.views;
+
+import android.support.v7.widget.RecyclerView;
+
+import com.auth0.android.lock.BuildConfig;
+import com.auth0.android.lock.R;
+import com.auth0.android.lock.internal.configuration.OAuthConnection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, manifest = Config.NONE)
+public class SocialViewAdapterTest {
+
+    private SocialViewAdapter adapter;
+    private RecyclerView.AdapterDataObserver observer;
+
+    @Before
+    public void setUp() throws Exception {
+        adapter = new SocialViewAdapter(RuntimeEnvironment.application, Arrays.asList(
+                config("facebook", R.style.Lock_Theme_AuthStyle_Facebook),
+                config("twitter", R.style.Lock_Theme_AuthStyle_Twitter)));
+        observer = mock(RecyclerView.AdapterDataObserver.class);
+        adapter.registerAdapterDataObserver(observer);
+    }
+
+    @Test
+    public void shouldNotNotifyTheSameButtons() throws Exception {
+        adapter.setAuthConfigs(Arrays.asList(
+                config("facebook", R.style.Lock_Theme_AuthStyle_Facebook),
+                config("twitter", R.style.Lock_Theme_AuthStyle_Twitter)));
+
+        assertThat(adapter.getItemCount(), is(2));
+        verifyNoMoreInteractions(observer);
+    }
+
+    @Test
+    public void shouldNotifyAddedAndRemovedButtons() throws Exception {
+        adapter.setAuthConfigs(Arrays.asList(
+                config("twitter", R.style.Lock_Theme_AuthStyle_Twitter),
+                config("github", R.style.Lock_Theme_AuthStyle_GitHub)));
+
+        assertThat(adapter.getItemCount(), is(2));
+        verify(observer).onItemRangeRemoved(0, 1);
+        verify(observer).onItemRangeInserted(anyInt(), eq(1));
+        verify(observer, never()).onChanged();
+        verifyNoMoreInteractions(observer);
+    }
+
+    @Test
+    public void shouldNotifyMovedButtons() throws Exception {
+        adapter.setAuthConfigs(Arrays.asList(
+                config("twitter", R.style.Lock_Theme_AuthStyle_Twitter),
+                config("facebook", R.style.Lock_Theme_AuthStyle_Facebook)));
+
+        verify(observer).onItemRangeMoved(anyInt(), anyInt(), anyInt());
+        verify(observer, never()).onItemRangeInserted(anyInt(), anyInt());
+        verify(observer, never()).onItemRangeRemoved(anyInt(), anyInt());
+        verify(observer, never()).onChanged();
+    }
+
+    @Test
+    public void shouldNotifyRestyledButtons() throws Exception {
+        adapter.setAuthConfigs(Arrays.asList(
+                config("facebook", R.style.Lock_Theme_AuthStyle_Facebook),
+                config("twitter", R.style.Lock_Theme_AuthStyle_GitHub)));
+
+        verify(observer).onItemRangeChanged(1, 1, null);
+        verifyNoMoreInteractions(observer);
+    }
+
+    private static AuthConfig config(String name, int styleRes) {
+        final OAuthConnection connection = mock(OAuthConnection.class);
+        when(connection.getName()).thenReturn(name);
+        when(connection.getStrategy()).thenReturn(name);
+        return new AuthConfig(connection, styleRes);
+    }
+}